@@ -0,0 +1,108 @@
+package com.finance.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file ({@code -rf json}) with a stored baseline.
+ *
+ * <p>Results are matched by benchmark name and parameters. A result regresses when its score is
+ * worse than the baseline by more than the threshold; "worse" means higher for time modes and
+ * lower for throughput. Exits with status 1 if anything regressed, so it can gate a build.
+ */
+public final class BaselineComparator {
+  private static final double DEFAULT_THRESHOLD_PERCENT = 10.0;
+
+  private BaselineComparator() {
+  }
+
+  /**
+   * Runs the comparison.
+   *
+   * @param args {@code <baseline.json> <current.json> [threshold-percent]}
+   * @throws IOException if a result file cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: BaselineComparator <baseline.json> <current.json> [threshold-percent]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+    Map<String, JsonNode> baseline = read(new File(args[0]));
+    Map<String, JsonNode> current = read(new File(args[1]));
+
+    int regressions = 0;
+    System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+    for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+      JsonNode result = entry.getValue();
+      JsonNode metric = result.get("primaryMetric");
+      double score = metric.get("score").asDouble();
+      String unit = metric.get("scoreUnit").asText();
+      JsonNode before = baseline.get(entry.getKey());
+      if (before == null) {
+        System.out.printf("%-70s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+        continue;
+      }
+      double baseScore = before.get("primaryMetric").get("score").asDouble();
+      double change = baseScore == 0 ? 0.0 : (score - baseScore) / baseScore * 100.0;
+      boolean higherIsBetter = "thrpt".equals(result.get("mode").asText());
+      double worsening = higherIsBetter ? -change : change;
+      String verdict = worsening > threshold ? "  REGRESSION" : "";
+      if (!verdict.isEmpty()) {
+        regressions++;
+      }
+      System.out.printf(
+          "%-70s %14.3f %14.3f %+8.1f%%  %s%s%n",
+          entry.getKey(), baseScore, score, change, unit, verdict);
+    }
+    for (String key : baseline.keySet()) {
+      if (!current.containsKey(key)) {
+        System.out.printf("%-70s %14s%n", key, "missing");
+      }
+    }
+
+    System.out.printf("%d regression(s) above %.1f%%%n", regressions, threshold);
+    if (regressions > 0) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Reads a JMH result file keyed by benchmark name and parameters.
+   *
+   * @param file the result file
+   * @return the results in key order
+   * @throws IOException if the file cannot be read or is not a JMH result array
+   */
+  static Map<String, JsonNode> read(File file) throws IOException {
+    JsonNode root = new ObjectMapper().readTree(file);
+    if (root == null || !root.isArray()) {
+      throw new IOException("Not a JMH JSON result file: " + file);
+    }
+    Map<String, JsonNode> results = new TreeMap<>();
+    for (JsonNode result : root) {
+      results.put(key(result), result);
+    }
+    return results;
+  }
+
+  private static String key(JsonNode result) {
+    String name = result.get("benchmark").asText();
+    int dot = name.lastIndexOf('.', name.lastIndexOf('.') - 1);
+    StringBuilder key = new StringBuilder(name.substring(dot + 1));
+    JsonNode params = result.get("params");
+    if (params != null) {
+      Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        key.append(' ').append(field.getKey()).append('=').append(field.getValue().asText());
+      }
+    }
+    return key.toString();
+  }
+}
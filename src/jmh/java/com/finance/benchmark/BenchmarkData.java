@@ -0,0 +1,94 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic data generators shared by the benchmarks.
+ *
+ * <p>The same size and seed always produce the same transactions, so results from different runs
+ * and different machines measure identical work.
+ */
+final class BenchmarkData {
+  static final long SEED = 42L;
+  static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+  static final List<String> INCOME_CATEGORIES = List.of("Зарплата", "Бонус", "Проценты", "Подработка");
+  static final List<String> EXPENSE_CATEGORIES =
+      List.of("Еда", "Транспорт", "Развлечения", "Коммунальные услуги", "Здоровье", "Одежда");
+  private static final double INCOME_SHARE = 0.3;
+  private static final int MINUTES_PER_YEAR = 365 * 24 * 60;
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Generates transactions spread over one year, about 30% of them income. Income amounts are
+   * large enough to keep the running balance positive.
+   *
+   * @param count the number of transactions
+   * @param seed the random seed
+   * @return the transactions in date order
+   */
+  static List<Transaction> transactions(int count, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    List<Transaction> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      LocalDateTime date = START.plusMinutes((long) i * MINUTES_PER_YEAR / Math.max(count, 1));
+      String id = new UUID(random.nextLong(), random.nextLong()).toString();
+      if (random.nextDouble() < INCOME_SHARE) {
+        String name = INCOME_CATEGORIES.get(random.nextInt(INCOME_CATEGORIES.size()));
+        double amount = 1000 + random.nextInt(100_000) / 100.0;
+        result.add(transaction(id, amount, name, TransactionType.INCOME, date));
+      } else {
+        String name = EXPENSE_CATEGORIES.get(random.nextInt(EXPENSE_CATEGORIES.size()));
+        double amount = 1 + random.nextInt(50_000) / 100.0;
+        result.add(transaction(id, amount, name, TransactionType.EXPENSE, date));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Builds a fully loaded wallet with generated transactions and a budget for every expense
+   * category.
+   *
+   * @param userId the wallet owner
+   * @param count the number of transactions
+   * @param seed the random seed
+   * @return the wallet
+   */
+  static Wallet wallet(String userId, int count, long seed) {
+    Wallet wallet = new Wallet(userId);
+    for (String name : EXPENSE_CATEGORIES) {
+      wallet.setBudget(new Category(name, TransactionType.EXPENSE), 100.0 * count);
+    }
+    for (Transaction transaction : transactions(count, seed)) {
+      wallet.addTransaction(transaction);
+    }
+    return wallet;
+  }
+
+  /**
+   * Creates a user without hashing a password, which would dominate the measured time.
+   *
+   * @param username the username
+   * @param wallet the user's wallet
+   * @return the user
+   */
+  static User user(String username, Wallet wallet) {
+    return new User(username, "$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbench", wallet);
+  }
+
+  private static Transaction transaction(
+      String id, double amount, String category, TransactionType type, LocalDateTime date) {
+    return new Transaction(id, amount, new Category(category, type), type, date, "generated");
+  }
+}
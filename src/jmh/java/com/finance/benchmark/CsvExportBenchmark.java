@@ -0,0 +1,59 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.TransactionFilter;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.storage.CsvExporter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link CsvExporter} encoding cost, writing to a null stream so that only CPU time
+ * is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class CsvExportBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  private final CsvExporter exporter = new CsvExporter();
+  private final OutputStream sink = OutputStream.nullOutputStream();
+  private Wallet wallet;
+  private TransactionFilter expensesFilter;
+
+  /** Builds the wallet and a filter keeping expenses in three categories. */
+  @Setup
+  public void setUp() {
+    wallet = BenchmarkData.wallet("jmh-csv", size, BenchmarkData.SEED);
+    expensesFilter =
+        new TransactionFilter(null, null, List.of("Еда", "Такси", "Кафе"), TransactionType.EXPENSE);
+  }
+
+  @Benchmark
+  public long exportAll() throws IOException {
+    return exporter.export(wallet, TransactionFilter.all(), sink);
+  }
+
+  @Benchmark
+  public long exportFiltered() throws IOException {
+    return exporter.export(wallet, expensesFilter, sink);
+  }
+}
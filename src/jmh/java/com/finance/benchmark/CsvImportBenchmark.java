@@ -0,0 +1,68 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.TransactionFilter;
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.storage.CsvExporter;
+import com.finance.infrastructure.storage.CsvImporter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link CsvImporter} on a file written by {@link CsvExporter}, which stays in the
+ * page cache between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class CsvImportBenchmark {
+  @Param({"100000", "1000000"})
+  private int size;
+
+  @Param({"1", "4"})
+  private int parallelism;
+
+  private Path file;
+  private Path rejects;
+  private CsvImporter importer;
+
+  /** Exports a generated wallet to a temporary file. */
+  @Setup
+  public void setUp() throws IOException {
+    file = Files.createTempFile("jmh-import", ".csv");
+    rejects = Files.createTempFile("jmh-import", ".rejects.csv");
+    Wallet wallet = BenchmarkData.wallet("jmh-import", size, BenchmarkData.SEED);
+    new CsvExporter().export(wallet, TransactionFilter.all(), file);
+    importer = new CsvImporter(parallelism, 8L << 20);
+  }
+
+  /** Deletes the temporary files. */
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+    Files.deleteIfExists(rejects);
+  }
+
+  @Benchmark
+  public Wallet importAll() throws IOException {
+    Wallet wallet = new Wallet("jmh-import");
+    importer.importInto(wallet, file, rejects);
+    return wallet;
+  }
+}
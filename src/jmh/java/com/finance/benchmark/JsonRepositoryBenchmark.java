@@ -0,0 +1,86 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.repository.JsonWalletRepository;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link JsonWalletRepository} saving and loading wallet files in the {@code data}
+ * directory. The files are deleted when the trial ends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx4g"})
+public class JsonRepositoryBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  private JsonWalletRepository repository;
+  private Wallet wallet;
+  private String userId;
+  private Transaction[] pending;
+  private int next;
+
+  /** Generates the wallet and writes it once so that the load benchmarks find a file. */
+  @Setup
+  public void setUp() throws IOException {
+    repository = new JsonWalletRepository();
+    userId = "jmh-json-" + size;
+    wallet = BenchmarkData.wallet(userId, size, BenchmarkData.SEED);
+    pending = BenchmarkData.transactions(1024, BenchmarkData.SEED + 1).toArray(new Transaction[0]);
+    repository.save(wallet);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    repository.delete(userId);
+  }
+
+  /** Appends one transaction before each save so that the wallet is dirty and really written. */
+  @Setup(Level.Invocation)
+  public void touch() {
+    wallet.addTransaction(pending[next++ % pending.length]);
+  }
+
+  @Benchmark
+  public Wallet save() throws IOException {
+    repository.save(wallet);
+    return wallet;
+  }
+
+  @Benchmark
+  public Wallet saveUnchanged() throws IOException {
+    wallet.markPersisted(repository);
+    repository.save(wallet);
+    return wallet;
+  }
+
+  @Benchmark
+  public Wallet load() throws IOException {
+    return repository.load(userId);
+  }
+
+  @Benchmark
+  public List<Transaction> loadWithTransactions() throws IOException {
+    return repository.load(userId).getTransactions();
+  }
+}
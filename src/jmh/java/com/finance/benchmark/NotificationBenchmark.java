@@ -0,0 +1,71 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.NotificationService;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link NotificationService#checkAfterExpense}, both on the common path where no
+ * threshold is crossed and on the path that publishes a notification to the event bus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class NotificationBenchmark {
+  private static final Category FOOD = new Category("Еда", TransactionType.EXPENSE);
+
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  private NotificationService service;
+  private Wallet wallet;
+  private double crossingAmount;
+
+  /**
+   * Builds the wallet and lowers the food budget below its spent amount, so that passing the whole
+   * spent amount as the expense always crosses the limit.
+   */
+  @Setup
+  public void setUp() {
+    service = new NotificationService(new PrintStream(OutputStream.nullOutputStream()));
+    wallet = BenchmarkData.wallet("jmh-notification", size, BenchmarkData.SEED);
+    wallet.setBudget(FOOD, 1.0);
+    crossingAmount = wallet.getBudget(FOOD).getSpent();
+  }
+
+  @TearDown
+  public void tearDown() {
+    service.close();
+  }
+
+  @Benchmark
+  public NotificationService checkAfterExpense() {
+    service.checkAfterExpense(wallet, FOOD, 0.01);
+    return service;
+  }
+
+  @Benchmark
+  public NotificationService checkAfterExpenseCrossingBudget() {
+    service.checkAfterExpense(wallet, FOOD, crossingAmount);
+    return service;
+  }
+}
@@ -0,0 +1,96 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.StatisticsService;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of every {@link StatisticsService} query against a fully loaded wallet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class StatisticsBenchmark {
+  private static final List<String> QUERY_CATEGORIES = List.of("Еда", "Зарплата", "Такси");
+
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  private final StatisticsService service = new StatisticsService();
+  private Wallet wallet;
+  private LocalDateTime periodStart;
+  private LocalDateTime periodEnd;
+
+  /** Builds the wallet and a one-month query period in the middle of its history. */
+  @Setup
+  public void setUp() {
+    wallet = BenchmarkData.wallet("jmh-statistics", size, BenchmarkData.SEED);
+    periodStart = BenchmarkData.START.plusMonths(6);
+    periodEnd = periodStart.plusMonths(1);
+  }
+
+  @Benchmark
+  public double totalIncome() {
+    return service.getTotalIncome(wallet);
+  }
+
+  @Benchmark
+  public double totalExpenses() {
+    return service.getTotalExpenses(wallet);
+  }
+
+  @Benchmark
+  public Map<Category, Double> incomeByCategory() {
+    return service.getIncomeByCategory(wallet);
+  }
+
+  @Benchmark
+  public Map<Category, Double> expensesByCategory() {
+    return service.getExpensesByCategory(wallet);
+  }
+
+  @Benchmark
+  public Map<Category, Budget> budgetSummary() {
+    return service.getBudgetSummary(wallet);
+  }
+
+  @Benchmark
+  public double incomeByCategories() {
+    return service.getIncomeByCategories(wallet, QUERY_CATEGORIES);
+  }
+
+  @Benchmark
+  public double expensesByCategories() {
+    return service.getExpensesByCategories(wallet, QUERY_CATEGORIES);
+  }
+
+  @Benchmark
+  public List<Transaction> transactionsByPeriod() {
+    return service.getTransactionsByPeriod(wallet, periodStart, periodEnd);
+  }
+
+  @Benchmark
+  public List<String> findMissingCategories() {
+    return service.findMissingCategories(wallet, QUERY_CATEGORIES);
+  }
+}
@@ -0,0 +1,75 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.repository.JsonWalletRepository;
+import com.finance.infrastructure.storage.StorageCodec;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link StorageCodec}s on generated wallets: encode time as a full save, decode time
+ * as a load of every transaction. The file size of each codec is printed once per trial, as
+ * {@code codec size: bytes (bytes per transaction)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx4g"})
+public class StorageCodecBenchmark {
+  @Param({"PRETTY_JSON", "JSON", "SMILE", "PACKED"})
+  private StorageCodec codec;
+
+  @Param({"1000", "100000"})
+  private int size;
+
+  private JsonWalletRepository repository;
+  private Wallet wallet;
+  private String userId;
+
+  /** Generates the wallet, writes it once and reports the file size. */
+  @Setup
+  public void setUp() throws IOException {
+    repository = new JsonWalletRepository(null, codec);
+    userId = "jmh-codec-" + codec + "-" + size;
+    wallet = BenchmarkData.wallet(userId, size, BenchmarkData.SEED);
+    repository.save(wallet);
+    long bytes = Files.size(Path.of("data", userId + "_wallet.json"));
+    System.out.printf("%n%s %d: %d bytes (%.1f per transaction)%n",
+        codec, size, bytes, (double) bytes / size);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    repository.delete(userId);
+  }
+
+  @Benchmark
+  public Wallet encode() throws IOException {
+    wallet.markPersisted(null);
+    repository.save(wallet);
+    return wallet;
+  }
+
+  @Benchmark
+  public List<Transaction> decode() throws IOException {
+    return repository.load(userId).getTransactions();
+  }
+}
@@ -0,0 +1,92 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.TransferService;
+import com.finance.infrastructure.repository.InMemoryUserRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link TransferService#transfer} between two loaded wallets.
+ *
+ * <p>Wallets live in an in-memory repository so that the result reflects the service and model
+ * cost only; storage is measured by {@link JsonRepositoryBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class TransferBenchmark {
+  private static final String RECIPIENT = "jmh-recipient";
+
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  private TransferService service;
+  private User sender;
+
+  /** Rebuilds both wallets before every iteration so that transfer history does not accumulate. */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    MemoryWalletRepository wallets = new MemoryWalletRepository();
+    wallets.put(BenchmarkData.wallet(RECIPIENT, size, BenchmarkData.SEED + 1));
+    InMemoryUserRepository users = new InMemoryUserRepository();
+    users.save(BenchmarkData.user(RECIPIENT, null));
+    sender = BenchmarkData.user("jmh-sender", BenchmarkData.wallet("jmh-sender", size, BenchmarkData.SEED));
+    users.save(sender);
+    service = new TransferService(users, wallets);
+  }
+
+  @Benchmark
+  public User transfer() throws IOException {
+    service.transfer(sender, RECIPIENT, 0.01, "benchmark");
+    return sender;
+  }
+
+  /** Wallet repository backed by a map. */
+  private static final class MemoryWalletRepository implements WalletRepository {
+    private final Map<String, Wallet> wallets = new HashMap<>();
+
+    void put(Wallet wallet) {
+      wallets.put(wallet.getUserId(), wallet);
+    }
+
+    @Override
+    public void save(Wallet wallet) {
+      wallets.put(wallet.getUserId(), wallet);
+    }
+
+    @Override
+    public Wallet load(String userId) {
+      return wallets.computeIfAbsent(userId, Wallet::new);
+    }
+
+    @Override
+    public void delete(String userId) {
+      wallets.remove(userId);
+    }
+
+    @Override
+    public boolean exists(String userId) {
+      return wallets.containsKey(userId);
+    }
+  }
+}
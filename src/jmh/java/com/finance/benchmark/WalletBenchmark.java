@@ -0,0 +1,61 @@
+package com.finance.benchmark;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.Wallet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the in-memory wallet model.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class WalletBenchmark {
+  private static final int PENDING = 1 << 12;
+
+  @Param({"1000", "100000", "1000000"})
+  private int size;
+
+  private Wallet wallet;
+  private Transaction[] pending;
+  private int next;
+
+  /**
+   * Rebuilds the wallet before every iteration so that appended transactions do not accumulate
+   * across iterations.
+   */
+  @Setup(Level.Iteration)
+  public void setUp() {
+    wallet = BenchmarkData.wallet("jmh-wallet", size, BenchmarkData.SEED);
+    pending = BenchmarkData.transactions(PENDING, BenchmarkData.SEED + 1).toArray(new Transaction[0]);
+    next = 0;
+  }
+
+  @Benchmark
+  public Wallet addTransaction() {
+    wallet.addTransaction(pending[next++ & (PENDING - 1)]);
+    return wallet;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<Transaction> getTransactions() {
+    return wallet.getTransactions();
+  }
+}
@@ -1,18 +1,241 @@
 package com.finance;
 
+import com.finance.cli.BatchRunner;
 import com.finance.cli.FinanceApp;
+import com.finance.core.service.CredentialVerifier;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.repository.EventSourcedWalletRepository;
+import com.finance.infrastructure.repository.JsonWalletRepository;
+import com.finance.infrastructure.repository.LsmWalletRepository;
+import com.finance.infrastructure.repository.MeteredWalletRepository;
+import com.finance.infrastructure.repository.MonthlyWalletRepository;
+import com.finance.infrastructure.repository.PagedWalletRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import com.finance.infrastructure.storage.StorageCodec;
+import com.finance.server.ApiServer;
+import com.finance.server.BinaryProtocolServer;
+import com.finance.server.MetricsServer;
+import com.finance.server.ServerContext;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Main entry point for the Personal Finance Manager application.
  */
 public class Main {
+  private static final int SCRIPT_BUFFER_SIZE = 1 << 16;
+  private static final int DEFAULT_METRICS_INTERVAL_SECONDS = 10;
+
   /**
    * Main method.
    *
-   * @param args command line arguments (not used)
+   * <p>Options: {@code --paged} stores transactions in pages, {@code --monthly} in one segment
+   * per month with zone maps, {@code --lsm} in the embedded log-structured store under
+   * {@code data/lsm/} and {@code --events} as an event log with a snapshot every
+   * {@code --snapshot-interval <n>} events (default 1000) under {@code data/events/}; by default
+   * wallets are JSON files, and {@code --archive-days <n>} moves transactions older than that to
+   * a compressed archive beside them, while {@code --codec pretty_json|json|smile|packed} picks
+   * the encoding of new wallet files (default pretty_json);
+   * {@code --script <file>} runs a command script ({@code -} for standard input) instead of the
+   * interactive prompt, with {@code --errors <file>} for the error log (default: standard error) and
+   * {@code --checkpoint <n>} for the number of commands between wallet saves; {@code --serve
+   * [port]} starts the local HTTP/JSON API and {@code --serve-tcp [port]} the binary TCP
+   * front-end instead; both may be given and then share sessions. {@code --metrics <file>} writes
+   * a metrics snapshot to a file every {@code --metrics-interval <seconds>} (default 10) and on
+   * exit; {@code --metrics-port [port]} serves them to Prometheus on localhost (default 9404).
+   * {@code --idempotency-window <hours>} sets how long the servers remember idempotency keys
+   * (default 24). {@code --bcrypt-cost <n>} sets the bcrypt cost factor of new password hashes
+   * (default 10), or {@code --bcrypt-target-ms <ms>} picks the highest cost whose hash takes no
+   * longer than that on this machine.
+   *
+   * @param args command line arguments
+   * @throws IOException if the script or error log cannot be opened
    */
-  public static void main(String[] args) {
-    FinanceApp app = new FinanceApp();
-    app.start();
+  public static void main(String[] args) throws IOException {
+    List<String> options = Arrays.asList(args);
+    MetricsRegistry metrics = MetricsRegistry.getDefault();
+    MeteredWalletRepository walletRepository =
+        new MeteredWalletRepository(storage(options), metrics);
+
+    String metricsFile = option(options, "--metrics");
+    if (metricsFile != null) {
+      String interval = option(options, "--metrics-interval");
+      metrics.startSnapshots(
+          Path.of(metricsFile),
+          Duration.ofSeconds(
+              interval != null ? Long.parseLong(interval) : DEFAULT_METRICS_INTERVAL_SECONDS));
+    }
+
+    MetricsServer metricsServer =
+        options.contains("--metrics-port")
+            ? new MetricsServer(metrics, port(options, "--metrics-port", MetricsServer.DEFAULT_PORT))
+            : null;
+    if (metricsServer != null) {
+      metricsServer.start();
+      System.out.println(
+          "✓ Metrics available at http://127.0.0.1:" + metricsServer.getPort() + "/metrics");
+    }
+
+    if (options.contains("--serve") || options.contains("--serve-tcp")) {
+      serve(walletRepository, options, metricsServer);
+      return;
+    }
+    try {
+      run(walletRepository, options);
+    } finally {
+      if (metricsServer != null) {
+        metricsServer.close();
+      }
+      metrics.close();
+      walletRepository.close();
+    }
+  }
+
+  private static WalletRepository storage(List<String> options) {
+    if (options.contains("--lsm")) {
+      return new LsmWalletRepository();
+    }
+    if (options.contains("--events")) {
+      String interval = option(options, "--snapshot-interval");
+      return new EventSourcedWalletRepository(
+          Path.of("data", "events"),
+          interval != null
+              ? Integer.parseInt(interval)
+              : EventSourcedWalletRepository.DEFAULT_SNAPSHOT_INTERVAL);
+    }
+    if (options.contains("--monthly")) {
+      return new MonthlyWalletRepository();
+    }
+    if (options.contains("--paged")) {
+      return new PagedWalletRepository();
+    }
+    String archiveDays = option(options, "--archive-days");
+    String codec = option(options, "--codec");
+    return new JsonWalletRepository(
+        archiveDays != null ? Duration.ofDays(Long.parseLong(archiveDays)) : null,
+        codec != null ? StorageCodec.valueOf(codec.toUpperCase(Locale.ROOT)) : StorageCodec.PRETTY_JSON);
+  }
+
+  private static void run(WalletRepository walletRepository, List<String> options)
+      throws IOException {
+    String script = option(options, "--script");
+    if (script == null) {
+      new FinanceApp(walletRepository, credentialVerifier(options)).start();
+      return;
+    }
+
+    String errors = option(options, "--errors");
+    String checkpoint = option(options, "--checkpoint");
+    int checkpointInterval =
+        checkpoint != null ? Integer.parseInt(checkpoint) : BatchRunner.DEFAULT_CHECKPOINT_INTERVAL;
+
+    PrintStream errorLog =
+        errors != null
+            ? new PrintStream(
+                new BufferedOutputStream(new FileOutputStream(errors)), false, StandardCharsets.UTF_8)
+            : System.err;
+    try (BufferedReader reader = openScript(script)) {
+      BatchRunner runner = new BatchRunner(
+          walletRepository, errorLog, checkpointInterval, credentialVerifier(options));
+      runner.run(reader);
+      System.out.printf(
+          "✓ Script finished: %d commands, %d errors, %d wallets saved%n",
+          runner.getCommandCount(), runner.getErrorCount(), runner.getSavedWalletCount());
+    } finally {
+      errorLog.flush();
+      if (errorLog != System.err) {
+        errorLog.close();
+      }
+    }
+  }
+
+  private static void serve(
+      MeteredWalletRepository walletRepository, List<String> options, MetricsServer metricsServer)
+      throws IOException {
+    ServerContext context = new ServerContext(walletRepository, credentialVerifier(options));
+    context.registerMetrics(MetricsRegistry.getDefault());
+    String idempotencyWindow = option(options, "--idempotency-window");
+    if (idempotencyWindow != null) {
+      context.setIdempotencyWindow(Duration.ofHours(Long.parseLong(idempotencyWindow)));
+    }
+    ApiServer http =
+        options.contains("--serve")
+            ? new ApiServer(context, port(options, "--serve", ApiServer.DEFAULT_PORT))
+            : null;
+    BinaryProtocolServer tcp =
+        options.contains("--serve-tcp")
+            ? new BinaryProtocolServer(
+                context, port(options, "--serve-tcp", BinaryProtocolServer.DEFAULT_PORT))
+            : null;
+
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      if (http != null) {
+        http.close();
+      }
+      if (tcp != null) {
+        tcp.close();
+      }
+      context.close();
+      try {
+        walletRepository.close();
+      } catch (IOException e) {
+        System.err.println("✗ Failed to close wallet storage: " + e.getMessage());
+      }
+      if (metricsServer != null) {
+        metricsServer.close();
+      }
+      MetricsRegistry.getDefault().close();
+    }, "server-shutdown"));
+
+    if (http != null) {
+      http.start();
+      System.out.println("✓ API server listening on http://127.0.0.1:" + http.getPort());
+    }
+    if (tcp != null) {
+      tcp.start();
+      System.out.println("✓ Binary protocol listening on 127.0.0.1:" + tcp.getPort());
+    }
+  }
+
+  private static CredentialVerifier credentialVerifier(List<String> options) {
+    String cost = option(options, "--bcrypt-cost");
+    if (cost != null) {
+      return new CredentialVerifier(Integer.parseInt(cost));
+    }
+    String target = option(options, "--bcrypt-target-ms");
+    if (target == null) {
+      return new CredentialVerifier();
+    }
+    int logRounds =
+        CredentialVerifier.calibrateLogRounds(Duration.ofMillis(Long.parseLong(target)));
+    System.out.println("✓ bcrypt cost calibrated to " + logRounds);
+    return new CredentialVerifier(logRounds);
+  }
+
+  private static int port(List<String> options, String name, int defaultPort) {
+    String value = option(options, name);
+    return value != null && !value.startsWith("--") ? Integer.parseInt(value) : defaultPort;
+  }
+
+  private static String option(List<String> options, String name) {
+    int index = options.indexOf(name);
+    return index >= 0 && index + 1 < options.size() ? options.get(index + 1) : null;
+  }
+
+  private static BufferedReader openScript(String script) throws IOException {
+    InputStream in = "-".equals(script) ? System.in : Files.newInputStream(Path.of(script));
+    return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), SCRIPT_BUFFER_SIZE);
   }
 }
@@ -0,0 +1,181 @@
+package com.finance.cli;
+
+import com.finance.core.service.CredentialVerifier;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.repository.DeferredWalletRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs command scripts without prompts or banners.
+ *
+ * <p>Commands go through the same dispatch table as the interactive CLI. Only failures (lines the
+ * handlers print with a "✗" prefix) reach the error log, tagged with their script line number;
+ * all other output is discarded. Wallet saves are deferred and written once per touched wallet at
+ * every checkpoint and at the end of the script.
+ */
+public final class BatchRunner {
+  public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+  private static final String ERROR_PREFIX = "✗";
+  private final DeferredWalletRepository repository;
+  private final ErrorFilter errors;
+  private final FinanceApp app;
+  private final int checkpointInterval;
+  private long commandCount;
+  private long savedWalletCount;
+
+  /**
+   * Creates a new BatchRunner.
+   *
+   * @param walletRepository the repository wallets are persisted to
+   * @param errorLog where failed commands are reported
+   * @param checkpointInterval the number of commands between saves, or 0 to save only at the end
+   */
+  public BatchRunner(WalletRepository walletRepository, PrintStream errorLog, int checkpointInterval) {
+    this(walletRepository, errorLog, checkpointInterval, new CredentialVerifier());
+  }
+
+  /**
+   * Creates a new BatchRunner that checks passwords with a configured credential verifier.
+   *
+   * @param walletRepository the repository wallets are persisted to
+   * @param errorLog where failed commands are reported
+   * @param checkpointInterval the number of commands between saves, or 0 to save only at the end
+   * @param credentialVerifier the verifier running bcrypt for register and login commands
+   */
+  public BatchRunner(WalletRepository walletRepository, PrintStream errorLog, int checkpointInterval,
+      CredentialVerifier credentialVerifier) {
+    if (checkpointInterval < 0) {
+      throw new IllegalArgumentException("Checkpoint interval cannot be negative");
+    }
+    this.repository = new DeferredWalletRepository(walletRepository);
+    this.errors = new ErrorFilter(errorLog);
+    this.app =
+        new FinanceApp(repository, new PrintStream(errors, false, StandardCharsets.UTF_8),
+            MetricsRegistry.getDefault(), credentialVerifier);
+    this.checkpointInterval = checkpointInterval;
+  }
+
+  /**
+   * Executes every command in the script, then closes the session and saves touched wallets.
+   *
+   * <p>Blank lines and lines starting with {@code #} are skipped; {@code exit} stops the script.
+   *
+   * @param script the script reader
+   * @throws IOException if the script cannot be read or wallets cannot be saved
+   */
+  public void run(BufferedReader script) throws IOException {
+    long lineNumber = 0;
+    String line;
+    while (app.isRunning() && (line = script.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.charAt(0) == '#') {
+        continue;
+      }
+
+      errors.setLineNumber(lineNumber);
+      try {
+        app.processCommand(line);
+      } catch (RuntimeException e) {
+        errors.report("Error: " + e.getMessage());
+      }
+
+      commandCount++;
+      if (checkpointInterval > 0 && commandCount % checkpointInterval == 0) {
+        checkpoint();
+      }
+    }
+
+    app.close();
+    checkpoint();
+  }
+
+  public long getCommandCount() {
+    return commandCount;
+  }
+
+  public long getErrorCount() {
+    return errors.getErrorCount();
+  }
+
+  /**
+   * Gets the number of wallet writes performed at checkpoints.
+   *
+   * @return wallets saved with changes
+   */
+  public long getSavedWalletCount() {
+    return savedWalletCount;
+  }
+
+  private void checkpoint() throws IOException {
+    savedWalletCount += repository.flush();
+  }
+
+  /**
+   * Line-buffering sink that forwards failure lines to the error log and drops the rest.
+   */
+  private static final class ErrorFilter extends OutputStream {
+    private final PrintStream errorLog;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+    private long lineNumber;
+    private long errorCount;
+
+    private ErrorFilter(PrintStream errorLog) {
+      this.errorLog = errorLog;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+      if (b == '\n') {
+        endLine();
+      } else {
+        line.write(b);
+      }
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+      int start = offset;
+      for (int i = offset; i < offset + length; i++) {
+        if (bytes[i] == '\n') {
+          line.write(bytes, start, i - start);
+          endLine();
+          start = i + 1;
+        }
+      }
+      line.write(bytes, start, offset + length - start);
+    }
+
+    @Override
+    public synchronized void flush() {
+      errorLog.flush();
+    }
+
+    synchronized void setLineNumber(long lineNumber) {
+      this.lineNumber = lineNumber;
+    }
+
+    synchronized long getErrorCount() {
+      return errorCount;
+    }
+
+    synchronized void report(String message) {
+      errorCount++;
+      errorLog.println("line " + lineNumber + ": " + message);
+    }
+
+    private void endLine() {
+      String text = line.toString(StandardCharsets.UTF_8).trim();
+      line.reset();
+      if (text.startsWith(ERROR_PREFIX)) {
+        report(text.substring(ERROR_PREFIX.length()).trim());
+      }
+    }
+  }
+}
@@ -2,7 +2,9 @@ package com.finance.cli;
 
 import com.finance.core.model.Budget;
 import com.finance.core.model.Category;
+import com.finance.core.model.Session;
 import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionFilter;
 import com.finance.core.model.TransactionType;
 import com.finance.core.model.User;
 import com.finance.core.service.AuthService;
@@ -14,9 +16,12 @@ import com.finance.core.service.WalletService;
 import com.finance.exception.AuthenticationException;
 import com.finance.exception.InsufficientFundsException;
 import com.finance.exception.ValidationException;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
+import com.finance.infrastructure.storage.CsvExporter;
+import com.finance.infrastructure.storage.CsvImporter;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -34,9 +39,15 @@ public class CommandHandler {
   private final TransferService transferService;
   private final InputValidator validator;
   private final OutputFormatter formatter;
+  private final CsvExporter csvExporter = new CsvExporter();
+  private final CsvImporter csvImporter = new CsvImporter();
+  private final PrintStream out;
+  private String sessionToken;
+  private long errorCount;
 
   /**
-   * Creates a new CommandHandler.
+   * Creates a new CommandHandler. Each handler tracks one session; handlers for different
+   * users can share the same services.
    */
   public CommandHandler(
       AuthService authService,
@@ -45,6 +56,21 @@ public class CommandHandler {
       BudgetService budgetService,
       StatisticsService statisticsService,
       TransferService transferService) {
+    this(authService, walletService, transactionService, budgetService, statisticsService,
+        transferService, System.out);
+  }
+
+  /**
+   * Creates a new CommandHandler that writes its output to the given stream.
+   */
+  public CommandHandler(
+      AuthService authService,
+      WalletService walletService,
+      TransactionService transactionService,
+      BudgetService budgetService,
+      StatisticsService statisticsService,
+      TransferService transferService,
+      PrintStream out) {
     this.authService = authService;
     this.walletService = walletService;
     this.transactionService = transactionService;
@@ -53,6 +79,7 @@ public class CommandHandler {
     this.transferService = transferService;
     this.validator = new InputValidator();
     this.formatter = new OutputFormatter();
+    this.out = out;
   }
 
   /**
@@ -61,19 +88,19 @@ public class CommandHandler {
   public void handleRegister(String username, String password) {
     try {
       if (!validator.validateUsername(username)) {
-        System.out.println("✗ Invalid username. Must be 3-20 alphanumeric characters.");
+        error("Invalid username. Must be 3-20 alphanumeric characters.");
         return;
       }
 
       if (!validator.validatePassword(password)) {
-        System.out.println("✗ Invalid password. Must be at least 6 characters.");
+        error("Invalid password. Must be at least 6 characters.");
         return;
       }
 
       authService.register(username, password);
-      System.out.println("✓ User registered successfully: " + username);
+      out.println("✓ User registered successfully: " + username);
     } catch (AuthenticationException e) {
-      System.out.println("✗ Registration failed: " + e.getMessage());
+      error("Registration failed: " + e.getMessage());
     }
   }
 
@@ -82,12 +109,24 @@ public class CommandHandler {
    */
   public void handleLogin(String username, String password) {
     try {
-      authService.login(username, password);
-      System.out.println("✓ Login successful. Welcome, " + username + "!");
-      System.out.println(
-          "Current balance: " + formatter.formatCurrency(authService.getCurrentUser().getWallet().getBalance()));
+      Session current = authService.getSession(sessionToken).orElse(null);
+      if (current != null
+          && current.getUser().getUsername().equals(username)
+          && authService.reauthenticate(sessionToken, password)) {
+        out.println("✓ Already logged in as " + username + ".");
+        out.println(
+            "Current balance: " + formatter.formatCurrency(current.getWallet().getBalance()));
+        return;
+      }
+
+      Session session = authService.openSession(username, password);
+      closeSession();
+      sessionToken = session.getToken();
+      out.println("✓ Login successful. Welcome, " + username + "!");
+      out.println(
+          "Current balance: " + formatter.formatCurrency(session.getWallet().getBalance()));
     } catch (AuthenticationException e) {
-      System.out.println("✗ Login failed: " + e.getMessage());
+      error("Login failed: " + e.getMessage());
     }
   }
 
@@ -96,16 +135,19 @@ public class CommandHandler {
    */
   public void handleLogout() {
     try {
-      if (!authService.isLoggedIn()) {
-        System.out.println("✗ Not logged in.");
+      User user = currentUser();
+      if (user == null) {
+        error("Not logged in.");
         return;
       }
 
-      String username = authService.getCurrentUser().getUsername();
-      authService.logout();
-      System.out.println("✓ Logged out successfully. Goodbye, " + username + "!");
+      String token = sessionToken;
+      sessionToken = null;
+      authService.closeSession(token);
+      String username = user.getUsername();
+      out.println("✓ Logged out successfully. Goodbye, " + username + "!");
     } catch (IOException e) {
-      System.out.println("✗ Error saving wallet: " + e.getMessage());
+      error("Error saving wallet: " + e.getMessage());
     }
   }
 
@@ -113,32 +155,18 @@ public class CommandHandler {
    * Handles the add-income command.
    */
   public void handleAddIncome(String amountStr, String categoryName, String description) {
-    if (!checkLoggedIn()) {
-      return;
-    }
-
-    try {
-      double amount = validator.validateAmount(amountStr);
-      String category = validator.validateCategory(categoryName);
-
-      User user = authService.getCurrentUser();
-      Category cat = new Category(category, TransactionType.INCOME);
-      transactionService.addIncome(user.getWallet(), amount, cat, description != null ? description : "");
-
-      System.out.println(
-          String.format(
-              "✓ Income added: %s to %s", formatter.formatCurrency(amount), category));
-      System.out.println(
-          "New balance: " + formatter.formatCurrency(user.getWallet().getBalance()));
-    } catch (ValidationException e) {
-      System.out.println("✗ Invalid input: " + e.getMessage());
-    }
+    addTransaction(TransactionType.INCOME, amountStr, categoryName, description);
   }
 
   /**
    * Handles the add-expense command.
    */
   public void handleAddExpense(String amountStr, String categoryName, String description) {
+    addTransaction(TransactionType.EXPENSE, amountStr, categoryName, description);
+  }
+
+  private void addTransaction(
+      TransactionType type, String amountStr, String categoryName, String description) {
     if (!checkLoggedIn()) {
       return;
     }
@@ -147,17 +175,20 @@ public class CommandHandler {
       double amount = validator.validateAmount(amountStr);
       String category = validator.validateCategory(categoryName);
 
-      User user = authService.getCurrentUser();
-      Category cat = new Category(category, TransactionType.EXPENSE);
-      transactionService.addExpense(user.getWallet(), amount, cat, description != null ? description : "");
-
-      System.out.println(
-          String.format(
-              "✓ Expense added: %s from %s", formatter.formatCurrency(amount), category));
-      System.out.println(
+      User user = currentUser();
+      Category cat = new Category(category, type);
+      String text = description != null ? description : "";
+      if (type == TransactionType.INCOME) {
+        transactionService.addIncome(user.getWallet(), amount, cat, text);
+        out.println("✓ Income added: " + formatter.formatCurrency(amount) + " to " + category);
+      } else {
+        transactionService.addExpense(user.getWallet(), amount, cat, text);
+        out.println("✓ Expense added: " + formatter.formatCurrency(amount) + " from " + category);
+      }
+      out.println(
           "New balance: " + formatter.formatCurrency(user.getWallet().getBalance()));
     } catch (ValidationException e) {
-      System.out.println("✗ Invalid input: " + e.getMessage());
+      error("Invalid input: " + e.getMessage());
     }
   }
 
@@ -173,14 +204,14 @@ public class CommandHandler {
       double limit = validator.validateAmount(limitStr);
       String category = validator.validateCategory(categoryName);
 
-      User user = authService.getCurrentUser();
+      User user = currentUser();
       budgetService.setBudget(user.getWallet(), category, limit);
 
-      System.out.println(
+      out.println(
           String.format(
               "✓ Budget set for %s: %s", category, formatter.formatCurrency(limit)));
     } catch (ValidationException e) {
-      System.out.println("✗ Invalid input: " + e.getMessage());
+      error("Invalid input: " + e.getMessage());
     }
   }
 
@@ -196,14 +227,14 @@ public class CommandHandler {
       double newLimit = validator.validateAmount(newLimitStr);
       String category = validator.validateCategory(categoryName);
 
-      User user = authService.getCurrentUser();
+      User user = currentUser();
       budgetService.editBudget(user.getWallet(), category, newLimit);
 
-      System.out.println(
+      out.println(
           String.format(
               "✓ Budget updated for %s: %s", category, formatter.formatCurrency(newLimit)));
     } catch (ValidationException e) {
-      System.out.println("✗ Invalid input: " + e.getMessage());
+      error("Invalid input: " + e.getMessage());
     }
   }
 
@@ -217,12 +248,12 @@ public class CommandHandler {
 
     try {
       String category = validator.validateCategory(categoryName);
-      User user = authService.getCurrentUser();
+      User user = currentUser();
       budgetService.deleteBudget(user.getWallet(), category);
 
-      System.out.println("✓ Budget deleted for category: " + category);
+      out.println("✓ Budget deleted for category: " + category);
     } catch (ValidationException e) {
-      System.out.println("✗ Invalid input: " + e.getMessage());
+      error("Invalid input: " + e.getMessage());
     }
   }
 
@@ -234,14 +265,14 @@ public class CommandHandler {
       return;
     }
 
-    User user = authService.getCurrentUser();
+    User user = currentUser();
     double totalIncome = statisticsService.getTotalIncome(user.getWallet());
     double totalExpenses = statisticsService.getTotalExpenses(user.getWallet());
     Map<Category, Double> incomeByCategory =
         statisticsService.getIncomeByCategory(user.getWallet());
     Map<Category, Budget> budgets = statisticsService.getBudgetSummary(user.getWallet());
 
-    System.out.println(
+    out.println(
         formatter.formatStatistics(totalIncome, totalExpenses, incomeByCategory, budgets));
   }
 
@@ -253,9 +284,9 @@ public class CommandHandler {
       return;
     }
 
-    User user = authService.getCurrentUser();
+    User user = currentUser();
     Map<Category, Budget> budgets = statisticsService.getBudgetSummary(user.getWallet());
-    System.out.println(formatter.formatBudgetSummary(budgets));
+    out.println(formatter.formatBudgetSummary(budgets));
   }
 
   /**
@@ -268,17 +299,19 @@ public class CommandHandler {
 
     try {
       double amount = validator.validateAmount(amountStr);
-      User sender = authService.getCurrentUser();
+      User sender = currentUser();
 
       transferService.transfer(
           sender, recipientUsername, amount, description != null ? description : "");
 
-      System.out.println(
+      out.println(
+          String.format("✓ Transfer successful: %.2f sent to %s", amount, recipientUsername));
+      out.println(
           "New balance: " + formatter.formatCurrency(sender.getWallet().getBalance()));
     } catch (ValidationException | InsufficientFundsException | IllegalArgumentException e) {
-      System.out.println("✗ Transfer failed: " + e.getMessage());
+      error("Transfer failed: " + e.getMessage());
     } catch (IOException e) {
-      System.out.println("✗ Error during transfer: " + e.getMessage());
+      error("Error during transfer: " + e.getMessage());
     }
   }
 
@@ -290,20 +323,20 @@ public class CommandHandler {
       return;
     }
 
-    User user = authService.getCurrentUser();
+    User user = currentUser();
     List<String> categories = Arrays.asList(categoryNames);
 
     List<String> missing = statisticsService.findMissingCategories(user.getWallet(), categories);
     if (!missing.isEmpty()) {
-      System.out.println("⚠️  Warning: Categories not found: " + String.join(", ", missing));
+      out.println("⚠️  Warning: Categories not found: " + String.join(", ", missing));
     }
 
     double income = statisticsService.getIncomeByCategories(user.getWallet(), categories);
     double expenses = statisticsService.getExpensesByCategories(user.getWallet(), categories);
 
-    System.out.println("\nStatistics for categories: " + String.join(", ", categories));
-    System.out.println("Total Income:   " + formatter.formatCurrency(income));
-    System.out.println("Total Expenses: " + formatter.formatCurrency(expenses));
+    out.println("\nStatistics for categories: " + String.join(", ", categories));
+    out.println("Total Income:   " + formatter.formatCurrency(income));
+    out.println("Total Expenses: " + formatter.formatCurrency(expenses));
   }
 
   /**
@@ -318,51 +351,61 @@ public class CommandHandler {
       LocalDateTime startDate = validator.validateDate(startDateStr);
       LocalDateTime endDate = validator.validateDate(endDateStr).plusDays(1).minusSeconds(1);
 
-      User user = authService.getCurrentUser();
+      User user = currentUser();
       List<Transaction> transactions =
           statisticsService.getTransactionsByPeriod(user.getWallet(), startDate, endDate);
 
-      System.out.println(
+      out.println(
           String.format(
               "\nTransactions from %s to %s:", startDateStr, endDateStr));
-      System.out.println(formatter.formatTransactions(transactions));
+      out.println(formatter.formatTransactions(transactions));
     } catch (ValidationException e) {
-      System.out.println("✗ Invalid date: " + e.getMessage());
+      error("Invalid date: " + e.getMessage());
     }
   }
 
   /**
-   * Handles the export-csv command.
+   * Handles the export-csv command: a file path followed by optional filter options.
    */
-  public void handleExportCsv(String filepath) {
+  public void handleExportCsv(String[] args) {
     if (!checkLoggedIn()) {
       return;
     }
 
     try {
-      String path = validator.validateFilepath(filepath);
-      User user = authService.getCurrentUser();
-
-      try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
-        writer.write("Date,Type,Category,Amount,Description\n");
-
-        for (Transaction t : user.getWallet().getTransactions()) {
-          writer.write(
-              String.format(
-                  "%s,%s,%s,%.2f,%s\n",
-                  t.getDate().toString(),
-                  t.getType(),
-                  t.getCategory().getName(),
-                  t.getAmount(),
-                  t.getDescription().replace(",", ";")));
-        }
-      }
+      String path = validator.validateFilepath(args[0]);
+      TransactionFilter filter = validator.validateExportFilter(args, 1);
+      long rows = csvExporter.export(currentUser().getWallet(), filter, Path.of(path));
+      out.println("✓ " + rows + " transactions exported to: " + path);
+    } catch (ValidationException e) {
+      error("Invalid export options: " + e.getMessage());
+    } catch (IOException | InvalidPathException e) {
+      error("Export failed: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Handles the import-csv command: rows that cannot be imported are written to the reject
+   * file, by default next to the input.
+   */
+  public void handleImportCsv(String[] args) {
+    if (!checkLoggedIn()) {
+      return;
+    }
 
-      System.out.println("✓ Transactions exported to: " + path);
+    try {
+      String path = validator.validateFilepath(args[0]);
+      String rejects = args.length > 1 ? validator.validateFilepath(args[1]) : path + ".rejects.csv";
+      CsvImporter.Result result =
+          csvImporter.importInto(currentUser().getWallet(), Path.of(path), Path.of(rejects));
+      out.println("✓ " + result.getImportedCount() + " transactions imported from: " + path);
+      if (result.getRejectedCount() > 0) {
+        out.println("⚠️  " + result.getRejectedCount() + " rows rejected, see: " + rejects);
+      }
     } catch (ValidationException e) {
-      System.out.println("✗ Invalid filepath: " + e.getMessage());
-    } catch (IOException e) {
-      System.out.println("✗ Export failed: " + e.getMessage());
+      error("Invalid import options: " + e.getMessage());
+    } catch (IOException | InvalidPathException e) {
+      error("Import failed: " + e.getMessage());
     }
   }
 
@@ -376,16 +419,16 @@ public class CommandHandler {
 
     try {
       String path = validator.validateFilepath(filepath);
-      User user = authService.getCurrentUser();
+      User user = currentUser();
 
       walletService.saveWallet(user.getWallet());
 
-      System.out.println("✓ Wallet exported (saved) successfully");
-      System.out.println("Note: Wallet is automatically saved to data/" + user.getUsername() + "_wallet.json");
+      out.println("✓ Wallet exported (saved) successfully");
+      out.println("Note: Wallet is automatically saved to data/" + user.getUsername() + "_wallet.json");
     } catch (ValidationException e) {
-      System.out.println("✗ Invalid filepath: " + e.getMessage());
+      error("Invalid filepath: " + e.getMessage());
     } catch (IOException e) {
-      System.out.println("✗ Export failed: " + e.getMessage());
+      error("Export failed: " + e.getMessage());
     }
   }
 
@@ -393,40 +436,57 @@ public class CommandHandler {
    * Handles the help command.
    */
   public void handleHelp() {
-    System.out.println("\n═══════════════════════ AVAILABLE COMMANDS ═══════════════════════");
-    System.out.println("\nAuthentication:");
-    System.out.println("  register <username> <password>       - Register a new user");
-    System.out.println("  login <username> <password>          - Login to your account");
-    System.out.println("  logout                               - Logout and save wallet");
-    System.out.println("\nTransactions:");
-    System.out.println("  add-income <amount> <category> [description]");
-    System.out.println("  add-expense <amount> <category> [description]");
-    System.out.println("\nBudget Management:");
-    System.out.println("  set-budget <category> <limit>        - Set budget for a category");
-    System.out.println("  edit-budget <category> <new-limit>   - Edit existing budget");
-    System.out.println("  delete-budget <category>             - Delete a budget");
-    System.out.println("  show-budget                          - Show all budgets");
-    System.out.println("\nStatistics:");
-    System.out.println("  show-stats                           - Show complete statistics");
-    System.out.println("  stats-by-category <cat1> <cat2> ...  - Stats for specific categories");
-    System.out.println("  stats-by-period <start> <end>        - Stats for date range (yyyy-MM-dd)");
-    System.out.println("\nTransfers:");
-    System.out.println("  transfer <recipient> <amount> [description]");
-    System.out.println("\nExport:");
-    System.out.println("  export-csv <filepath>                - Export transactions to CSV");
-    System.out.println("  export-json <filepath>               - Save wallet to JSON");
-    System.out.println("\nOther:");
-    System.out.println("  help                                 - Show this help message");
-    System.out.println("  exit                                 - Exit the application");
-    System.out.println("═══════════════════════════════════════════════════════════════════\n");
+    out.print(formatter.formatHelp());
+  }
+
+  /**
+   * Closes this handler's session, if any, saving the wallet.
+   */
+  public void closeSession() {
+    if (sessionToken == null) {
+      return;
+    }
+    try {
+      String token = sessionToken;
+      sessionToken = null;
+      authService.closeSession(token);
+    } catch (IOException e) {
+      error("Error saving wallet: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Gets the number of errors reported so far, letting callers tell whether a command failed.
+   *
+   * @return the error count
+   */
+  public long getErrorCount() {
+    return errorCount;
+  }
+
+  /**
+   * Prints an error line and counts it.
+   */
+  private void error(String message) {
+    errorCount++;
+    out.println("✗ " + message);
+  }
+
+  /**
+   * Gets the user of this handler's session.
+   *
+   * @return the user or null if not logged in or the session expired
+   */
+  private User currentUser() {
+    return authService.getSession(sessionToken).map(Session::getUser).orElse(null);
   }
 
   /**
    * Checks if user is logged in.
    */
   private boolean checkLoggedIn() {
-    if (!authService.isLoggedIn()) {
-      System.out.println("✗ Please login first.");
+    if (currentUser() == null) {
+      error("Please login first.");
       return false;
     }
     return true;
@@ -0,0 +1,62 @@
+package com.finance.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits command lines at runs of whitespace without going through a regular expression.
+ */
+final class CommandTokenizer {
+  private static final String[] EMPTY = new String[0];
+
+  private CommandTokenizer() {
+  }
+
+  /**
+   * Splits text into whitespace-separated tokens.
+   *
+   * <p>Behaves like {@code text.trim().split("\\s+", limit)} except that blank input yields an
+   * empty array. With a positive limit the last token holds the rest of the line, inner
+   * whitespace included.
+   *
+   * @param text the text to split
+   * @param limit the maximum number of tokens, or 0 for no limit
+   * @return the tokens
+   */
+  static String[] split(String text, int limit) {
+    int length = text.length();
+    int pos = skipWhitespace(text, 0);
+    if (pos == length) {
+      return EMPTY;
+    }
+
+    List<String> tokens = new ArrayList<>(limit > 0 ? limit : 4);
+    while (pos < length) {
+      if (limit > 0 && tokens.size() == limit - 1) {
+        tokens.add(text.substring(pos, trimEnd(text, length)));
+        break;
+      }
+      int end = pos;
+      while (end < length && !Character.isWhitespace(text.charAt(end))) {
+        end++;
+      }
+      tokens.add(text.substring(pos, end));
+      pos = skipWhitespace(text, end);
+    }
+    return tokens.toArray(EMPTY);
+  }
+
+  private static int skipWhitespace(String text, int pos) {
+    while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static int trimEnd(String text, int end) {
+    while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+      end--;
+    }
+    return end;
+  }
+}
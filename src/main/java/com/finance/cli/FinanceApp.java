@@ -2,39 +2,118 @@ package com.finance.cli;
 
 import com.finance.core.service.AuthService;
 import com.finance.core.service.BudgetService;
+import com.finance.core.service.CredentialVerifier;
 import com.finance.core.service.NotificationService;
+import com.finance.core.service.SessionManager;
 import com.finance.core.service.StatisticsService;
 import com.finance.core.service.TransactionService;
 import com.finance.core.service.TransferService;
 import com.finance.core.service.WalletService;
+import com.finance.infrastructure.metrics.Counter;
+import com.finance.infrastructure.metrics.LatencyHistogram;
+import com.finance.infrastructure.metrics.MetricsRegistry;
 import com.finance.infrastructure.repository.InMemoryUserRepository;
 import com.finance.infrastructure.repository.JsonWalletRepository;
 import com.finance.infrastructure.repository.UserRepository;
 import com.finance.infrastructure.repository.WalletRepository;
-import java.io.IOException;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
 /**
  * Main CLI application for Personal Finance Manager.
+ *
+ * <p>Command lines are tokenized once and dispatched through a table built at startup, shared by
+ * the interactive loop and {@link BatchRunner}.
  */
 public class FinanceApp {
+  private static final String[] NO_ARGS = new String[0];
   private final CommandHandler commandHandler;
   private final AuthService authService;
-  private final Scanner scanner;
+  private final NotificationService notificationService;
+  private final Map<String, Command> commands = new HashMap<>();
+  private final MetricsRegistry metrics;
+  private final Counter unknownCommands;
+  private final PrintStream out;
   private boolean running;
 
   /** Creates a new FinanceApp. */
   public FinanceApp() {
+    this(new JsonWalletRepository());
+  }
+
+  /**
+   * Creates a new FinanceApp with a specific wallet storage backend.
+   *
+   * @param walletRepository the wallet repository
+   */
+  public FinanceApp(WalletRepository walletRepository) {
+    this(walletRepository, System.out);
+  }
+
+  /**
+   * Creates a new FinanceApp that checks passwords with a configured credential verifier.
+   *
+   * @param walletRepository the wallet repository
+   * @param credentialVerifier the verifier running bcrypt for logins
+   */
+  public FinanceApp(WalletRepository walletRepository, CredentialVerifier credentialVerifier) {
+    this(walletRepository, System.out, MetricsRegistry.getDefault(), credentialVerifier);
+  }
+
+  /**
+   * Creates a new FinanceApp that writes all command and notification output to a stream.
+   *
+   * @param walletRepository the wallet repository
+   * @param out the output stream
+   */
+  FinanceApp(WalletRepository walletRepository, PrintStream out) {
+    this(walletRepository, out, MetricsRegistry.getDefault());
+  }
+
+  /**
+   * Creates a new FinanceApp that records command metrics into a registry.
+   *
+   * @param walletRepository the wallet repository
+   * @param out the output stream
+   * @param metrics the metrics registry
+   */
+  FinanceApp(WalletRepository walletRepository, PrintStream out, MetricsRegistry metrics) {
+    this(walletRepository, out, metrics, new CredentialVerifier());
+  }
+
+  /**
+   * Creates a new FinanceApp that records command and bcrypt metrics into a registry.
+   *
+   * @param walletRepository the wallet repository
+   * @param out the output stream
+   * @param metrics the metrics registry
+   * @param credentialVerifier the verifier running bcrypt for logins
+   */
+  FinanceApp(WalletRepository walletRepository, PrintStream out, MetricsRegistry metrics,
+      CredentialVerifier credentialVerifier) {
+    this.out = out;
+    this.metrics = metrics;
+    this.unknownCommands = metrics.counter("command.unknown");
     UserRepository userRepository = new InMemoryUserRepository();
-    WalletRepository walletRepository = new JsonWalletRepository();
 
-    this.authService = new AuthService(userRepository, walletRepository);
+    SessionManager sessionManager = new SessionManager(walletRepository);
+    this.authService = new AuthService(userRepository, sessionManager, credentialVerifier);
     WalletService walletService = new WalletService(walletRepository);
-    NotificationService notificationService = new NotificationService();
+    this.notificationService = new NotificationService(out);
+    metrics.gauge("sessions.active", sessionManager::getActiveSessionCount);
+    metrics.gauge("sessions.unsaved", sessionManager::getUnsavedWalletCount);
+    metrics.gauge("walletcache.hits", sessionManager::getWalletCacheHits);
+    metrics.gauge("walletcache.misses", sessionManager::getWalletCacheMisses);
+    metrics.gauge("notifications.pending", notificationService::getPendingCount);
+    credentialVerifier.registerMetrics(metrics);
     TransactionService transactionService = new TransactionService(notificationService);
     BudgetService budgetService = new BudgetService();
     StatisticsService statisticsService = new StatisticsService();
-    TransferService transferService = new TransferService(userRepository, walletRepository);
+    TransferService transferService = new TransferService(userRepository, walletRepository, sessionManager);
 
     this.commandHandler =
         new CommandHandler(
@@ -43,9 +122,10 @@ public class FinanceApp {
             transactionService,
             budgetService,
             statisticsService,
-            transferService);
+            transferService,
+            out);
 
-    this.scanner = new Scanner(System.in);
+    registerCommands();
     this.running = true;
   }
 
@@ -53,9 +133,13 @@ public class FinanceApp {
   public void start() {
     printWelcome();
 
+    Scanner scanner = new Scanner(System.in);
     while (running) {
       try {
-        System.out.print("\n> ");
+        out.print("\n> ");
+        if (!scanner.hasNextLine()) {
+          break;
+        }
         String input = scanner.nextLine().trim();
 
         if (input.isEmpty()) {
@@ -63,212 +147,157 @@ public class FinanceApp {
         }
 
         processCommand(input);
+        notificationService.flush();
 
       } catch (Exception e) {
-        System.out.println("✗ Error: " + e.getMessage());
+        out.println("✗ Error: " + e.getMessage());
       }
     }
 
+    scanner.close();
     shutdown();
   }
 
-  /** Processes a command. */
-  private void processCommand(String input) {
-    String[] parts = input.split("\\s+", 2);
-    String command = parts[0].toLowerCase();
-
-    switch (command) {
-      case "register":
-        handleRegister(parts.length > 1 ? parts[1] : "");
-        break;
-      case "login":
-        handleLogin(parts.length > 1 ? parts[1] : "");
-        break;
-      case "logout":
-        commandHandler.handleLogout();
-        break;
-      case "add-income":
-        handleAddIncome(parts.length > 1 ? parts[1] : "");
-        break;
-      case "add-expense":
-        handleAddExpense(parts.length > 1 ? parts[1] : "");
-        break;
-      case "set-budget":
-        handleSetBudget(parts.length > 1 ? parts[1] : "");
-        break;
-      case "edit-budget":
-        handleEditBudget(parts.length > 1 ? parts[1] : "");
-        break;
-      case "delete-budget":
-        handleDeleteBudget(parts.length > 1 ? parts[1] : "");
-        break;
-      case "show-stats":
-        commandHandler.handleShowStats();
-        break;
-      case "show-budget":
-        commandHandler.handleShowBudget();
-        break;
-      case "transfer":
-        handleTransfer(parts.length > 1 ? parts[1] : "");
-        break;
-      case "stats-by-category":
-        handleStatsByCategory(parts.length > 1 ? parts[1] : "");
-        break;
-      case "stats-by-period":
-        handleStatsByPeriod(parts.length > 1 ? parts[1] : "");
-        break;
-      case "export-csv":
-        handleExportCsv(parts.length > 1 ? parts[1] : "");
-        break;
-      case "export-json":
-        handleExportJson(parts.length > 1 ? parts[1] : "");
-        break;
-      case "help":
-        commandHandler.handleHelp();
-        break;
-      case "exit":
-      case "quit":
-        handleExit();
-        break;
-      default:
-        System.out.println("✗ Unknown command. Type 'help' for available commands.");
-    }
-  }
-
-  private void handleRegister(String args) {
-    String[] parts = args.split("\\s+");
-    if (parts.length < 2) {
-      System.out.println("✗ Usage: register <username> <password>");
-      return;
-    }
-    commandHandler.handleRegister(parts[0], parts[1]);
-  }
-
-  private void handleLogin(String args) {
-    String[] parts = args.split("\\s+");
-    if (parts.length < 2) {
-      System.out.println("✗ Usage: login <username> <password>");
-      return;
-    }
-    commandHandler.handleLogin(parts[0], parts[1]);
-  }
-
-  private void handleAddIncome(String args) {
-    String[] parts = args.split("\\s+", 3);
-    if (parts.length < 2) {
-      System.out.println("✗ Usage: add-income <amount> <category> [description]");
-      return;
-    }
-    String description = parts.length > 2 ? parts[2] : "";
-    commandHandler.handleAddIncome(parts[0], parts[1], description);
-  }
-
-  private void handleAddExpense(String args) {
-    String[] parts = args.split("\\s+", 3);
-    if (parts.length < 2) {
-      System.out.println("✗ Usage: add-expense <amount> <category> [description]");
-      return;
-    }
-    String description = parts.length > 2 ? parts[2] : "";
-    commandHandler.handleAddExpense(parts[0], parts[1], description);
-  }
-
-  private void handleSetBudget(String args) {
-    String[] parts = args.split("\\s+");
-    if (parts.length < 2) {
-      System.out.println("✗ Usage: set-budget <category> <limit>");
-      return;
-    }
-    commandHandler.handleSetBudget(parts[0], parts[1]);
-  }
-
-  private void handleEditBudget(String args) {
-    String[] parts = args.split("\\s+");
-    if (parts.length < 2) {
-      System.out.println("✗ Usage: edit-budget <category> <new-limit>");
+  /**
+   * Processes one command line through the dispatch table.
+   *
+   * @param input the trimmed, non-empty command line
+   */
+  void processCommand(String input) {
+    String[] parts = CommandTokenizer.split(input, 2);
+    Command command = commands.get(parts[0].toLowerCase(Locale.ROOT));
+    if (command == null) {
+      unknownCommands.increment();
+      out.println("✗ Unknown command. Type 'help' for available commands.");
       return;
     }
-    commandHandler.handleEditBudget(parts[0], parts[1]);
-  }
 
-  private void handleDeleteBudget(String args) {
-    if (args.trim().isEmpty()) {
-      System.out.println("✗ Usage: delete-budget <category>");
-      return;
-    }
-    commandHandler.handleDeleteBudget(args.trim());
-  }
-
-  private void handleTransfer(String args) {
-    String[] parts = args.split("\\s+", 3);
-    if (parts.length < 2) {
-      System.out.println("✗ Usage: transfer <recipient> <amount> [description]");
-      return;
+    long start = System.nanoTime();
+    long errorsBefore = commandHandler.getErrorCount();
+    boolean failed = true;
+    try {
+      String[] args = parts.length > 1 ? CommandTokenizer.split(parts[1], command.limit) : NO_ARGS;
+      if (args.length < command.minArgs) {
+        out.println("✗ Usage: " + command.usage);
+        return;
+      }
+      command.action.accept(args);
+      failed = commandHandler.getErrorCount() != errorsBefore;
+    } finally {
+      command.latency.record(System.nanoTime() - start);
+      if (failed) {
+        command.errors.increment();
+      }
     }
-    String description = parts.length > 2 ? parts[2] : "";
-    commandHandler.handleTransfer(parts[0], parts[1], description);
   }
 
-  private void handleStatsByCategory(String args) {
-    if (args.trim().isEmpty()) {
-      System.out.println("✗ Usage: stats-by-category <category1> <category2> ...");
-      return;
-    }
-    String[] categories = args.trim().split("\\s+");
-    commandHandler.handleStatsByCategory(categories);
+  boolean isRunning() {
+    return running;
   }
 
-  private void handleStatsByPeriod(String args) {
-    String[] parts = args.split("\\s+");
-    if (parts.length < 2) {
-      System.out.println("✗ Usage: stats-by-period <start-date> <end-date> (yyyy-MM-dd)");
-      return;
-    }
-    commandHandler.handleStatsByPeriod(parts[0], parts[1]);
+  /** Closes the current session and stops notification delivery without printing a farewell. */
+  void close() {
+    commandHandler.closeSession();
+    notificationService.close();
   }
 
-  private void handleExportCsv(String args) {
-    if (args.trim().isEmpty()) {
-      System.out.println("✗ Usage: export-csv <filepath>");
-      return;
-    }
-    commandHandler.handleExportCsv(args.trim());
+  private void registerCommands() {
+    command("register", 0, 2, "register <username> <password>",
+        a -> commandHandler.handleRegister(a[0], a[1]));
+    command("login", 0, 2, "login <username> <password>",
+        a -> commandHandler.handleLogin(a[0], a[1]));
+    command("logout", 1, 0, "logout", a -> commandHandler.handleLogout());
+    command("add-income", 3, 2, "add-income <amount> <category> [description]",
+        a -> commandHandler.handleAddIncome(a[0], a[1], a.length > 2 ? a[2] : ""));
+    command("add-expense", 3, 2, "add-expense <amount> <category> [description]",
+        a -> commandHandler.handleAddExpense(a[0], a[1], a.length > 2 ? a[2] : ""));
+    command("set-budget", 0, 2, "set-budget <category> <limit>",
+        a -> commandHandler.handleSetBudget(a[0], a[1]));
+    command("edit-budget", 0, 2, "edit-budget <category> <new-limit>",
+        a -> commandHandler.handleEditBudget(a[0], a[1]));
+    command("delete-budget", 1, 1, "delete-budget <category>",
+        a -> commandHandler.handleDeleteBudget(a[0]));
+    command("show-stats", 1, 0, "show-stats", a -> commandHandler.handleShowStats());
+    command("show-budget", 1, 0, "show-budget", a -> commandHandler.handleShowBudget());
+    command("transfer", 3, 2, "transfer <recipient> <amount> [description]",
+        a -> commandHandler.handleTransfer(a[0], a[1], a.length > 2 ? a[2] : ""));
+    command("stats-by-category", 0, 1, "stats-by-category <category1> <category2> ...",
+        commandHandler::handleStatsByCategory);
+    command("stats-by-period", 0, 2, "stats-by-period <start-date> <end-date> (yyyy-MM-dd)",
+        a -> commandHandler.handleStatsByPeriod(a[0], a[1]));
+    command("export-csv", 0, 1,
+        "export-csv <filepath> [--from yyyy-MM-dd] [--to yyyy-MM-dd] [--type income|expense]"
+            + " [--category <name>]...",
+        commandHandler::handleExportCsv);
+    command("import-csv", 0, 1, "import-csv <filepath> [reject-file]",
+        commandHandler::handleImportCsv);
+    command("export-json", 1, 1, "export-json <filepath>",
+        a -> commandHandler.handleExportJson(a[0]));
+    command("metrics", 1, 0, "metrics", a -> out.print(metrics.snapshot()));
+    command("help", 1, 0, "help", a -> commandHandler.handleHelp());
+    command("exit", 1, 0, "exit", a -> handleExit());
+    command("quit", 1, 0, "quit", a -> handleExit());
   }
 
-  private void handleExportJson(String args) {
-    if (args.trim().isEmpty()) {
-      System.out.println("✗ Usage: export-json <filepath>");
-      return;
-    }
-    commandHandler.handleExportJson(args.trim());
+  private void command(
+      String name, int limit, int minArgs, String usage, Consumer<String[]> action) {
+    commands.put(
+        name,
+        new Command(
+            limit,
+            minArgs,
+            usage,
+            action,
+            metrics.histogram("command." + name),
+            metrics.counter("command." + name + ".errors")));
   }
 
   private void handleExit() {
-    System.out.println("\nExiting...");
+    out.println("\nExiting...");
     running = false;
   }
 
   private void printWelcome() {
-    System.out.println("\n╔═══════════════════════════════════════════════════════════╗");
-    System.out.println("║                                                           ║");
-    System.out.println("║          Personal Finance Management System               ║");
-    System.out.println("║                                                           ║");
-    System.out.println("╚═══════════════════════════════════════════════════════════╝");
-    System.out.println("\nWelcome! Type 'help' to see available commands.");
-    System.out.println("Type 'register <username> <password>' to create an account.");
-    System.out.println("Type 'login <username> <password>' to access your wallet.\n");
+    out.println("\n╔═══════════════════════════════════════════════════════════╗");
+    out.println("║                                                           ║");
+    out.println("║          Personal Finance Management System               ║");
+    out.println("║                                                           ║");
+    out.println("╚═══════════════════════════════════════════════════════════╝");
+    out.println("\nWelcome! Type 'help' to see available commands.");
+    out.println("Type 'register <username> <password>' to create an account.");
+    out.println("Type 'login <username> <password>' to access your wallet.\n");
   }
 
   private void shutdown() {
-    try {
-      if (authService.isLoggedIn()) {
-        authService.logout();
-      }
-    } catch (IOException e) {
-      System.out.println("✗ Error saving wallet: " + e.getMessage());
-    }
+    close();
+    out.println("\nThank you for using Personal Finance Manager. Goodbye!");
+  }
 
-    scanner.close();
-    System.out.println("\nThank you for using Personal Finance Manager. Goodbye!");
+  /**
+   * Dispatch table entry: how to tokenize the arguments, which handler to call and where to record
+   * its metrics.
+   */
+  private static final class Command {
+    private final int limit;
+    private final int minArgs;
+    private final String usage;
+    private final Consumer<String[]> action;
+    private final LatencyHistogram latency;
+    private final Counter errors;
+
+    private Command(
+        int limit,
+        int minArgs,
+        String usage,
+        Consumer<String[]> action,
+        LatencyHistogram latency,
+        Counter errors) {
+      this.limit = limit;
+      this.minArgs = minArgs;
+      this.usage = usage;
+      this.action = action;
+      this.latency = latency;
+      this.errors = errors;
+    }
   }
 }
@@ -1,9 +1,14 @@
 package com.finance.cli;
 
+import com.finance.core.model.TransactionFilter;
+import com.finance.core.model.TransactionType;
 import com.finance.exception.ValidationException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Validates user input from CLI.
@@ -107,4 +112,55 @@ public class InputValidator {
     }
     return filepath.trim();
   }
+
+  /**
+   * Parses export filter options: {@code --from <yyyy-MM-dd>}, {@code --to <yyyy-MM-dd>}
+   * (inclusive, to the end of that day), {@code --type income|expense} and any number of
+   * {@code --category <name>}.
+   *
+   * @param args the command arguments
+   * @param start the index of the first option
+   * @return the filter
+   * @throws ValidationException if an option is unknown, lacks a value or has an invalid value
+   */
+  public TransactionFilter validateExportFilter(String[] args, int start) {
+    LocalDateTime from = null;
+    LocalDateTime to = null;
+    TransactionType type = null;
+    List<String> categories = new ArrayList<>();
+    for (int i = start; i < args.length; i += 2) {
+      if (i + 1 >= args.length) {
+        throw new ValidationException("Missing value for " + args[i]);
+      }
+      String value = args[i + 1];
+      switch (args[i]) {
+        case "--from":
+          from = validateDate(value);
+          break;
+        case "--to":
+          to = validateDate(value).plusDays(1).minusNanos(1);
+          break;
+        case "--type":
+          type = validateType(value);
+          break;
+        case "--category":
+          categories.add(validateCategory(value));
+          break;
+        default:
+          throw new ValidationException("Unknown option: " + args[i]);
+      }
+    }
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new ValidationException("--from must not be after --to");
+    }
+    return new TransactionFilter(from, to, categories, type);
+  }
+
+  private TransactionType validateType(String value) {
+    try {
+      return TransactionType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new ValidationException("Type must be income or expense");
+    }
+  }
 }
@@ -189,4 +189,53 @@ public class OutputFormatter {
 
     return sb.toString();
   }
+
+  /**
+   * Formats the list of available commands.
+   *
+   * @return the help text, ending with a blank line
+   */
+  public String formatHelp() {
+    return """
+
+        ═══════════════════════ AVAILABLE COMMANDS ═══════════════════════
+
+        Authentication:
+          register <username> <password>       - Register a new user
+          login <username> <password>          - Login to your account
+          logout                               - Logout and save wallet
+
+        Transactions:
+          add-income <amount> <category> [description]
+          add-expense <amount> <category> [description]
+
+        Budget Management:
+          set-budget <category> <limit>        - Set budget for a category
+          edit-budget <category> <new-limit>   - Edit existing budget
+          delete-budget <category>             - Delete a budget
+          show-budget                          - Show all budgets
+
+        Statistics:
+          show-stats                           - Show complete statistics
+          stats-by-category <cat1> <cat2> ...  - Stats for specific categories
+          stats-by-period <start> <end>        - Stats for date range (yyyy-MM-dd)
+
+        Transfers:
+          transfer <recipient> <amount> [description]
+
+        Import/Export:
+          export-csv <filepath> [filters]      - Export transactions to CSV
+            filters: --from/--to yyyy-MM-dd, --type income|expense, --category <name>
+          export-json <filepath>               - Save wallet to JSON
+          import-csv <filepath> [reject-file]  - Import transactions from CSV
+            bad rows go to the reject file (default: <filepath>.rejects.csv)
+
+        Other:
+          metrics                              - Show command and storage latencies
+          help                                 - Show this help message
+          exit                                 - Exit the application
+        ═══════════════════════════════════════════════════════════════════
+
+        """.replace("\n", System.lineSeparator());
+  }
 }
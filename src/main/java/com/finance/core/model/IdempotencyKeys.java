@@ -0,0 +1,175 @@
+package com.finance.core.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Idempotency keys seen by a wallet within a retention window.
+ *
+ * <p>The keys themselves are stored on the {@link Transaction}s they created. In front of them
+ * sit two generations of a Bloom filter, each covering at least one window: a key is added to the
+ * current generation, and once the current generation is a window old it becomes the previous one
+ * and a new generation starts, sized from the number of keys the old one received. Both
+ * generations are saved with the wallet header, so after a restart a new key is still recognized
+ * as new without reading the history. Only when the filter reports a possible match is the exact
+ * index built, by scanning the history once for keys still inside the window.
+ *
+ * <p>Not thread-safe; callers hold the wallet's lock.
+ */
+public class IdempotencyKeys {
+  private static final int HASHES = 7;
+  private static final int BITS_PER_KEY = 10;
+  private static final int MIN_BITS = 1 << 10;
+  private static final int MAX_BITS = 1 << 23;
+  private LocalDateTime generationStart;
+  private long[] current;
+  private int currentCount;
+  private long[] previous;
+  private Map<String, Transaction> index;
+
+  /**
+   * Restores filters saved from {@link #getGenerationStart()}, {@link #getCurrentBits()},
+   * {@link #getCurrentCount()} and {@link #getPreviousBits()}.
+   *
+   * @param generationStart when the current generation started
+   * @param current the current generation's bits
+   * @param currentCount the number of keys added to the current generation
+   * @param previous the previous generation's bits, or null
+   */
+  public void restore(
+      LocalDateTime generationStart, long[] current, int currentCount, long[] previous) {
+    if (generationStart == null || !isValid(current) || (previous != null && !isValid(previous))) {
+      throw new IllegalArgumentException("Invalid idempotency filter");
+    }
+    this.generationStart = generationStart;
+    this.current = current;
+    this.currentCount = currentCount;
+    this.previous = previous;
+    this.index = null;
+  }
+
+  /**
+   * Finds the transaction created with a key within the window.
+   *
+   * @param key the idempotency key
+   * @param now the current time
+   * @param window how long keys are remembered
+   * @param wallet the wallet whose history holds the keys
+   * @return the earlier transaction, or null if the key is new
+   */
+  public Transaction find(String key, LocalDateTime now, Duration window, Wallet wallet) {
+    long hash = hash(key);
+    boolean previousValid = previous != null && now.isBefore(generationStart.plus(window));
+    if (!mightContain(current, hash) && !(previousValid && mightContain(previous, hash))) {
+      return null;
+    }
+    if (index == null) {
+      LocalDateTime oldest = now.minus(window);
+      Map<String, Transaction> keys = new HashMap<>();
+      wallet.forEachTransaction(t -> {
+        if (t.getIdempotencyKey() != null && t.getDate().isAfter(oldest)) {
+          keys.put(t.getIdempotencyKey(), t);
+        }
+      });
+      index = keys;
+    }
+    Transaction match = index.get(key);
+    return match != null && match.getDate().isAfter(now.minus(window)) ? match : null;
+  }
+
+  /**
+   * Records the key of a transaction just added to the wallet, starting a new generation first if
+   * the current one is a window old.
+   *
+   * @param transaction the transaction, which must carry a key
+   * @param window how long keys are remembered
+   */
+  public void add(Transaction transaction, Duration window) {
+    LocalDateTime now = transaction.getDate();
+    if (current == null || !now.isBefore(generationStart.plus(window))) {
+      previous = current;
+      current = new long[bitCount(currentCount) / Long.SIZE];
+      currentCount = 0;
+      generationStart = now;
+      if (index != null) {
+        LocalDateTime oldest = now.minus(window);
+        index.values().removeIf(t -> !t.getDate().isAfter(oldest));
+      }
+    }
+    long hash = hash(transaction.getIdempotencyKey());
+    long step = hash >>> 32 | 1;
+    int mask = current.length * Long.SIZE - 1;
+    for (int i = 0; i < HASHES; i++) {
+      int bit = (int) (hash + i * step) & mask;
+      current[bit >>> 6] |= 1L << bit;
+    }
+    currentCount++;
+    if (index != null) {
+      index.put(transaction.getIdempotencyKey(), transaction);
+    }
+  }
+
+  public LocalDateTime getGenerationStart() {
+    return generationStart;
+  }
+
+  /**
+   * Gets the current generation's bits for saving.
+   *
+   * @return the bits, or null if no key was ever added
+   */
+  public long[] getCurrentBits() {
+    return current;
+  }
+
+  public int getCurrentCount() {
+    return currentCount;
+  }
+
+  public long[] getPreviousBits() {
+    return previous;
+  }
+
+  private static boolean mightContain(long[] bits, long hash) {
+    if (bits == null) {
+      return false;
+    }
+    long step = hash >>> 32 | 1;
+    int mask = bits.length * Long.SIZE - 1;
+    for (int i = 0; i < HASHES; i++) {
+      int bit = (int) (hash + i * step) & mask;
+      if ((bits[bit >>> 6] & 1L << bit) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sizes a new generation for as many keys as the last one received, at about one percent false
+   * positives, as a power of two so bit positions can be masked.
+   */
+  private static int bitCount(int expectedKeys) {
+    long wanted = Math.max(MIN_BITS, (long) expectedKeys * BITS_PER_KEY);
+    return (int) Math.min(MAX_BITS, Long.highestOneBit(wanted - 1) << 1);
+  }
+
+  private static boolean isValid(long[] bits) {
+    return bits != null && bits.length > 0 && Integer.bitCount(bits.length) == 1;
+  }
+
+  /** 64-bit FNV-1a over the key's chars, finished with the MurmurHash3 mixer. */
+  private static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h = (h ^ key.charAt(i)) * 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    return h ^ h >>> 33;
+  }
+}
@@ -0,0 +1,18 @@
+package com.finance.core.model;
+
+/**
+ * Enumeration representing the kind of notification raised for a wallet.
+ */
+public enum NotificationType {
+  /** Budget usage reached the warning threshold */
+  BUDGET_WARNING,
+
+  /** Budget spent amount went over its limit */
+  BUDGET_EXCEEDED,
+
+  /** Wallet balance dropped below zero */
+  NEGATIVE_BALANCE,
+
+  /** Total expenses became greater than total income */
+  EXPENSES_EXCEED_INCOME
+}
@@ -0,0 +1,85 @@
+package com.finance.core.model;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Represents an authenticated user session identified by an opaque token.
+ */
+public class Session {
+  private final String token;
+  private final User user;
+  private final Wallet wallet;
+  private final Instant createdAt;
+  private volatile long lastAccessMillis;
+
+  /**
+   * Creates a new session.
+   *
+   * @param token the opaque session token
+   * @param user the authenticated user
+   * @param wallet the wallet pinned for the lifetime of the session
+   * @param createdAt the creation time
+   */
+  public Session(String token, User user, Wallet wallet, Instant createdAt) {
+    if (token == null || user == null || wallet == null) {
+      throw new IllegalArgumentException("Token, user and wallet cannot be null");
+    }
+    this.token = token;
+    this.user = user;
+    this.wallet = wallet;
+    this.createdAt = createdAt;
+    this.lastAccessMillis = createdAt.toEpochMilli();
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public User getUser() {
+    return user;
+  }
+
+  public Wallet getWallet() {
+    return wallet;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public long getLastAccessMillis() {
+    return lastAccessMillis;
+  }
+
+  /**
+   * Records activity on the session.
+   *
+   * @param nowMillis the current time in epoch milliseconds
+   */
+  public void touch(long nowMillis) {
+    this.lastAccessMillis = nowMillis;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Session session = (Session) o;
+    return Objects.equals(token, session.token);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(token);
+  }
+
+  @Override
+  public String toString() {
+    return "Session[" + user.getUsername() + "]";
+  }
+}
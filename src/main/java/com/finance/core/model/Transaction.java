@@ -14,6 +14,8 @@ public class Transaction {
   private final TransactionType type;
   private final LocalDateTime date;
   private final String description;
+  private final String idempotencyKey;
+  private final boolean transfer;
 
   /**
    * Creates a new transaction with generated ID and current timestamp.
@@ -27,6 +29,22 @@ public class Transaction {
     this(UUID.randomUUID().toString(), amount, category, type, LocalDateTime.now(), description);
   }
 
+  /**
+   * Creates one leg of a transfer between wallets, with generated ID and current timestamp.
+   *
+   * @param amount the transferred amount (must be positive)
+   * @param category the transaction category
+   * @param type EXPENSE for the sender's leg, INCOME for the recipient's
+   * @param description optional description
+   * @return the transaction, marked as a transfer
+   */
+  public static Transaction transferLeg(
+      double amount, Category category, TransactionType type, String description) {
+    return new Transaction(
+        UUID.randomUUID().toString(), amount, category, type, LocalDateTime.now(), description,
+        null, true);
+  }
+
   /**
    * Creates a new transaction with all fields specified (for deserialization).
    *
@@ -44,6 +62,40 @@ public class Transaction {
       TransactionType type,
       LocalDateTime date,
       String description) {
+    this(id, amount, category, type, date, description, null);
+  }
+
+  /**
+   * Creates a new transaction carrying a client-supplied idempotency key.
+   *
+   * @param id the unique transaction ID
+   * @param amount the transaction amount
+   * @param category the transaction category
+   * @param type the transaction type
+   * @param date the transaction date/time
+   * @param description optional description
+   * @param idempotencyKey the key the client sent with the request, or null
+   */
+  public Transaction(
+      String id,
+      double amount,
+      Category category,
+      TransactionType type,
+      LocalDateTime date,
+      String description,
+      String idempotencyKey) {
+    this(id, amount, category, type, date, description, idempotencyKey, false);
+  }
+
+  private Transaction(
+      String id,
+      double amount,
+      Category category,
+      TransactionType type,
+      LocalDateTime date,
+      String description,
+      String idempotencyKey,
+      boolean transfer) {
     if (amount <= 0) {
       throw new IllegalArgumentException("Transaction amount must be positive");
     }
@@ -60,6 +112,8 @@ public class Transaction {
     this.type = type;
     this.date = date != null ? date : LocalDateTime.now();
     this.description = description != null ? description : "";
+    this.idempotencyKey = idempotencyKey;
+    this.transfer = transfer;
   }
 
   public String getId() {
@@ -86,6 +140,25 @@ public class Transaction {
     return description;
   }
 
+  /**
+   * Gets the client-supplied idempotency key.
+   *
+   * @return the key, or null if the transaction was created without one
+   */
+  public String getIdempotencyKey() {
+    return idempotencyKey;
+  }
+
+  /**
+   * Checks whether this transaction was created as a transfer leg in this process. The mark is
+   * not stored, so transactions read back from storage are never marked.
+   *
+   * @return true if created by {@link #transferLeg}
+   */
+  public boolean isTransfer() {
+    return transfer;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
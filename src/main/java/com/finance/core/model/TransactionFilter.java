@@ -0,0 +1,77 @@
+package com.finance.core.model;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Selects transactions by period, category name and type. Every criterion is optional.
+ */
+public final class TransactionFilter {
+  private static final TransactionFilter ALL = new TransactionFilter(null, null, null, null);
+  private final LocalDateTime from;
+  private final LocalDateTime to;
+  private final Set<String> categories;
+  private final TransactionType type;
+
+  /**
+   * Creates a filter.
+   *
+   * @param from the earliest date (inclusive), or null for no lower bound
+   * @param to the latest date (inclusive), or null for no upper bound
+   * @param categories the category names to keep, or null or empty for all
+   * @param type the transaction type to keep, or null for both
+   */
+  public TransactionFilter(
+      LocalDateTime from, LocalDateTime to, Collection<String> categories, TransactionType type) {
+    if (from != null && to != null && from.isAfter(to)) {
+      throw new IllegalArgumentException("Period start must not be after its end");
+    }
+    this.from = from;
+    this.to = to;
+    this.categories =
+        categories == null || categories.isEmpty()
+            ? null
+            : categories.stream().map(String::trim).collect(Collectors.toUnmodifiableSet());
+    this.type = type;
+  }
+
+  /**
+   * Gets the filter that keeps every transaction.
+   *
+   * @return the filter
+   */
+  public static TransactionFilter all() {
+    return ALL;
+  }
+
+  /**
+   * Checks whether a transaction passes every criterion.
+   *
+   * @param transaction the transaction
+   * @return true if it should be kept
+   */
+  public boolean matches(Transaction transaction) {
+    if (type != null && transaction.getType() != type) {
+      return false;
+    }
+    LocalDateTime date = transaction.getDate();
+    if ((from != null && date.isBefore(from)) || (to != null && date.isAfter(to))) {
+      return false;
+    }
+    return categories == null || categories.contains(transaction.getCategory().getName());
+  }
+
+  public LocalDateTime getFrom() {
+    return from;
+  }
+
+  public LocalDateTime getTo() {
+    return to;
+  }
+
+  public TransactionType getType() {
+    return type;
+  }
+}
@@ -0,0 +1,18 @@
+package com.finance.core.model;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Loads a wallet's transaction history on demand.
+ */
+@FunctionalInterface
+public interface TransactionLoader {
+  /**
+   * Loads all transactions in insertion order.
+   *
+   * @return the transactions
+   * @throws IOException if loading fails
+   */
+  List<Transaction> load() throws IOException;
+}
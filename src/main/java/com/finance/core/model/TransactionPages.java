@@ -0,0 +1,118 @@
+package com.finance.core.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Transaction history split into fixed-size pages that may live outside the heap.
+ */
+public interface TransactionPages {
+  /**
+   * Gets the total number of transactions across all pages.
+   *
+   * @return transaction count
+   */
+  int size();
+
+  /**
+   * Gets the number of pages.
+   *
+   * @return page count
+   */
+  int getPageCount();
+
+  /**
+   * Gets a page of transactions, loading it if it is not in memory.
+   *
+   * @param pageIndex the zero-based page index
+   * @return the transactions on the page, oldest first (read-only)
+   */
+  List<Transaction> getPage(int pageIndex);
+
+  /**
+   * Appends a transaction to the last page, starting a new page when it is full.
+   *
+   * @param transaction the transaction to append
+   */
+  void append(Transaction transaction);
+
+  /**
+   * Notes that the wallet set a budget or changed its limit, for stores that log budget changes
+   * in order with the transactions; the default ignores it.
+   *
+   * @param budget the budget as it is now
+   */
+  default void budgetSet(Budget budget) {
+  }
+
+  /**
+   * Notes that the wallet removed a budget; the default ignores it.
+   *
+   * @param category the category of the removed budget
+   */
+  default void budgetRemoved(Category category) {
+  }
+
+  /**
+   * Visits every transaction, page by page.
+   *
+   * @param action the action to run for each transaction
+   */
+  default void forEach(Consumer<Transaction> action) {
+    for (int i = 0; i < getPageCount(); i++) {
+      getPage(i).forEach(action);
+    }
+  }
+
+  /**
+   * Visits the transactions dated within a period. Stores ordered by date may skip everything
+   * outside it; the default checks every transaction.
+   *
+   * @param from the start of the period, inclusive
+   * @param to the end of the period, inclusive
+   * @param action the action to run for each matching transaction
+   */
+  default void forEachBetween(LocalDateTime from, LocalDateTime to, Consumer<Transaction> action) {
+    forEach(
+        t -> {
+          if (!t.getDate().isBefore(from) && !t.getDate().isAfter(to)) {
+            action.accept(t);
+          }
+        });
+  }
+
+  /**
+   * Visits the transactions of one type, optionally only those whose category name is in a set.
+   * Stores that index categories may skip parts of the history that cannot match; the default
+   * checks every transaction.
+   *
+   * @param type the transaction type
+   * @param categoryNames the category names to match, or null for any category
+   * @param action the action to run for each matching transaction
+   */
+  default void forEachMatching(
+      TransactionType type, Set<String> categoryNames, Consumer<Transaction> action) {
+    forEach(
+        t -> {
+          if (t.getType() == type
+              && (categoryNames == null || categoryNames.contains(t.getCategory().getName()))) {
+            action.accept(t);
+          }
+        });
+  }
+
+  /**
+   * Gets the most recently appended transaction.
+   *
+   * @return the transaction, or null if there are none
+   */
+  default Transaction getLast() {
+    if (getPageCount() == 0) {
+      return null;
+    }
+    List<Transaction> lastPage = getPage(getPageCount() - 1);
+    return lastPage.isEmpty() ? null : lastPage.get(lastPage.size() - 1);
+  }
+}
@@ -1,19 +1,42 @@
 package com.finance.core.model;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Represents a user's wallet containing balance, transactions, and budgets.
+ *
+ * <p>A wallet opened from a {@link WalletSummary} keeps only the header in memory; its
+ * transaction history is materialized through a {@link TransactionLoader} on first access. A
+ * wallet opened over {@link TransactionPages} never materializes the full history unless
+ * {@link #getTransactions()} is called; {@link #forEachTransaction} streams page by page.
+ *
+ * <p>Every mutation bumps {@link #getVersion()}. Repositories record the version they last wrote
+ * or read with {@link #markPersisted} and skip saves while {@link #isPersistedIn} holds, so budget
+ * changes must go through this class rather than through the {@link Budget} objects it returns.
  */
 public class Wallet {
   private final String userId;
   private double balance;
-  private final List<Transaction> transactions;
+  private double totalIncome;
+  private double totalExpenses;
+  private List<Transaction> transactions;
+  private TransactionLoader transactionLoader;
+  private final TransactionPages pages;
+  private final int summaryTransactionCount;
+  private final String summaryLastTransactionId;
   private final Map<Category, Budget> budgets;
+  private final IdempotencyKeys idempotencyKeys = new IdempotencyKeys();
+  private long version;
+  private long persistedVersion = -1;
+  private Object persistedIn;
 
   /**
    * Creates a new wallet for a user.
@@ -27,6 +50,9 @@ public class Wallet {
     this.userId = userId;
     this.balance = 0.0;
     this.transactions = new ArrayList<>();
+    this.pages = null;
+    this.summaryTransactionCount = 0;
+    this.summaryLastTransactionId = null;
     this.budgets = new HashMap<>();
   }
 
@@ -43,6 +69,56 @@ public class Wallet {
     this.userId = userId;
     this.balance = balance;
     this.transactions = new ArrayList<>(transactions != null ? transactions : new ArrayList<>());
+    this.pages = null;
+    this.summaryTransactionCount = 0;
+    this.summaryLastTransactionId = null;
+    this.budgets = new HashMap<>(budgets != null ? budgets : new HashMap<>());
+    recalculateTotals();
+  }
+
+  /**
+   * Creates a wallet from its summary header, loading transactions lazily.
+   *
+   * @param summary the wallet summary
+   * @param budgets map of budgets by category
+   * @param transactionLoader loads the transaction history on first access
+   */
+  public Wallet(
+      WalletSummary summary, Map<Category, Budget> budgets, TransactionLoader transactionLoader) {
+    if (summary == null || transactionLoader == null) {
+      throw new IllegalArgumentException("Summary and transaction loader cannot be null");
+    }
+    this.userId = summary.getUserId();
+    this.balance = summary.getBalance();
+    this.totalIncome = summary.getTotalIncome();
+    this.totalExpenses = summary.getTotalExpenses();
+    this.transactions = null;
+    this.transactionLoader = transactionLoader;
+    this.pages = null;
+    this.summaryTransactionCount = summary.getTransactionCount();
+    this.summaryLastTransactionId = summary.getLastTransactionId();
+    this.budgets = new HashMap<>(budgets != null ? budgets : new HashMap<>());
+  }
+
+  /**
+   * Creates a wallet whose transactions are kept in pages.
+   *
+   * @param summary the wallet summary
+   * @param budgets map of budgets by category
+   * @param pages the paged transaction store
+   */
+  public Wallet(WalletSummary summary, Map<Category, Budget> budgets, TransactionPages pages) {
+    if (summary == null || pages == null) {
+      throw new IllegalArgumentException("Summary and pages cannot be null");
+    }
+    this.userId = summary.getUserId();
+    this.balance = summary.getBalance();
+    this.totalIncome = summary.getTotalIncome();
+    this.totalExpenses = summary.getTotalExpenses();
+    this.transactions = null;
+    this.pages = pages;
+    this.summaryTransactionCount = 0;
+    this.summaryLastTransactionId = null;
     this.budgets = new HashMap<>(budgets != null ? budgets : new HashMap<>());
   }
 
@@ -54,8 +130,148 @@ public class Wallet {
     return balance;
   }
 
+  /**
+   * Gets the running total of all income transactions.
+   *
+   * @return total income
+   */
+  public double getTotalIncome() {
+    return totalIncome;
+  }
+
+  /**
+   * Gets the running total of all expense transactions.
+   *
+   * @return total expenses
+   */
+  public double getTotalExpenses() {
+    return totalExpenses;
+  }
+
+  public int getTransactionCount() {
+    if (pages != null) {
+      return pages.size();
+    }
+    return transactions != null ? transactions.size() : summaryTransactionCount;
+  }
+
+  /**
+   * Gets the ID of the most recently added transaction.
+   *
+   * @return the transaction ID or null if the wallet has no transactions
+   */
+  public String getLastTransactionId() {
+    if (pages != null) {
+      Transaction last = pages.getLast();
+      return last != null ? last.getId() : null;
+    }
+    if (transactions == null) {
+      return summaryLastTransactionId;
+    }
+    return transactions.isEmpty() ? null : transactions.get(transactions.size() - 1).getId();
+  }
+
+  /**
+   * Checks whether the transaction history is in memory.
+   *
+   * @return false if transactions will be loaded on next access
+   */
+  public boolean isTransactionsLoaded() {
+    return transactions != null;
+  }
+
+  /**
+   * Gets the paged transaction store backing this wallet.
+   *
+   * @return the pages, or null if the wallet keeps transactions in a list
+   */
+  public TransactionPages getTransactionPages() {
+    return pages;
+  }
+
+  /**
+   * Builds a summary header of the wallet's current state.
+   *
+   * @return the wallet summary
+   */
+  public WalletSummary getSummary() {
+    return new WalletSummary(
+        userId,
+        balance,
+        totalIncome,
+        totalExpenses,
+        getTransactionCount(),
+        budgets.size(),
+        getLastTransactionId());
+  }
+
+  public int getBudgetCount() {
+    return budgets.size();
+  }
+
+  /**
+   * Gets the modification counter, bumped by every change to transactions, budgets or balance.
+   *
+   * @return the current version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Checks whether the wallet changed since it was last read from or written to any store.
+   *
+   * @return true if there are unsaved changes
+   */
+  public boolean isDirty() {
+    return version != persistedVersion;
+  }
+
+  /**
+   * Checks whether the current version is already persisted in the given store.
+   *
+   * @param store the repository asking
+   * @return true if saving to the store again would write identical data
+   */
+  public boolean isPersistedIn(Object store) {
+    return store != null && store == persistedIn && version == persistedVersion;
+  }
+
+  /**
+   * Records that the current version has been read from or written to a store.
+   *
+   * @param store the repository that holds this version
+   */
+  public void markPersisted(Object store) {
+    this.persistedIn = store;
+    this.persistedVersion = version;
+  }
+
   public List<Transaction> getTransactions() {
-    return new ArrayList<>(transactions);
+    if (pages != null) {
+      List<Transaction> all = new ArrayList<>(pages.size());
+      forEachTransaction(all::add);
+      return all;
+    }
+    return new ArrayList<>(transactions());
+  }
+
+  /**
+   * Visits every transaction in insertion order without copying the history.
+   *
+   * @param action the action to run for each transaction
+   */
+  public void forEachTransaction(Consumer<Transaction> action) {
+    if (pages != null) {
+      pages.forEach(action);
+    } else {
+      transactions().forEach(action);
+    }
+  }
+
+  /** Gets the idempotency keys seen within their retention window. */
+  public IdempotencyKeys getIdempotencyKeys() {
+    return idempotencyKeys;
   }
 
   public Map<Category, Budget> getBudgets() {
@@ -72,14 +288,61 @@ public class Wallet {
       throw new IllegalArgumentException("Transaction cannot be null");
     }
 
-    transactions.add(transaction);
+    if (pages != null) {
+      pages.append(transaction);
+    } else {
+      transactions().add(transaction);
+    }
 
     if (transaction.getType() == TransactionType.INCOME) {
       balance += transaction.getAmount();
+      totalIncome += transaction.getAmount();
     } else {
       balance -= transaction.getAmount();
+      totalExpenses += transaction.getAmount();
       updateBudgetSpent(transaction.getCategory(), transaction.getAmount());
     }
+    version++;
+  }
+
+  /**
+   * Appends many transactions at once, updating totals and budgets in one pass at the end
+   * instead of once per transaction.
+   *
+   * @param batch the transactions to append, in order
+   */
+  public void addTransactions(Collection<Transaction> batch) {
+    if (batch == null || batch.isEmpty()) {
+      return;
+    }
+
+    if (batch.stream().anyMatch(Objects::isNull)) {
+      throw new IllegalArgumentException("Transaction cannot be null");
+    }
+
+    double income = 0.0;
+    double expenses = 0.0;
+    Map<Category, Double> spent = new HashMap<>();
+    if (pages == null) {
+      transactions().addAll(batch);
+    }
+    for (Transaction transaction : batch) {
+      if (pages != null) {
+        pages.append(transaction);
+      }
+      if (transaction.getType() == TransactionType.INCOME) {
+        income += transaction.getAmount();
+      } else {
+        expenses += transaction.getAmount();
+        spent.merge(transaction.getCategory(), transaction.getAmount(), Double::sum);
+      }
+    }
+
+    balance += income - expenses;
+    totalIncome += income;
+    totalExpenses += expenses;
+    spent.forEach(this::updateBudgetSpent);
+    version++;
   }
 
   /**
@@ -99,6 +362,10 @@ public class Wallet {
     } else {
       budgets.put(category, new Budget(category, limit));
     }
+    if (pages != null) {
+      pages.budgetSet(budgets.get(category));
+    }
+    version++;
   }
 
   /**
@@ -117,7 +384,12 @@ public class Wallet {
    * @param category the category
    */
   public void removeBudget(Category category) {
-    budgets.remove(category);
+    if (budgets.remove(category) != null) {
+      if (pages != null) {
+        pages.budgetRemoved(category);
+      }
+      version++;
+    }
   }
 
   /**
@@ -139,16 +411,29 @@ public class Wallet {
    * @return the calculated balance
    */
   public double calculateBalance() {
-    double calculated = 0.0;
-    for (Transaction t : transactions) {
-      if (t.getType() == TransactionType.INCOME) {
-        calculated += t.getAmount();
-      } else {
-        calculated -= t.getAmount();
-      }
+    recalculateTotals();
+    double calculated = totalIncome - totalExpenses;
+    if (calculated != balance) {
+      this.balance = calculated;
+      version++;
     }
-    this.balance = calculated;
-    return calculated;
+    return balance;
+  }
+
+  /**
+   * Recomputes the running income and expense totals from all transactions.
+   */
+  private void recalculateTotals() {
+    this.totalIncome = 0.0;
+    this.totalExpenses = 0.0;
+    forEachTransaction(
+        t -> {
+          if (t.getType() == TransactionType.INCOME) {
+            totalIncome += t.getAmount();
+          } else {
+            totalExpenses += t.getAmount();
+          }
+        });
   }
 
   /**
@@ -158,7 +443,14 @@ public class Wallet {
    * @return list of matching transactions
    */
   public List<Transaction> getTransactionsByType(TransactionType type) {
-    return transactions.stream().filter(t -> t.getType() == type).collect(Collectors.toList());
+    List<Transaction> result = new ArrayList<>();
+    forEachTransaction(
+        t -> {
+          if (t.getType() == type) {
+            result.add(t);
+          }
+        });
+    return result;
   }
 
   /**
@@ -168,15 +460,37 @@ public class Wallet {
    * @return list of matching transactions
    */
   public List<Transaction> getTransactionsByCategory(Category category) {
-    return transactions.stream()
-        .filter(t -> t.getCategory().equals(category))
-        .collect(Collectors.toList());
+    List<Transaction> result = new ArrayList<>();
+    forEachTransaction(
+        t -> {
+          if (t.getCategory().equals(category)) {
+            result.add(t);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * Gets the transaction list, materializing it on first access.
+   *
+   * @return the live transaction list
+   */
+  private List<Transaction> transactions() {
+    if (transactions == null) {
+      try {
+        transactions = new ArrayList<>(transactionLoader.load());
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to load transactions for " + userId, e);
+      }
+      transactionLoader = null;
+    }
+    return transactions;
   }
 
   @Override
   public String toString() {
     return String.format(
         "Wallet[user=%s, balance=%.2f, transactions=%d, budgets=%d]",
-        userId, balance, transactions.size(), budgets.size());
+        userId, balance, getTransactionCount(), budgets.size());
   }
 }
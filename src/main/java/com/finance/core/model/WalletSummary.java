@@ -0,0 +1,77 @@
+package com.finance.core.model;
+
+/**
+ * Lightweight header describing a wallet without its transaction history.
+ */
+public class WalletSummary {
+  private final String userId;
+  private final double balance;
+  private final double totalIncome;
+  private final double totalExpenses;
+  private final int transactionCount;
+  private final int budgetCount;
+  private final String lastTransactionId;
+
+  /**
+   * Creates a new wallet summary.
+   *
+   * @param userId the user ID
+   * @param balance the current balance
+   * @param totalIncome the total of all income transactions
+   * @param totalExpenses the total of all expense transactions
+   * @param transactionCount the number of transactions
+   * @param budgetCount the number of budgets
+   * @param lastTransactionId the ID of the most recent transaction, or null if none
+   */
+  public WalletSummary(
+      String userId,
+      double balance,
+      double totalIncome,
+      double totalExpenses,
+      int transactionCount,
+      int budgetCount,
+      String lastTransactionId) {
+    this.userId = userId;
+    this.balance = balance;
+    this.totalIncome = totalIncome;
+    this.totalExpenses = totalExpenses;
+    this.transactionCount = transactionCount;
+    this.budgetCount = budgetCount;
+    this.lastTransactionId = lastTransactionId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public double getBalance() {
+    return balance;
+  }
+
+  public double getTotalIncome() {
+    return totalIncome;
+  }
+
+  public double getTotalExpenses() {
+    return totalExpenses;
+  }
+
+  public int getTransactionCount() {
+    return transactionCount;
+  }
+
+  public int getBudgetCount() {
+    return budgetCount;
+  }
+
+  public String getLastTransactionId() {
+    return lastTransactionId;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "WalletSummary[user=%s, balance=%.2f, transactions=%d, budgets=%d]",
+        userId, balance, transactionCount, budgetCount);
+  }
+}
@@ -1,7 +1,9 @@
 package com.finance.core.service;
 
+import com.finance.core.model.Session;
 import com.finance.core.model.User;
 import com.finance.exception.AuthenticationException;
+import com.finance.infrastructure.jfr.CredentialCheckEvent;
 import com.finance.infrastructure.repository.UserRepository;
 import com.finance.infrastructure.repository.WalletRepository;
 import java.io.IOException;
@@ -9,11 +11,16 @@ import java.util.Optional;
 
 /**
  * Service for user authentication and registration.
+ *
+ * <p>Front-ends that serve several users hold session tokens from {@link #openSession}. The
+ * {@link #login}/{@link #logout} pair tracks a single current session for one-user callers.
+ * Every bcrypt verification is recorded as a {@link CredentialCheckEvent}.
  */
 public class AuthService {
   private final UserRepository userRepository;
-  private final WalletRepository walletRepository;
-  private User currentUser;
+  private final SessionManager sessionManager;
+  private final CredentialVerifier credentialVerifier;
+  private String currentSessionToken;
 
   /**
    * Creates a new AuthService.
@@ -22,9 +29,34 @@ public class AuthService {
    * @param walletRepository the wallet repository
    */
   public AuthService(UserRepository userRepository, WalletRepository walletRepository) {
+    this(userRepository, new SessionManager(walletRepository));
+  }
+
+  /**
+   * Creates a new AuthService with a shared session manager.
+   *
+   * @param userRepository the user repository
+   * @param sessionManager the session manager
+   */
+  public AuthService(UserRepository userRepository, SessionManager sessionManager) {
+    this(userRepository, sessionManager, new CredentialVerifier());
+  }
+
+  /**
+   * Creates a new AuthService with a shared session manager and credential verifier.
+   *
+   * @param userRepository the user repository
+   * @param sessionManager the session manager
+   * @param credentialVerifier the verifier that runs bcrypt off the caller's thread
+   */
+  public AuthService(
+      UserRepository userRepository,
+      SessionManager sessionManager,
+      CredentialVerifier credentialVerifier) {
     this.userRepository = userRepository;
-    this.walletRepository = walletRepository;
-    this.currentUser = null;
+    this.sessionManager = sessionManager;
+    this.credentialVerifier = credentialVerifier;
+    this.currentSessionToken = null;
   }
 
   /**
@@ -53,38 +85,98 @@ public class AuthService {
       throw new AuthenticationException("Username already exists");
     }
 
-    User user = new User(username, password);
+    User user = new User(username.trim(), credentialVerifier.hash(password), null);
     userRepository.save(user);
     return user;
   }
 
   /**
-   * Logs in a user.
+   * Authenticates a user and opens a new session with their wallet pinned.
    *
    * @param username the username
    * @param password the password
-   * @return the authenticated user
+   * @return the new session
    * @throws AuthenticationException if authentication fails
    */
-  public User login(String username, String password) {
+  public Session openSession(String username, String password) {
     Optional<User> userOpt = userRepository.findByUsername(username);
     if (userOpt.isEmpty()) {
       throw new AuthenticationException("Invalid username or password");
     }
 
     User user = userOpt.get();
-    if (!user.authenticate(password)) {
+    if (!verify(user, password)) {
       throw new AuthenticationException("Invalid username or password");
     }
 
+    Session session;
     try {
-      user.setWallet(walletRepository.load(username));
+      session = sessionManager.openSession(user);
     } catch (IOException e) {
       throw new AuthenticationException("Failed to load user wallet", e);
     }
+    credentialVerifier.remember(session.getToken(), user.getUsername(), password);
+    return session;
+  }
 
-    this.currentUser = user;
-    return user;
+  /**
+   * Re-checks a password within an existing session, skipping bcrypt while the credential
+   * verified at login is still cached.
+   *
+   * @param token the session token
+   * @param password the password
+   * @return true if the session is live and the password matches
+   */
+  public boolean reauthenticate(String token, String password) {
+    Optional<Session> session = sessionManager.getSession(token);
+    if (session.isEmpty()) {
+      return false;
+    }
+
+    User user = session.get().getUser();
+    if (credentialVerifier.verifyCached(token, user.getUsername(), password)) {
+      return true;
+    }
+    if (!verify(user, password)) {
+      return false;
+    }
+    credentialVerifier.remember(token, user.getUsername(), password);
+    return true;
+  }
+
+  /**
+   * Gets a live session by token.
+   *
+   * @param token the session token
+   * @return the session or empty if unknown or expired
+   */
+  public Optional<Session> getSession(String token) {
+    return sessionManager.getSession(token);
+  }
+
+  /**
+   * Closes a session, saving the wallet if it was the user's last session.
+   *
+   * @param token the session token
+   * @throws IOException if wallet save fails
+   */
+  public void closeSession(String token) throws IOException {
+    credentialVerifier.forget(token);
+    sessionManager.closeSession(token);
+  }
+
+  /**
+   * Logs in a user as the current session.
+   *
+   * @param username the username
+   * @param password the password
+   * @return the authenticated user
+   * @throws AuthenticationException if authentication fails
+   */
+  public User login(String username, String password) {
+    Session session = openSession(username, password);
+    this.currentSessionToken = session.getToken();
+    return session.getUser();
   }
 
   /**
@@ -93,9 +185,10 @@ public class AuthService {
    * @throws IOException if wallet save fails
    */
   public void logout() throws IOException {
-    if (currentUser != null) {
-      walletRepository.save(currentUser.getWallet());
-      currentUser = null;
+    if (currentSessionToken != null) {
+      String token = currentSessionToken;
+      currentSessionToken = null;
+      closeSession(token);
     }
   }
 
@@ -105,7 +198,7 @@ public class AuthService {
    * @return the current user or null if not logged in
    */
   public User getCurrentUser() {
-    return currentUser;
+    return sessionManager.getSession(currentSessionToken).map(Session::getUser).orElse(null);
   }
 
   /**
@@ -114,7 +207,28 @@ public class AuthService {
    * @return true if user is logged in
    */
   public boolean isLoggedIn() {
-    return currentUser != null;
+    return getCurrentUser() != null;
+  }
+
+  public SessionManager getSessionManager() {
+    return sessionManager;
+  }
+
+  public CredentialVerifier getCredentialVerifier() {
+    return credentialVerifier;
+  }
+
+  private boolean verify(User user, String password) {
+    CredentialCheckEvent event = new CredentialCheckEvent();
+    event.begin();
+    boolean success = credentialVerifier.verify(user, password);
+    event.end();
+    if (event.shouldCommit()) {
+      event.username = user.getUsername();
+      event.success = success;
+      event.commit();
+    }
+    return success;
   }
 
   /**
@@ -0,0 +1,336 @@
+package com.finance.core.service;
+
+import com.finance.core.model.User;
+import com.finance.exception.AuthenticationException;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Service that runs bcrypt hashing and verification on a dedicated bounded thread pool.
+ *
+ * <p>When the queue is full new requests are rejected instead of piling up, so a login storm
+ * cannot pin every core. After a successful verification the credential is remembered as an
+ * HMAC under the session token for a short time, letting re-authentication within that session
+ * skip bcrypt.
+ */
+public class CredentialVerifier implements AutoCloseable {
+  /** Default bcrypt cost factor, same as {@link BCrypt#gensalt()}. */
+  public static final int DEFAULT_LOG_ROUNDS = 10;
+  private static final int MIN_LOG_ROUNDS = 4;
+  private static final int MAX_LOG_ROUNDS = 16;
+  private static final int DEFAULT_QUEUE_CAPACITY = 256;
+  private static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(5);
+  private static final Duration VERIFY_TIMEOUT = Duration.ofSeconds(30);
+  private static final int MAX_CACHE_ENTRIES = 10_000;
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  private final ThreadPoolExecutor executor;
+  private final int logRounds;
+  private final Duration cacheTtl;
+  private final Clock clock;
+  private final SecretKeySpec cacheKey;
+  private final Map<String, CachedCredential> cache = new ConcurrentHashMap<>();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong verifications = new AtomicLong();
+  private final AtomicLong verifyNanos = new AtomicLong();
+  private final AtomicLong cacheHits = new AtomicLong();
+
+  /** Creates a CredentialVerifier with one worker per core and default settings. */
+  public CredentialVerifier() {
+    this(DEFAULT_LOG_ROUNDS);
+  }
+
+  /**
+   * Creates a CredentialVerifier with one worker per core and the given cost factor.
+   *
+   * @param logRounds the bcrypt cost factor for new password hashes
+   */
+  public CredentialVerifier(int logRounds) {
+    this(
+        Runtime.getRuntime().availableProcessors(),
+        DEFAULT_QUEUE_CAPACITY,
+        logRounds,
+        DEFAULT_CACHE_TTL,
+        Clock.systemUTC());
+  }
+
+  /**
+   * Creates a new CredentialVerifier.
+   *
+   * @param threads the number of bcrypt worker threads
+   * @param queueCapacity the maximum number of requests waiting for a worker
+   * @param logRounds the bcrypt cost factor for new password hashes
+   * @param cacheTtl how long a verified credential stays cached
+   * @param clock the clock used for cache expiry
+   */
+  public CredentialVerifier(
+      int threads, int queueCapacity, int logRounds, Duration cacheTtl, Clock clock) {
+    if (threads <= 0 || queueCapacity <= 0) {
+      throw new IllegalArgumentException("Threads and queue capacity must be positive");
+    }
+    if (logRounds < MIN_LOG_ROUNDS || logRounds > MAX_LOG_ROUNDS) {
+      throw new IllegalArgumentException(
+          "Log rounds must be between " + MIN_LOG_ROUNDS + " and " + MAX_LOG_ROUNDS);
+    }
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.logRounds = logRounds;
+    this.cacheTtl = cacheTtl;
+    this.clock = clock;
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    this.cacheKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+  }
+
+  /**
+   * Finds the highest bcrypt cost factor whose hashing time stays within a latency target.
+   *
+   * @param target the acceptable time for one hash on this machine
+   * @return the calibrated cost factor (at least the bcrypt minimum)
+   */
+  public static int calibrateLogRounds(Duration target) {
+    int rounds = MIN_LOG_ROUNDS;
+    while (rounds < MAX_LOG_ROUNDS) {
+      long start = System.nanoTime();
+      BCrypt.hashpw("calibration", BCrypt.gensalt(rounds + 1));
+      if (System.nanoTime() - start > target.toNanos()) {
+        break;
+      }
+      rounds++;
+    }
+    return rounds;
+  }
+
+  /**
+   * Hashes a password on the bcrypt pool using the configured cost factor.
+   *
+   * @param password the plain text password
+   * @return the bcrypt hash
+   * @throws AuthenticationException if the pool is saturated or hashing fails
+   */
+  public String hash(String password) {
+    return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(logRounds)));
+  }
+
+  /**
+   * Verifies a password against the user's stored hash on the bcrypt pool.
+   *
+   * @param user the user
+   * @param password the password to check
+   * @return true if the password matches
+   * @throws AuthenticationException if the pool is saturated or verification fails
+   */
+  public boolean verify(User user, String password) {
+    if (user == null || password == null) {
+      return false;
+    }
+    return submit(
+        () -> {
+          long start = System.nanoTime();
+          try {
+            return user.authenticate(password);
+          } finally {
+            verifyNanos.addAndGet(System.nanoTime() - start);
+            verifications.incrementAndGet();
+          }
+        });
+  }
+
+  /**
+   * Remembers a verified credential under a session token.
+   *
+   * @param token the session token
+   * @param username the verified username
+   * @param password the verified password
+   */
+  public void remember(String token, String username, String password) {
+    if (cache.size() >= MAX_CACHE_ENTRIES) {
+      purgeExpired();
+      if (cache.size() >= MAX_CACHE_ENTRIES) {
+        return;
+      }
+    }
+    long expiresAt = clock.millis() + cacheTtl.toMillis();
+    cache.put(token, new CachedCredential(username, mac(username, password), expiresAt));
+  }
+
+  /**
+   * Checks a credential against the cache without running bcrypt.
+   *
+   * @param token the session token
+   * @param username the username
+   * @param password the password
+   * @return true if a live cached entry matches
+   */
+  public boolean verifyCached(String token, String username, String password) {
+    CachedCredential cached = token != null ? cache.get(token) : null;
+    if (cached == null || password == null) {
+      return false;
+    }
+    if (cached.expiresAtMillis < clock.millis()) {
+      cache.remove(token, cached);
+      return false;
+    }
+    boolean matches =
+        cached.username.equals(username)
+            && MessageDigest.isEqual(cached.mac, mac(username, password));
+    if (matches) {
+      cacheHits.incrementAndGet();
+    }
+    return matches;
+  }
+
+  /**
+   * Drops the cached credential for a session token.
+   *
+   * @param token the session token
+   */
+  public void forget(String token) {
+    if (token != null) {
+      cache.remove(token);
+    }
+  }
+
+  public int getLogRounds() {
+    return logRounds;
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  public long getVerificationCount() {
+    return verifications.get();
+  }
+
+  public long getCacheHitCount() {
+    return cacheHits.get();
+  }
+
+  /**
+   * Registers gauges for the bcrypt queue depth, rejected requests and mean verification time.
+   *
+   * @param metrics the registry to register in
+   */
+  public void registerMetrics(MetricsRegistry metrics) {
+    metrics.gauge("auth.queue", this::getQueueDepth);
+    metrics.gauge("auth.rejected", this::getRejectedCount);
+    metrics.gauge("auth.verify_micros", () -> Math.round(getAverageVerifyMillis() * 1000));
+  }
+
+  /**
+   * Gets the mean time spent inside bcrypt verification.
+   *
+   * @return average verification time in milliseconds
+   */
+  public double getAverageVerifyMillis() {
+    long count = verifications.get();
+    return count == 0 ? 0.0 : verifyNanos.get() / 1_000_000.0 / count;
+  }
+
+  /** Stops the bcrypt pool. */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private <T> T submit(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejected.incrementAndGet();
+      throw new AuthenticationException("Authentication service is busy, try again later", e);
+    }
+
+    try {
+      return future.get(VERIFY_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new AuthenticationException("Authentication interrupted", e);
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw new AuthenticationException("Authentication timed out", e);
+    } catch (ExecutionException e) {
+      throw new AuthenticationException("Authentication failed", e.getCause());
+    }
+  }
+
+  private void purgeExpired() {
+    long now = clock.millis();
+    Iterator<CachedCredential> iterator = cache.values().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().expiresAtMillis < now) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private byte[] mac(String username, String password) {
+    try {
+      Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(cacheKey);
+      mac.update(username.getBytes(StandardCharsets.UTF_8));
+      mac.update((byte) 0);
+      return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("HMAC not available", e);
+    }
+  }
+
+  /**
+   * Credential verified earlier in a session.
+   */
+  private static final class CachedCredential {
+    private final String username;
+    private final byte[] mac;
+    private final long expiresAtMillis;
+
+    private CachedCredential(String username, byte[] mac, long expiresAtMillis) {
+      this.username = username;
+      this.mac = mac;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+  }
+}
@@ -2,25 +2,83 @@ package com.finance.core.service;
 
 import com.finance.core.model.Budget;
 import com.finance.core.model.Category;
+import com.finance.core.model.NotificationType;
 import com.finance.core.model.Wallet;
+import com.finance.infrastructure.event.NotificationEvent;
+import com.finance.infrastructure.event.OverflowPolicy;
+import com.finance.infrastructure.event.RingBufferEventBus;
+import com.finance.infrastructure.jfr.NotificationDeliveryEvent;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 /**
  * Service for generating notifications and warnings.
+ *
+ * <p>Checks publish small structured events into a bounded ring buffer; formatting and console
+ * delivery happen on the bus consumer thread, off the transaction path. Each delivery is recorded
+ * as a {@link NotificationDeliveryEvent}.
  */
-public class NotificationService {
+public class NotificationService implements AutoCloseable {
   private static final double WARNING_THRESHOLD = 0.8; // 80%
-  private final List<String> notifications;
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final int DEFAULT_BATCH_SIZE = 64;
+  private static final int MAX_HISTORY = 100;
+  private final Deque<String> notifications;
+  private final RingBufferEventBus eventBus;
+  private final StringBuilder pendingOutput;
+  private final PrintStream out;
 
   /** Creates a new NotificationService. */
   public NotificationService() {
-    this.notifications = new ArrayList<>();
+    this(System.out);
+  }
+
+  /**
+   * Creates a NotificationService with the default event bus that delivers to the given stream.
+   *
+   * @param out the stream notifications are printed to
+   */
+  public NotificationService(PrintStream out) {
+    this(DEFAULT_CAPACITY, OverflowPolicy.BLOCK, DEFAULT_BATCH_SIZE, out);
+  }
+
+  /**
+   * Creates a NotificationService with a custom event bus configuration.
+   *
+   * @param capacity the ring buffer capacity
+   * @param overflowPolicy what to do when the ring buffer is full
+   * @param batchSize the maximum number of notifications delivered per console write
+   */
+  public NotificationService(int capacity, OverflowPolicy overflowPolicy, int batchSize) {
+    this(capacity, overflowPolicy, batchSize, System.out);
+  }
+
+  /**
+   * Creates a NotificationService that delivers to the given stream.
+   *
+   * @param capacity the ring buffer capacity
+   * @param overflowPolicy what to do when the ring buffer is full
+   * @param batchSize the maximum number of notifications delivered per write
+   * @param out the stream notifications are printed to
+   */
+  public NotificationService(
+      int capacity, OverflowPolicy overflowPolicy, int batchSize, PrintStream out) {
+    this.out = out;
+    this.notifications = new ArrayDeque<>();
+    this.pendingOutput = new StringBuilder();
+    this.eventBus = new RingBufferEventBus(capacity, overflowPolicy, batchSize, this::deliver);
   }
 
   /**
    * Checks and generates notifications after an expense.
    *
+   * <p>Runs in constant time: the state before the expense is derived from the running totals
+   * minus {@code amount}, so each notification fires only on the expense that crosses its
+   * threshold rather than on every later expense.
+   *
    * @param wallet the wallet
    * @param category the expense category
    * @param amount the expense amount
@@ -28,10 +86,39 @@ public class NotificationService {
   public void checkAfterExpense(Wallet wallet, Category category, double amount) {
     Budget budget = wallet.getBudget(category);
     if (budget != null) {
-      checkBudgetLimit(budget);
+      checkBudgetCrossing(budget, budget.getSpent() - amount);
     }
 
-    checkBalanceStatus(wallet);
+    double balance = wallet.getBalance();
+    if (balance < 0 && balance + amount >= 0) {
+      notifyNegativeBalance(balance);
+    }
+
+    double totalIncome = wallet.getTotalIncome();
+    double totalExpenses = wallet.getTotalExpenses();
+    if (isOverspent(totalIncome, totalExpenses)
+        && !isOverspent(totalIncome, totalExpenses - amount)) {
+      notifyExpensesExceedIncome(totalExpenses, totalIncome);
+    }
+  }
+
+  /**
+   * Checks and generates notifications after an income.
+   *
+   * <p>Expenses only count as exceeding income once there is some income, so the first income
+   * of a wallet that has already spent can start the overspent state; it is reported here, as
+   * later expenses no longer cross into it.
+   *
+   * @param wallet the wallet
+   * @param amount the income amount
+   */
+  public void checkAfterIncome(Wallet wallet, double amount) {
+    double totalIncome = wallet.getTotalIncome();
+    double totalExpenses = wallet.getTotalExpenses();
+    if (isOverspent(totalIncome, totalExpenses)
+        && !isOverspent(totalIncome - amount, totalExpenses)) {
+      notifyExpensesExceedIncome(totalExpenses, totalIncome);
+    }
   }
 
   /**
@@ -44,26 +131,10 @@ public class NotificationService {
       return;
     }
 
-    double usagePercentage = budget.getUsagePercentage();
-
     if (budget.isExceeded()) {
-      String message =
-          String.format(
-              "⚠️  BUDGET EXCEEDED: Category '%s' - Spent: %.2f, Limit: %.2f, Over by: %.2f",
-              budget.getCategory().getName(),
-              budget.getSpent(),
-              budget.getLimit(),
-              budget.getSpent() - budget.getLimit());
-      addNotification(message);
-    } else if (usagePercentage >= WARNING_THRESHOLD * 100) {
-      String message =
-          String.format(
-              "⚠️  BUDGET WARNING: Category '%s' is at %.1f%% (%.2f / %.2f)",
-              budget.getCategory().getName(),
-              usagePercentage,
-              budget.getSpent(),
-              budget.getLimit());
-      addNotification(message);
+      notifyBudgetExceeded(budget);
+    } else if (budget.getUsagePercentage() >= WARNING_THRESHOLD * 100) {
+      notifyBudgetWarning(budget);
     }
   }
 
@@ -76,65 +147,194 @@ public class NotificationService {
     double balance = wallet.getBalance();
 
     if (balance < 0) {
-      String message = String.format("⚠️  NEGATIVE BALANCE: Current balance is %.2f", balance);
-      addNotification(message);
+      notifyNegativeBalance(balance);
     }
 
-    double totalIncome =
-        wallet.getTransactions().stream()
-            .filter(t -> t.getType() == com.finance.core.model.TransactionType.INCOME)
-            .mapToDouble(com.finance.core.model.Transaction::getAmount)
-            .sum();
+    double totalIncome = wallet.getTotalIncome();
+    double totalExpenses = wallet.getTotalExpenses();
 
-    double totalExpenses =
-        wallet.getTransactions().stream()
-            .filter(t -> t.getType() == com.finance.core.model.TransactionType.EXPENSE)
-            .mapToDouble(com.finance.core.model.Transaction::getAmount)
-            .sum();
+    if (isOverspent(totalIncome, totalExpenses)) {
+      notifyExpensesExceedIncome(totalExpenses, totalIncome);
+    }
+  }
+
+  private static boolean isOverspent(double totalIncome, double totalExpenses) {
+    return totalIncome > 0 && totalExpenses > totalIncome;
+  }
 
-    if (totalExpenses > totalIncome && totalIncome > 0) {
-      String message =
-          String.format(
-              "⚠️  EXPENSES EXCEED INCOME: Expenses: %.2f, Income: %.2f",
-              totalExpenses, totalIncome);
-      addNotification(message);
+  /**
+   * Fires a budget notification if the spent amount moved across the warning or limit threshold.
+   *
+   * @param budget the budget after the expense
+   * @param previousSpent the spent amount before the expense
+   */
+  private void checkBudgetCrossing(Budget budget, double previousSpent) {
+    double spent = budget.getSpent();
+    double limit = budget.getLimit();
+
+    if (spent > limit) {
+      if (previousSpent <= limit) {
+        notifyBudgetExceeded(budget);
+      }
+    } else {
+      double warningLevel = limit * WARNING_THRESHOLD;
+      if (spent >= warningLevel && previousSpent < warningLevel) {
+        notifyBudgetWarning(budget);
+      }
     }
   }
 
+  private void notifyBudgetExceeded(Budget budget) {
+    eventBus.publish(
+        NotificationType.BUDGET_EXCEEDED,
+        budget.getCategory().getName(),
+        budget.getSpent(),
+        budget.getLimit());
+  }
+
+  private void notifyBudgetWarning(Budget budget) {
+    eventBus.publish(
+        NotificationType.BUDGET_WARNING,
+        budget.getCategory().getName(),
+        budget.getSpent(),
+        budget.getLimit());
+  }
+
+  private void notifyNegativeBalance(double balance) {
+    eventBus.publish(NotificationType.NEGATIVE_BALANCE, null, balance, 0.0);
+  }
+
+  private void notifyExpensesExceedIncome(double totalExpenses, double totalIncome) {
+    eventBus.publish(NotificationType.EXPENSES_EXCEED_INCOME, null, totalExpenses, totalIncome);
+  }
+
+  /**
+   * Formats and delivers a notification event. Runs on the event bus consumer thread.
+   *
+   * @param event the event to deliver
+   * @param endOfBatch true if console output should be flushed
+   */
+  private void deliver(NotificationEvent event, boolean endOfBatch) {
+    NotificationDeliveryEvent delivery = new NotificationDeliveryEvent();
+    delivery.begin();
+    String message = format(event);
+    synchronized (notifications) {
+      if (notifications.size() == MAX_HISTORY) {
+        notifications.removeFirst();
+      }
+      notifications.addLast(message);
+    }
+
+    pendingOutput.append(message).append(System.lineSeparator());
+    if (endOfBatch) {
+      out.print(pendingOutput);
+      pendingOutput.setLength(0);
+    }
+
+    delivery.end();
+    if (delivery.shouldCommit()) {
+      delivery.type = event.getType().name();
+      delivery.subject = event.getSubject();
+      delivery.endOfBatch = endOfBatch;
+      delivery.commit();
+    }
+  }
+
+  /**
+   * Formats a notification event as a user-facing message.
+   *
+   * @param event the event
+   * @return the message
+   */
+  private String format(NotificationEvent event) {
+    double spent = event.getFirst();
+    double limit = event.getSecond();
+    switch (event.getType()) {
+      case BUDGET_EXCEEDED:
+        return String.format(
+            "⚠️  BUDGET EXCEEDED: Category '%s' - Spent: %.2f, Limit: %.2f, Over by: %.2f",
+            event.getSubject(), spent, limit, spent - limit);
+      case BUDGET_WARNING:
+        return String.format(
+            "⚠️  BUDGET WARNING: Category '%s' is at %.1f%% (%.2f / %.2f)",
+            event.getSubject(), limit == 0 ? 0.0 : spent / limit * 100.0, spent, limit);
+      case NEGATIVE_BALANCE:
+        return String.format("⚠️  NEGATIVE BALANCE: Current balance is %.2f", event.getFirst());
+      case EXPENSES_EXCEED_INCOME:
+        return String.format(
+            "⚠️  EXPENSES EXCEED INCOME: Expenses: %.2f, Income: %.2f",
+            event.getFirst(), event.getSecond());
+      default:
+        throw new IllegalStateException("Unknown notification type: " + event.getType());
+    }
+  }
+
+  /**
+   * Waits until every notification raised so far has been delivered.
+   */
+  public void flush() {
+    eventBus.flush();
+  }
+
   /**
-   * Adds a notification message.
+   * Gets the number of notifications dropped because the event buffer was full.
    *
-   * @param message the notification message
+   * @return dropped notification count
    */
-  private void addNotification(String message) {
-    notifications.add(message);
-    System.out.println(message);
+  public long getDroppedCount() {
+    return eventBus.getDroppedCount();
   }
 
   /**
-   * Gets all notifications and clears the list.
+   * Gets the number of notifications published but not yet delivered.
+   *
+   * @return the pending count
+   */
+  public long getPendingCount() {
+    return eventBus.getPendingCount();
+  }
+
+  /**
+   * Gets the recent notifications and clears the history.
    *
    * @return list of notification messages
    */
   public List<String> getNotificationsAndClear() {
-    List<String> result = new ArrayList<>(notifications);
-    notifications.clear();
-    return result;
+    flush();
+    synchronized (notifications) {
+      List<String> result = new ArrayList<>(notifications);
+      notifications.clear();
+      return result;
+    }
   }
 
   /**
-   * Gets all notifications without clearing.
+   * Gets the recent notifications without clearing.
    *
    * @return list of notification messages
    */
   public List<String> getNotifications() {
-    return new ArrayList<>(notifications);
+    flush();
+    synchronized (notifications) {
+      return new ArrayList<>(notifications);
+    }
   }
 
   /**
    * Clears all notifications.
    */
   public void clearNotifications() {
-    notifications.clear();
+    flush();
+    synchronized (notifications) {
+      notifications.clear();
+    }
+  }
+
+  /**
+   * Delivers pending notifications and stops the event bus.
+   */
+  @Override
+  public void close() {
+    eventBus.close();
   }
 }
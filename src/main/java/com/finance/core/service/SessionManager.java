@@ -0,0 +1,446 @@
+package com.finance.core.service;
+
+import com.finance.core.model.Session;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.exception.AuthenticationException;
+import com.finance.infrastructure.metrics.Counter;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for tracking many concurrent user sessions in one process.
+ *
+ * <p>Sessions are keyed by an opaque random token. Each user's wallet is loaded once and pinned
+ * while that user has at least one live session, so concurrent sessions of the same user share a
+ * single wallet instance. The wallet is saved when its last session closes or is evicted.
+ *
+ * <p>Saves run under the {@link WalletLock} given at construction, the same lock request handlers
+ * hold while they change a wallet, so a save never observes a change half done. Idle sessions
+ * found while opening or looking up a session are released on the {@code session-evictor}
+ * thread rather than on the caller's, which may already hold another wallet's lock.
+ *
+ * <p>Lookups of pinned wallets, at login and for transfer recipients, count as wallet cache hits
+ * or misses.
+ */
+public class SessionManager implements AutoCloseable {
+  private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+  private static final int DEFAULT_MAX_SESSIONS = 10_000;
+  private static final int TOKEN_BYTES = 24;
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+  private static final long SESSION_BYTES = 256;
+  private static final long WALLET_BYTES = 192;
+  private static final long TRANSACTION_BYTES = 320;
+  private static final long BUDGET_BYTES = 160;
+
+  private final WalletRepository walletRepository;
+  private final WalletLock walletLock;
+  private final Duration idleTimeout;
+  private final int maxSessions;
+  private final Clock clock;
+  private final SecureRandom random = new SecureRandom();
+  private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+  private final Map<String, PinnedWallet> pinnedWallets = new ConcurrentHashMap<>();
+  private final Counter walletCacheHits = new Counter();
+  private final Counter walletCacheMisses = new Counter();
+  private ScheduledExecutorService evictor;
+  private boolean evictionStarted;
+  private boolean closed;
+
+  /**
+   * Creates a SessionManager with default idle timeout and session limit.
+   *
+   * @param walletRepository the wallet repository
+   */
+  public SessionManager(WalletRepository walletRepository) {
+    this(walletRepository, (username, action) -> action.run());
+  }
+
+  /**
+   * Creates a SessionManager with default idle timeout and session limit that saves wallets
+   * under the given lock.
+   *
+   * @param walletRepository the wallet repository
+   * @param walletLock the lock guarding changes to each user's wallet
+   */
+  public SessionManager(WalletRepository walletRepository, WalletLock walletLock) {
+    this(walletRepository, walletLock, DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_SESSIONS,
+        Clock.systemUTC());
+  }
+
+  /**
+   * Creates a new SessionManager.
+   *
+   * @param walletRepository the wallet repository
+   * @param idleTimeout how long a session may stay unused before it is evicted
+   * @param maxSessions the maximum number of live sessions
+   * @param clock the clock used for idle tracking
+   */
+  public SessionManager(
+      WalletRepository walletRepository, Duration idleTimeout, int maxSessions, Clock clock) {
+    this(walletRepository, (username, action) -> action.run(), idleTimeout, maxSessions, clock);
+  }
+
+  /**
+   * Creates a new SessionManager that saves wallets under the given lock.
+   *
+   * @param walletRepository the wallet repository
+   * @param walletLock the lock guarding changes to each user's wallet
+   * @param idleTimeout how long a session may stay unused before it is evicted
+   * @param maxSessions the maximum number of live sessions
+   * @param clock the clock used for idle tracking
+   */
+  public SessionManager(WalletRepository walletRepository, WalletLock walletLock,
+      Duration idleTimeout, int maxSessions, Clock clock) {
+    if (maxSessions <= 0) {
+      throw new IllegalArgumentException("Max sessions must be positive");
+    }
+    this.walletRepository = walletRepository;
+    this.walletLock = walletLock;
+    this.idleTimeout = idleTimeout;
+    this.maxSessions = maxSessions;
+    this.clock = clock;
+  }
+
+  /**
+   * Opens a session for an authenticated user, loading and pinning their wallet if needed.
+   *
+   * @param user the authenticated user
+   * @return the new session
+   * @throws IOException if the wallet cannot be loaded
+   * @throws AuthenticationException if the session limit is reached
+   */
+  public Session openSession(User user) throws IOException {
+    if (user == null) {
+      throw new IllegalArgumentException("User cannot be null");
+    }
+    if (sessions.size() >= maxSessions && expireIdleSessions() == 0) {
+      throw new AuthenticationException("Too many active sessions");
+    }
+
+    PinnedWallet pinned;
+    try {
+      pinned =
+          pinnedWallets.compute(
+              user.getUsername(),
+              (username, existing) -> {
+                (existing != null ? walletCacheHits : walletCacheMisses).increment();
+                PinnedWallet result = existing != null ? existing : new PinnedWallet(load(username));
+                result.sessions++;
+                return result;
+              });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    user.setWallet(pinned.wallet);
+    Session session = new Session(newToken(), user, pinned.wallet, clock.instant());
+    sessions.put(session.getToken(), session);
+    return session;
+  }
+
+  /**
+   * Looks up a live session and records activity on it.
+   *
+   * @param token the session token
+   * @return the session, or empty if unknown or expired
+   */
+  public Optional<Session> getSession(String token) {
+    if (token == null) {
+      return Optional.empty();
+    }
+    Session session = sessions.get(token);
+    if (session == null) {
+      return Optional.empty();
+    }
+
+    long now = clock.millis();
+    if (isIdle(session, now)) {
+      expire(token);
+      return Optional.empty();
+    }
+    session.touch(now);
+    return Optional.of(session);
+  }
+
+  /**
+   * Gets the wallet pinned for a user, if that user has a live session.
+   *
+   * @param username the username
+   * @return the pinned wallet or empty
+   */
+  public Optional<Wallet> findPinnedWallet(String username) {
+    PinnedWallet pinned = username != null ? pinnedWallets.get(username) : null;
+    (pinned != null ? walletCacheHits : walletCacheMisses).increment();
+    return pinned != null ? Optional.of(pinned.wallet) : Optional.empty();
+  }
+
+  /**
+   * Closes a session. The wallet is saved and unpinned when its last session closes.
+   *
+   * @param token the session token
+   * @throws IOException if the wallet save fails
+   */
+  public void closeSession(String token) throws IOException {
+    Session session = token != null ? sessions.remove(token) : null;
+    if (session != null) {
+      release(session);
+    }
+  }
+
+  /**
+   * Closes every session that has been idle longer than the timeout, saving wallets on the
+   * calling thread.
+   *
+   * @return the number of sessions evicted
+   */
+  public int evictIdleSessions() {
+    long now = clock.millis();
+    int evicted = 0;
+    for (Session session : sessions.values()) {
+      if (isIdle(session, now) && closeQuietly(session.getToken())) {
+        evicted++;
+      }
+    }
+    return evicted;
+  }
+
+  /**
+   * Starts a background task that evicts idle sessions periodically.
+   *
+   * @param interval the eviction interval
+   */
+  public synchronized void startEviction(Duration interval) {
+    if (evictionStarted) {
+      return;
+    }
+    evictionStarted = true;
+    long millis = interval.toMillis();
+    evictor().scheduleAtFixedRate(this::evictIdleSessions, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  public int getActiveSessionCount() {
+    return sessions.size();
+  }
+
+  public int getPinnedWalletCount() {
+    return pinnedWallets.size();
+  }
+
+  /**
+   * Counts pinned wallets with changes that will be saved when their last session closes. Reads
+   * wallet versions without locking, so the result is approximate while sessions are active.
+   *
+   * @return the number of unsaved pinned wallets
+   */
+  public int getUnsavedWalletCount() {
+    int unsaved = 0;
+    for (PinnedWallet pinned : pinnedWallets.values()) {
+      if (pinned.wallet.isDirty()) {
+        unsaved++;
+      }
+    }
+    return unsaved;
+  }
+
+  public long getWalletCacheHits() {
+    return walletCacheHits.get();
+  }
+
+  public long getWalletCacheMisses() {
+    return walletCacheMisses.get();
+  }
+
+  /**
+   * Estimates the heap retained by live sessions and their pinned wallets.
+   *
+   * @return approximate retained bytes
+   */
+  public long estimateRetainedBytes() {
+    long bytes = sessions.size() * SESSION_BYTES;
+    for (PinnedWallet pinned : pinnedWallets.values()) {
+      bytes +=
+          WALLET_BYTES
+              + pinned.wallet.getTransactionCount() * TRANSACTION_BYTES
+              + pinned.wallet.getBudgetCount() * BUDGET_BYTES;
+    }
+    return bytes;
+  }
+
+  /**
+   * Stops background eviction and closes all sessions, saving their wallets.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    if (evictor != null) {
+      // Periodic eviction stops at shutdown; releases already queued still run.
+      evictor.shutdown();
+      try {
+        evictor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      evictor = null;
+    }
+    for (String token : sessions.keySet()) {
+      closeQuietly(token);
+    }
+  }
+
+  private boolean isIdle(Session session, long nowMillis) {
+    return nowMillis - session.getLastAccessMillis() > idleTimeout.toMillis();
+  }
+
+  /**
+   * Removes idle sessions at once, so their slots are free, and releases them on the evictor.
+   *
+   * @return the number of sessions removed
+   */
+  private int expireIdleSessions() {
+    long now = clock.millis();
+    int expired = 0;
+    for (Session session : sessions.values()) {
+      if (isIdle(session, now) && expire(session.getToken())) {
+        expired++;
+      }
+    }
+    return expired;
+  }
+
+  private boolean expire(String token) {
+    Session session = sessions.remove(token);
+    if (session == null) {
+      return false;
+    }
+    Runnable task = () -> releaseQuietly(session);
+    synchronized (this) {
+      if (!closed) {
+        evictor().execute(task);
+        return true;
+      }
+    }
+    task.run();
+    return true;
+  }
+
+  /**
+   * Ends a removed session's hold on its wallet. The last session saves the wallet under the
+   * wallet lock, outside any map operation, and then unpins it unless a new session has pinned it
+   * again in the meantime. The wallet is unpinned even if the save fails.
+   */
+  private void release(Session session) throws IOException {
+    String username = session.getUser().getUsername();
+    PinnedWallet[] released = new PinnedWallet[1];
+    pinnedWallets.computeIfPresent(
+        username,
+        (name, pinned) -> {
+          pinned.sessions--;
+          if (pinned.sessions == 0) {
+            released[0] = pinned;
+          }
+          return pinned;
+        });
+    PinnedWallet pinned = released[0];
+    if (pinned == null) {
+      return;
+    }
+    try {
+      walletLock.withLock(username, () -> walletRepository.save(pinned.wallet));
+    } finally {
+      pinnedWallets.computeIfPresent(
+          username, (name, current) -> current == pinned && current.sessions == 0 ? null : current);
+    }
+  }
+
+  private void releaseQuietly(Session session) {
+    try {
+      release(session);
+    } catch (IOException e) {
+      System.err.println("✗ Failed to save wallet for expired session: " + e.getMessage());
+    }
+  }
+
+  private synchronized ScheduledExecutorService evictor() {
+    if (evictor == null) {
+      evictor =
+          Executors.newSingleThreadScheduledExecutor(
+              runnable -> {
+                Thread thread = new Thread(runnable, "session-evictor");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+    return evictor;
+  }
+
+  private boolean closeQuietly(String token) {
+    try {
+      closeSession(token);
+      return true;
+    } catch (IOException e) {
+      System.err.println("✗ Failed to save wallet for expired session: " + e.getMessage());
+      return false;
+    }
+  }
+
+  private String newToken() {
+    byte[] bytes = new byte[TOKEN_BYTES];
+    random.nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+
+  private Wallet load(String username) {
+    try {
+      return walletRepository.load(username);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Lock guarding changes to one user's wallet, held while the wallet is saved.
+   */
+  @FunctionalInterface
+  public interface WalletLock {
+    /**
+     * Runs an action while holding the lock of a user's wallet.
+     *
+     * @param username the wallet owner
+     * @param action the action
+     * @throws IOException if the action fails
+     */
+    void withLock(String username, WalletAction action) throws IOException;
+  }
+
+  /**
+   * Work performed under a {@link WalletLock}.
+   */
+  @FunctionalInterface
+  public interface WalletAction {
+    void run() throws IOException;
+  }
+
+  /**
+   * Wallet shared by all live sessions of one user.
+   */
+  private static final class PinnedWallet {
+    private final Wallet wallet;
+    private int sessions;
+
+    private PinnedWallet(Wallet wallet) {
+      this.wallet = wallet;
+    }
+  }
+}
@@ -5,14 +5,22 @@ import com.finance.core.model.Category;
 import com.finance.core.model.Transaction;
 import com.finance.core.model.TransactionType;
 import com.finance.core.model.Wallet;
+import com.finance.infrastructure.jfr.StatisticsQueryEvent;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Service for calculating financial statistics.
+ *
+ * <p>Queries that scan the transaction history are recorded as {@link StatisticsQueryEvent}s;
+ * totals and budgets come from running values and are not.
  */
 public class StatisticsService {
 
@@ -23,9 +31,7 @@ public class StatisticsService {
    * @return total income amount
    */
   public double getTotalIncome(Wallet wallet) {
-    return wallet.getTransactionsByType(TransactionType.INCOME).stream()
-        .mapToDouble(Transaction::getAmount)
-        .sum();
+    return wallet.getTotalIncome();
   }
 
   /**
@@ -35,9 +41,7 @@ public class StatisticsService {
    * @return total expenses amount
    */
   public double getTotalExpenses(Wallet wallet) {
-    return wallet.getTransactionsByType(TransactionType.EXPENSE).stream()
-        .mapToDouble(Transaction::getAmount)
-        .sum();
+    return wallet.getTotalExpenses();
   }
 
   /**
@@ -47,14 +51,7 @@ public class StatisticsService {
    * @return map of category to total income
    */
   public Map<Category, Double> getIncomeByCategory(Wallet wallet) {
-    Map<Category, Double> incomeByCategory = new HashMap<>();
-
-    for (Transaction transaction : wallet.getTransactionsByType(TransactionType.INCOME)) {
-      Category category = transaction.getCategory();
-      incomeByCategory.merge(category, transaction.getAmount(), Double::sum);
-    }
-
-    return incomeByCategory;
+    return sumByCategory(wallet, TransactionType.INCOME, "incomeByCategory");
   }
 
   /**
@@ -64,14 +61,7 @@ public class StatisticsService {
    * @return map of category to total expenses
    */
   public Map<Category, Double> getExpensesByCategory(Wallet wallet) {
-    Map<Category, Double> expensesByCategory = new HashMap<>();
-
-    for (Transaction transaction : wallet.getTransactionsByType(TransactionType.EXPENSE)) {
-      Category category = transaction.getCategory();
-      expensesByCategory.merge(category, transaction.getAmount(), Double::sum);
-    }
-
-    return expensesByCategory;
+    return sumByCategory(wallet, TransactionType.EXPENSE, "expensesByCategory");
   }
 
   /**
@@ -92,17 +82,7 @@ public class StatisticsService {
    * @return total income for specified categories
    */
   public double getIncomeByCategories(Wallet wallet, List<String> categoryNames) {
-    if (categoryNames == null || categoryNames.isEmpty()) {
-      return 0.0;
-    }
-
-    List<String> normalizedNames =
-        categoryNames.stream().map(String::trim).collect(Collectors.toList());
-
-    return wallet.getTransactionsByType(TransactionType.INCOME).stream()
-        .filter(t -> normalizedNames.contains(t.getCategory().getName()))
-        .mapToDouble(Transaction::getAmount)
-        .sum();
+    return sumForCategories(wallet, categoryNames, TransactionType.INCOME, "incomeByCategories");
   }
 
   /**
@@ -113,17 +93,8 @@ public class StatisticsService {
    * @return total expenses for specified categories
    */
   public double getExpensesByCategories(Wallet wallet, List<String> categoryNames) {
-    if (categoryNames == null || categoryNames.isEmpty()) {
-      return 0.0;
-    }
-
-    List<String> normalizedNames =
-        categoryNames.stream().map(String::trim).collect(Collectors.toList());
-
-    return wallet.getTransactionsByType(TransactionType.EXPENSE).stream()
-        .filter(t -> normalizedNames.contains(t.getCategory().getName()))
-        .mapToDouble(Transaction::getAmount)
-        .sum();
+    return sumForCategories(
+        wallet, categoryNames, TransactionType.EXPENSE, "expensesByCategories");
   }
 
   /**
@@ -140,11 +111,20 @@ public class StatisticsService {
       return wallet.getTransactions();
     }
 
-    return wallet.getTransactions().stream()
-        .filter(
-            t ->
-                !t.getDate().isBefore(startDate) && !t.getDate().isAfter(endDate))
-        .collect(Collectors.toList());
+    StatisticsQueryEvent event = begin();
+    List<Transaction> result = new ArrayList<>();
+    if (wallet.getTransactionPages() != null) {
+      wallet.getTransactionPages().forEachBetween(startDate, endDate, result::add);
+    } else {
+      wallet.forEachTransaction(
+          t -> {
+            if (!t.getDate().isBefore(startDate) && !t.getDate().isAfter(endDate)) {
+              result.add(t);
+            }
+          });
+    }
+    commit(event, "transactionsByPeriod", wallet, result.size());
+    return result;
   }
 
   /**
@@ -159,14 +139,81 @@ public class StatisticsService {
       return List.of();
     }
 
-    List<String> existingCategories =
-        wallet.getTransactions().stream()
-            .map(t -> t.getCategory().getName())
-            .distinct()
-            .collect(Collectors.toList());
+    StatisticsQueryEvent event = begin();
+    Set<String> existingCategories = new HashSet<>();
+    wallet.forEachTransaction(t -> existingCategories.add(t.getCategory().getName()));
 
-    return categoryNames.stream()
+    List<String> missing = categoryNames.stream()
         .filter(name -> !existingCategories.contains(name.trim()))
         .collect(Collectors.toList());
+    commit(event, "missingCategories", wallet, missing.size());
+    return missing;
+  }
+
+  /**
+   * Sums transaction amounts of one type per category in a single pass over the history.
+   */
+  private Map<Category, Double> sumByCategory(Wallet wallet, TransactionType type, String query) {
+    StatisticsQueryEvent event = begin();
+    Map<Category, Double> totals = new HashMap<>();
+    forEachMatching(
+        wallet, type, null, t -> totals.merge(t.getCategory(), t.getAmount(), Double::sum));
+    commit(event, query, wallet, totals.size());
+    return totals;
+  }
+
+  /**
+   * Sums transaction amounts of one type for the named categories in a single pass.
+   */
+  private double sumForCategories(
+      Wallet wallet, List<String> categoryNames, TransactionType type, String query) {
+    if (categoryNames == null || categoryNames.isEmpty()) {
+      return 0.0;
+    }
+
+    StatisticsQueryEvent event = begin();
+    Set<String> normalizedNames =
+        categoryNames.stream().map(String::trim).collect(Collectors.toSet());
+    double[] total = new double[1];
+    forEachMatching(wallet, type, normalizedNames, t -> total[0] += t.getAmount());
+    commit(event, query, wallet, normalizedNames.size());
+    return total[0];
+  }
+
+  /**
+   * Visits the transactions of a type in the named categories (any if null), letting paged stores
+   * skip history that cannot match.
+   */
+  private static void forEachMatching(
+      Wallet wallet, TransactionType type, Set<String> categoryNames, Consumer<Transaction> action) {
+    if (wallet.getTransactionPages() != null) {
+      wallet.getTransactionPages().forEachMatching(type, categoryNames, action);
+      return;
+    }
+    wallet.forEachTransaction(
+        t -> {
+          if (t.getType() == type
+              && (categoryNames == null || categoryNames.contains(t.getCategory().getName()))) {
+            action.accept(t);
+          }
+        });
+  }
+
+  private static StatisticsQueryEvent begin() {
+    StatisticsQueryEvent event = new StatisticsQueryEvent();
+    event.begin();
+    return event;
+  }
+
+  private static void commit(
+      StatisticsQueryEvent event, String query, Wallet wallet, int resultSize) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.query = query;
+      event.userId = wallet.getUserId();
+      event.transactionCount = wallet.getTransactionCount();
+      event.resultSize = resultSize;
+      event.commit();
+    }
   }
 }
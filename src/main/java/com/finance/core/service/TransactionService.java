@@ -1,16 +1,28 @@
 package com.finance.core.service;
 
 import com.finance.core.model.Category;
+import com.finance.core.model.IdempotencyKeys;
 import com.finance.core.model.Transaction;
 import com.finance.core.model.TransactionType;
 import com.finance.core.model.Wallet;
+import com.finance.exception.DuplicateTransactionException;
 import com.finance.exception.ValidationException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
  * Service for managing transactions.
+ *
+ * <p>Transactions may carry a client-supplied idempotency key. A key seen in the same wallet
+ * within the idempotency window (24 hours by default) is rejected with a
+ * {@link DuplicateTransactionException} naming the transaction it created.
  */
 public class TransactionService {
+  public static final Duration DEFAULT_IDEMPOTENCY_WINDOW = Duration.ofHours(24);
+  private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
   private final NotificationService notificationService;
+  private volatile Duration idempotencyWindow = DEFAULT_IDEMPOTENCY_WINDOW;
 
   /**
    * Creates a new TransactionService.
@@ -21,6 +33,22 @@ public class TransactionService {
     this.notificationService = notificationService;
   }
 
+  /**
+   * Sets how long idempotency keys are remembered.
+   *
+   * @param window the retention window
+   */
+  public void setIdempotencyWindow(Duration window) {
+    if (window == null || window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("Idempotency window must be positive");
+    }
+    this.idempotencyWindow = window;
+  }
+
+  public Duration getIdempotencyWindow() {
+    return idempotencyWindow;
+  }
+
   /**
    * Adds an income transaction to the wallet.
    *
@@ -32,14 +60,34 @@ public class TransactionService {
    */
   public Transaction addIncome(
       Wallet wallet, double amount, Category category, String description) {
+    return addIncome(wallet, amount, category, description, null);
+  }
+
+  /**
+   * Adds an income transaction to the wallet unless its idempotency key was already used.
+   *
+   * @param wallet the wallet to add to
+   * @param amount the income amount
+   * @param category the income category
+   * @param description optional description
+   * @param idempotencyKey the client-supplied key, or null
+   * @return the created transaction
+   * @throws DuplicateTransactionException if the key was used within the window
+   */
+  public Transaction addIncome(
+      Wallet wallet, double amount, Category category, String description, String idempotencyKey) {
     validateTransaction(amount, category);
 
     if (category.getType() != TransactionType.INCOME) {
       category = new Category(category.getName(), TransactionType.INCOME);
     }
 
-    Transaction transaction = new Transaction(amount, category, TransactionType.INCOME, description);
-    wallet.addTransaction(transaction);
+    Transaction transaction =
+        add(wallet, amount, category, TransactionType.INCOME, description, idempotencyKey);
+
+    if (notificationService != null) {
+      notificationService.checkAfterIncome(wallet, amount);
+    }
 
     return transaction;
   }
@@ -55,6 +103,22 @@ public class TransactionService {
    */
   public Transaction addExpense(
       Wallet wallet, double amount, Category category, String description) {
+    return addExpense(wallet, amount, category, description, null);
+  }
+
+  /**
+   * Adds an expense transaction to the wallet unless its idempotency key was already used.
+   *
+   * @param wallet the wallet to add to
+   * @param amount the expense amount
+   * @param category the expense category
+   * @param description optional description
+   * @param idempotencyKey the client-supplied key, or null
+   * @return the created transaction
+   * @throws DuplicateTransactionException if the key was used within the window
+   */
+  public Transaction addExpense(
+      Wallet wallet, double amount, Category category, String description, String idempotencyKey) {
     validateTransaction(amount, category);
 
     if (category.getType() != TransactionType.EXPENSE) {
@@ -62,14 +126,46 @@ public class TransactionService {
     }
 
     Transaction transaction =
-        new Transaction(amount, category, TransactionType.EXPENSE, description);
-    wallet.addTransaction(transaction);
+        add(wallet, amount, category, TransactionType.EXPENSE, description, idempotencyKey);
 
     notificationService.checkAfterExpense(wallet, category, amount);
 
     return transaction;
   }
 
+  private Transaction add(
+      Wallet wallet,
+      double amount,
+      Category category,
+      TransactionType type,
+      String description,
+      String idempotencyKey) {
+    if (idempotencyKey == null) {
+      Transaction transaction = new Transaction(amount, category, type, description);
+      wallet.addTransaction(transaction);
+      return transaction;
+    }
+
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+      throw new ValidationException(
+          "Idempotency key must be 1-" + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+    }
+    Duration window = idempotencyWindow;
+    LocalDateTime now = LocalDateTime.now();
+    IdempotencyKeys keys = wallet.getIdempotencyKeys();
+    Transaction earlier = keys.find(idempotencyKey, now, window, wallet);
+    if (earlier != null) {
+      throw new DuplicateTransactionException(
+          "Duplicate idempotency key: " + idempotencyKey, earlier.getId());
+    }
+
+    Transaction transaction = new Transaction(
+        UUID.randomUUID().toString(), amount, category, type, now, description, idempotencyKey);
+    wallet.addTransaction(transaction);
+    keys.add(transaction, window);
+    return transaction;
+  }
+
   /**
    * Validates a transaction.
    *
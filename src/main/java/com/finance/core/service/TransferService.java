@@ -4,7 +4,9 @@ import com.finance.core.model.Category;
 import com.finance.core.model.Transaction;
 import com.finance.core.model.TransactionType;
 import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
 import com.finance.exception.InsufficientFundsException;
+import com.finance.infrastructure.jfr.TransferEvent;
 import com.finance.infrastructure.repository.UserRepository;
 import com.finance.infrastructure.repository.WalletRepository;
 import java.io.IOException;
@@ -12,11 +14,15 @@ import java.util.Optional;
 
 /**
  * Service for managing transfers between user wallets.
+ *
+ * <p>Each transfer attempt, successful or not, is recorded as a {@link TransferEvent}.
  */
 public class TransferService {
-  private static final String TRANSFER_CATEGORY = "Перевод";
+  /** Category name given to both legs of a transfer. */
+  public static final String TRANSFER_CATEGORY = "Перевод";
   private final UserRepository userRepository;
   private final WalletRepository walletRepository;
+  private final SessionManager sessionManager;
 
   /**
    * Creates a new TransferService.
@@ -25,8 +31,23 @@ public class TransferService {
    * @param walletRepository the wallet repository
    */
   public TransferService(UserRepository userRepository, WalletRepository walletRepository) {
+    this(userRepository, walletRepository, null);
+  }
+
+  /**
+   * Creates a TransferService that credits the live wallet of logged-in recipients.
+   *
+   * @param userRepository the user repository
+   * @param walletRepository the wallet repository
+   * @param sessionManager the session manager, or null to always load from storage
+   */
+  public TransferService(
+      UserRepository userRepository,
+      WalletRepository walletRepository,
+      SessionManager sessionManager) {
     this.userRepository = userRepository;
     this.walletRepository = walletRepository;
+    this.sessionManager = sessionManager;
   }
 
   /**
@@ -42,6 +63,26 @@ public class TransferService {
    */
   public void transfer(User sender, String recipientUsername, double amount, String description)
       throws IOException {
+    TransferEvent event = new TransferEvent();
+    event.begin();
+    boolean success = false;
+    try {
+      doTransfer(sender, recipientUsername, amount, description);
+      success = true;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.sender = sender != null ? sender.getUsername() : null;
+        event.recipient = recipientUsername;
+        event.amount = amount;
+        event.success = success;
+        event.commit();
+      }
+    }
+  }
+
+  private void doTransfer(User sender, String recipientUsername, double amount, String description)
+      throws IOException {
     if (sender == null) {
       throw new IllegalArgumentException("Sender cannot be null");
     }
@@ -71,8 +112,15 @@ public class TransferService {
     }
 
     User recipient = recipientOpt.get();
+    Optional<Wallet> pinnedWallet =
+        sessionManager != null
+            ? sessionManager.findPinnedWallet(recipient.getUsername())
+            : Optional.empty();
     try {
-      recipient.setWallet(walletRepository.load(recipient.getUsername()));
+      recipient.setWallet(
+          pinnedWallet.isPresent()
+              ? pinnedWallet.get()
+              : walletRepository.load(recipient.getUsername()));
     } catch (IOException e) {
       throw new IOException("Failed to load recipient wallet", e);
     }
@@ -81,14 +129,14 @@ public class TransferService {
     String expenseDesc =
         String.format("Transfer to %s%s", recipientUsername, description != null ? ": " + description : "");
     Transaction senderTransaction =
-        new Transaction(amount, transferCategory, TransactionType.EXPENSE, expenseDesc);
+        Transaction.transferLeg(amount, transferCategory, TransactionType.EXPENSE, expenseDesc);
     sender.getWallet().addTransaction(senderTransaction);
 
     Category incomeCategory = new Category(TRANSFER_CATEGORY, TransactionType.INCOME);
     String incomeDesc =
         String.format("Transfer from %s%s", sender.getUsername(), description != null ? ": " + description : "");
     Transaction recipientTransaction =
-        new Transaction(amount, incomeCategory, TransactionType.INCOME, incomeDesc);
+        Transaction.transferLeg(amount, incomeCategory, TransactionType.INCOME, incomeDesc);
     recipient.getWallet().addTransaction(recipientTransaction);
 
     try {
@@ -97,9 +145,5 @@ public class TransferService {
     } catch (IOException e) {
       throw new IOException("Failed to save wallets during transfer", e);
     }
-
-    System.out.println(
-        String.format(
-            "✓ Transfer successful: %.2f sent to %s", amount, recipientUsername));
   }
 }
@@ -1,6 +1,7 @@
 package com.finance.core.service;
 
 import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
 import com.finance.infrastructure.repository.WalletRepository;
 import java.io.IOException;
 
@@ -46,6 +47,20 @@ public class WalletService {
     return walletRepository.load(userId);
   }
 
+  /**
+   * Loads a wallet's summary header without reading its transactions.
+   *
+   * @param userId the user ID
+   * @return the wallet summary
+   * @throws IOException if load fails
+   */
+  public WalletSummary loadWalletSummary(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+    return walletRepository.loadSummary(userId);
+  }
+
   /**
    * Checks if a wallet exists for a user.
    *
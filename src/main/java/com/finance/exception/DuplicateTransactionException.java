@@ -0,0 +1,24 @@
+package com.finance.exception;
+
+/**
+ * Exception thrown when a transaction repeats an idempotency key already used within the
+ * retention window.
+ */
+public class DuplicateTransactionException extends RuntimeException {
+  private final String transactionId;
+
+  /**
+   * Creates the exception.
+   *
+   * @param message the detail message
+   * @param transactionId the ID of the transaction created with the key earlier
+   */
+  public DuplicateTransactionException(String message, String transactionId) {
+    super(message);
+    this.transactionId = transactionId;
+  }
+
+  public String getTransactionId() {
+    return transactionId;
+  }
+}
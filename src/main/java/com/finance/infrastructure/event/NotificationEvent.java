@@ -0,0 +1,47 @@
+package com.finance.infrastructure.event;
+
+import com.finance.core.model.NotificationType;
+
+/**
+ * Preallocated ring buffer slot describing a single notification.
+ *
+ * <p>Slots are reused by the producer, so handlers must copy anything they keep.
+ */
+public final class NotificationEvent {
+  private NotificationType type;
+  private String subject;
+  private double first;
+  private double second;
+
+  void set(NotificationType type, String subject, double first, double second) {
+    this.type = type;
+    this.subject = subject;
+    this.first = first;
+    this.second = second;
+  }
+
+  void clear() {
+    this.subject = null;
+  }
+
+  public NotificationType getType() {
+    return type;
+  }
+
+  /**
+   * Gets the subject of the notification, such as the category name.
+   *
+   * @return the subject or null if not applicable
+   */
+  public String getSubject() {
+    return subject;
+  }
+
+  public double getFirst() {
+    return first;
+  }
+
+  public double getSecond() {
+    return second;
+  }
+}
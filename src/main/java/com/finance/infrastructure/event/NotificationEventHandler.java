@@ -0,0 +1,15 @@
+package com.finance.infrastructure.event;
+
+/**
+ * Callback invoked on the consumer thread for every drained notification event.
+ */
+@FunctionalInterface
+public interface NotificationEventHandler {
+  /**
+   * Handles an event.
+   *
+   * @param event the event (only valid for the duration of the call)
+   * @param endOfBatch true if this is the last event of the current batch
+   */
+  void onEvent(NotificationEvent event, boolean endOfBatch);
+}
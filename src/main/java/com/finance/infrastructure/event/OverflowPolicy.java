@@ -0,0 +1,12 @@
+package com.finance.infrastructure.event;
+
+/**
+ * Enumeration describing what a producer does when the ring buffer is full.
+ */
+public enum OverflowPolicy {
+  /** Producer spins until the consumer frees a slot */
+  BLOCK,
+
+  /** Event is discarded and counted as dropped */
+  DROP
+}
@@ -0,0 +1,256 @@
+package com.finance.infrastructure.event;
+
+import com.finance.core.model.NotificationType;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free multi-producer event bus drained by a single consumer thread.
+ *
+ * <p>Producers claim a sequence with CAS, fill the preallocated slot in place and publish it, so
+ * {@link #publish} allocates nothing. The consumer hands events to the handler in batches of up to
+ * {@code batchSize}, flagging the last one of each batch so delivery can be flushed once.
+ *
+ * <p>The consumer thread starts with the bus and parks while the buffer is empty; producers only
+ * unpark it, so an idle bus causes no wakeups and publishing never starts a thread. The thread
+ * runs until {@link #close}. Under the {@link OverflowPolicy#BLOCK} policy producers facing a full
+ * buffer park until the consumer frees a slot.
+ */
+public class RingBufferEventBus implements AutoCloseable {
+  private static final long WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+  private static final long BLOCKED_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+  private final NotificationEvent[] slots;
+  private final AtomicLongArray published;
+  private final int mask;
+  private final int batchSize;
+  private final OverflowPolicy overflowPolicy;
+  private final NotificationEventHandler handler;
+  private final AtomicLong claimed = new AtomicLong();
+  private final AtomicLong consumed = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Queue<Thread> blockedProducers = new ConcurrentLinkedQueue<>();
+  private final Thread consumer;
+  private volatile boolean consumerWaiting;
+  private volatile boolean running;
+  private volatile boolean stopped;
+
+  /**
+   * Creates a new event bus and starts its consumer thread.
+   *
+   * @param capacity the number of slots (rounded up to a power of two)
+   * @param overflowPolicy what to do when the buffer is full
+   * @param batchSize the maximum number of events delivered per batch
+   * @param handler the handler invoked on the consumer thread
+   */
+  public RingBufferEventBus(
+      int capacity,
+      OverflowPolicy overflowPolicy,
+      int batchSize,
+      NotificationEventHandler handler) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    if (overflowPolicy == null || handler == null) {
+      throw new IllegalArgumentException("Overflow policy and handler cannot be null");
+    }
+
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.slots = new NotificationEvent[size];
+    this.published = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      slots[i] = new NotificationEvent();
+      published.set(i, -1L);
+    }
+    this.mask = size - 1;
+    this.batchSize = batchSize;
+    this.overflowPolicy = overflowPolicy;
+    this.handler = handler;
+    this.running = true;
+    this.consumer = new Thread(this::runConsumer, "notification-dispatcher");
+    consumer.setDaemon(true);
+    consumer.start();
+  }
+
+  /**
+   * Publishes an event without allocating.
+   *
+   * @param type the notification type
+   * @param subject the subject, such as a category name
+   * @param first the first numeric payload value
+   * @param second the second numeric payload value
+   * @return true if published, false if dropped because the buffer was full or closed
+   */
+  public boolean publish(NotificationType type, String subject, double first, double second) {
+    // Registering before reading running lets close() wait for publishes that got past the check.
+    inFlight.incrementAndGet();
+    try {
+      long sequence;
+      while (true) {
+        if (!running) {
+          dropped.incrementAndGet();
+          return false;
+        }
+        sequence = claimed.get();
+        if (sequence - consumed.get() >= slots.length) {
+          if (overflowPolicy == OverflowPolicy.DROP) {
+            dropped.incrementAndGet();
+            return false;
+          }
+          awaitFreeSlot(sequence);
+          continue;
+        }
+        if (claimed.compareAndSet(sequence, sequence + 1)) {
+          break;
+        }
+      }
+
+      int index = (int) (sequence & mask);
+      slots[index].set(type, subject, first, second);
+      published.set(index, sequence);
+      wakeConsumer();
+      return true;
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  /**
+   * Blocks until every event published before this call has been handled.
+   */
+  public void flush() {
+    long target = claimed.get();
+    while (consumed.get() < target) {
+      wakeConsumer();
+      LockSupport.parkNanos(WAIT_PARK_NANOS);
+    }
+  }
+
+  /**
+   * Gets the number of events dropped due to overflow or shutdown.
+   *
+   * @return dropped event count
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Gets the number of events waiting to be handled.
+   *
+   * @return current queue depth
+   */
+  public long getPendingCount() {
+    return claimed.get() - consumed.get();
+  }
+
+  public int getCapacity() {
+    return slots.length;
+  }
+
+  /**
+   * Stops accepting events, drains what is already queued and stops the consumer thread. Events
+   * from publishes that were already past the closed check when this was called are drained too.
+   */
+  @Override
+  public void close() {
+    running = false;
+    long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+    while ((inFlight.get() > 0 || consumed.get() < claimed.get())
+        && System.nanoTime() < deadline) {
+      wakeConsumer();
+      LockSupport.parkNanos(WAIT_PARK_NANOS);
+    }
+    stopped = true;
+    LockSupport.unpark(consumer);
+    try {
+      consumer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Parks a producer until the consumer has moved past {@code sequence}'s slot or a timeout. */
+  private void awaitFreeSlot(long sequence) {
+    Thread current = Thread.currentThread();
+    blockedProducers.add(current);
+    try {
+      if (sequence - consumed.get() >= slots.length && running) {
+        wakeConsumer();
+        LockSupport.parkNanos(this, BLOCKED_PARK_NANOS);
+      }
+    } finally {
+      blockedProducers.remove(current);
+    }
+  }
+
+  /** Unparks the consumer if it is waiting for events. */
+  private void wakeConsumer() {
+    if (consumerWaiting) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  private void runConsumer() {
+    while (true) {
+      if (drainBatch() > 0) {
+        continue;
+      }
+      if (consumed.get() < claimed.get()) {
+        // A producer has claimed a slot and is still filling it.
+        Thread.onSpinWait();
+        continue;
+      }
+      if (stopped) {
+        return;
+      }
+      // Producers read consumerWaiting after claiming, so either the claim is seen here or the
+      // producer sees the flag and unparks.
+      consumerWaiting = true;
+      if (consumed.get() == claimed.get() && !stopped) {
+        LockSupport.park(this);
+      }
+      consumerWaiting = false;
+    }
+  }
+
+  private int drainBatch() {
+    long next = consumed.get();
+    int available = 0;
+    while (available < batchSize
+        && published.get((int) ((next + available) & mask)) == next + available) {
+      available++;
+    }
+
+    for (int i = 0; i < available; i++) {
+      NotificationEvent event = slots[(int) ((next + i) & mask)];
+      try {
+        handler.onEvent(event, i == available - 1);
+      } catch (RuntimeException e) {
+        System.err.println("Notification handler failed: " + e.getMessage());
+      }
+      event.clear();
+    }
+
+    if (available > 0) {
+      consumed.set(next + available);
+      for (Thread producer : blockedProducers) {
+        LockSupport.unpark(producer);
+      }
+    }
+    return available;
+  }
+}
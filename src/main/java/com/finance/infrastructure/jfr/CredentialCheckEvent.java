@@ -0,0 +1,23 @@
+package com.finance.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a bcrypt password verification, including time queued for the
+ * verifier pool.
+ */
+@Name("com.finance.CredentialCheck")
+@Label("Credential Check")
+@Category({"Finance", "Auth"})
+@Description("A bcrypt password verification at login or re-authentication")
+public class CredentialCheckEvent extends Event {
+  @Label("User")
+  public String username;
+
+  @Label("Success")
+  public boolean success;
+}
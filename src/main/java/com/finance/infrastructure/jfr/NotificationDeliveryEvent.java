@@ -0,0 +1,26 @@
+package com.finance.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for delivering one notification on the event bus consumer thread.
+ */
+@Name("com.finance.NotificationDelivery")
+@Label("Notification Delivery")
+@Category({"Finance", "Notifications"})
+@Description("A notification formatted, stored in history and written to the console")
+public class NotificationDeliveryEvent extends Event {
+  @Label("Type")
+  public String type;
+
+  @Label("Subject")
+  public String subject;
+
+  @Label("End Of Batch")
+  @Description("True if this delivery flushed the pending console output")
+  public boolean endOfBatch;
+}
@@ -0,0 +1,29 @@
+package com.finance.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a statistics query that scans a wallet's transaction history.
+ */
+@Name("com.finance.StatisticsQuery")
+@Label("Statistics Query")
+@Category({"Finance", "Statistics"})
+@Description("A statistics query over a wallet's transactions")
+public class StatisticsQueryEvent extends Event {
+  @Label("Query")
+  public String query;
+
+  @Label("User")
+  public String userId;
+
+  @Label("Transactions")
+  public int transactionCount;
+
+  @Label("Result Size")
+  @Description("Entries in the result: categories, transactions or missing names")
+  public int resultSize;
+}
@@ -0,0 +1,28 @@
+package com.finance.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a transfer between two wallets, including loading and saving them.
+ */
+@Name("com.finance.Transfer")
+@Label("Transfer")
+@Category({"Finance", "Transfers"})
+@Description("A money transfer between two users")
+public class TransferEvent extends Event {
+  @Label("Sender")
+  public String sender;
+
+  @Label("Recipient")
+  public String recipient;
+
+  @Label("Amount")
+  public double amount;
+
+  @Label("Success")
+  public boolean success;
+}
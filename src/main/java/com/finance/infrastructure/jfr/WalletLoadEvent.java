@@ -0,0 +1,32 @@
+package com.finance.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for reading a wallet from storage.
+ */
+@Name("com.finance.WalletLoad")
+@Label("Wallet Load")
+@Category({"Finance", "Storage"})
+@Description("A wallet read from a JSON file")
+public class WalletLoadEvent extends Event {
+  @Label("User")
+  public String userId;
+
+  @Label("File Size")
+  @DataAmount
+  public long fileSize;
+
+  @Label("Transactions")
+  @Description("Transaction count from the header; the history itself may load lazily later")
+  public int transactionCount;
+
+  @Label("Header Only")
+  @Description("True if only the summary header was parsed")
+  public boolean headerOnly;
+}
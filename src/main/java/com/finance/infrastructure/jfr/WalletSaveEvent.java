@@ -0,0 +1,31 @@
+package com.finance.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for writing a wallet to storage.
+ */
+@Name("com.finance.WalletSave")
+@Label("Wallet Save")
+@Category({"Finance", "Storage"})
+@Description("A wallet written to a JSON file, or skipped because it did not change")
+public class WalletSaveEvent extends Event {
+  @Label("User")
+  public String userId;
+
+  @Label("File Size")
+  @DataAmount
+  public long fileSize;
+
+  @Label("Transactions")
+  public int transactionCount;
+
+  @Label("Skipped")
+  @Description("True if the wallet was unchanged and nothing was written")
+  public boolean skipped;
+}
@@ -0,0 +1,68 @@
+package com.finance.infrastructure.lsm;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of decoded segment blocks, bounded by their total size in bytes and
+ * shared by all segments of a store.
+ */
+final class BlockCache {
+  private final long capacityBytes;
+  private final LinkedHashMap<Long, byte[]> blocks = new LinkedHashMap<>(256, 0.75f, true);
+  private long sizeBytes;
+  private long hits;
+  private long misses;
+
+  BlockCache(long capacityBytes) {
+    this.capacityBytes = capacityBytes;
+  }
+
+  synchronized byte[] get(long segmentId, int blockIndex) {
+    byte[] block = blocks.get(key(segmentId, blockIndex));
+    if (block != null) {
+      hits++;
+    } else {
+      misses++;
+    }
+    return block;
+  }
+
+  synchronized void put(long segmentId, int blockIndex, byte[] block) {
+    if (block.length > capacityBytes) {
+      return;
+    }
+    byte[] previous = blocks.put(key(segmentId, blockIndex), block);
+    sizeBytes += block.length - (previous != null ? previous.length : 0);
+    Iterator<Map.Entry<Long, byte[]>> eldest = blocks.entrySet().iterator();
+    while (sizeBytes > capacityBytes && eldest.hasNext()) {
+      Map.Entry<Long, byte[]> entry = eldest.next();
+      sizeBytes -= entry.getValue().length;
+      eldest.remove();
+    }
+  }
+
+  /** Drops every block of a segment that has been compacted away. */
+  synchronized void invalidate(long segmentId) {
+    blocks.entrySet().removeIf(entry -> {
+      if (entry.getKey() >>> 32 != segmentId) {
+        return false;
+      }
+      sizeBytes -= entry.getValue().length;
+      return true;
+    });
+  }
+
+  synchronized long getHitCount() {
+    return hits;
+  }
+
+  synchronized long getMissCount() {
+    return misses;
+  }
+
+  private static long key(long segmentId, int blockIndex) {
+    return segmentId << 32 | (blockIndex & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,27 @@
+package com.finance.infrastructure.lsm;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A key and its value, or a deletion marker when the value is null.
+ */
+final class Entry {
+  static final Comparator<byte[]> KEY_ORDER = Arrays::compareUnsigned;
+  final byte[] key;
+  final byte[] value;
+
+  Entry(byte[] key, byte[] value) {
+    this.key = key;
+    this.value = value;
+  }
+
+  boolean isTombstone() {
+    return value == null;
+  }
+
+  /** Returns the approximate heap and file footprint of the entry. */
+  int size() {
+    return key.length + (value != null ? value.length : 0) + 2 * Integer.BYTES;
+  }
+}
@@ -0,0 +1,472 @@
+package com.finance.infrastructure.lsm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Embedded log-structured merge store of byte-array keys and values, ordered by unsigned
+ * lexicographic key comparison.
+ *
+ * <p>Writes are appended to a write-ahead log and applied to an in-memory sorted memtable. When
+ * the memtable reaches its size limit it is written out as an immutable sorted {@link Segment}
+ * and the log is discarded. Reads consult the memtable and then the segments from newest to
+ * oldest; segment blocks go through a shared LRU {@link BlockCache}, and a per-segment Bloom
+ * filter lets point lookups skip segments without the key. Once enough segments pile up, a
+ * background thread merges them into one, dropping overwritten values and deletions; a failed
+ * background merge is reported by the next write, flush or close. The list of
+ * live segments is kept in a {@code MANIFEST} file that is replaced atomically, so a crash at any
+ * point leaves either the old or the new set of segments, plus a log to replay.
+ *
+ * <p>Thread-safe. Writers are serialized; readers never block writers.
+ */
+public final class LsmStore implements AutoCloseable {
+  public static final int DEFAULT_MEMTABLE_BYTES = 4 << 20;
+  public static final long DEFAULT_BLOCK_CACHE_BYTES = 32L << 20;
+  public static final int DEFAULT_COMPACTION_TRIGGER = 4;
+  private static final int BLOCK_SIZE = 4096;
+  private static final int ENTRY_OVERHEAD = 64;
+  private static final byte[] TOMBSTONE = new byte[0];
+  private static final String MANIFEST = "MANIFEST";
+  private static final String WAL = "wal.log";
+  private final Path directory;
+  private final int memtableBytes;
+  private final int compactionTrigger;
+  private final boolean syncWrites;
+  private final BlockCache blockCache;
+  private final Object writeLock = new Object();
+  private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+  private final ReentrantLock compactionLock = new ReentrantLock();
+  private final AtomicReference<IOException> compactionFailure = new AtomicReference<>();
+  private final ExecutorService compactor;
+  private volatile ConcurrentSkipListMap<byte[], byte[]> memtable = newMemtable();
+  private volatile List<Segment> segments = List.of();
+  private WriteAheadLog wal;
+  private long memtableSize;
+  private long nextSegmentId;
+  private boolean closed;
+
+  /**
+   * Opens or creates a store with default settings.
+   *
+   * @param directory the directory holding the store's files
+   * @throws IOException if the store cannot be opened or recovered
+   */
+  public LsmStore(Path directory) throws IOException {
+    this(directory, DEFAULT_MEMTABLE_BYTES, DEFAULT_BLOCK_CACHE_BYTES, DEFAULT_COMPACTION_TRIGGER,
+        false);
+  }
+
+  /**
+   * Opens or creates a store, replaying the write-ahead log left by the previous run.
+   *
+   * @param directory the directory holding the store's files
+   * @param memtableBytes the memtable size at which it is written to a segment
+   * @param blockCacheBytes the capacity of the block cache
+   * @param compactionTrigger the number of segments that starts a background compaction
+   * @param syncWrites whether every write is forced to disk before it returns
+   * @throws IOException if the store cannot be opened or recovered
+   */
+  public LsmStore(Path directory, int memtableBytes, long blockCacheBytes, int compactionTrigger,
+      boolean syncWrites) throws IOException {
+    if (memtableBytes <= 0 || blockCacheBytes < 0 || compactionTrigger < 2) {
+      throw new IllegalArgumentException("Invalid store settings");
+    }
+    this.directory = directory;
+    this.memtableBytes = memtableBytes;
+    this.compactionTrigger = compactionTrigger;
+    this.syncWrites = syncWrites;
+    this.blockCache = new BlockCache(blockCacheBytes);
+    this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "lsm-compaction");
+      thread.setDaemon(true);
+      return thread;
+    });
+    Files.createDirectories(directory);
+    recover();
+  }
+
+  /**
+   * Gets the value of a key.
+   *
+   * @param key the key
+   * @return the value, or null if the key is absent or deleted
+   * @throws IOException if a segment cannot be read
+   */
+  public byte[] get(byte[] key) throws IOException {
+    byte[] value = memtable.get(key);
+    if (value != null) {
+      return value == TOMBSTONE ? null : value;
+    }
+    List<Segment> snapshot = retainSegments();
+    try {
+      for (int i = snapshot.size() - 1; i >= 0; i--) {
+        Entry entry = snapshot.get(i).get(key);
+        if (entry != null) {
+          return entry.value;
+        }
+      }
+      return null;
+    } finally {
+      snapshot.forEach(Segment::release);
+    }
+  }
+
+  /**
+   * Stores a value.
+   *
+   * @param key the key
+   * @param value the value
+   * @throws IOException if the write cannot be logged
+   */
+  public void put(byte[] key, byte[] value) throws IOException {
+    write(new WriteBatch().put(key, value));
+  }
+
+  /**
+   * Deletes a key.
+   *
+   * @param key the key
+   * @throws IOException if the write cannot be logged
+   */
+  public void delete(byte[] key) throws IOException {
+    write(new WriteBatch().delete(key));
+  }
+
+  /**
+   * Applies a batch atomically.
+   *
+   * @param batch the puts and deletes
+   * @throws IOException if the batch cannot be logged or the memtable cannot be flushed, or if
+   *     a background compaction failed since the last write
+   */
+  public void write(WriteBatch batch) throws IOException {
+    if (batch.size() == 0) {
+      return;
+    }
+    synchronized (writeLock) {
+      if (closed) {
+        throw new IOException("Store is closed: " + directory);
+      }
+      reportCompactionFailure();
+      wal.append(batch.entries());
+      for (Entry entry : batch.entries()) {
+        apply(entry);
+      }
+      if (memtableSize >= memtableBytes) {
+        flushLocked();
+      }
+    }
+  }
+
+  /**
+   * Visits the live entries with keys in {@code [from, to)} in key order; null bounds are open.
+   * The visit sees a consistent set of segments, but writes made during it may or may not be
+   * visible.
+   *
+   * @param from the first key, inclusive
+   * @param to the end key, exclusive
+   * @param visitor receives each key and value
+   * @throws IOException if a segment cannot be read
+   */
+  public void scan(byte[] from, byte[] to, BiConsumer<byte[], byte[]> visitor) throws IOException {
+    // The memtable is read before the segments: a flush in between then shows its entries twice
+    // rather than not at all.
+    ConcurrentSkipListMap<byte[], byte[]> table = memtable;
+    List<Segment> snapshot = retainSegments();
+    try {
+      List<Iterator<Entry>> sources = new ArrayList<>(snapshot.size() + 1);
+      sources.add(memtableEntries(table, from, to));
+      for (int i = snapshot.size() - 1; i >= 0; i--) {
+        sources.add(snapshot.get(i).scan(from, to));
+      }
+      Iterator<Entry> merged = new MergeIterator(sources, true);
+      while (merged.hasNext()) {
+        Entry entry = merged.next();
+        visitor.accept(entry.key, entry.value);
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      snapshot.forEach(Segment::release);
+    }
+  }
+
+  /**
+   * Writes the memtable to a segment now.
+   *
+   * @throws IOException if the segment cannot be written, or if a background compaction failed
+   *     since the last write
+   */
+  public void flush() throws IOException {
+    synchronized (writeLock) {
+      reportCompactionFailure();
+      flushLocked();
+    }
+  }
+
+  /**
+   * Merges all segments into one on the calling thread, waiting for a running background
+   * compaction first.
+   *
+   * @throws IOException if the merged segment cannot be written
+   */
+  public void compact() throws IOException {
+    compactionLock.lock();
+    try {
+      compactSegments();
+    } finally {
+      compactionLock.unlock();
+    }
+  }
+
+  public int getSegmentCount() {
+    return segments.size();
+  }
+
+  public long getBlockCacheHits() {
+    return blockCache.getHitCount();
+  }
+
+  public long getBlockCacheMisses() {
+    return blockCache.getMissCount();
+  }
+
+  /**
+   * Stops background compaction and closes all files. Unflushed writes stay in the log and are
+   * replayed on the next open.
+   *
+   * @throws IOException if a background compaction failed and was not yet reported
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized (writeLock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    compactor.shutdown();
+    try {
+      compactor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (writeLock) {
+      wal.close();
+      segments.forEach(Segment::release);
+      segments = List.of();
+    }
+    reportCompactionFailure();
+  }
+
+  /** Rethrows a background compaction failure once, to the first caller after it happened. */
+  private void reportCompactionFailure() throws IOException {
+    IOException failure = compactionFailure.getAndSet(null);
+    if (failure != null) {
+      throw new IOException("Background compaction failed in " + directory, failure);
+    }
+  }
+
+  private void apply(Entry entry) {
+    byte[] previous = memtable.put(entry.key, entry.isTombstone() ? TOMBSTONE : entry.value);
+    memtableSize += entry.size() + ENTRY_OVERHEAD;
+    if (previous != null) {
+      memtableSize -= entry.key.length + previous.length + 2 * Integer.BYTES + ENTRY_OVERHEAD;
+    }
+  }
+
+  /**
+   * Writes the memtable to a new segment, publishes it and only then swaps in an empty memtable
+   * and log, so readers always find every entry in one or the other.
+   */
+  private void flushLocked() throws IOException {
+    if (memtable.isEmpty()) {
+      return;
+    }
+    long id = nextSegmentId++;
+    Segment segment = Segment.write(id, segmentFile(id), memtableEntries(memtable, null, null),
+        BLOCK_SIZE, blockCache);
+    List<Segment> updated = new ArrayList<>(segments);
+    updated.add(segment);
+    writeManifest(updated);
+    segments = Collections.unmodifiableList(updated);
+    memtable = newMemtable();
+    memtableSize = 0;
+    wal.close();
+    Files.delete(directory.resolve(WAL));
+    wal = WriteAheadLog.open(directory.resolve(WAL), syncWrites);
+    if (segments.size() >= compactionTrigger && compactionScheduled.compareAndSet(false, true)) {
+      compactor.execute(() -> {
+        compactionLock.lock();
+        try {
+          compactSegments();
+        } catch (IOException e) {
+          compactionFailure.set(e);
+        } finally {
+          compactionScheduled.set(false);
+          compactionLock.unlock();
+        }
+      });
+    }
+  }
+
+  /**
+   * Merges the current segments into one. Flushes only append segments, so those made while the
+   * merge runs are exactly the ones after the merged prefix. The prefix starts with the oldest
+   * segment, so deletion markers have nothing left to hide and are dropped.
+   */
+  private void compactSegments() throws IOException {
+    List<Segment> snapshot;
+    long id;
+    synchronized (writeLock) {
+      snapshot = segments;
+      if (closed || snapshot.size() < 2) {
+        return;
+      }
+      id = nextSegmentId++;
+      snapshot.forEach(Segment::retain);
+    }
+    try {
+      List<Iterator<Entry>> sources = new ArrayList<>(snapshot.size());
+      for (int i = snapshot.size() - 1; i >= 0; i--) {
+        sources.add(snapshot.get(i).scan(null, null));
+      }
+      Segment merged = Segment.write(id, segmentFile(id), new MergeIterator(sources, true),
+          BLOCK_SIZE, blockCache);
+      synchronized (writeLock) {
+        List<Segment> current = segments;
+        List<Segment> updated = new ArrayList<>();
+        if (merged != null) {
+          updated.add(merged);
+        }
+        updated.addAll(current.subList(snapshot.size(), current.size()));
+        writeManifest(updated);
+        segments = Collections.unmodifiableList(updated);
+      }
+      for (Segment segment : snapshot) {
+        segment.markObsolete();
+        segment.release();
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      snapshot.forEach(Segment::release);
+    }
+  }
+
+  /**
+   * Takes a reader reference on every live segment, retrying if a compaction retires one of them
+   * in between.
+   */
+  private List<Segment> retainSegments() {
+    while (true) {
+      List<Segment> snapshot = segments;
+      int retained = 0;
+      while (retained < snapshot.size() && snapshot.get(retained).retain()) {
+        retained++;
+      }
+      if (retained == snapshot.size()) {
+        return snapshot;
+      }
+      for (int i = 0; i < retained; i++) {
+        snapshot.get(i).release();
+      }
+    }
+  }
+
+  /**
+   * Opens the segments listed in the manifest, deletes files left by an interrupted flush or
+   * compaction, and replays the log into a new segment.
+   */
+  private void recover() throws IOException {
+    List<Segment> live = new ArrayList<>();
+    Path manifest = directory.resolve(MANIFEST);
+    if (Files.exists(manifest)) {
+      for (String line : Files.readAllLines(manifest, StandardCharsets.US_ASCII)) {
+        if (!line.isBlank()) {
+          long id = Long.parseLong(line.trim());
+          live.add(Segment.open(id, segmentFile(id), blockCache));
+          nextSegmentId = Math.max(nextSegmentId, id + 1);
+        }
+      }
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "seg-*")) {
+      for (Path file : files) {
+        if (live.stream().noneMatch(segment -> segment.getFile().equals(file))) {
+          Files.delete(file);
+        }
+      }
+    }
+    segments = Collections.unmodifiableList(live);
+
+    Path log = directory.resolve(WAL);
+    for (List<Entry> batch : WriteAheadLog.replay(log)) {
+      batch.forEach(this::apply);
+    }
+    wal = WriteAheadLog.open(log, syncWrites);
+    flushLocked();
+  }
+
+  private void writeManifest(List<Segment> live) throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (Segment segment : live) {
+      text.append(segment.getId()).append('\n');
+    }
+    Path temp = directory.resolve(MANIFEST + ".tmp");
+    Files.writeString(temp, text, StandardCharsets.US_ASCII);
+    Files.move(temp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private Path segmentFile(long id) {
+    return directory.resolve(String.format("seg-%08d.sst", id));
+  }
+
+  private static ConcurrentSkipListMap<byte[], byte[]> newMemtable() {
+    return new ConcurrentSkipListMap<>(Entry.KEY_ORDER);
+  }
+
+  private static Iterator<Entry> memtableEntries(
+      ConcurrentSkipListMap<byte[], byte[]> table, byte[] from, byte[] to) {
+    NavigableMap<byte[], byte[]> range = table;
+    if (from != null && to != null) {
+      range = table.subMap(from, true, to, false);
+    } else if (from != null) {
+      range = table.tailMap(from, true);
+    } else if (to != null) {
+      range = table.headMap(to, false);
+    }
+    Iterator<Map.Entry<byte[], byte[]>> entries = range.entrySet().iterator();
+    return new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return entries.hasNext();
+      }
+
+      @Override
+      public Entry next() {
+        Map.Entry<byte[], byte[]> entry = entries.next();
+        return new Entry(entry.getKey(), entry.getValue() == TOMBSTONE ? null : entry.getValue());
+      }
+    };
+  }
+}
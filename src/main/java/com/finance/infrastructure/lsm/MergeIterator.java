@@ -0,0 +1,89 @@
+package com.finance.infrastructure.lsm;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Merges sorted entry iterators into one sorted iterator in which every key appears once, taking
+ * the entry from the newest source.
+ */
+final class MergeIterator implements Iterator<Entry> {
+  private final PriorityQueue<Source> queue = new PriorityQueue<>(
+      (a, b) -> {
+        int order = Entry.KEY_ORDER.compare(a.current.key, b.current.key);
+        return order != 0 ? order : Integer.compare(a.age, b.age);
+      });
+  private final boolean dropTombstones;
+  private Entry next;
+
+  /**
+   * Creates a merge.
+   *
+   * @param sources the iterators, newest first
+   * @param dropTombstones whether deletion markers are skipped rather than returned
+   */
+  MergeIterator(List<Iterator<Entry>> sources, boolean dropTombstones) {
+    this.dropTombstones = dropTombstones;
+    for (int age = 0; age < sources.size(); age++) {
+      Iterator<Entry> source = sources.get(age);
+      if (source.hasNext()) {
+        queue.add(new Source(source, age));
+      }
+    }
+    next = advance();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return next != null;
+  }
+
+  @Override
+  public Entry next() {
+    if (next == null) {
+      throw new NoSuchElementException();
+    }
+    Entry result = next;
+    next = advance();
+    return result;
+  }
+
+  private Entry advance() {
+    while (!queue.isEmpty()) {
+      Source newest = queue.poll();
+      Entry entry = newest.current;
+      newest.move(queue);
+      while (!queue.isEmpty()
+          && Entry.KEY_ORDER.compare(queue.peek().current.key, entry.key) == 0) {
+        queue.poll().move(queue);
+      }
+      if (!dropTombstones || !entry.isTombstone()) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  /** A source iterator and its current entry. */
+  private static final class Source {
+    private final Iterator<Entry> iterator;
+    private final int age;
+    private Entry current;
+
+    private Source(Iterator<Entry> iterator, int age) {
+      this.iterator = iterator;
+      this.age = age;
+      this.current = iterator.next();
+    }
+
+    /** Moves to the next entry and re-queues the source unless it is exhausted. */
+    private void move(PriorityQueue<Source> queue) {
+      if (iterator.hasNext()) {
+        current = iterator.next();
+        queue.add(this);
+      }
+    }
+  }
+}
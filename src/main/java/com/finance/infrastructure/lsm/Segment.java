@@ -0,0 +1,371 @@
+package com.finance.infrastructure.lsm;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An immutable sorted segment file.
+ *
+ * <p>Layout: data blocks of about {@code blockSize} bytes, each a run of entries
+ * {@code [int keyLength][key][int valueLength or -1 for a deletion][value]}; an index with the
+ * first key, offset and length of every block; a Bloom filter over all keys; and a fixed-size
+ * footer locating the index and the filter. The index and filter are kept in memory, blocks are
+ * read on demand through the shared {@link BlockCache}.
+ *
+ * <p>Segments are reference counted: the store holds one reference while the segment is live and
+ * readers take one for the duration of a lookup or scan, so a compacted segment is only closed and
+ * deleted once the last reader is done with it.
+ */
+final class Segment {
+  private static final int MAGIC = 0x4C534D31;
+  private static final int FOOTER_BYTES = 2 * Long.BYTES + 3 * Integer.BYTES + Long.BYTES;
+  private static final int BLOOM_HASHES = 7;
+  private static final int BLOOM_BITS_PER_KEY = 10;
+  private final long id;
+  private final Path file;
+  private final FileChannel channel;
+  private final BlockCache cache;
+  private final byte[][] firstKeys;
+  private final long[] offsets;
+  private final int[] lengths;
+  private final long[] bloom;
+  private final long entryCount;
+  private final AtomicInteger references = new AtomicInteger(1);
+  private volatile boolean obsolete;
+
+  private Segment(long id, Path file, BlockCache cache) throws IOException {
+    this.id = id;
+    this.file = file;
+    this.cache = cache;
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      ByteBuffer footer = read(channel.size() - FOOTER_BYTES, FOOTER_BYTES);
+      long indexOffset = footer.getLong();
+      int indexLength = footer.getInt();
+      long bloomOffset = footer.getLong();
+      int bloomLength = footer.getInt();
+      this.entryCount = footer.getLong();
+      if (footer.getInt() != MAGIC) {
+        throw new IOException("Not a segment file: " + file);
+      }
+
+      ByteBuffer index = read(indexOffset, indexLength);
+      int blocks = index.getInt();
+      firstKeys = new byte[blocks][];
+      offsets = new long[blocks];
+      lengths = new int[blocks];
+      for (int i = 0; i < blocks; i++) {
+        firstKeys[i] = new byte[index.getInt()];
+        index.get(firstKeys[i]);
+        offsets[i] = index.getLong();
+        lengths[i] = index.getInt();
+      }
+      bloom = new long[bloomLength / Long.BYTES];
+      read(bloomOffset, bloomLength).asLongBuffer().get(bloom);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens an existing segment file.
+   */
+  static Segment open(long id, Path file, BlockCache cache) throws IOException {
+    return new Segment(id, file, cache);
+  }
+
+  /**
+   * Writes sorted entries to a new segment file and opens it. The file is written under a
+   * temporary name, forced to disk and then renamed, so a crash never leaves a partial segment.
+   *
+   * @return the segment, or null if there were no entries
+   */
+  static Segment write(long id, Path file, Iterator<Entry> entries, int blockSize, BlockCache cache)
+      throws IOException {
+    if (!entries.hasNext()) {
+      return null;
+    }
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    List<byte[]> firstKeys = new ArrayList<>();
+    List<long[]> blocks = new ArrayList<>();
+    List<byte[]> keys = new ArrayList<>();
+    long count = 0;
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        DataOutputStream data =
+            new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16))) {
+      long position = 0;
+      long blockStart = -1;
+      while (entries.hasNext()) {
+        Entry entry = entries.next();
+        if (blockStart < 0 || position - blockStart >= blockSize) {
+          if (blockStart >= 0) {
+            blocks.get(blocks.size() - 1)[1] = position - blockStart;
+          }
+          blockStart = position;
+          firstKeys.add(entry.key);
+          blocks.add(new long[] {position, 0});
+        }
+        data.writeInt(entry.key.length);
+        data.write(entry.key);
+        data.writeInt(entry.isTombstone() ? -1 : entry.value.length);
+        if (!entry.isTombstone()) {
+          data.write(entry.value);
+        }
+        position += entry.size();
+        keys.add(entry.key);
+        count++;
+      }
+      long indexOffset = position;
+      blocks.get(blocks.size() - 1)[1] = indexOffset - blockStart;
+
+      int indexLength = Integer.BYTES;
+      data.writeInt(blocks.size());
+      for (int i = 0; i < blocks.size(); i++) {
+        data.writeInt(firstKeys.get(i).length);
+        data.write(firstKeys.get(i));
+        data.writeLong(blocks.get(i)[0]);
+        data.writeInt((int) blocks.get(i)[1]);
+        indexLength += 2 * Integer.BYTES + Long.BYTES + firstKeys.get(i).length;
+      }
+      long[] bloom = bloomFilter(keys);
+      for (long word : bloom) {
+        data.writeLong(word);
+      }
+      data.writeLong(indexOffset);
+      data.writeInt(indexLength);
+      data.writeLong(indexOffset + indexLength);
+      data.writeInt(bloom.length * Long.BYTES);
+      data.writeLong(count);
+      data.writeInt(MAGIC);
+      data.flush();
+      out.force(true);
+    }
+    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    return open(id, file, cache);
+  }
+
+  long getId() {
+    return id;
+  }
+
+  Path getFile() {
+    return file;
+  }
+
+  long getEntryCount() {
+    return entryCount;
+  }
+
+  /**
+   * Looks up a key.
+   *
+   * @return the entry, possibly a deletion marker, or null if the segment does not have the key
+   */
+  Entry get(byte[] key) throws IOException {
+    if (!mightContain(key)) {
+      return null;
+    }
+    int block = blockFor(key);
+    if (block < 0) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(block(block));
+    while (buffer.hasRemaining()) {
+      Entry entry = readEntry(buffer);
+      int order = Entry.KEY_ORDER.compare(entry.key, key);
+      if (order == 0) {
+        return entry;
+      }
+      if (order > 0) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Iterates the entries with keys in {@code [from, to)}; null bounds are open.
+   */
+  Iterator<Entry> scan(byte[] from, byte[] to) {
+    return new Iterator<>() {
+      private int block = from != null ? Math.max(0, blockFor(from)) : 0;
+      private ByteBuffer buffer;
+      private Entry next = advance();
+
+      private Entry advance() {
+        while (true) {
+          if (buffer == null || !buffer.hasRemaining()) {
+            if (block >= firstKeys.length) {
+              return null;
+            }
+            try {
+              buffer = ByteBuffer.wrap(block(block++));
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          }
+          Entry entry = readEntry(buffer);
+          if (from != null && Entry.KEY_ORDER.compare(entry.key, from) < 0) {
+            continue;
+          }
+          return to == null || Entry.KEY_ORDER.compare(entry.key, to) < 0 ? entry : null;
+        }
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public Entry next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        Entry result = next;
+        next = advance();
+        return result;
+      }
+    };
+  }
+
+  /**
+   * Takes a reference for a reader.
+   *
+   * @return false if the segment was already released for good
+   */
+  boolean retain() {
+    int count;
+    do {
+      count = references.get();
+      if (count == 0) {
+        return false;
+      }
+    } while (!references.compareAndSet(count, count + 1));
+    return true;
+  }
+
+  /** Drops a reference, closing the file and deleting it if the segment was compacted away. */
+  void release() {
+    if (references.decrementAndGet() == 0) {
+      try {
+        channel.close();
+        if (obsolete) {
+          cache.invalidate(id);
+          Files.deleteIfExists(file);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to release segment " + file, e);
+      }
+    }
+  }
+
+  /** Marks the segment for deletion once the last reference is released. */
+  void markObsolete() {
+    obsolete = true;
+  }
+
+  /** Index of the last block whose first key is not greater than the key, or -1. */
+  private int blockFor(byte[] key) {
+    int low = 0;
+    int high = firstKeys.length - 1;
+    int found = -1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (Entry.KEY_ORDER.compare(firstKeys[mid], key) <= 0) {
+        found = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return found;
+  }
+
+  private byte[] block(int index) throws IOException {
+    byte[] block = cache.get(id, index);
+    if (block == null) {
+      block = read(offsets[index], lengths[index]).array();
+      cache.put(id, index, block);
+    }
+    return block;
+  }
+
+  private ByteBuffer read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Truncated segment file: " + file);
+      }
+    }
+    return buffer.flip();
+  }
+
+  private static Entry readEntry(ByteBuffer buffer) {
+    byte[] key = new byte[buffer.getInt()];
+    buffer.get(key);
+    int valueLength = buffer.getInt();
+    byte[] value = null;
+    if (valueLength >= 0) {
+      value = new byte[valueLength];
+      buffer.get(value);
+    }
+    return new Entry(key, value);
+  }
+
+  private boolean mightContain(byte[] key) {
+    long hash = hash(key);
+    long step = hash >>> 32 | 1;
+    long bits = (long) bloom.length * Long.SIZE;
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      long bit = Long.remainderUnsigned(hash + i * step, bits);
+      if ((bloom[(int) (bit >>> 6)] & 1L << bit) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long[] bloomFilter(List<byte[]> keys) {
+    long[] bloom = new long[Math.max(1, (keys.size() * BLOOM_BITS_PER_KEY + 63) / 64)];
+    long bits = (long) bloom.length * Long.SIZE;
+    for (byte[] key : keys) {
+      long hash = hash(key);
+      long step = hash >>> 32 | 1;
+      for (int i = 0; i < BLOOM_HASHES; i++) {
+        long bit = Long.remainderUnsigned(hash + i * step, bits);
+        bloom[(int) (bit >>> 6)] |= 1L << bit;
+      }
+    }
+    return bloom;
+  }
+
+  /** 64-bit FNV-1a over the key, finished with the MurmurHash3 mixer. */
+  private static long hash(byte[] key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key) {
+      h = (h ^ (b & 0xFF)) * 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    return h ^ h >>> 33;
+  }
+}
@@ -0,0 +1,139 @@
+package com.finance.infrastructure.lsm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of write batches that have not yet reached a segment.
+ *
+ * <p>Each batch is one record {@code [int payloadLength][int crc32c][payload]}, the payload being
+ * the entry count followed by the entries in segment encoding. Replay stops at the first record
+ * that is truncated or fails its checksum, which is where a crash interrupted the last append, and
+ * cuts the file there.
+ */
+final class WriteAheadLog implements AutoCloseable {
+  private static final int HEADER_BYTES = 2 * Integer.BYTES;
+  private final Path file;
+  private final FileChannel channel;
+  private final boolean sync;
+
+  private WriteAheadLog(Path file, FileChannel channel, boolean sync) {
+    this.file = file;
+    this.channel = channel;
+    this.sync = sync;
+  }
+
+  /**
+   * Opens a log for appending, creating it if needed.
+   *
+   * @param sync whether every append is forced to disk before it returns
+   */
+  static WriteAheadLog open(Path file, boolean sync) throws IOException {
+    FileChannel channel = FileChannel.open(
+        file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    channel.position(channel.size());
+    return new WriteAheadLog(file, channel, sync);
+  }
+
+  /**
+   * Reads every complete batch of a log file and truncates anything after the last one.
+   *
+   * @return the batches in write order
+   */
+  static List<List<Entry>> replay(Path file) throws IOException {
+    List<List<Entry>> batches = new ArrayList<>();
+    if (!Files.exists(file)) {
+      return batches;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      long position = 0;
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (position + HEADER_BYTES <= size) {
+        header.clear();
+        channel.read(header, position);
+        int length = header.getInt(0);
+        int checksum = header.getInt(Integer.BYTES);
+        if (length < 0 || position + HEADER_BYTES + length > size) {
+          break;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        channel.read(payload, position + HEADER_BYTES);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.array());
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+        batches.add(decode(payload.flip()));
+        position += HEADER_BYTES + length;
+      }
+      if (position < size) {
+        channel.truncate(position);
+      }
+    }
+    return batches;
+  }
+
+  /**
+   * Appends a batch as one record.
+   */
+  void append(List<Entry> batch) throws IOException {
+    int length = Integer.BYTES;
+    for (Entry entry : batch) {
+      length += entry.size();
+    }
+    ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+    record.position(HEADER_BYTES);
+    record.putInt(batch.size());
+    for (Entry entry : batch) {
+      record.putInt(entry.key.length).put(entry.key);
+      record.putInt(entry.isTombstone() ? -1 : entry.value.length);
+      if (!entry.isTombstone()) {
+        record.put(entry.value);
+      }
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(record.array(), HEADER_BYTES, length);
+    record.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue()).flip();
+    while (record.hasRemaining()) {
+      channel.write(record);
+    }
+    if (sync) {
+      channel.force(false);
+    }
+  }
+
+  Path getFile() {
+    return file;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private static List<Entry> decode(ByteBuffer payload) {
+    int count = payload.getInt();
+    List<Entry> batch = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] key = new byte[payload.getInt()];
+      payload.get(key);
+      int valueLength = payload.getInt();
+      byte[] value = null;
+      if (valueLength >= 0) {
+        value = new byte[valueLength];
+        payload.get(value);
+      }
+      batch.add(new Entry(key, value));
+    }
+    return batch;
+  }
+}
@@ -0,0 +1,50 @@
+package com.finance.infrastructure.lsm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puts and deletes applied to an {@link LsmStore} atomically: they are logged as one record, so
+ * after a crash either all or none of them are present. The batch keeps the arrays it is given,
+ * which must not be modified afterwards.
+ */
+public final class WriteBatch {
+  private final List<Entry> entries = new ArrayList<>();
+
+  /**
+   * Adds a put.
+   *
+   * @param key the key
+   * @param value the value
+   * @return this batch
+   */
+  public WriteBatch put(byte[] key, byte[] value) {
+    if (key == null || value == null) {
+      throw new IllegalArgumentException("Key and value cannot be null");
+    }
+    entries.add(new Entry(key, value));
+    return this;
+  }
+
+  /**
+   * Adds a delete.
+   *
+   * @param key the key
+   * @return this batch
+   */
+  public WriteBatch delete(byte[] key) {
+    if (key == null) {
+      throw new IllegalArgumentException("Key cannot be null");
+    }
+    entries.add(new Entry(key, null));
+    return this;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  List<Entry> entries() {
+    return entries;
+  }
+}
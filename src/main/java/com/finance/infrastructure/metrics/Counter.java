@@ -0,0 +1,27 @@
+package com.finance.infrastructure.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, allocation-free monotonic counter.
+ */
+public final class Counter {
+  private final AtomicLong value = new AtomicLong();
+
+  public void increment() {
+    value.incrementAndGet();
+  }
+
+  /**
+   * Adds to the counter.
+   *
+   * @param delta the amount to add
+   */
+  public void add(long delta) {
+    value.addAndGet(delta);
+  }
+
+  public long get() {
+    return value.get();
+  }
+}
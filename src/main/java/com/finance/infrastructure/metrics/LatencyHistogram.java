@@ -0,0 +1,112 @@
+package com.finance.infrastructure.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets, in the style of HdrHistogram.
+ *
+ * <p>Values below 64 ns get one bucket each; above that every power of two is split into 32
+ * linear sub-buckets, so any recorded value is reported within about 3% of its true value.
+ * Recording is a few atomic increments on preallocated arrays and never allocates or blocks, so
+ * it can stay enabled in production. Values above about half an hour land in the last bucket.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+  private static final int MAX_EXPONENT = 40;
+  private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records one latency.
+   *
+   * @param nanos the latency in nanoseconds; negative values count as zero
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    buckets.incrementAndGet(bucketOf(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value)) {
+      current = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMaxNanos() {
+    return max.get();
+  }
+
+  /**
+   * Gets the mean of all recorded latencies.
+   *
+   * @return the mean in nanoseconds, 0 if nothing was recorded
+   */
+  public double getMeanNanos() {
+    long n = count.get();
+    return n == 0 ? 0.0 : (double) sum.get() / n;
+  }
+
+  /**
+   * Gets a latency percentile. Concurrent recording may make the answer slightly stale but never
+   * inconsistent beyond one bucket.
+   *
+   * @param percentile the percentile in (0, 100]
+   * @return the highest value of the bucket holding the percentile, in nanoseconds
+   */
+  public long getPercentileNanos(double percentile) {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = buckets.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Maps a value to its bucket: values below {@code 2 * SUB_BUCKETS} map to themselves, larger
+   * ones to a sub-bucket of their power of two.
+   */
+  static int bucketOf(long value) {
+    if (value < LINEAR_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    if (exponent > MAX_EXPONENT - SUB_BUCKET_BITS) {
+      return BUCKET_COUNT - 1;
+    }
+    int subBucket = (int) (value >>> exponent) - SUB_BUCKETS;
+    return LINEAR_BUCKETS + (exponent - 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** Gets the largest value that maps to a bucket. */
+  static long highestValueOf(int bucket) {
+    if (bucket < LINEAR_BUCKETS) {
+      return bucket;
+    }
+    int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+    long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+    return ((subBucket + 1) << exponent) - 1;
+  }
+}
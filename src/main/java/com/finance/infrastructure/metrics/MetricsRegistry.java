@@ -0,0 +1,172 @@
+package com.finance.infrastructure.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Named latency histograms, counters and gauges, with a plain-text snapshot.
+ *
+ * <p>Instruments are created once and cached by the code that records into them, so the hot
+ * path never touches the registry maps. A process-wide instance is available from
+ * {@link #getDefault()} for code that is constructed without dependencies, such as storage.
+ */
+public final class MetricsRegistry implements AutoCloseable {
+  private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+  private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+  private ScheduledExecutorService snapshotWriter;
+  private Path snapshotFile;
+
+  /**
+   * Gets the process-wide registry.
+   *
+   * @return the default registry
+   */
+  public static MetricsRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Gets or creates a latency histogram.
+   *
+   * @param name the metric name
+   * @return the histogram
+   */
+  public LatencyHistogram histogram(String name) {
+    return histograms.computeIfAbsent(name, n -> new LatencyHistogram());
+  }
+
+  /**
+   * Gets or creates a counter.
+   *
+   * @param name the metric name
+   * @return the counter
+   */
+  public Counter counter(String name) {
+    return counters.computeIfAbsent(name, n -> new Counter());
+  }
+
+  /**
+   * Registers a gauge read at snapshot time, replacing any gauge of the same name.
+   *
+   * @param name the metric name
+   * @param value supplies the current value
+   */
+  public void gauge(String name, LongSupplier value) {
+    gauges.put(name, value);
+  }
+
+  Map<String, LatencyHistogram> getHistograms() {
+    return histograms;
+  }
+
+  Map<String, Counter> getCounters() {
+    return counters;
+  }
+
+  Map<String, LongSupplier> getGauges() {
+    return gauges;
+  }
+
+  /**
+   * Formats every metric as text: one line per histogram with count, mean and percentiles in
+   * microseconds, then counters and gauges as name-value pairs.
+   *
+   * @return the snapshot
+   */
+  public String snapshot() {
+    StringBuilder text = new StringBuilder();
+    text.append("# metrics snapshot ").append(Instant.now()).append('\n');
+    text.append(String.format(
+        "%-32s %10s %10s %10s %10s %10s %10s %10s%n",
+        "# latency (us)", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+    new TreeMap<>(histograms).forEach((name, h) -> {
+      if (h.getCount() > 0) {
+        text.append(String.format(
+            "%-32s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+            name,
+            h.getCount(),
+            h.getMeanNanos() / 1_000.0,
+            h.getPercentileNanos(50) / 1_000.0,
+            h.getPercentileNanos(90) / 1_000.0,
+            h.getPercentileNanos(99) / 1_000.0,
+            h.getPercentileNanos(99.9) / 1_000.0,
+            h.getMaxNanos() / 1_000.0));
+      }
+    });
+    text.append("# counters\n");
+    Map<String, Long> values = new TreeMap<>();
+    counters.forEach((name, counter) -> values.put(name, counter.get()));
+    gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+    values.forEach((name, value) -> text.append(String.format("%-32s %10d%n", name, value)));
+    return text.toString();
+  }
+
+  /**
+   * Writes a snapshot to a file, replacing it atomically so readers never see a partial file.
+   *
+   * @param file the snapshot file
+   * @throws IOException if the file cannot be written
+   */
+  public void writeSnapshot(Path file) throws IOException {
+    Path absolute = file.toAbsolutePath();
+    Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+    Files.writeString(temporary, snapshot(), StandardCharsets.UTF_8);
+    Files.move(
+        temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Starts writing a snapshot to a file periodically on a daemon thread. A final snapshot is
+   * written on {@link #close()}.
+   *
+   * @param file the snapshot file
+   * @param interval the time between snapshots
+   */
+  public synchronized void startSnapshots(Path file, Duration interval) {
+    if (snapshotWriter != null) {
+      throw new IllegalStateException("Snapshots are already being written");
+    }
+    snapshotWriter = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "metrics-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long millis = interval.toMillis();
+    snapshotWriter.scheduleAtFixedRate(
+        () -> writeQuietly(file), millis, millis, TimeUnit.MILLISECONDS);
+    this.snapshotFile = file;
+  }
+
+  /** Stops periodic snapshots, writing a last one. */
+  @Override
+  public synchronized void close() {
+    if (snapshotWriter == null) {
+      return;
+    }
+    snapshotWriter.shutdownNow();
+    snapshotWriter = null;
+    writeQuietly(snapshotFile);
+  }
+
+  private void writeQuietly(Path file) {
+    try {
+      writeSnapshot(file);
+    } catch (IOException e) {
+      System.err.println("✗ Failed to write metrics snapshot: " + e.getMessage());
+    }
+  }
+}
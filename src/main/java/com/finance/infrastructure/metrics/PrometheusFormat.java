@@ -0,0 +1,170 @@
+package com.finance.infrastructure.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Renders a {@link MetricsRegistry} and JVM statistics in the Prometheus text exposition format.
+ *
+ * <p>Histograms named {@code <group>.<name>} become summaries {@code finance_<group>_latency_seconds}
+ * with a {@code name} label; counters become {@code finance_<name>_total} and gauges
+ * {@code finance_<name>}, with dots replaced by underscores. For every {@code <x>.hits} and
+ * {@code <x>.misses} pair a {@code finance_<x>_hit_ratio} gauge is added. Everything is read from
+ * atomics and concurrent maps, so rendering never blocks the code that records.
+ */
+public final class PrometheusFormat {
+  public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final String PREFIX = "finance_";
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+  private static final double NANOS_PER_SECOND = 1e9;
+
+  private PrometheusFormat() {
+  }
+
+  /**
+   * Renders the registry followed by JVM memory, GC and thread metrics.
+   *
+   * @param registry the registry
+   * @return the exposition text
+   */
+  public static String format(MetricsRegistry registry) {
+    StringBuilder text = new StringBuilder();
+    writeHistograms(text, registry.getHistograms());
+
+    Map<String, Long> counters = new TreeMap<>();
+    registry.getCounters().forEach((name, counter) -> counters.put(name, counter.get()));
+    counters.forEach((name, value) -> single(text, PREFIX + sanitize(name) + "_total", "counter", value));
+
+    Map<String, Long> gauges = new TreeMap<>();
+    registry.getGauges().forEach((name, gauge) -> gauges.put(name, gauge.getAsLong()));
+    gauges.forEach((name, value) -> single(text, PREFIX + sanitize(name), "gauge", value));
+
+    Map<String, Long> values = new TreeMap<>(counters);
+    values.putAll(gauges);
+    writeHitRatios(text, values);
+    writeJvm(text);
+    return text.toString();
+  }
+
+  private static void writeHistograms(StringBuilder text, Map<String, LatencyHistogram> all) {
+    Map<String, Map<String, LatencyHistogram>> families = new TreeMap<>();
+    all.forEach((name, histogram) -> {
+      int dot = name.indexOf('.');
+      String family = dot > 0 ? name.substring(0, dot) : name;
+      String label = dot > 0 ? name.substring(dot + 1) : "";
+      families.computeIfAbsent(family, f -> new TreeMap<>()).put(label, histogram);
+    });
+
+    families.forEach((family, histograms) -> {
+      String metric = PREFIX + sanitize(family) + "_latency_seconds";
+      type(text, metric, "summary");
+      histograms.forEach((label, histogram) -> {
+        long count = histogram.getCount();
+        String labels = label.isEmpty() ? "" : "name=\"" + escape(label) + "\"";
+        for (double quantile : QUANTILES) {
+          String quantileLabel = "quantile=\"" + quantile + "\"";
+          sample(
+              text,
+              metric,
+              labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel,
+              count > 0 ? histogram.getPercentileNanos(quantile * 100) / NANOS_PER_SECOND : Double.NaN);
+        }
+        sample(text, metric + "_sum", labels, histogram.getMeanNanos() * count / NANOS_PER_SECOND);
+        sample(text, metric + "_count", labels, count);
+      });
+    });
+  }
+
+  private static void writeHitRatios(StringBuilder text, Map<String, Long> values) {
+    values.forEach((name, hits) -> {
+      if (!name.endsWith(".hits")) {
+        return;
+      }
+      String cache = name.substring(0, name.length() - ".hits".length());
+      Long misses = values.get(cache + ".misses");
+      if (misses != null) {
+        long total = hits + misses;
+        single(
+            text,
+            PREFIX + sanitize(cache) + "_hit_ratio",
+            "gauge",
+            total > 0 ? (double) hits / total : Double.NaN);
+      }
+    });
+  }
+
+  private static void writeJvm(StringBuilder text) {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+    type(text, "jvm_memory_bytes_used", "gauge");
+    sample(text, "jvm_memory_bytes_used", "area=\"heap\"", heap.getUsed());
+    sample(text, "jvm_memory_bytes_used", "area=\"nonheap\"", nonHeap.getUsed());
+    type(text, "jvm_memory_bytes_committed", "gauge");
+    sample(text, "jvm_memory_bytes_committed", "area=\"heap\"", heap.getCommitted());
+    sample(text, "jvm_memory_bytes_committed", "area=\"nonheap\"", nonHeap.getCommitted());
+    type(text, "jvm_memory_bytes_max", "gauge");
+    sample(text, "jvm_memory_bytes_max", "area=\"heap\"", heap.getMax());
+
+    type(text, "jvm_memory_pool_bytes_used", "gauge");
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      sample(
+          text,
+          "jvm_memory_pool_bytes_used",
+          "pool=\"" + escape(pool.getName()) + "\"",
+          pool.getUsage().getUsed());
+    }
+
+    type(text, "jvm_gc_collection_seconds", "summary");
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      String labels = "gc=\"" + escape(gc.getName()) + "\"";
+      sample(text, "jvm_gc_collection_seconds_count", labels, Math.max(gc.getCollectionCount(), 0));
+      sample(text, "jvm_gc_collection_seconds_sum", labels, Math.max(gc.getCollectionTime(), 0) / 1e3);
+    }
+
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    single(text, "jvm_threads_current", "gauge", threads.getThreadCount());
+    single(text, "jvm_threads_daemon", "gauge", threads.getDaemonThreadCount());
+    single(text, "jvm_threads_peak", "gauge", threads.getPeakThreadCount());
+  }
+
+  private static void type(StringBuilder text, String metric, String type) {
+    text.append("# TYPE ").append(metric).append(' ').append(type).append('\n');
+  }
+
+  /**
+   * Writes a metric with a single unlabeled sample.
+   */
+  private static void single(StringBuilder text, String metric, String type, double value) {
+    type(text, metric, type);
+    sample(text, metric, "", value);
+  }
+
+  private static void sample(StringBuilder text, String metric, String labels, double value) {
+    text.append(metric);
+    if (!labels.isEmpty()) {
+      text.append('{').append(labels).append('}');
+    }
+    text.append(' ');
+    if (Double.isNaN(value)) {
+      text.append("NaN");
+    } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+      text.append((long) value);
+    } else {
+      text.append(value);
+    }
+    text.append('\n');
+  }
+
+  private static String sanitize(String name) {
+    return name.replaceAll("[^a-zA-Z0-9_]", "_");
+  }
+
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+}
@@ -0,0 +1,135 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionPages;
+import com.finance.core.model.TransactionType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * History of a {@link JsonWalletRepository} wallet whose oldest transactions have moved to its
+ * compressed archive: page 0 is the archive and page 1 the recent transactions from the wallet
+ * file.
+ *
+ * <p>Only the recent page is kept in memory, and only once something reads or appends to it. The
+ * archive is decompressed afresh for every query that reaches it; date-range and category queries
+ * consult the resident {@link TransactionArchive} summary first and skip it when it cannot match.
+ */
+final class ArchivedTransactionPages implements TransactionPages {
+  private final JsonWalletRepository owner;
+  private final String userId;
+  private TransactionArchive archive;
+  private final int recentCount;
+  private List<Transaction> recent;
+
+  ArchivedTransactionPages(
+      JsonWalletRepository owner, String userId, TransactionArchive archive, int recentCount) {
+    this.owner = owner;
+    this.userId = userId;
+    this.archive = archive;
+    this.recentCount = recentCount;
+  }
+
+  @Override
+  public int size() {
+    return archive.getCount() + (recent != null ? recent.size() : recentCount);
+  }
+
+  @Override
+  public int getPageCount() {
+    return 2;
+  }
+
+  @Override
+  public List<Transaction> getPage(int pageIndex) {
+    if (pageIndex == 0) {
+      return Collections.unmodifiableList(readArchive());
+    }
+    if (pageIndex == 1) {
+      return Collections.unmodifiableList(getRecent());
+    }
+    throw new IndexOutOfBoundsException("Page " + pageIndex + " of 2");
+  }
+
+  @Override
+  public void append(Transaction transaction) {
+    getRecent().add(transaction);
+  }
+
+  @Override
+  public void forEachBetween(LocalDateTime from, LocalDateTime to, Consumer<Transaction> action) {
+    Consumer<Transaction> filtered = t -> {
+      if (!t.getDate().isBefore(from) && !t.getDate().isAfter(to)) {
+        action.accept(t);
+      }
+    };
+    if (archive.overlaps(from, to)) {
+      readArchive().forEach(filtered);
+    }
+    getRecent().forEach(filtered);
+  }
+
+  @Override
+  public void forEachMatching(
+      TransactionType type, Set<String> categoryNames, Consumer<Transaction> action) {
+    Consumer<Transaction> filtered = t -> {
+      if (t.getType() == type
+          && (categoryNames == null || categoryNames.contains(t.getCategory().getName()))) {
+        action.accept(t);
+      }
+    };
+    if (archive.mayContain(type, categoryNames)) {
+      readArchive().forEach(filtered);
+    }
+    getRecent().forEach(filtered);
+  }
+
+  @Override
+  public Transaction getLast() {
+    if (recent != null ? !recent.isEmpty() : recentCount > 0) {
+      return getRecent().get(getRecent().size() - 1);
+    }
+    if (archive.getCount() == 0 || archive.getLast() != null) {
+      return archive.getLast();
+    }
+    List<Transaction> archived = readArchive();
+    return archived.get(archived.size() - 1);
+  }
+
+  boolean isOwnedBy(JsonWalletRepository repository) {
+    return owner == repository;
+  }
+
+  TransactionArchive getArchive() {
+    return archive;
+  }
+
+  void setArchive(TransactionArchive archive) {
+    this.archive = archive;
+  }
+
+  /** Gets the live list of recent transactions, reading it from the wallet file on first use. */
+  List<Transaction> getRecent() {
+    if (recent == null) {
+      try {
+        recent = owner.readRecent(userId, recentCount);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to load transactions for " + userId, e);
+      }
+    }
+    return recent;
+  }
+
+  private List<Transaction> readArchive() {
+    try {
+      return owner.readArchive(userId, archive);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read archive of " + userId, e);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WalletRepository decorator that buffers saves until {@link #flush()}.
+ *
+ * <p>Every wallet loaded or saved through this repository is kept in memory as touched and is
+ * returned by later loads, so repeated logins and transfers work on one instance. Flushing saves
+ * each touched wallet to the delegate once, which in turn skips wallets that did not change. Not
+ * thread-safe; intended for single-threaded batch runs.
+ */
+public class DeferredWalletRepository implements WalletRepository {
+  private final WalletRepository delegate;
+  private final Map<String, Wallet> touched = new LinkedHashMap<>();
+
+  /**
+   * Creates a new DeferredWalletRepository.
+   *
+   * @param delegate the repository wallets are eventually written to
+   */
+  public DeferredWalletRepository(WalletRepository delegate) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("Delegate repository cannot be null");
+    }
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void save(Wallet wallet) throws IOException {
+    if (wallet == null) {
+      throw new IllegalArgumentException("Wallet cannot be null");
+    }
+    touched.put(wallet.getUserId(), wallet);
+  }
+
+  @Override
+  public Wallet load(String userId) throws IOException {
+    Wallet wallet = touched.get(userId);
+    if (wallet == null) {
+      wallet = delegate.load(userId);
+      touched.put(userId, wallet);
+    }
+    return wallet;
+  }
+
+  @Override
+  public WalletSummary loadSummary(String userId) throws IOException {
+    Wallet wallet = touched.get(userId);
+    return wallet != null ? wallet.getSummary() : delegate.loadSummary(userId);
+  }
+
+  @Override
+  public void delete(String userId) throws IOException {
+    touched.remove(userId);
+    delegate.delete(userId);
+  }
+
+  /**
+   * Checks whether a wallet exists in the delegate or will be written by the next flush.
+   */
+  @Override
+  public boolean exists(String userId) {
+    return touched.containsKey(userId) || delegate.exists(userId);
+  }
+
+  /**
+   * Saves every touched wallet to the delegate and forgets them.
+   *
+   * @return the number of wallets that had changes to write
+   * @throws IOException if a wallet cannot be saved; wallets not yet written stay buffered
+   */
+  public int flush() throws IOException {
+    int written = 0;
+    List<Wallet> wallets = new ArrayList<>(touched.values());
+    for (Wallet wallet : wallets) {
+      if (!wallet.isPersistedIn(delegate)) {
+        written++;
+      }
+      delegate.save(wallet);
+      touched.remove(wallet.getUserId());
+    }
+    return written;
+  }
+
+  public int getTouchedCount() {
+    return touched.size();
+  }
+}
@@ -0,0 +1,136 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionPages;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory history of a wallet in an {@link EventSourcedWalletRepository}, together with what the
+ * repository needs to turn the next save into events: how many transactions are already in the
+ * log, the budget changes made since, each with the point in the history where it happened, the
+ * current log generation and the events written since the last snapshot.
+ */
+final class EventLogPages implements TransactionPages {
+  private final EventSourcedWalletRepository owner;
+  private final List<Transaction> transactions;
+  private final List<BudgetChange> unsavedBudgets = new ArrayList<>();
+  private int savedCount;
+  private long generation;
+  private int eventsSinceSnapshot;
+
+  EventLogPages(
+      EventSourcedWalletRepository owner,
+      List<Transaction> transactions,
+      long generation,
+      int eventsSinceSnapshot) {
+    this.owner = owner;
+    this.transactions = transactions;
+    this.generation = generation;
+    this.eventsSinceSnapshot = eventsSinceSnapshot;
+    this.savedCount = transactions.size();
+  }
+
+  @Override
+  public int size() {
+    return transactions.size();
+  }
+
+  @Override
+  public int getPageCount() {
+    return transactions.isEmpty() ? 0 : 1;
+  }
+
+  @Override
+  public List<Transaction> getPage(int pageIndex) {
+    if (pageIndex < 0 || pageIndex >= getPageCount()) {
+      throw new IndexOutOfBoundsException("Page " + pageIndex + " of " + getPageCount());
+    }
+    return Collections.unmodifiableList(transactions);
+  }
+
+  @Override
+  public void append(Transaction transaction) {
+    transactions.add(transaction);
+  }
+
+  @Override
+  public void budgetSet(Budget budget) {
+    unsavedBudgets.add(new BudgetChange(transactions.size(), budget.getCategory(),
+        new Budget(budget.getCategory(), budget.getLimit(), budget.getSpent())));
+  }
+
+  @Override
+  public void budgetRemoved(Category category) {
+    unsavedBudgets.add(new BudgetChange(transactions.size(), category, null));
+  }
+
+  boolean isOwnedBy(EventSourcedWalletRepository repository) {
+    return owner == repository;
+  }
+
+  /** Gets the transactions appended since the last save. */
+  List<Transaction> getUnsaved() {
+    return transactions.subList(savedCount, transactions.size());
+  }
+
+  /** Gets the budget changes made since the last save, oldest first. */
+  List<BudgetChange> getUnsavedBudgets() {
+    return unsavedBudgets;
+  }
+
+  /** Records that everything up to now is in the log. */
+  void markSaved() {
+    savedCount = transactions.size();
+    unsavedBudgets.clear();
+  }
+
+  long getGeneration() {
+    return generation;
+  }
+
+  int getEventsSinceSnapshot() {
+    return eventsSinceSnapshot;
+  }
+
+  void addEvents(int count) {
+    eventsSinceSnapshot += count;
+  }
+
+  /** Records that a snapshot now covers everything and the next events go to a new log. */
+  void startGeneration(long newGeneration) {
+    generation = newGeneration;
+    eventsSinceSnapshot = 0;
+  }
+
+  /**
+   * A budget set or removed after the first {@code position} transactions of the history; the
+   * budget is a copy taken at that moment, or null for a removal.
+   */
+  static final class BudgetChange {
+    private final int position;
+    private final Category category;
+    private final Budget budget;
+
+    private BudgetChange(int position, Category category, Budget budget) {
+      this.position = position;
+      this.category = category;
+      this.budget = budget;
+    }
+
+    int getPosition() {
+      return position;
+    }
+
+    Category getCategory() {
+      return category;
+    }
+
+    Budget getBudget() {
+      return budget;
+    }
+  }
+}
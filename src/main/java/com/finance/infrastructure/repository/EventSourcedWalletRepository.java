@@ -0,0 +1,333 @@
+package com.finance.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * WalletRepository that stores each wallet as an append-only event log plus periodic snapshots.
+ *
+ * <p>Layout: {@code data/events/{userId}/events-G.log} holds one JSON line per save, each listing
+ * the events of that save: {@code TRANSACTION} and {@code TRANSFER} (a transfer leg) carry the new
+ * transaction, {@code BUDGET_SET} the budget's limit and spent amount, {@code BUDGET_REMOVED} its
+ * category. {@code snapshot.json} holds the full wallet as of the start of generation {@code G}.
+ * Loading reads the snapshot and replays only the current generation's log; a line cut short by a
+ * crash is dropped, so every save is applied entirely or not at all.
+ *
+ * <p>Saving a wallet loaded from this repository appends the transactions added and the budgets
+ * set or removed since its last save, in the order they happened, without rewriting anything.
+ * Once {@code snapshotInterval} events have accumulated, the save also writes a new snapshot and
+ * starts the next generation's log, so the interval trades write amplification against the
+ * length of the replay on load. Wallets from other repositories are saved as a fresh snapshot.
+ */
+public class EventSourcedWalletRepository implements WalletRepository {
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 1000;
+  private static final String SNAPSHOT_FILE = "snapshot.json";
+  // Replayed keys are merged into the restored filter without rotating it; a stale bit only costs
+  // an exact lookup, while a missing one would let a duplicate through.
+  private static final Duration REPLAY_WINDOW = Duration.ofDays(365L * 100);
+  private final Path root;
+  private final int snapshotInterval;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Creates an EventSourcedWalletRepository over {@code data/events/}. */
+  public EventSourcedWalletRepository() {
+    this(Path.of("data", "events"), DEFAULT_SNAPSHOT_INTERVAL);
+  }
+
+  /**
+   * Creates a new EventSourcedWalletRepository.
+   *
+   * @param root the directory holding one subdirectory per wallet
+   * @param snapshotInterval the number of events after which a save writes a new snapshot
+   */
+  public EventSourcedWalletRepository(Path root, int snapshotInterval) {
+    if (snapshotInterval <= 0) {
+      throw new IllegalArgumentException("Snapshot interval must be positive");
+    }
+    this.root = root;
+    this.snapshotInterval = snapshotInterval;
+  }
+
+  @Override
+  public void save(Wallet wallet) throws IOException {
+    if (wallet == null) {
+      throw new IllegalArgumentException("Wallet cannot be null");
+    }
+
+    String userId = wallet.getUserId();
+    if (wallet.isPersistedIn(this) && exists(userId)) {
+      return;
+    }
+
+    if (!(wallet.getTransactionPages() instanceof EventLogPages pages && pages.isOwnedBy(this))) {
+      long generation = readGeneration(userId) + 1;
+      writeSnapshot(wallet, generation);
+      wallet.markPersisted(this);
+      return;
+    }
+
+    // Budget changes go between the transactions they happened between, so that replay adds the
+    // spending of each transaction to the budget that was in force when it was made.
+    ArrayNode events = objectMapper.createArrayNode();
+    List<Transaction> unsaved = pages.getUnsaved();
+    int savedCount = pages.size() - unsaved.size();
+    int next = 0;
+    for (EventLogPages.BudgetChange change : pages.getUnsavedBudgets()) {
+      while (next < change.getPosition() - savedCount) {
+        addTransactionEvent(events, unsaved.get(next++));
+      }
+      addBudgetEvent(events, change);
+    }
+    while (next < unsaved.size()) {
+      addTransactionEvent(events, unsaved.get(next++));
+    }
+
+    Files.createDirectories(walletDir(userId));
+    if (!events.isEmpty()) {
+      ObjectNode record = objectMapper.createObjectNode();
+      record.set("events", events);
+      appendLine(logFile(userId, pages.getGeneration()), objectMapper.writeValueAsBytes(record));
+      pages.addEvents(events.size());
+    }
+    pages.markSaved();
+    if (pages.getEventsSinceSnapshot() >= snapshotInterval) {
+      writeSnapshot(wallet, pages.getGeneration() + 1);
+      pages.startGeneration(pages.getGeneration() + 1);
+    }
+    wallet.markPersisted(this);
+  }
+
+  @Override
+  public Wallet load(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+
+    WalletState state = new WalletState();
+    JsonNode snapshot = readSnapshot(userId);
+    if (snapshot != null) {
+      state.generation = snapshot.get("generation").asLong();
+      state.balance = snapshot.get("balance").asDouble();
+      state.totalIncome = snapshot.get("summary").get("totalIncome").asDouble();
+      state.totalExpenses = snapshot.get("summary").get("totalExpenses").asDouble();
+      state.transactions.addAll(WalletJsonMapping.readTransactions(snapshot.get("transactions")));
+      state.budgets.putAll(WalletJsonMapping.readBudgets(snapshot.get("budgets")));
+    }
+    int snapshotSize = state.transactions.size();
+    int events = replay(logFile(userId, state.generation), state);
+
+    List<Transaction> transactions = state.transactions;
+    WalletSummary summary = new WalletSummary(userId, state.balance, state.totalIncome,
+        state.totalExpenses, transactions.size(), state.budgets.size(),
+        transactions.isEmpty() ? null : transactions.get(transactions.size() - 1).getId());
+    Wallet wallet = new Wallet(summary, state.budgets,
+        new EventLogPages(this, transactions, state.generation, events));
+    if (snapshot != null) {
+      WalletJsonMapping.readIdempotencyKeys(
+          snapshot.get("idempotencyKeys"), wallet.getIdempotencyKeys());
+    }
+    for (Transaction transaction : transactions.subList(snapshotSize, transactions.size())) {
+      if (transaction.getIdempotencyKey() != null) {
+        wallet.getIdempotencyKeys().add(transaction, REPLAY_WINDOW);
+      }
+    }
+    wallet.markPersisted(this);
+    return wallet;
+  }
+
+  @Override
+  public void delete(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+
+    Path dir = walletDir(userId);
+    if (!Files.exists(dir)) {
+      return;
+    }
+    try (Stream<Path> files = Files.walk(dir)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Override
+  public boolean exists(String userId) {
+    if (userId == null || userId.trim().isEmpty()) {
+      return false;
+    }
+    return Files.isDirectory(walletDir(userId));
+  }
+
+  private void addTransactionEvent(ArrayNode events, Transaction transaction) {
+    ObjectNode event = events.addObject();
+    event.put("type", transaction.isTransfer() ? "TRANSFER" : "TRANSACTION");
+    event.set("transaction",
+        WalletJsonMapping.writeTransactions(objectMapper, List.of(transaction)).get(0));
+  }
+
+  private void addBudgetEvent(ArrayNode events, EventLogPages.BudgetChange change) {
+    ObjectNode event = events.addObject();
+    if (change.getBudget() != null) {
+      event.put("type", "BUDGET_SET");
+      event.set("budget",
+          WalletJsonMapping.writeBudgets(objectMapper, List.of(change.getBudget())).get(0));
+    } else {
+      event.put("type", "BUDGET_REMOVED");
+      event.put("category", change.getCategory().getName());
+      event.put("categoryType", change.getCategory().getType().name());
+    }
+  }
+
+  /**
+   * Applies the complete lines of a log to the state and cuts off a trailing partial line.
+   *
+   * @return the number of events applied
+   */
+  private int replay(Path log, WalletState state) throws IOException {
+    if (!Files.exists(log)) {
+      return 0;
+    }
+    byte[] bytes = Files.readAllBytes(log);
+    int events = 0;
+    int start = 0;
+    for (int end = 0; end < bytes.length; end++) {
+      if (bytes[end] == '\n') {
+        for (JsonNode event : objectMapper.readTree(bytes, start, end - start).get("events")) {
+          apply(event, state);
+          events++;
+        }
+        start = end + 1;
+      }
+    }
+    if (start < bytes.length) {
+      try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+        channel.truncate(start);
+      }
+    }
+    return events;
+  }
+
+  private void apply(JsonNode event, WalletState state) {
+    switch (event.get("type").asText()) {
+      case "TRANSACTION", "TRANSFER" -> {
+        ArrayNode single = objectMapper.createArrayNode().add(event.get("transaction"));
+        Transaction transaction = WalletJsonMapping.readTransactions(single).get(0);
+        state.transactions.add(transaction);
+        if (transaction.getType() == TransactionType.INCOME) {
+          state.balance += transaction.getAmount();
+          state.totalIncome += transaction.getAmount();
+        } else {
+          state.balance -= transaction.getAmount();
+          state.totalExpenses += transaction.getAmount();
+          Budget budget = state.budgets.get(transaction.getCategory());
+          if (budget != null) {
+            budget.addSpent(transaction.getAmount());
+          }
+        }
+      }
+      case "BUDGET_SET" -> state.budgets.putAll(WalletJsonMapping.readBudgets(
+          objectMapper.createArrayNode().add(event.get("budget"))));
+      case "BUDGET_REMOVED" -> state.budgets.remove(new Category(event.get("category").asText(),
+          TransactionType.valueOf(event.get("categoryType").asText())));
+      default -> throw new IllegalStateException("Unknown wallet event: " + event.get("type"));
+    }
+  }
+
+  /**
+   * Writes the whole wallet as the snapshot that starts a generation, then deletes the logs of
+   * earlier generations. The snapshot replaces the old one atomically, so a crash in between
+   * leaves either the old snapshot and its log or the new snapshot.
+   */
+  private void writeSnapshot(Wallet wallet, long generation) throws IOException {
+    String userId = wallet.getUserId();
+    ObjectNode snapshot = objectMapper.createObjectNode();
+    snapshot.put("userId", userId);
+    snapshot.put("generation", generation);
+    snapshot.put("balance", wallet.getBalance());
+    snapshot.set("summary", WalletJsonMapping.writeSummary(objectMapper, wallet.getSummary()));
+    snapshot.set(
+        "budgets", WalletJsonMapping.writeBudgets(objectMapper, wallet.getBudgets().values()));
+    ObjectNode keysNode =
+        WalletJsonMapping.writeIdempotencyKeys(objectMapper, wallet.getIdempotencyKeys());
+    if (keysNode != null) {
+      snapshot.set("idempotencyKeys", keysNode);
+    }
+    snapshot.set(
+        "transactions", WalletJsonMapping.writeTransactions(objectMapper, wallet.getTransactions()));
+
+    Path dir = walletDir(userId);
+    Files.createDirectories(dir);
+    Path temp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+    objectMapper.writeValue(temp.toFile(), snapshot);
+    Files.move(temp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+
+    Path current = logFile(userId, generation);
+    try (DirectoryStream<Path> logs = Files.newDirectoryStream(dir, "events-*.log")) {
+      for (Path log : logs) {
+        if (!log.equals(current)) {
+          Files.delete(log);
+        }
+      }
+    }
+  }
+
+  private JsonNode readSnapshot(String userId) throws IOException {
+    Path file = walletDir(userId).resolve(SNAPSHOT_FILE);
+    return Files.exists(file) ? objectMapper.readTree(file.toFile()) : null;
+  }
+
+  private long readGeneration(String userId) throws IOException {
+    JsonNode snapshot = readSnapshot(userId);
+    return snapshot != null ? snapshot.get("generation").asLong() : 0;
+  }
+
+  private static void appendLine(Path log, byte[] line) throws IOException {
+    byte[] record = new byte[line.length + 1];
+    System.arraycopy(line, 0, record, 0, line.length);
+    record[line.length] = '\n';
+    Files.write(log, record, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  private Path walletDir(String userId) {
+    return root.resolve(userId);
+  }
+
+  private Path logFile(String userId, long generation) {
+    return walletDir(userId).resolve("events-" + generation + ".log");
+  }
+
+  /** Wallet state rebuilt from a snapshot and the events after it. */
+  private static final class WalletState {
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final Map<Category, Budget> budgets = new HashMap<>();
+    private long generation;
+    private double balance;
+    private double totalIncome;
+    private double totalExpenses;
+  }
+}
@@ -1,34 +1,83 @@
 package com.finance.infrastructure.repository;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.finance.core.model.Budget;
 import com.finance.core.model.Category;
 import com.finance.core.model.Transaction;
-import com.finance.core.model.TransactionType;
 import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import com.finance.infrastructure.jfr.WalletLoadEvent;
+import com.finance.infrastructure.jfr.WalletSaveEvent;
 import com.finance.infrastructure.storage.JsonStorageManager;
+import com.finance.infrastructure.storage.StorageCodec;
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * JSON-based implementation of WalletRepository.
+ *
+ * <p>Wallet files start with a summary header and the budgets, followed by the transaction array.
+ * {@link #load} reads only the header with a streaming parser and returns a wallet whose
+ * transactions are parsed on first access. Files written before the header existed are loaded
+ * eagerly. Saves and transaction reads stream through {@link WalletJsonCodec} without building a
+ * JSON tree.
+ *
+ * <p>Wallets remember the version last read from or written to this repository, and saving an
+ * unchanged wallet whose file still exists is a no-op.
+ *
+ * <p>With an archive age set, saving moves the oldest transactions, as long as they are older
+ * than that age, to {@code {userId}_archive.dat}, a file of Deflater-compressed frames to which
+ * each save appends. The wallet file then holds only the recent transactions plus a summary of
+ * the archive, and loaded wallets decompress the archive only for queries that reach that far
+ * back.
+ *
+ * <p>Loads and saves are recorded as {@link WalletLoadEvent} and {@link WalletSaveEvent} when
+ * Flight Recorder is running.
  */
 public class JsonWalletRepository implements WalletRepository {
   private static final String WALLET_FILE_SUFFIX = "_wallet.json";
+  private static final String ARCHIVE_FILE_SUFFIX = "_archive.dat";
   private final JsonStorageManager storageManager;
   private final ObjectMapper objectMapper;
+  private final Duration archiveAge;
+  private final boolean packed;
 
-  /** Creates a new JsonWalletRepository. */
+  /** Creates a new JsonWalletRepository that keeps all transactions in the wallet file. */
   public JsonWalletRepository() {
-    this.storageManager = new JsonStorageManager();
+    this(null);
+  }
+
+  /**
+   * Creates a JsonWalletRepository that archives transactions older than the given age.
+   *
+   * @param archiveAge the age after which transactions are archived, or null to never archive
+   */
+  public JsonWalletRepository(Duration archiveAge) {
+    this(archiveAge, StorageCodec.PRETTY_JSON);
+  }
+
+  /**
+   * Creates a JsonWalletRepository that writes wallet files in the given codec. Files in any codec
+   * are read back. With {@link StorageCodec#PACKED} the transaction array is stored as
+   * {@link PackedTransactions}.
+   *
+   * @param archiveAge the age after which transactions are archived, or null to never archive
+   * @param codec the encoding of wallet files
+   */
+  public JsonWalletRepository(Duration archiveAge, StorageCodec codec) {
+    this.storageManager = new JsonStorageManager(codec);
     this.objectMapper = storageManager.getObjectMapper();
+    this.archiveAge = archiveAge;
+    this.packed = codec == StorageCodec.PACKED;
   }
 
   @Override
@@ -38,37 +87,43 @@ public class JsonWalletRepository implements WalletRepository {
     }
 
     String filename = wallet.getUserId() + WALLET_FILE_SUFFIX;
-    ObjectNode walletNode = objectMapper.createObjectNode();
-
-    walletNode.put("userId", wallet.getUserId());
-    walletNode.put("balance", wallet.getBalance());
-
-    ArrayNode transactionsArray = objectMapper.createArrayNode();
-    for (Transaction transaction : wallet.getTransactions()) {
-      ObjectNode transactionNode = objectMapper.createObjectNode();
-      transactionNode.put("id", transaction.getId());
-      transactionNode.put("amount", transaction.getAmount());
-      transactionNode.put("category", transaction.getCategory().getName());
-      transactionNode.put("type", transaction.getType().name());
-      transactionNode.put("date", transaction.getDate().toString());
-      transactionNode.put("description", transaction.getDescription());
-      transactionsArray.add(transactionNode);
+    WalletSaveEvent event = new WalletSaveEvent();
+    event.begin();
+    if (wallet.isPersistedIn(this) && storageManager.fileExists(filename)) {
+      event.skipped = true;
+      commit(event, wallet, filename);
+      return;
     }
-    walletNode.set("transactions", transactionsArray);
 
-    ArrayNode budgetsArray = objectMapper.createArrayNode();
-    for (Map.Entry<Category, Budget> entry : wallet.getBudgets().entrySet()) {
-      Budget budget = entry.getValue();
-      ObjectNode budgetNode = objectMapper.createObjectNode();
-      budgetNode.put("category", budget.getCategory().getName());
-      budgetNode.put("categoryType", budget.getCategory().getType().name());
-      budgetNode.put("limit", budget.getLimit());
-      budgetNode.put("spent", budget.getSpent());
-      budgetsArray.add(budgetNode);
+    ArchivedTransactionPages pages =
+        wallet.getTransactionPages() instanceof ArchivedTransactionPages owned
+            && owned.isOwnedBy(this) ? owned : null;
+    TransactionArchive committed =
+        pages != null ? pages.getArchive() : new TransactionArchive();
+    TransactionArchive archive = committed;
+    List<Transaction> transactions = pages != null ? pages.getRecent() : wallet.getTransactions();
+    int aged = archiveAge != null ? countAged(transactions) : 0;
+    if (aged > 0) {
+      List<Transaction> archived = transactions.subList(0, aged);
+      archive = committed.plus(archived, storageManager.appendDeflated(
+          archiveFile(wallet.getUserId()),
+          WalletJsonMapping.writeTransactions(objectMapper, archived), committed.getBytes()));
+    } else if (committed.getCount() == 0) {
+      storageManager.deleteFile(archiveFile(wallet.getUserId()));
     }
-    walletNode.set("budgets", budgetsArray);
 
-    storageManager.writeToFile(filename, walletNode);
+    TransactionArchive header = archive.getCount() > 0 ? archive : null;
+    List<Transaction> recent = transactions.subList(aged, transactions.size());
+    storageManager.writeStreaming(filename, generator ->
+        WalletJsonCodec.writeWallet(generator, objectMapper, wallet, header, recent, packed));
+    // Until the wallet file names the new archive length a failed save leaves the rows in the
+    // recent page, and a retry appends them again from the committed length.
+    if (pages != null) {
+      pages.setArchive(archive);
+      transactions.subList(0, aged).clear();
+    }
+    wallet.markPersisted(this);
+    commit(event, wallet, filename);
   }
 
   @Override
@@ -82,44 +137,47 @@ public class JsonWalletRepository implements WalletRepository {
       return new Wallet(userId);
     }
 
-    JsonNode walletNode = storageManager.readFromFile(filename, JsonNode.class);
-
-    double balance = walletNode.get("balance").asDouble();
-
-    List<Transaction> transactions = new ArrayList<>();
-    JsonNode transactionsNode = walletNode.get("transactions");
-    if (transactionsNode != null && transactionsNode.isArray()) {
-      for (JsonNode transactionNode : transactionsNode) {
-        String id = transactionNode.get("id").asText();
-        double amount = transactionNode.get("amount").asDouble();
-        String categoryName = transactionNode.get("category").asText();
-        TransactionType type = TransactionType.valueOf(transactionNode.get("type").asText());
-        LocalDateTime date = LocalDateTime.parse(transactionNode.get("date").asText());
-        String description = transactionNode.get("description").asText();
-
-        Category category = new Category(categoryName, type);
-        Transaction transaction = new Transaction(id, amount, category, type, date, description);
-        transactions.add(transaction);
-      }
+    WalletLoadEvent event = new WalletLoadEvent();
+    event.begin();
+    WalletHeader header = readHeader(userId, filename);
+    Wallet wallet;
+    if (header == null) {
+      wallet = loadFully(userId, filename);
+    } else if (header.archive != null) {
+      TransactionArchive archive = TransactionArchive.read(header.archive);
+      wallet = new Wallet(header.summary, header.budgets, new ArchivedTransactionPages(this, userId,
+          archive, header.summary.getTransactionCount() - archive.getCount()));
+      WalletJsonMapping.readIdempotencyKeys(header.idempotencyKeys, wallet.getIdempotencyKeys());
+    } else {
+      WalletSummary summary = header.summary;
+      wallet = new Wallet(summary, header.budgets, () -> loadTransactions(filename, summary));
+      WalletJsonMapping.readIdempotencyKeys(header.idempotencyKeys, wallet.getIdempotencyKeys());
     }
+    wallet.markPersisted(this);
+    event.end();
+    if (event.shouldCommit()) {
+      event.userId = userId;
+      event.fileSize = storageManager.fileSize(filename);
+      event.transactionCount = wallet.getTransactionCount();
+      event.headerOnly = header != null;
+      event.commit();
+    }
+    return wallet;
+  }
 
-    Map<Category, Budget> budgets = new HashMap<>();
-    JsonNode budgetsNode = walletNode.get("budgets");
-    if (budgetsNode != null && budgetsNode.isArray()) {
-      for (JsonNode budgetNode : budgetsNode) {
-        String categoryName = budgetNode.get("category").asText();
-        String categoryTypeStr = budgetNode.get("categoryType").asText();
-        TransactionType categoryType = TransactionType.valueOf(categoryTypeStr);
-        double limit = budgetNode.get("limit").asDouble();
-        double spent = budgetNode.get("spent").asDouble();
+  @Override
+  public WalletSummary loadSummary(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
 
-        Category category = new Category(categoryName, categoryType);
-        Budget budget = new Budget(category, limit, spent);
-        budgets.put(category, budget);
-      }
+    String filename = userId + WALLET_FILE_SUFFIX;
+    if (!storageManager.fileExists(filename)) {
+      return new Wallet(userId).getSummary();
     }
 
-    return new Wallet(userId, balance, transactions, budgets);
+    WalletHeader header = readHeader(userId, filename);
+    return header != null ? header.summary : loadFully(userId, filename).getSummary();
   }
 
   @Override
@@ -130,6 +188,7 @@ public class JsonWalletRepository implements WalletRepository {
 
     String filename = userId + WALLET_FILE_SUFFIX;
     storageManager.deleteFile(filename);
+    storageManager.deleteFile(archiveFile(userId));
   }
 
   @Override
@@ -140,4 +199,191 @@ public class JsonWalletRepository implements WalletRepository {
     String filename = userId + WALLET_FILE_SUFFIX;
     return storageManager.fileExists(filename);
   }
+
+  /**
+   * Reads the recent transactions of a wallet with an archive.
+   *
+   * @param userId the user ID
+   * @param expectedCount the number of recent transactions the header promised
+   * @return a mutable list of the transactions
+   * @throws IOException if the file cannot be read or no longer matches the header
+   */
+  List<Transaction> readRecent(String userId, int expectedCount) throws IOException {
+    String filename = userId + WALLET_FILE_SUFFIX;
+    List<Transaction> transactions = streamTransactions(filename, expectedCount);
+    if (transactions.size() != expectedCount) {
+      throw new IOException("Wallet file changed since it was opened: " + filename);
+    }
+    return transactions;
+  }
+
+  /**
+   * Decompresses the committed part of a wallet's archive.
+   *
+   * @param userId the user ID
+   * @param archive the archive summary from the wallet header
+   * @return the archived transactions, oldest first
+   * @throws IOException if the archive cannot be read
+   */
+  List<Transaction> readArchive(String userId, TransactionArchive archive) throws IOException {
+    List<Transaction> transactions = new ArrayList<>(archive.getCount());
+    for (JsonNode frame : storageManager.readDeflated(archiveFile(userId), archive.getBytes())) {
+      transactions.addAll(WalletJsonMapping.readTransactions(frame));
+    }
+    return transactions;
+  }
+
+  /**
+   * Counts the leading transactions older than the archive age. Archiving only a prefix keeps the
+   * archive followed by the wallet file in insertion order.
+   */
+  private int countAged(List<Transaction> transactions) {
+    LocalDateTime cutoff = LocalDateTime.now().minus(archiveAge);
+    int aged = 0;
+    while (aged < transactions.size() && transactions.get(aged).getDate().isBefore(cutoff)) {
+      aged++;
+    }
+    return aged;
+  }
+
+  private static String archiveFile(String userId) {
+    return userId + ARCHIVE_FILE_SUFFIX;
+  }
+
+  private void commit(WalletSaveEvent event, Wallet wallet, String filename) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.userId = wallet.getUserId();
+      event.fileSize = storageManager.fileSize(filename);
+      event.transactionCount = wallet.getTransactionCount();
+      event.commit();
+    }
+  }
+
+  /**
+   * Streams the wallet file up to the transaction array, reading balance, summary and budgets.
+   *
+   * @param userId the user ID
+   * @param filename the wallet file name
+   * @return the header, or null if the file predates the summary header
+   * @throws IOException if the file cannot be read
+   */
+  private WalletHeader readHeader(String userId, String filename) throws IOException {
+    try (JsonParser parser = storageManager.createParser(filename)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Malformed wallet file: " + filename);
+      }
+
+      double balance = 0.0;
+      JsonNode summaryNode = null;
+      Map<Category, Budget> budgets = new HashMap<>();
+      JsonNode keysNode = null;
+      JsonNode archiveNode = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        parser.nextToken();
+        if ("transactions".equals(field)) {
+          break;
+        }
+        switch (field) {
+          case "balance":
+            balance = parser.getDoubleValue();
+            break;
+          case "summary":
+            summaryNode = parser.readValueAsTree();
+            break;
+          case "budgets":
+            budgets = WalletJsonCodec.readBudgets(parser);
+            break;
+          case "idempotencyKeys":
+            keysNode = parser.readValueAsTree();
+            break;
+          case "archive":
+            archiveNode = parser.readValueAsTree();
+            break;
+          default:
+            parser.skipChildren();
+        }
+      }
+
+      if (summaryNode == null) {
+        return null;
+      }
+
+      WalletSummary summary =
+          WalletJsonMapping.readSummary(userId, balance, budgets.size(), summaryNode);
+      return new WalletHeader(summary, budgets, keysNode, archiveNode);
+    }
+  }
+
+  /**
+   * Streams the transaction array of a wallet file.
+   *
+   * @param filename the wallet file name
+   * @param expectedCount the expected number of transactions, to size the list
+   * @return a mutable list of the transactions
+   */
+  private List<Transaction> streamTransactions(String filename, int expectedCount)
+      throws IOException {
+    List<Transaction> transactions = new ArrayList<>(expectedCount);
+    try (JsonParser parser = storageManager.createParser(filename)) {
+      if (WalletJsonCodec.seekTransactions(parser)) {
+        WalletJsonCodec.readTransactions(parser, transactions);
+      }
+    }
+    return transactions;
+  }
+
+  /**
+   * Reads the full wallet document eagerly.
+   */
+  private Wallet loadFully(String userId, String filename) throws IOException {
+    JsonNode walletNode = storageManager.readFromFile(filename, JsonNode.class);
+    double balance = walletNode.get("balance").asDouble();
+    List<Transaction> transactions =
+        WalletJsonMapping.readTransactions(walletNode.get("transactions"));
+    Map<Category, Budget> budgets = WalletJsonMapping.readBudgets(walletNode.get("budgets"));
+    Wallet wallet = new Wallet(userId, balance, transactions, budgets);
+    WalletJsonMapping.readIdempotencyKeys(
+        walletNode.get("idempotencyKeys"), wallet.getIdempotencyKeys());
+    return wallet;
+  }
+
+  /**
+   * Materializes the transaction array of a lazily opened wallet.
+   *
+   * @param filename the wallet file name
+   * @param expected the summary read when the wallet was opened
+   * @return the transactions
+   * @throws IOException if the file cannot be read or no longer matches the summary
+   */
+  private List<Transaction> loadTransactions(String filename, WalletSummary expected)
+      throws IOException {
+    List<Transaction> transactions = streamTransactions(filename, expected.getTransactionCount());
+
+    String lastId = transactions.isEmpty() ? null : transactions.get(transactions.size() - 1).getId();
+    if (transactions.size() != expected.getTransactionCount()
+        || !Objects.equals(lastId, expected.getLastTransactionId())) {
+      throw new IOException("Wallet file changed since it was opened: " + filename);
+    }
+    return transactions;
+  }
+
+  /**
+   * Summary and budgets read from the start of a wallet file.
+   */
+  private static final class WalletHeader {
+    private final WalletSummary summary;
+    private final Map<Category, Budget> budgets;
+    private final JsonNode idempotencyKeys;
+    private final JsonNode archive;
+
+    private WalletHeader(WalletSummary summary, Map<Category, Budget> budgets,
+        JsonNode idempotencyKeys, JsonNode archive) {
+      this.summary = summary;
+      this.budgets = budgets;
+      this.idempotencyKeys = idempotencyKeys;
+      this.archive = archive;
+    }
+  }
 }
@@ -0,0 +1,141 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionPages;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Transactions of one wallet in an {@link LsmWalletRepository}, in date order.
+ *
+ * <p>Transactions appended since the last save are held in memory and merged into every scan, so
+ * they show up in date order like stored ones. The history is not split into pages: it is exposed
+ * as a single page, which {@link #getPage} materializes in full, so callers should prefer
+ * {@link #forEach} and {@link #forEachBetween}, which stream from the store.
+ */
+final class LsmTransactionPages implements TransactionPages {
+  private final LsmWalletRepository owner;
+  private final String userId;
+  private final List<Transaction> pending = new ArrayList<>();
+  private int size;
+  private byte[] lastKey;
+  private Transaction last;
+
+  LsmTransactionPages(LsmWalletRepository owner, String userId, int size, byte[] lastKey) {
+    this.owner = owner;
+    this.userId = userId;
+    this.size = size;
+    this.lastKey = lastKey;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int getPageCount() {
+    return size == 0 ? 0 : 1;
+  }
+
+  @Override
+  public List<Transaction> getPage(int pageIndex) {
+    if (pageIndex < 0 || pageIndex >= getPageCount()) {
+      throw new IndexOutOfBoundsException("Page " + pageIndex + " of " + getPageCount());
+    }
+    List<Transaction> all = new ArrayList<>(size);
+    forEach(all::add);
+    return Collections.unmodifiableList(all);
+  }
+
+  @Override
+  public void append(Transaction transaction) {
+    pending.add(transaction);
+    last = transaction;
+    lastKey = null;
+    size++;
+  }
+
+  @Override
+  public void forEach(Consumer<Transaction> action) {
+    byte[] prefix = LsmWalletRepository.transactionPrefix(userId);
+    scan(prefix, LsmWalletRepository.rangeEnd(prefix), action);
+  }
+
+  @Override
+  public void forEachBetween(LocalDateTime from, LocalDateTime to, Consumer<Transaction> action) {
+    scan(
+        LsmWalletRepository.timeKey(userId, from),
+        LsmWalletRepository.timeKey(userId, to.plusNanos(1)),
+        action);
+  }
+
+  /** Gets the last appended transaction, reading it from the store after a reload. */
+  @Override
+  public Transaction getLast() {
+    if (last == null && lastKey != null) {
+      try {
+        last = owner.readTransaction(lastKey);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read last transaction of " + userId, e);
+      }
+    }
+    return last;
+  }
+
+  boolean isOwnedBy(LsmWalletRepository repository) {
+    return owner == repository;
+  }
+
+  List<Transaction> getPending() {
+    return pending;
+  }
+
+  void clearPending() {
+    pending.clear();
+  }
+
+  byte[] getLastKey() {
+    if (lastKey == null && last != null) {
+      lastKey = LsmWalletRepository.transactionKey(userId, last);
+    }
+    return lastKey;
+  }
+
+  /**
+   * Merges the stored transactions in {@code [from, to)} with the unsaved ones in that range.
+   */
+  private void scan(byte[] from, byte[] to, Consumer<Transaction> action) {
+    TreeMap<byte[], Transaction> unsaved = new TreeMap<>(Arrays::compareUnsigned);
+    for (Transaction transaction : pending) {
+      byte[] key = LsmWalletRepository.transactionKey(userId, transaction);
+      if (Arrays.compareUnsigned(key, from) >= 0 && Arrays.compareUnsigned(key, to) < 0) {
+        unsaved.put(key, transaction);
+      }
+    }
+    List<Map.Entry<byte[], Transaction>> merge = new ArrayList<>(unsaved.entrySet());
+    int[] next = {0};
+    try {
+      owner.scanTransactions(from, to, (key, transaction) -> {
+        while (next[0] < merge.size()
+            && Arrays.compareUnsigned(merge.get(next[0]).getKey(), key) < 0) {
+          action.accept(merge.get(next[0]++).getValue());
+        }
+        action.accept(transaction);
+      });
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to scan transactions of " + userId, e);
+    }
+    while (next[0] < merge.size()) {
+      action.accept(merge.get(next[0]++).getValue());
+    }
+  }
+}
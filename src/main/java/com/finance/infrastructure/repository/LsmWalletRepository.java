@@ -0,0 +1,344 @@
+package com.finance.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import com.finance.infrastructure.lsm.LsmStore;
+import com.finance.infrastructure.lsm.WriteBatch;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * WalletRepository backed by an embedded {@link LsmStore} in {@code data/lsm/}.
+ *
+ * <p>Each wallet is one header record, {@code 'H' userId 0x00}, holding the summary, budgets and
+ * idempotency filters as JSON, plus one record per transaction keyed by
+ * {@code 'T' userId 0x00 time id}, where the time is the UTC epoch second with the sign bit
+ * flipped followed by the nanosecond, both big-endian. A user's transactions are therefore stored
+ * in date order, and a date range is a single key range scan. Saving writes only the transactions
+ * appended since the wallet was loaded, together with the new header, as one atomic batch.
+ */
+public class LsmWalletRepository implements WalletRepository, Closeable {
+  private static final byte HEADER = 'H';
+  private static final byte TRANSACTION = 'T';
+  private static final byte SEPARATOR = 0;
+  private static final int TIME_BYTES = Long.BYTES + Integer.BYTES;
+  private static final TransactionType[] TYPES = TransactionType.values();
+  private final LsmStore store;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Creates an LsmWalletRepository over {@code data/lsm/}. */
+  public LsmWalletRepository() {
+    this(Path.of("data", "lsm"));
+  }
+
+  /**
+   * Creates a new LsmWalletRepository, recovering the store left by a previous run.
+   *
+   * @param directory the store directory
+   */
+  public LsmWalletRepository(Path directory) {
+    try {
+      this.store = new LsmStore(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open wallet store in " + directory, e);
+    }
+    MetricsRegistry metrics = MetricsRegistry.getDefault();
+    metrics.gauge("lsm.blockcache.hits", store::getBlockCacheHits);
+    metrics.gauge("lsm.blockcache.misses", store::getBlockCacheMisses);
+    metrics.gauge("lsm.segments", store::getSegmentCount);
+  }
+
+  @Override
+  public void save(Wallet wallet) throws IOException {
+    if (wallet == null) {
+      throw new IllegalArgumentException("Wallet cannot be null");
+    }
+
+    String userId = wallet.getUserId();
+    if (wallet.isPersistedIn(this) && exists(userId)) {
+      return;
+    }
+
+    WriteBatch batch = new WriteBatch();
+    byte[] lastKey;
+    if (wallet.getTransactionPages() instanceof LsmTransactionPages pages
+        && pages.isOwnedBy(this)) {
+      for (Transaction transaction : pages.getPending()) {
+        batch.put(transactionKey(userId, transaction), encode(transaction));
+      }
+      lastKey = pages.getLastKey();
+      writeHeader(batch, wallet, lastKey);
+      store.write(batch);
+      pages.clearPending();
+    } else {
+      byte[] prefix = transactionPrefix(userId);
+      store.scan(prefix, rangeEnd(prefix), (key, value) -> batch.delete(key));
+      lastKey = null;
+      for (Transaction transaction : wallet.getTransactions()) {
+        lastKey = transactionKey(userId, transaction);
+        batch.put(lastKey, encode(transaction));
+      }
+      writeHeader(batch, wallet, lastKey);
+      store.write(batch);
+    }
+    wallet.markPersisted(this);
+  }
+
+  @Override
+  public Wallet load(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+
+    JsonNode headerNode = readHeader(userId);
+    if (headerNode == null) {
+      return new Wallet(
+          new Wallet(userId).getSummary(), null, new LsmTransactionPages(this, userId, 0, null));
+    }
+
+    Map<Category, Budget> budgets = WalletJsonMapping.readBudgets(headerNode.get("budgets"));
+    WalletSummary summary = readSummary(userId, headerNode, budgets.size());
+    JsonNode lastKeyNode = headerNode.get("lastKey");
+    Wallet wallet = new Wallet(summary, budgets, new LsmTransactionPages(
+        this, userId, summary.getTransactionCount(),
+        lastKeyNode != null ? lastKeyNode.binaryValue() : null));
+    WalletJsonMapping.readIdempotencyKeys(
+        headerNode.get("idempotencyKeys"), wallet.getIdempotencyKeys());
+    wallet.markPersisted(this);
+    return wallet;
+  }
+
+  @Override
+  public WalletSummary loadSummary(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+    JsonNode headerNode = readHeader(userId);
+    if (headerNode == null) {
+      return new Wallet(userId).getSummary();
+    }
+    JsonNode budgetsNode = headerNode.get("budgets");
+    return readSummary(userId, headerNode, budgetsNode != null ? budgetsNode.size() : 0);
+  }
+
+  @Override
+  public void delete(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+
+    WriteBatch batch = new WriteBatch();
+    byte[] prefix = transactionPrefix(userId);
+    store.scan(prefix, rangeEnd(prefix), (key, value) -> batch.delete(key));
+    batch.delete(headerKey(userId));
+    store.write(batch);
+  }
+
+  @Override
+  public boolean exists(String userId) {
+    if (userId == null || userId.trim().isEmpty()) {
+      return false;
+    }
+    try {
+      return store.get(headerKey(userId)) != null;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read wallet header of " + userId, e);
+    }
+  }
+
+  public LsmStore getStore() {
+    return store;
+  }
+
+  /** Closes the underlying store. */
+  @Override
+  public void close() throws IOException {
+    store.close();
+  }
+
+  /**
+   * Visits a user's stored transactions with keys in {@code [from, to)} in key order.
+   */
+  void scanTransactions(byte[] from, byte[] to, KeyedTransactionVisitor visitor)
+      throws IOException {
+    store.scan(from, to, (key, value) -> visitor.visit(key, decode(key, value)));
+  }
+
+  Transaction readTransaction(byte[] key) throws IOException {
+    byte[] value = store.get(key);
+    return value != null ? decode(key, value) : null;
+  }
+
+  static byte[] transactionPrefix(String userId) {
+    return prefix(TRANSACTION, userId);
+  }
+
+  static byte[] transactionKey(String userId, Transaction transaction) {
+    byte[] prefix = transactionPrefix(userId);
+    byte[] id = transaction.getId().getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(prefix.length + TIME_BYTES + id.length)
+        .put(prefix)
+        .put(time(transaction.getDate()))
+        .put(id)
+        .array();
+  }
+
+  /**
+   * Gets the first key of a user's transactions dated at or after a time.
+   */
+  static byte[] timeKey(String userId, LocalDateTime date) {
+    byte[] prefix = transactionPrefix(userId);
+    return ByteBuffer.allocate(prefix.length + TIME_BYTES).put(prefix).put(time(date)).array();
+  }
+
+  /**
+   * Gets the smallest key greater than every key starting with the prefix.
+   */
+  static byte[] rangeEnd(byte[] prefix) {
+    byte[] end = Arrays.copyOf(prefix, prefix.length);
+    end[end.length - 1]++;
+    return end;
+  }
+
+  private void writeHeader(WriteBatch batch, Wallet wallet, byte[] lastKey) throws IOException {
+    ObjectNode headerNode = objectMapper.createObjectNode();
+    headerNode.put("userId", wallet.getUserId());
+    headerNode.put("balance", wallet.getBalance());
+    headerNode.set("summary", WalletJsonMapping.writeSummary(objectMapper, wallet.getSummary()));
+    headerNode.set(
+        "budgets", WalletJsonMapping.writeBudgets(objectMapper, wallet.getBudgets().values()));
+    ObjectNode keysNode =
+        WalletJsonMapping.writeIdempotencyKeys(objectMapper, wallet.getIdempotencyKeys());
+    if (keysNode != null) {
+      headerNode.set("idempotencyKeys", keysNode);
+    }
+    if (lastKey != null) {
+      headerNode.put("lastKey", lastKey);
+    }
+    batch.put(headerKey(wallet.getUserId()), objectMapper.writeValueAsBytes(headerNode));
+  }
+
+  private JsonNode readHeader(String userId) throws IOException {
+    byte[] header = store.get(headerKey(userId));
+    return header != null ? objectMapper.readTree(header) : null;
+  }
+
+  private WalletSummary readSummary(String userId, JsonNode headerNode, int budgetCount) {
+    return WalletJsonMapping.readSummary(
+        userId, headerNode.get("balance").asDouble(), budgetCount, headerNode.get("summary"));
+  }
+
+  private static byte[] headerKey(String userId) {
+    return prefix(HEADER, userId);
+  }
+
+  private static byte[] prefix(byte tag, String userId) {
+    byte[] user = userId.getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(user.length + 2).put(tag).put(user).put(SEPARATOR).array();
+  }
+
+  private static byte[] time(LocalDateTime date) {
+    return ByteBuffer.allocate(TIME_BYTES)
+        .putLong(date.toEpochSecond(ZoneOffset.UTC) ^ Long.MIN_VALUE)
+        .putInt(date.getNano())
+        .array();
+  }
+
+  /**
+   * Encodes everything but the date and ID, which are part of the key.
+   */
+  private static byte[] encode(Transaction transaction) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeDouble(transaction.getAmount());
+    out.writeByte(transaction.getType().ordinal());
+    writeString(out, transaction.getCategory().getName());
+    writeOptional(out, transaction.getDescription());
+    writeOptional(out, transaction.getIdempotencyKey());
+    return bytes.toByteArray();
+  }
+
+  private static Transaction decode(byte[] key, byte[] value) {
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+      double amount = in.readDouble();
+      TransactionType type = TYPES[in.readByte()];
+      Category category = new Category(readString(in), type);
+      String description = readOptional(in);
+      String idempotencyKey = readOptional(in);
+
+      ByteBuffer keyBuffer = ByteBuffer.wrap(key);
+      keyBuffer.position(indexOf(key, SEPARATOR) + 1);
+      long seconds = keyBuffer.getLong() ^ Long.MIN_VALUE;
+      int nanos = keyBuffer.getInt();
+      String id = new String(
+          key, keyBuffer.position(), keyBuffer.remaining(), StandardCharsets.UTF_8);
+      return new Transaction(id, amount, category, type,
+          LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC), description, idempotencyKey);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Corrupt transaction record", e);
+    }
+  }
+
+  private static int indexOf(byte[] key, byte value) {
+    for (int i = 1; i < key.length; i++) {
+      if (key[i] == value) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Malformed transaction key");
+  }
+
+  private static void writeOptional(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      writeString(out, value);
+    }
+  }
+
+  private static String readOptional(DataInputStream in) throws IOException {
+    return in.readBoolean() ? readString(in) : null;
+  }
+
+  /** Writes a length-prefixed UTF-8 string; unlike writeUTF it has no 64 KB limit. */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IOException("Truncated string in transaction record");
+    }
+    byte[] utf8 = new byte[length];
+    in.readFully(utf8);
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+
+  /** Receives a stored transaction together with its key. */
+  interface KeyedTransactionVisitor {
+    void visit(byte[] key, Transaction transaction);
+  }
+}
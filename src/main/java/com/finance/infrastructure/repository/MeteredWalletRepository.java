@@ -0,0 +1,125 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import com.finance.infrastructure.metrics.Counter;
+import com.finance.infrastructure.metrics.LatencyHistogram;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * WalletRepository decorator that records the latency and failures of every call.
+ *
+ * <p>Metrics are named {@code repository.<operation>} and {@code repository.<operation>.errors}.
+ * Instruments are looked up once at construction, so each call costs two clock reads and a few
+ * atomic increments. Closing it closes the delegate.
+ */
+public class MeteredWalletRepository implements WalletRepository, Closeable {
+  private final WalletRepository delegate;
+  private final LatencyHistogram saveLatency;
+  private final LatencyHistogram loadLatency;
+  private final LatencyHistogram loadSummaryLatency;
+  private final LatencyHistogram deleteLatency;
+  private final LatencyHistogram existsLatency;
+  private final Counter saveErrors;
+  private final Counter loadErrors;
+  private final Counter loadSummaryErrors;
+  private final Counter deleteErrors;
+
+  /**
+   * Creates a new MeteredWalletRepository.
+   *
+   * @param delegate the repository to measure
+   * @param metrics the registry to record into
+   */
+  public MeteredWalletRepository(WalletRepository delegate, MetricsRegistry metrics) {
+    if (delegate == null) {
+      throw new IllegalArgumentException("Delegate repository cannot be null");
+    }
+    this.delegate = delegate;
+    this.saveLatency = metrics.histogram("repository.save");
+    this.loadLatency = metrics.histogram("repository.load");
+    this.loadSummaryLatency = metrics.histogram("repository.loadSummary");
+    this.deleteLatency = metrics.histogram("repository.delete");
+    this.existsLatency = metrics.histogram("repository.exists");
+    this.saveErrors = metrics.counter("repository.save.errors");
+    this.loadErrors = metrics.counter("repository.load.errors");
+    this.loadSummaryErrors = metrics.counter("repository.loadSummary.errors");
+    this.deleteErrors = metrics.counter("repository.delete.errors");
+  }
+
+  @Override
+  public void save(Wallet wallet) throws IOException {
+    long start = System.nanoTime();
+    try {
+      delegate.save(wallet);
+    } catch (IOException | RuntimeException e) {
+      saveErrors.increment();
+      throw e;
+    } finally {
+      saveLatency.record(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Wallet load(String userId) throws IOException {
+    long start = System.nanoTime();
+    try {
+      return delegate.load(userId);
+    } catch (IOException | RuntimeException e) {
+      loadErrors.increment();
+      throw e;
+    } finally {
+      loadLatency.record(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public WalletSummary loadSummary(String userId) throws IOException {
+    long start = System.nanoTime();
+    try {
+      return delegate.loadSummary(userId);
+    } catch (IOException | RuntimeException e) {
+      loadSummaryErrors.increment();
+      throw e;
+    } finally {
+      loadSummaryLatency.record(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void delete(String userId) throws IOException {
+    long start = System.nanoTime();
+    try {
+      delegate.delete(userId);
+    } catch (IOException | RuntimeException e) {
+      deleteErrors.increment();
+      throw e;
+    } finally {
+      deleteLatency.record(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public boolean exists(String userId) {
+    long start = System.nanoTime();
+    try {
+      return delegate.exists(userId);
+    } finally {
+      existsLatency.record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Closes the delegate if it holds resources, such as the files of an LSM store.
+   *
+   * @throws IOException if the delegate fails to close
+   */
+  @Override
+  public void close() throws IOException {
+    if (delegate instanceof Closeable closeable) {
+      closeable.close();
+    }
+  }
+}
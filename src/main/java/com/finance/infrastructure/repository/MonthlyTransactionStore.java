@@ -0,0 +1,222 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionPages;
+import com.finance.core.model.TransactionType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Transactions of one wallet split into one segment per calendar month, each page being a month.
+ *
+ * <p>Every segment has a {@link ZoneMap}, kept in memory with the wallet, so date-range and
+ * category queries skip months that cannot match without reading them. Segments are faulted in
+ * through the shared {@link PageCache}; the newest month and every month modified since the last
+ * flush stay pinned. Transactions are visited month by month and in insertion order within a
+ * month, so a back-dated transaction appears among the others of its month.
+ */
+final class MonthlyTransactionStore implements TransactionPages {
+  private final MonthlyWalletRepository owner;
+  private final String userId;
+  private final PageCache cache;
+  private final TreeMap<YearMonth, ZoneMap> zones;
+  private final List<Category> categories;
+  private final Map<Category, Integer> categoryIndexes = new HashMap<>();
+  private final Map<YearMonth, List<Transaction>> pinned = new HashMap<>();
+  private final Set<YearMonth> dirty = new TreeSet<>();
+  private int size;
+  private YearMonth lastMonth;
+  private String lastId;
+  private Transaction last;
+
+  MonthlyTransactionStore(
+      MonthlyWalletRepository owner,
+      String userId,
+      PageCache cache,
+      NavigableMap<YearMonth, ZoneMap> zones,
+      List<Category> categories,
+      YearMonth lastMonth,
+      String lastId) {
+    this.owner = owner;
+    this.userId = userId;
+    this.cache = cache;
+    this.zones = new TreeMap<>(zones);
+    this.categories = new ArrayList<>(categories);
+    for (int i = 0; i < categories.size(); i++) {
+      categoryIndexes.put(categories.get(i), i);
+    }
+    this.size = zones.values().stream().mapToInt(ZoneMap::getCount).sum();
+    this.lastMonth = lastMonth;
+    this.lastId = lastId;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int getPageCount() {
+    return zones.size();
+  }
+
+  @Override
+  public List<Transaction> getPage(int pageIndex) {
+    if (pageIndex < 0 || pageIndex >= zones.size()) {
+      throw new IndexOutOfBoundsException("Page " + pageIndex + " of " + zones.size());
+    }
+    return loadMonth(new ArrayList<>(zones.keySet()).get(pageIndex));
+  }
+
+  @Override
+  public void append(Transaction transaction) {
+    YearMonth month = YearMonth.from(transaction.getDate());
+    List<Transaction> segment = pinned.get(month);
+    if (segment == null) {
+      segment = zones.containsKey(month) ? new ArrayList<>(loadMonth(month)) : new ArrayList<>();
+      pinned.put(month, segment);
+    }
+    segment.add(transaction);
+    dirty.add(month);
+    zones.computeIfAbsent(month, m -> new ZoneMap())
+        .add(transaction, categoryIndex(transaction.getCategory()));
+    size++;
+    last = transaction;
+    lastMonth = month;
+    lastId = transaction.getId();
+  }
+
+  @Override
+  public void forEachBetween(LocalDateTime from, LocalDateTime to, Consumer<Transaction> action) {
+    for (Map.Entry<YearMonth, ZoneMap> zone : zones.entrySet()) {
+      if (zone.getValue().overlaps(from, to)) {
+        for (Transaction t : loadMonth(zone.getKey())) {
+          if (!t.getDate().isBefore(from) && !t.getDate().isAfter(to)) {
+            action.accept(t);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public void forEachMatching(
+      TransactionType type, Set<String> categoryNames, Consumer<Transaction> action) {
+    BitSet wanted = null;
+    if (categoryNames != null) {
+      wanted = new BitSet();
+      for (int i = 0; i < categories.size(); i++) {
+        if (categories.get(i).getType() == type
+            && categoryNames.contains(categories.get(i).getName())) {
+          wanted.set(i);
+        }
+      }
+      if (wanted.isEmpty()) {
+        return;
+      }
+    }
+    for (Map.Entry<YearMonth, ZoneMap> zone : zones.entrySet()) {
+      if (zone.getValue().mayContain(type, wanted)) {
+        for (Transaction t : loadMonth(zone.getKey())) {
+          if (t.getType() == type
+              && (categoryNames == null || categoryNames.contains(t.getCategory().getName()))) {
+            action.accept(t);
+          }
+        }
+      }
+    }
+  }
+
+  /** Gets the last appended transaction, which need not be in the newest month. */
+  @Override
+  public Transaction getLast() {
+    if (last == null && lastId != null && zones.containsKey(lastMonth)) {
+      for (Transaction t : loadMonth(lastMonth)) {
+        if (t.getId().equals(lastId)) {
+          last = t;
+        }
+      }
+    }
+    return last;
+  }
+
+  boolean isOwnedBy(MonthlyWalletRepository repository) {
+    return owner == repository;
+  }
+
+  NavigableMap<YearMonth, ZoneMap> getZones() {
+    return Collections.unmodifiableNavigableMap(zones);
+  }
+
+  List<Category> getCategories() {
+    return Collections.unmodifiableList(categories);
+  }
+
+  YearMonth getLastMonth() {
+    return lastMonth;
+  }
+
+  /**
+   * Writes modified months, refreshes their cached copies and unpins every month except the
+   * newest. Older months rarely change again, so their cached copies stay valid for as long as the
+   * cache keeps them.
+   *
+   * @throws IOException if a segment cannot be written
+   */
+  void flush() throws IOException {
+    for (YearMonth month : dirty) {
+      List<Transaction> segment = pinned.get(month);
+      owner.writeSegment(userId, month, segment, zones.get(month));
+      cache.put(userId, key(month), Collections.unmodifiableList(new ArrayList<>(segment)));
+    }
+    dirty.clear();
+
+    YearMonth newest = zones.isEmpty() ? null : zones.lastKey();
+    pinned.keySet().removeIf(month -> !month.equals(newest));
+  }
+
+  private int categoryIndex(Category category) {
+    Integer index = categoryIndexes.get(category);
+    if (index == null) {
+      index = categories.size();
+      categories.add(category);
+      categoryIndexes.put(category, index);
+    }
+    return index;
+  }
+
+  private List<Transaction> loadMonth(YearMonth month) {
+    List<Transaction> segment = pinned.get(month);
+    if (segment != null) {
+      return Collections.unmodifiableList(segment);
+    }
+    segment = cache.get(userId, key(month));
+    if (segment == null) {
+      try {
+        segment = Collections.unmodifiableList(owner.readSegment(userId, month));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to load " + month + " of " + userId, e);
+      }
+      cache.put(userId, key(month), segment);
+    }
+    return segment;
+  }
+
+  private static int key(YearMonth month) {
+    return month.getYear() * 12 + month.getMonthValue() - 1;
+  }
+}
@@ -0,0 +1,215 @@
+package com.finance.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.storage.JsonStorageManager;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * WalletRepository that keeps each wallet's transactions in one segment file per month.
+ *
+ * <p>Layout: {@code data/monthly/{userId}/wallet.json} holds the summary, budgets, the wallet's
+ * category list and the zone map of every month; {@code YYYY-MM.json} holds that month's
+ * transactions followed by its zone map. Because the header carries the zone maps, period and
+ * category statistics skip months that cannot match without opening their files. Saving rewrites
+ * only the months that changed, so current-month appends touch the newest segment alone. Saving
+ * a wallet that has not changed since it was loaded from or saved to this repository writes
+ * nothing.
+ */
+public class MonthlyWalletRepository implements WalletRepository {
+  private static final String ROOT_DIR = "monthly/";
+  private static final String HEADER_FILE = "/wallet.json";
+  private static final int DEFAULT_CACHE_MONTHS = 256;
+  private final JsonStorageManager storageManager;
+  private final ObjectMapper objectMapper;
+  private final PageCache segmentCache;
+
+  /** Creates a MonthlyWalletRepository with the default cache capacity. */
+  public MonthlyWalletRepository() {
+    this(DEFAULT_CACHE_MONTHS);
+  }
+
+  /**
+   * Creates a new MonthlyWalletRepository.
+   *
+   * @param cacheMonths the maximum number of unpinned monthly segments kept in memory
+   */
+  public MonthlyWalletRepository(int cacheMonths) {
+    this.storageManager = new JsonStorageManager();
+    this.objectMapper = storageManager.getObjectMapper();
+    this.segmentCache = new PageCache(cacheMonths);
+    MetricsRegistry metrics = MetricsRegistry.getDefault();
+    metrics.gauge("segmentcache.hits", segmentCache::getHitCount);
+    metrics.gauge("segmentcache.misses", segmentCache::getMissCount);
+  }
+
+  @Override
+  public void save(Wallet wallet) throws IOException {
+    if (wallet == null) {
+      throw new IllegalArgumentException("Wallet cannot be null");
+    }
+
+    String userId = wallet.getUserId();
+    if (wallet.isPersistedIn(this) && storageManager.fileExists(headerFile(userId))) {
+      return;
+    }
+
+    MonthlyTransactionStore store;
+    if (wallet.getTransactionPages() instanceof MonthlyTransactionStore owned
+        && owned.isOwnedBy(this)) {
+      store = owned;
+    } else {
+      delete(userId);
+      store = emptyStore(userId);
+      wallet.forEachTransaction(store::append);
+    }
+    store.flush();
+
+    ObjectNode headerNode = objectMapper.createObjectNode();
+    headerNode.put("userId", userId);
+    headerNode.put("balance", wallet.getBalance());
+    headerNode.set("summary", WalletJsonMapping.writeSummary(objectMapper, wallet.getSummary()));
+    headerNode.set(
+        "budgets", WalletJsonMapping.writeBudgets(objectMapper, wallet.getBudgets().values()));
+    ObjectNode keysNode =
+        WalletJsonMapping.writeIdempotencyKeys(objectMapper, wallet.getIdempotencyKeys());
+    if (keysNode != null) {
+      headerNode.set("idempotencyKeys", keysNode);
+    }
+    ArrayNode categoriesNode = headerNode.putArray("categories");
+    for (Category category : store.getCategories()) {
+      categoriesNode.addObject()
+          .put("name", category.getName())
+          .put("type", category.getType().name());
+    }
+    ObjectNode monthsNode = headerNode.putObject("months");
+    store.getZones().forEach(
+        (month, zone) -> monthsNode.set(month.toString(), zone.write(objectMapper)));
+    if (store.getLastMonth() != null) {
+      headerNode.put("lastMonth", store.getLastMonth().toString());
+    }
+    storageManager.writeToFile(headerFile(userId), headerNode);
+    wallet.markPersisted(this);
+  }
+
+  @Override
+  public Wallet load(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+
+    if (!storageManager.fileExists(headerFile(userId))) {
+      return new Wallet(new Wallet(userId).getSummary(), null, emptyStore(userId));
+    }
+
+    JsonNode headerNode = storageManager.readFromFile(headerFile(userId), JsonNode.class);
+    Map<Category, Budget> budgets = WalletJsonMapping.readBudgets(headerNode.get("budgets"));
+    WalletSummary summary = readSummary(userId, headerNode, budgets.size());
+    List<Category> categories = new ArrayList<>();
+    for (JsonNode categoryNode : headerNode.get("categories")) {
+      categories.add(new Category(categoryNode.get("name").asText(),
+          TransactionType.valueOf(categoryNode.get("type").asText())));
+    }
+    TreeMap<YearMonth, ZoneMap> zones = new TreeMap<>();
+    headerNode.get("months").fields().forEachRemaining(
+        month -> zones.put(YearMonth.parse(month.getKey()), ZoneMap.read(month.getValue())));
+    JsonNode lastMonthNode = headerNode.get("lastMonth");
+    MonthlyTransactionStore store = new MonthlyTransactionStore(this, userId, segmentCache, zones,
+        categories, lastMonthNode != null ? YearMonth.parse(lastMonthNode.asText()) : null,
+        summary.getLastTransactionId());
+    Wallet wallet = new Wallet(summary, budgets, store);
+    WalletJsonMapping.readIdempotencyKeys(
+        headerNode.get("idempotencyKeys"), wallet.getIdempotencyKeys());
+    wallet.markPersisted(this);
+    return wallet;
+  }
+
+  @Override
+  public WalletSummary loadSummary(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+    if (!storageManager.fileExists(headerFile(userId))) {
+      return new Wallet(userId).getSummary();
+    }
+
+    JsonNode headerNode = storageManager.readFromFile(headerFile(userId), JsonNode.class);
+    JsonNode budgetsNode = headerNode.get("budgets");
+    return readSummary(userId, headerNode, budgetsNode != null ? budgetsNode.size() : 0);
+  }
+
+  @Override
+  public void delete(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+
+    segmentCache.invalidate(userId);
+    if (!storageManager.fileExists(headerFile(userId))) {
+      return;
+    }
+    JsonNode headerNode = storageManager.readFromFile(headerFile(userId), JsonNode.class);
+    for (String month : (Iterable<String>) headerNode.get("months")::fieldNames) {
+      storageManager.deleteFile(segmentFile(userId, YearMonth.parse(month)));
+    }
+    storageManager.deleteFile(headerFile(userId));
+    storageManager.deleteFile(ROOT_DIR + userId);
+  }
+
+  @Override
+  public boolean exists(String userId) {
+    if (userId == null || userId.trim().isEmpty()) {
+      return false;
+    }
+    return storageManager.fileExists(headerFile(userId));
+  }
+
+  public PageCache getSegmentCache() {
+    return segmentCache;
+  }
+
+  void writeSegment(String userId, YearMonth month, List<Transaction> transactions, ZoneMap zone)
+      throws IOException {
+    ObjectNode segmentNode = objectMapper.createObjectNode();
+    segmentNode.set("transactions", WalletJsonMapping.writeTransactions(objectMapper, transactions));
+    segmentNode.set("zone", zone.write(objectMapper));
+    storageManager.writeToFile(segmentFile(userId, month), segmentNode);
+  }
+
+  List<Transaction> readSegment(String userId, YearMonth month) throws IOException {
+    JsonNode segmentNode = storageManager.readFromFile(segmentFile(userId, month), JsonNode.class);
+    return WalletJsonMapping.readTransactions(segmentNode.get("transactions"));
+  }
+
+  private MonthlyTransactionStore emptyStore(String userId) {
+    return new MonthlyTransactionStore(
+        this, userId, segmentCache, new TreeMap<>(), List.of(), null, null);
+  }
+
+  private WalletSummary readSummary(String userId, JsonNode headerNode, int budgetCount) {
+    return WalletJsonMapping.readSummary(
+        userId, headerNode.get("balance").asDouble(), budgetCount, headerNode.get("summary"));
+  }
+
+  private static String headerFile(String userId) {
+    return ROOT_DIR + userId + HEADER_FILE;
+  }
+
+  private static String segmentFile(String userId, YearMonth month) {
+    return ROOT_DIR + userId + "/" + month + ".json";
+  }
+}
@@ -0,0 +1,268 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of a transaction list, stored by {@link WalletJsonCodec} as a single
+ * binary value in place of the transaction array.
+ *
+ * <p>Layout: a version byte, the row count and the category names, then one row per transaction.
+ * A row starts with a varint tag holding the category index and flags, followed by the date as a
+ * zigzag varint delta of epoch seconds from the previous row (plus a varint of nanoseconds when
+ * flagged), the amount as a zigzag varint of minor units, the id and the description. Ids in
+ * canonical UUID form take 16 bytes, and amounts that are not a whole number of cents fall back
+ * to the raw double, so every transaction round-trips exactly.
+ */
+final class PackedTransactions {
+  private static final int VERSION = 1;
+  private static final int EXPENSE = 1;
+  private static final int HAS_KEY = 1 << 1;
+  private static final int UUID_ID = 1 << 2;
+  private static final int RAW_AMOUNT = 1 << 3;
+  private static final int HAS_NANOS = 1 << 4;
+  private static final int FLAG_BITS = 5;
+  private static final double MINOR_UNITS = 100.0;
+
+  private PackedTransactions() {
+  }
+
+  static byte[] encode(List<Transaction> transactions) {
+    Map<String, Integer> categoryIndexes = new HashMap<>();
+    List<String> categoryNames = new ArrayList<>();
+    for (Transaction transaction : transactions) {
+      String name = transaction.getCategory().getName();
+      if (!categoryIndexes.containsKey(name)) {
+        categoryIndexes.put(name, categoryNames.size());
+        categoryNames.add(name);
+      }
+    }
+
+    Sink sink = new Sink(16 + transactions.size() * 32);
+    sink.writeByte(VERSION);
+    sink.writeVarint(transactions.size());
+    sink.writeVarint(categoryNames.size());
+    for (String name : categoryNames) {
+      sink.writeString(name);
+    }
+
+    long previousSecond = 0;
+    for (Transaction transaction : transactions) {
+      String id = transaction.getId();
+      UUID uuid = parseUuid(id);
+      double amount = transaction.getAmount();
+      long minor = Math.round(amount * MINOR_UNITS);
+      boolean rawAmount = minor / MINOR_UNITS != amount;
+      LocalDateTime date = transaction.getDate();
+      long second = date.toEpochSecond(ZoneOffset.UTC);
+      int nanos = date.getNano();
+      String key = transaction.getIdempotencyKey();
+
+      int tag = categoryIndexes.get(transaction.getCategory().getName()) << FLAG_BITS;
+      tag |= transaction.getType() == TransactionType.EXPENSE ? EXPENSE : 0;
+      tag |= key != null ? HAS_KEY : 0;
+      tag |= uuid != null ? UUID_ID : 0;
+      tag |= rawAmount ? RAW_AMOUNT : 0;
+      tag |= nanos != 0 ? HAS_NANOS : 0;
+      sink.writeVarint(tag);
+
+      sink.writeVarint(zigzag(second - previousSecond));
+      previousSecond = second;
+      if (nanos != 0) {
+        sink.writeVarint(nanos);
+      }
+      if (rawAmount) {
+        sink.writeLong(Double.doubleToRawLongBits(amount));
+      } else {
+        sink.writeVarint(zigzag(minor));
+      }
+      if (uuid != null) {
+        sink.writeLong(uuid.getMostSignificantBits());
+        sink.writeLong(uuid.getLeastSignificantBits());
+      } else {
+        sink.writeString(id);
+      }
+      sink.writeString(transaction.getDescription());
+      if (key != null) {
+        sink.writeString(key);
+      }
+    }
+    return sink.toByteArray();
+  }
+
+  /**
+   * Decodes transactions written by {@link #encode}.
+   *
+   * @param bytes the encoded transactions
+   * @param transactions the list to add the transactions to
+   * @throws IOException if the bytes are not a supported encoding
+   */
+  static void decode(byte[] bytes, List<Transaction> transactions) throws IOException {
+    Source source = new Source(bytes);
+    try {
+      if (source.readByte() != VERSION) {
+        throw new IOException("Unsupported packed transaction version");
+      }
+      int count = source.readVarint();
+      Category[] categories = new Category[source.readVarint() * 2];
+      for (int i = 0; i < categories.length; i += 2) {
+        String name = source.readString();
+        categories[i] = new Category(name, TransactionType.INCOME);
+        categories[i + 1] = new Category(name, TransactionType.EXPENSE);
+      }
+
+      long second = 0;
+      for (int i = 0; i < count; i++) {
+        int tag = source.readVarint();
+        second += unzigzag(source.readVarintLong());
+        int nanos = (tag & HAS_NANOS) != 0 ? source.readVarint() : 0;
+        double amount = (tag & RAW_AMOUNT) != 0
+            ? Double.longBitsToDouble(source.readLong())
+            : unzigzag(source.readVarintLong()) / MINOR_UNITS;
+        String id = (tag & UUID_ID) != 0
+            ? new UUID(source.readLong(), source.readLong()).toString()
+            : source.readString();
+        String description = source.readString();
+        String key = (tag & HAS_KEY) != 0 ? source.readString() : null;
+        Category category = categories[(tag >>> FLAG_BITS) * 2 + (tag & EXPENSE)];
+        transactions.add(new Transaction(id, amount, category, category.getType(),
+            LocalDateTime.ofEpochSecond(second, nanos, ZoneOffset.UTC), description, key));
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Truncated packed transactions", e);
+    }
+  }
+
+  /** Returns the id as a UUID if it is one in canonical form, so that it prints back the same. */
+  private static UUID parseUuid(String id) {
+    if (id.length() != 36 || id.charAt(8) != '-') {
+      return null;
+    }
+    try {
+      UUID uuid = UUID.fromString(id);
+      return uuid.toString().equals(id) ? uuid : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /** Growable byte array written without the locking of ByteArrayOutputStream. */
+  private static final class Sink {
+    private byte[] buffer;
+    private int size;
+
+    private Sink(int capacity) {
+      this.buffer = new byte[capacity];
+    }
+
+    private void ensure(int extra) {
+      if (size + extra > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+      }
+    }
+
+    private void writeByte(int b) {
+      ensure(1);
+      buffer[size++] = (byte) b;
+    }
+
+    private void writeVarint(long value) {
+      ensure(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buffer[size++] = (byte) value;
+    }
+
+    private void writeLong(long value) {
+      ensure(Long.BYTES);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        buffer[size++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void writeString(String value) {
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      writeVarint(utf8.length);
+      ensure(utf8.length);
+      System.arraycopy(utf8, 0, buffer, size, utf8.length);
+      size += utf8.length;
+    }
+
+    private byte[] toByteArray() {
+      return Arrays.copyOf(buffer, size);
+    }
+  }
+
+  /** Cursor over an encoded byte array; reading past the end throws. */
+  private static final class Source {
+    private final byte[] bytes;
+    private int position;
+
+    private Source(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    private int readByte() {
+      return bytes[position++] & 0xFF;
+    }
+
+    private int readVarint() throws IOException {
+      long value = readVarintLong();
+      if (value > Integer.MAX_VALUE) {
+        throw new IOException("Varint out of range at " + position);
+      }
+      return (int) value;
+    }
+
+    private long readVarintLong() {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        value |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return value;
+    }
+
+    private long readLong() {
+      long value = 0;
+      for (int i = 0; i < Long.BYTES; i++) {
+        value = (value << 8) | (bytes[position++] & 0xFF);
+      }
+      return value;
+    }
+
+    private String readString() throws IOException {
+      int length = readVarint();
+      if (length > bytes.length - position) {
+        throw new IOException("Truncated packed transactions");
+      }
+      String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+  }
+}
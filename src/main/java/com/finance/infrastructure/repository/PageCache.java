@@ -0,0 +1,94 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Transaction;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of transaction pages shared by all paged wallets of a repository.
+ */
+public class PageCache {
+  private final int capacity;
+  private final Map<String, List<Transaction>> pages;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Creates a new PageCache.
+   *
+   * @param capacity the maximum number of pages kept in memory
+   */
+  public PageCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.pages =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, List<Transaction>> eldest) {
+            return size() > PageCache.this.capacity;
+          }
+        };
+  }
+
+  /**
+   * Gets a cached page.
+   *
+   * @param userId the wallet owner
+   * @param pageIndex the page index
+   * @return the page or null if not cached
+   */
+  public synchronized List<Transaction> get(String userId, int pageIndex) {
+    List<Transaction> page = pages.get(key(userId, pageIndex));
+    if (page != null) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+    return page;
+  }
+
+  /**
+   * Adds a page to the cache, evicting the least recently used page if full.
+   *
+   * @param userId the wallet owner
+   * @param pageIndex the page index
+   * @param page the read-only page contents
+   */
+  public synchronized void put(String userId, int pageIndex, List<Transaction> page) {
+    pages.put(key(userId, pageIndex), page);
+  }
+
+  /**
+   * Drops all cached pages of a wallet.
+   *
+   * @param userId the wallet owner
+   */
+  public synchronized void invalidate(String userId) {
+    String prefix = userId + "#";
+    pages.keySet().removeIf(key -> key.startsWith(prefix));
+  }
+
+  public synchronized int size() {
+    return pages.size();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  private static String key(String userId, int pageIndex) {
+    return userId + "#" + pageIndex;
+  }
+}
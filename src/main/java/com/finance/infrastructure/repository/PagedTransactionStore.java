@@ -0,0 +1,124 @@
+package com.finance.infrastructure.repository;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionPages;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Transaction pages of one wallet, faulted in from page files through a shared {@link PageCache}.
+ *
+ * <p>The last page and every page modified since the last flush stay pinned in memory; all other
+ * pages are only reachable through the bounded cache and may be evicted at any time.
+ */
+final class PagedTransactionStore implements TransactionPages {
+  private final PagedWalletRepository owner;
+  private final String userId;
+  private final int pageSize;
+  private final PageCache cache;
+  private final Map<Integer, List<Transaction>> pinned = new TreeMap<>();
+  private final Set<Integer> dirty = new TreeSet<>();
+  private int size;
+  private int pageCount;
+
+  PagedTransactionStore(
+      PagedWalletRepository owner, String userId, int pageSize, int size, PageCache cache) {
+    this.owner = owner;
+    this.userId = userId;
+    this.pageSize = pageSize;
+    this.size = size;
+    this.pageCount = (size + pageSize - 1) / pageSize;
+    this.cache = cache;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int getPageCount() {
+    return pageCount;
+  }
+
+  @Override
+  public List<Transaction> getPage(int pageIndex) {
+    if (pageIndex < 0 || pageIndex >= pageCount) {
+      throw new IndexOutOfBoundsException("Page " + pageIndex + " of " + pageCount);
+    }
+    List<Transaction> page = pinned.get(pageIndex);
+    if (page != null) {
+      return Collections.unmodifiableList(page);
+    }
+    return loadPage(pageIndex);
+  }
+
+  @Override
+  public void append(Transaction transaction) {
+    int pageIndex = size / pageSize;
+    List<Transaction> page;
+    if (pageIndex == pageCount) {
+      page = new ArrayList<>(pageSize);
+      pageCount++;
+    } else {
+      page = pinned.get(pageIndex);
+      if (page == null) {
+        page = new ArrayList<>(loadPage(pageIndex));
+      }
+    }
+    page.add(transaction);
+    pinned.put(pageIndex, page);
+    dirty.add(pageIndex);
+    size++;
+  }
+
+  int getPageSize() {
+    return pageSize;
+  }
+
+  boolean isOwnedBy(PagedWalletRepository repository) {
+    return owner == repository;
+  }
+
+  /**
+   * Writes modified pages and releases every pinned page except the last one to the cache.
+   *
+   * @throws IOException if a page cannot be written
+   */
+  void flush() throws IOException {
+    for (Integer pageIndex : dirty) {
+      owner.writePage(userId, pageIndex, pinned.get(pageIndex));
+    }
+    dirty.clear();
+
+    int lastPage = pageCount - 1;
+    pinned.entrySet().removeIf(
+        entry -> {
+          if (entry.getKey() == lastPage) {
+            return false;
+          }
+          cache.put(userId, entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+          return true;
+        });
+  }
+
+  private List<Transaction> loadPage(int pageIndex) {
+    List<Transaction> page = cache.get(userId, pageIndex);
+    if (page == null) {
+      try {
+        page = Collections.unmodifiableList(owner.readPage(userId, pageIndex));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to load page " + pageIndex + " of " + userId, e);
+      }
+      cache.put(userId, pageIndex, page);
+    }
+    return page;
+  }
+}
@@ -0,0 +1,199 @@
+package com.finance.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.storage.JsonStorageManager;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WalletRepository that keeps each wallet's transactions in fixed-size page files.
+ *
+ * <p>Layout: {@code data/paged/{userId}/wallet.json} holds the summary, budgets and page geometry;
+ * {@code page-N.json} holds up to {@code pageSize} transactions. Loaded wallets fault pages in on
+ * demand through a bounded {@link PageCache}, and saving rewrites only pages that changed. Saving
+ * a wallet that has not changed since it was loaded from or saved to this repository writes nothing.
+ */
+public class PagedWalletRepository implements WalletRepository {
+  private static final String ROOT_DIR = "paged/";
+  private static final String HEADER_FILE = "/wallet.json";
+  private static final int DEFAULT_PAGE_SIZE = 1024;
+  private static final int DEFAULT_CACHE_PAGES = 256;
+  private final JsonStorageManager storageManager;
+  private final ObjectMapper objectMapper;
+  private final PageCache pageCache;
+  private final int pageSize;
+
+  /** Creates a PagedWalletRepository with default page size and cache capacity. */
+  public PagedWalletRepository() {
+    this(DEFAULT_PAGE_SIZE, DEFAULT_CACHE_PAGES);
+  }
+
+  /**
+   * Creates a new PagedWalletRepository.
+   *
+   * @param pageSize the number of transactions per page for new wallets
+   * @param cachePages the maximum number of unpinned pages kept in memory
+   */
+  public PagedWalletRepository(int pageSize, int cachePages) {
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("Page size must be positive");
+    }
+    this.storageManager = new JsonStorageManager();
+    this.objectMapper = storageManager.getObjectMapper();
+    this.pageCache = new PageCache(cachePages);
+    this.pageSize = pageSize;
+    MetricsRegistry metrics = MetricsRegistry.getDefault();
+    metrics.gauge("pagecache.hits", pageCache::getHitCount);
+    metrics.gauge("pagecache.misses", pageCache::getMissCount);
+  }
+
+  @Override
+  public void save(Wallet wallet) throws IOException {
+    if (wallet == null) {
+      throw new IllegalArgumentException("Wallet cannot be null");
+    }
+
+    String userId = wallet.getUserId();
+    if (wallet.isPersistedIn(this) && storageManager.fileExists(headerFile(userId))) {
+      return;
+    }
+
+    int walletPageSize;
+    if (wallet.getTransactionPages() instanceof PagedTransactionStore store
+        && store.isOwnedBy(this)) {
+      store.flush();
+      walletPageSize = store.getPageSize();
+    } else {
+      walletPageSize = pageSize;
+      pageCache.invalidate(userId);
+      List<Transaction> transactions = wallet.getTransactions();
+      for (int from = 0, page = 0; from < transactions.size(); from += pageSize, page++) {
+        int to = Math.min(from + pageSize, transactions.size());
+        writePage(userId, page, transactions.subList(from, to));
+      }
+    }
+
+    ObjectNode headerNode = objectMapper.createObjectNode();
+    headerNode.put("userId", userId);
+    headerNode.put("balance", wallet.getBalance());
+    headerNode.put("pageSize", walletPageSize);
+    headerNode.set("summary", WalletJsonMapping.writeSummary(objectMapper, wallet.getSummary()));
+    headerNode.set(
+        "budgets", WalletJsonMapping.writeBudgets(objectMapper, wallet.getBudgets().values()));
+    ObjectNode keysNode =
+        WalletJsonMapping.writeIdempotencyKeys(objectMapper, wallet.getIdempotencyKeys());
+    if (keysNode != null) {
+      headerNode.set("idempotencyKeys", keysNode);
+    }
+    storageManager.writeToFile(headerFile(userId), headerNode);
+    wallet.markPersisted(this);
+  }
+
+  @Override
+  public Wallet load(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+
+    if (!storageManager.fileExists(headerFile(userId))) {
+      return new Wallet(
+          new Wallet(userId).getSummary(),
+          null,
+          new PagedTransactionStore(this, userId, pageSize, 0, pageCache));
+    }
+
+    JsonNode headerNode = storageManager.readFromFile(headerFile(userId), JsonNode.class);
+    Map<Category, Budget> budgets = WalletJsonMapping.readBudgets(headerNode.get("budgets"));
+    WalletSummary summary = readSummary(userId, headerNode, budgets.size());
+    PagedTransactionStore store =
+        new PagedTransactionStore(
+            this,
+            userId,
+            headerNode.get("pageSize").asInt(),
+            summary.getTransactionCount(),
+            pageCache);
+    Wallet wallet = new Wallet(summary, budgets, store);
+    WalletJsonMapping.readIdempotencyKeys(
+        headerNode.get("idempotencyKeys"), wallet.getIdempotencyKeys());
+    wallet.markPersisted(this);
+    return wallet;
+  }
+
+  @Override
+  public WalletSummary loadSummary(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+    if (!storageManager.fileExists(headerFile(userId))) {
+      return new Wallet(userId).getSummary();
+    }
+
+    JsonNode headerNode = storageManager.readFromFile(headerFile(userId), JsonNode.class);
+    JsonNode budgetsNode = headerNode.get("budgets");
+    return readSummary(userId, headerNode, budgetsNode != null ? budgetsNode.size() : 0);
+  }
+
+  @Override
+  public void delete(String userId) throws IOException {
+    if (userId == null || userId.trim().isEmpty()) {
+      throw new IllegalArgumentException("User ID cannot be empty");
+    }
+
+    pageCache.invalidate(userId);
+    if (!storageManager.fileExists(headerFile(userId))) {
+      return;
+    }
+    JsonNode headerNode = storageManager.readFromFile(headerFile(userId), JsonNode.class);
+    int headerPageSize = headerNode.get("pageSize").asInt();
+    int count = headerNode.get("summary").get("transactionCount").asInt();
+    for (int page = 0; page * headerPageSize < count; page++) {
+      storageManager.deleteFile(pageFile(userId, page));
+    }
+    storageManager.deleteFile(headerFile(userId));
+    storageManager.deleteFile(ROOT_DIR + userId);
+  }
+
+  @Override
+  public boolean exists(String userId) {
+    if (userId == null || userId.trim().isEmpty()) {
+      return false;
+    }
+    return storageManager.fileExists(headerFile(userId));
+  }
+
+  public PageCache getPageCache() {
+    return pageCache;
+  }
+
+  void writePage(String userId, int pageIndex, List<Transaction> page) throws IOException {
+    storageManager.writeToFile(
+        pageFile(userId, pageIndex), WalletJsonMapping.writeTransactions(objectMapper, page));
+  }
+
+  List<Transaction> readPage(String userId, int pageIndex) throws IOException {
+    return WalletJsonMapping.readTransactions(
+        storageManager.readFromFile(pageFile(userId, pageIndex), JsonNode.class));
+  }
+
+  private WalletSummary readSummary(String userId, JsonNode headerNode, int budgetCount) {
+    return WalletJsonMapping.readSummary(
+        userId, headerNode.get("balance").asDouble(), budgetCount, headerNode.get("summary"));
+  }
+
+  private static String headerFile(String userId) {
+    return ROOT_DIR + userId + HEADER_FILE;
+  }
+
+  private static String pageFile(String userId, int pageIndex) {
+    return ROOT_DIR + userId + "/page-" + pageIndex + ".json";
+  }
+}
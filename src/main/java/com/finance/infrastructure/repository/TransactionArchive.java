@@ -0,0 +1,128 @@
+package com.finance.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resident summary of a wallet's compressed archive: its committed length in bytes, the
+ * categories that occur in it, a {@link ZoneMap} over its transactions and its newest transaction,
+ * enough to tell whether a query has to decompress it.
+ */
+final class TransactionArchive {
+  private final List<Category> categories = new ArrayList<>();
+  private final Map<Category, Integer> categoryIndexes = new HashMap<>();
+  private ZoneMap zone = new ZoneMap();
+  private long bytes;
+  private Transaction last;
+
+  int getCount() {
+    return zone.getCount();
+  }
+
+  long getBytes() {
+    return bytes;
+  }
+
+  /** Gets the newest archived transaction, or null if the header predates recording it. */
+  Transaction getLast() {
+    return last;
+  }
+
+  /**
+   * Summarizes the archive after transactions were appended to its file, leaving this summary
+   * untouched so that it stays valid until the wallet file naming the new length is written.
+   *
+   * @param archived the transactions, now stored in the archive
+   * @param newBytes the archive length after the append
+   * @return the summary of the extended archive
+   */
+  TransactionArchive plus(List<Transaction> archived, long newBytes) {
+    TransactionArchive extended = new TransactionArchive();
+    extended.categories.addAll(categories);
+    extended.categoryIndexes.putAll(categoryIndexes);
+    extended.zone = zone.copy();
+    extended.last = last;
+    extended.add(archived, newBytes);
+    return extended;
+  }
+
+  private void add(List<Transaction> archived, long newBytes) {
+    for (Transaction transaction : archived) {
+      Integer index = categoryIndexes.get(transaction.getCategory());
+      if (index == null) {
+        index = categories.size();
+        categories.add(transaction.getCategory());
+        categoryIndexes.put(transaction.getCategory(), index);
+      }
+      zone.add(transaction, index);
+      last = transaction;
+    }
+    bytes = newBytes;
+  }
+
+  boolean overlaps(LocalDateTime from, LocalDateTime to) {
+    return zone.overlaps(from, to);
+  }
+
+  /**
+   * Checks whether the archive may hold transactions of a type in the named categories.
+   *
+   * @param categoryNames the category names, or null for any category
+   */
+  boolean mayContain(TransactionType type, Set<String> categoryNames) {
+    BitSet wanted = null;
+    if (categoryNames != null) {
+      wanted = new BitSet();
+      for (int i = 0; i < categories.size(); i++) {
+        if (categories.get(i).getType() == type
+            && categoryNames.contains(categories.get(i).getName())) {
+          wanted.set(i);
+        }
+      }
+    }
+    return zone.mayContain(type, wanted);
+  }
+
+  ObjectNode write(ObjectMapper objectMapper) {
+    ObjectNode archiveNode = objectMapper.createObjectNode();
+    archiveNode.put("bytes", bytes);
+    ArrayNode categoriesNode = archiveNode.putArray("categories");
+    for (Category category : categories) {
+      categoriesNode.addObject()
+          .put("name", category.getName())
+          .put("type", category.getType().name());
+    }
+    archiveNode.set("zone", zone.write(objectMapper));
+    if (last != null) {
+      archiveNode.set("last", WalletJsonMapping.writeTransactions(objectMapper, List.of(last)));
+    }
+    return archiveNode;
+  }
+
+  static TransactionArchive read(JsonNode archiveNode) {
+    TransactionArchive archive = new TransactionArchive();
+    archive.bytes = archiveNode.get("bytes").asLong();
+    for (JsonNode categoryNode : archiveNode.get("categories")) {
+      Category category = new Category(categoryNode.get("name").asText(),
+          TransactionType.valueOf(categoryNode.get("type").asText()));
+      archive.categoryIndexes.put(category, archive.categories.size());
+      archive.categories.add(category);
+    }
+    archive.zone = ZoneMap.read(archiveNode.get("zone"));
+    List<Transaction> last = WalletJsonMapping.readTransactions(archiveNode.get("last"));
+    archive.last = last.isEmpty() ? null : last.get(0);
+    return archive;
+  }
+}
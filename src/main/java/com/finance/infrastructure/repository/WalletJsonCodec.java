@@ -0,0 +1,305 @@
+package com.finance.infrastructure.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.IdempotencyKeys;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming codec for {@link JsonWalletRepository} wallet files, writing straight to a
+ * {@link JsonGenerator} and reading straight from a {@link JsonParser}.
+ *
+ * <p>The output is the document {@link WalletJsonMapping} builds as a tree, field for field and in
+ * the same order, so both produce the same bytes. Readers expect fields in that order: each
+ * object's next field name is compared byte-wise against the expected one and dispatched by its
+ * ordinal, and only a field out of order falls back to a search by name.
+ */
+final class WalletJsonCodec {
+  private static final SerializedString[] TRANSACTION_FIELDS = names(
+      "id", "amount", "category", "type", "date", "description", "idempotencyKey");
+  private static final int ID = 0;
+  private static final int AMOUNT = 1;
+  private static final int CATEGORY = 2;
+  private static final int TYPE = 3;
+  private static final int DATE = 4;
+  private static final int DESCRIPTION = 5;
+  private static final int IDEMPOTENCY_KEY = 6;
+
+  private static final SerializedString[] BUDGET_FIELDS =
+      names("category", "categoryType", "limit", "spent");
+  private static final int BUDGET_CATEGORY = 0;
+  private static final int BUDGET_CATEGORY_TYPE = 1;
+  private static final int LIMIT = 2;
+  private static final int SPENT = 3;
+
+  private static final int UNKNOWN = -1;
+
+  private WalletJsonCodec() {
+  }
+
+  /**
+   * Writes a wallet document.
+   *
+   * @param generator the generator, created by the mapper that serializes trees into it
+   * @param objectMapper the mapper building the archive summary
+   * @param wallet the wallet
+   * @param archive the archive summary, or null if the wallet has none
+   * @param transactions the transactions stored in the wallet file
+   * @param packed whether to store the transactions as {@link PackedTransactions} instead of an
+   *     array
+   */
+  static void writeWallet(JsonGenerator generator, ObjectMapper objectMapper, Wallet wallet,
+      TransactionArchive archive, List<Transaction> transactions, boolean packed)
+      throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("userId", wallet.getUserId());
+    generator.writeNumberField("balance", wallet.getBalance());
+    writeSummary(generator, wallet.getSummary());
+    writeBudgets(generator, wallet.getBudgets().values());
+    writeIdempotencyKeys(generator, wallet.getIdempotencyKeys());
+    if (archive != null) {
+      generator.writeFieldName("archive");
+      generator.writeTree(archive.write(objectMapper));
+    }
+    generator.writeFieldName("transactions");
+    if (packed) {
+      generator.writeBinary(PackedTransactions.encode(transactions));
+    } else {
+      writeTransactions(generator, transactions);
+    }
+    generator.writeEndObject();
+  }
+
+  static void writeTransactions(JsonGenerator generator, List<Transaction> transactions)
+      throws IOException {
+    generator.writeStartArray();
+    for (Transaction transaction : transactions) {
+      generator.writeStartObject();
+      generator.writeStringField("id", transaction.getId());
+      generator.writeNumberField("amount", transaction.getAmount());
+      generator.writeStringField("category", transaction.getCategory().getName());
+      generator.writeStringField("type", transaction.getType().name());
+      generator.writeStringField("date", transaction.getDate().toString());
+      generator.writeStringField("description", transaction.getDescription());
+      if (transaction.getIdempotencyKey() != null) {
+        generator.writeStringField("idempotencyKey", transaction.getIdempotencyKey());
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+  /**
+   * Moves a parser at the start of a wallet document to the start of its transaction array.
+   *
+   * @return false if the document has no transaction array
+   */
+  static boolean seekTransactions(JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Malformed wallet file");
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      boolean found = "transactions".equals(parser.currentName());
+      parser.nextToken();
+      if (found) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  /**
+   * Reads a transaction array or its {@link PackedTransactions} form.
+   *
+   * @param parser a parser on the array's start token or the binary value
+   * @param transactions the list to add the transactions to
+   */
+  static void readTransactions(JsonParser parser, List<Transaction> transactions)
+      throws IOException {
+    if (parser.currentToken() == JsonToken.VALUE_EMBEDDED_OBJECT
+        || parser.currentToken() == JsonToken.VALUE_STRING) {
+      PackedTransactions.decode(parser.getBinaryValue(), transactions);
+      return;
+    }
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String id = null;
+      double amount = 0.0;
+      String categoryName = null;
+      TransactionType type = null;
+      LocalDateTime date = null;
+      String description = null;
+      String idempotencyKey = null;
+      int expected = 0;
+      int field;
+      while ((field = nextField(parser, TRANSACTION_FIELDS, expected)) != UNKNOWN) {
+        parser.nextToken();
+        switch (field) {
+          case ID:
+            id = parser.getText();
+            break;
+          case AMOUNT:
+            amount = parser.getValueAsDouble();
+            break;
+          case CATEGORY:
+            categoryName = parser.getText();
+            break;
+          case TYPE:
+            type = TransactionType.valueOf(parser.getText());
+            break;
+          case DATE:
+            date = LocalDateTime.parse(parser.getText());
+            break;
+          case DESCRIPTION:
+            description = parser.getText();
+            break;
+          case IDEMPOTENCY_KEY:
+            idempotencyKey = parser.getText();
+            break;
+          default:
+            parser.skipChildren();
+        }
+        expected = field + 1;
+      }
+      transactions.add(new Transaction(id, amount, new Category(categoryName, type), type, date,
+          description, idempotencyKey));
+    }
+  }
+
+  /**
+   * Reads a budget array.
+   *
+   * @param parser a parser on the array's start token
+   * @return the budgets by category
+   */
+  static Map<Category, Budget> readBudgets(JsonParser parser) throws IOException {
+    Map<Category, Budget> budgets = new HashMap<>();
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return budgets;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String categoryName = null;
+      TransactionType categoryType = null;
+      double limit = 0.0;
+      double spent = 0.0;
+      int expected = 0;
+      int field;
+      while ((field = nextField(parser, BUDGET_FIELDS, expected)) != UNKNOWN) {
+        parser.nextToken();
+        switch (field) {
+          case BUDGET_CATEGORY:
+            categoryName = parser.getText();
+            break;
+          case BUDGET_CATEGORY_TYPE:
+            categoryType = TransactionType.valueOf(parser.getText());
+            break;
+          case LIMIT:
+            limit = parser.getValueAsDouble();
+            break;
+          case SPENT:
+            spent = parser.getValueAsDouble();
+            break;
+          default:
+            parser.skipChildren();
+        }
+        expected = field + 1;
+      }
+      Category category = new Category(categoryName, categoryType);
+      budgets.put(category, new Budget(category, limit, spent));
+    }
+    return budgets;
+  }
+
+  private static void writeSummary(JsonGenerator generator, WalletSummary summary)
+      throws IOException {
+    generator.writeObjectFieldStart("summary");
+    generator.writeNumberField("transactionCount", summary.getTransactionCount());
+    generator.writeNumberField("totalIncome", summary.getTotalIncome());
+    generator.writeNumberField("totalExpenses", summary.getTotalExpenses());
+    generator.writeStringField("lastTransactionId", summary.getLastTransactionId());
+    generator.writeEndObject();
+  }
+
+  private static void writeBudgets(JsonGenerator generator, Collection<Budget> budgets)
+      throws IOException {
+    generator.writeArrayFieldStart("budgets");
+    for (Budget budget : budgets) {
+      generator.writeStartObject();
+      generator.writeStringField("category", budget.getCategory().getName());
+      generator.writeStringField("categoryType", budget.getCategory().getType().name());
+      generator.writeNumberField("limit", budget.getLimit());
+      generator.writeNumberField("spent", budget.getSpent());
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+  private static void writeIdempotencyKeys(JsonGenerator generator, IdempotencyKeys keys)
+      throws IOException {
+    if (keys.getCurrentBits() == null) {
+      return;
+    }
+    generator.writeObjectFieldStart("idempotencyKeys");
+    generator.writeStringField("generationStart", keys.getGenerationStart().toString());
+    generator.writeNumberField("currentCount", keys.getCurrentCount());
+    generator.writeBinaryField("current", WalletJsonMapping.toBytes(keys.getCurrentBits()));
+    if (keys.getPreviousBits() != null) {
+      generator.writeBinaryField("previous", WalletJsonMapping.toBytes(keys.getPreviousBits()));
+    }
+    generator.writeEndObject();
+  }
+
+  /**
+   * Advances to the next field of an object and returns its ordinal in {@code fields}.
+   *
+   * @param expected the ordinal the field has when the object is in written order
+   * @return the ordinal, {@code fields.length} for a field not in the list, or {@link #UNKNOWN}
+   *     at the end of the object
+   */
+  private static int nextField(JsonParser parser, SerializedString[] fields, int expected)
+      throws IOException {
+    if (expected < fields.length && parser.nextFieldName(fields[expected])) {
+      return expected;
+    }
+    if (expected >= fields.length) {
+      parser.nextToken();
+    }
+    if (parser.currentToken() != JsonToken.FIELD_NAME) {
+      return UNKNOWN;
+    }
+    String name = parser.currentName();
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i].getValue().equals(name)) {
+        return i;
+      }
+    }
+    return fields.length;
+  }
+
+  private static SerializedString[] names(String... names) {
+    SerializedString[] strings = new SerializedString[names.length];
+    for (int i = 0; i < names.length; i++) {
+      strings[i] = new SerializedString(names[i]);
+    }
+    return strings;
+  }
+}
@@ -0,0 +1,162 @@
+package com.finance.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.IdempotencyKeys;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.WalletSummary;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON tree mapping of wallet parts shared by the JSON-based repositories.
+ */
+final class WalletJsonMapping {
+
+  private WalletJsonMapping() {
+  }
+
+  static ArrayNode writeTransactions(ObjectMapper objectMapper, List<Transaction> transactions) {
+    ArrayNode transactionsArray = objectMapper.createArrayNode();
+    for (Transaction transaction : transactions) {
+      ObjectNode transactionNode = objectMapper.createObjectNode();
+      transactionNode.put("id", transaction.getId());
+      transactionNode.put("amount", transaction.getAmount());
+      transactionNode.put("category", transaction.getCategory().getName());
+      transactionNode.put("type", transaction.getType().name());
+      transactionNode.put("date", transaction.getDate().toString());
+      transactionNode.put("description", transaction.getDescription());
+      if (transaction.getIdempotencyKey() != null) {
+        transactionNode.put("idempotencyKey", transaction.getIdempotencyKey());
+      }
+      transactionsArray.add(transactionNode);
+    }
+    return transactionsArray;
+  }
+
+  static List<Transaction> readTransactions(JsonNode transactionsNode) {
+    List<Transaction> transactions = new ArrayList<>();
+    if (transactionsNode != null && transactionsNode.isArray()) {
+      for (JsonNode transactionNode : transactionsNode) {
+        String id = transactionNode.get("id").asText();
+        double amount = transactionNode.get("amount").asDouble();
+        String categoryName = transactionNode.get("category").asText();
+        TransactionType type = TransactionType.valueOf(transactionNode.get("type").asText());
+        LocalDateTime date = LocalDateTime.parse(transactionNode.get("date").asText());
+        String description = transactionNode.get("description").asText();
+        JsonNode keyNode = transactionNode.get("idempotencyKey");
+
+        Category category = new Category(categoryName, type);
+        Transaction transaction = new Transaction(id, amount, category, type, date, description,
+            keyNode != null ? keyNode.asText() : null);
+        transactions.add(transaction);
+      }
+    }
+    return transactions;
+  }
+
+  static ArrayNode writeBudgets(ObjectMapper objectMapper, Collection<Budget> budgets) {
+    ArrayNode budgetsArray = objectMapper.createArrayNode();
+    for (Budget budget : budgets) {
+      ObjectNode budgetNode = objectMapper.createObjectNode();
+      budgetNode.put("category", budget.getCategory().getName());
+      budgetNode.put("categoryType", budget.getCategory().getType().name());
+      budgetNode.put("limit", budget.getLimit());
+      budgetNode.put("spent", budget.getSpent());
+      budgetsArray.add(budgetNode);
+    }
+    return budgetsArray;
+  }
+
+  static Map<Category, Budget> readBudgets(JsonNode budgetsNode) {
+    Map<Category, Budget> budgets = new HashMap<>();
+    if (budgetsNode != null && budgetsNode.isArray()) {
+      for (JsonNode budgetNode : budgetsNode) {
+        String categoryName = budgetNode.get("category").asText();
+        String categoryTypeStr = budgetNode.get("categoryType").asText();
+        TransactionType categoryType = TransactionType.valueOf(categoryTypeStr);
+        double limit = budgetNode.get("limit").asDouble();
+        double spent = budgetNode.get("spent").asDouble();
+
+        Category category = new Category(categoryName, categoryType);
+        Budget budget = new Budget(category, limit, spent);
+        budgets.put(category, budget);
+      }
+    }
+    return budgets;
+  }
+
+  static ObjectNode writeSummary(ObjectMapper objectMapper, WalletSummary summary) {
+    ObjectNode summaryNode = objectMapper.createObjectNode();
+    summaryNode.put("transactionCount", summary.getTransactionCount());
+    summaryNode.put("totalIncome", summary.getTotalIncome());
+    summaryNode.put("totalExpenses", summary.getTotalExpenses());
+    summaryNode.put("lastTransactionId", summary.getLastTransactionId());
+    return summaryNode;
+  }
+
+  static WalletSummary readSummary(
+      String userId, double balance, int budgetCount, JsonNode summaryNode) {
+    JsonNode lastIdNode = summaryNode.get("lastTransactionId");
+    return new WalletSummary(
+        userId,
+        balance,
+        summaryNode.get("totalIncome").asDouble(),
+        summaryNode.get("totalExpenses").asDouble(),
+        summaryNode.get("transactionCount").asInt(),
+        budgetCount,
+        lastIdNode == null || lastIdNode.isNull() ? null : lastIdNode.asText());
+  }
+
+  /**
+   * Writes the idempotency filters, or returns null if the wallet never received a key.
+   */
+  static ObjectNode writeIdempotencyKeys(ObjectMapper objectMapper, IdempotencyKeys keys) {
+    if (keys.getCurrentBits() == null) {
+      return null;
+    }
+    ObjectNode keysNode = objectMapper.createObjectNode();
+    keysNode.put("generationStart", keys.getGenerationStart().toString());
+    keysNode.put("currentCount", keys.getCurrentCount());
+    keysNode.put("current", toBytes(keys.getCurrentBits()));
+    if (keys.getPreviousBits() != null) {
+      keysNode.put("previous", toBytes(keys.getPreviousBits()));
+    }
+    return keysNode;
+  }
+
+  static void readIdempotencyKeys(JsonNode keysNode, IdempotencyKeys keys) throws IOException {
+    if (keysNode == null || keysNode.isNull()) {
+      return;
+    }
+    JsonNode previousNode = keysNode.get("previous");
+    keys.restore(
+        LocalDateTime.parse(keysNode.get("generationStart").asText()),
+        toLongs(keysNode.get("current").binaryValue()),
+        keysNode.get("currentCount").asInt(),
+        previousNode != null ? toLongs(previousNode.binaryValue()) : null);
+  }
+
+  static byte[] toBytes(long[] bits) {
+    ByteBuffer buffer = ByteBuffer.allocate(bits.length * Long.BYTES);
+    buffer.asLongBuffer().put(bits);
+    return buffer.array();
+  }
+
+  private static long[] toLongs(byte[] bytes) {
+    long[] bits = new long[bytes.length / Long.BYTES];
+    ByteBuffer.wrap(bytes).asLongBuffer().get(bits);
+    return bits;
+  }
+}
@@ -1,6 +1,7 @@
 package com.finance.infrastructure.repository;
 
 import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
 import java.io.IOException;
 
 /**
@@ -24,6 +25,17 @@ public interface WalletRepository {
    */
   Wallet load(String userId) throws IOException;
 
+  /**
+   * Loads only the summary header of a wallet, without its transactions.
+   *
+   * @param userId the user ID whose wallet summary to load
+   * @return the wallet summary, empty if the wallet does not exist
+   * @throws IOException if load operation fails
+   */
+  default WalletSummary loadSummary(String userId) throws IOException {
+    return load(userId).getSummary();
+  }
+
   /**
    * Deletes a wallet from persistent storage.
    *
@@ -0,0 +1,113 @@
+package com.finance.infrastructure.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+/**
+ * Summary of one monthly segment that lets queries decide whether to read it: the date range,
+ * the transaction count, a bitset of the wallet's category indexes that occur in it and the sums
+ * per transaction type.
+ */
+final class ZoneMap {
+  private LocalDateTime minDate;
+  private LocalDateTime maxDate;
+  private int count;
+  private final BitSet categories;
+  private double income;
+  private double expenses;
+
+  ZoneMap() {
+    this.categories = new BitSet();
+  }
+
+  private ZoneMap(LocalDateTime minDate, LocalDateTime maxDate, int count, BitSet categories,
+      double income, double expenses) {
+    this.minDate = minDate;
+    this.maxDate = maxDate;
+    this.count = count;
+    this.categories = categories;
+    this.income = income;
+    this.expenses = expenses;
+  }
+
+  /**
+   * Widens the map to cover a transaction.
+   *
+   * @param transaction the transaction added to the segment
+   * @param categoryIndex the index of its category in the wallet's category list
+   */
+  void add(Transaction transaction, int categoryIndex) {
+    LocalDateTime date = transaction.getDate();
+    if (count == 0 || date.isBefore(minDate)) {
+      minDate = date;
+    }
+    if (count == 0 || date.isAfter(maxDate)) {
+      maxDate = date;
+    }
+    count++;
+    categories.set(categoryIndex);
+    if (transaction.getType() == TransactionType.INCOME) {
+      income += transaction.getAmount();
+    } else {
+      expenses += transaction.getAmount();
+    }
+  }
+
+  /** Checks whether the segment may hold transactions dated within {@code [from, to]}. */
+  boolean overlaps(LocalDateTime from, LocalDateTime to) {
+    return count > 0 && !maxDate.isBefore(from) && !minDate.isAfter(to);
+  }
+
+  /**
+   * Checks whether the segment may hold transactions of a type in one of the given categories.
+   *
+   * @param wanted the category indexes, or null for any category
+   */
+  boolean mayContain(TransactionType type, BitSet wanted) {
+    double sum = type == TransactionType.INCOME ? income : expenses;
+    return sum > 0 && (wanted == null || categories.intersects(wanted));
+  }
+
+  int getCount() {
+    return count;
+  }
+
+  ZoneMap copy() {
+    return new ZoneMap(minDate, maxDate, count, (BitSet) categories.clone(), income, expenses);
+  }
+
+  ObjectNode write(ObjectMapper objectMapper) {
+    ObjectNode zoneNode = objectMapper.createObjectNode();
+    zoneNode.put("minDate", minDate.toString());
+    zoneNode.put("maxDate", maxDate.toString());
+    zoneNode.put("count", count);
+    ArrayNode bits = zoneNode.putArray("categories");
+    for (long word : categories.toLongArray()) {
+      bits.add(word);
+    }
+    zoneNode.put("income", income);
+    zoneNode.put("expenses", expenses);
+    return zoneNode;
+  }
+
+  static ZoneMap read(JsonNode zoneNode) {
+    JsonNode bits = zoneNode.get("categories");
+    long[] words = new long[bits.size()];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = bits.get(i).asLong();
+    }
+    return new ZoneMap(
+        LocalDateTime.parse(zoneNode.get("minDate").asText()),
+        LocalDateTime.parse(zoneNode.get("maxDate").asText()),
+        zoneNode.get("count").asInt(),
+        BitSet.valueOf(words),
+        zoneNode.get("income").asDouble(),
+        zoneNode.get("expenses").asDouble());
+  }
+}
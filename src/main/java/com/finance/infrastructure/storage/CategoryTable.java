@@ -0,0 +1,81 @@
+package com.finance.infrastructure.storage;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.TransactionType;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Open-addressing table from UTF-8 category names to shared {@link Category} instances, looked
+ * up without creating a string for names already seen.
+ */
+final class CategoryTable {
+  private byte[][] names = new byte[64][];
+  private Category[] values = new Category[64];
+  private int size;
+
+  Category get(byte[] name, int length, TransactionType type) {
+    int mask = names.length - 1;
+    int hash = type.ordinal();
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + name[i];
+    }
+    for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+      byte[] candidate = names[slot];
+      if (candidate == null) {
+        Category category =
+            new Category(new String(name, 0, length, StandardCharsets.UTF_8), type);
+        byte[] key = new byte[length + 1];
+        System.arraycopy(name, 0, key, 0, length);
+        key[length] = (byte) type.ordinal();
+        names[slot] = key;
+        values[slot] = category;
+        if (++size * 2 > names.length) {
+          grow();
+        }
+        return category;
+      }
+      if (matches(candidate, name, length, type)) {
+        return values[slot];
+      }
+    }
+  }
+
+  private static boolean matches(byte[] key, byte[] name, int length, TransactionType type) {
+    if (key.length != length + 1 || key[length] != type.ordinal()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key[i] != name[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void grow() {
+    byte[][] oldNames = names;
+    Category[] oldValues = values;
+    names = new byte[oldNames.length * 2][];
+    values = new Category[oldValues.length * 2];
+    int mask = names.length - 1;
+    for (int i = 0; i < oldNames.length; i++) {
+      byte[] key = oldNames[i];
+      if (key != null) {
+        int hash = key[key.length - 1];
+        for (int j = 0; j < key.length - 1; j++) {
+          hash = 31 * hash + key[j];
+        }
+        int slot = mix(hash) & mask;
+        while (names[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        names[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,441 @@
+package com.finance.infrastructure.storage;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Parses one line-aligned chunk of a CSV statement for {@link CsvImporter}, straight from the
+ * mapped bytes. Only the bounds of the current record's fields are kept; a field is copied into a
+ * scratch buffer while its quotes are removed, and decoded from there without creating strings
+ * except for descriptions and new category names.
+ *
+ * <p>A quote opens a quoted field only as the first character of a field. A quote anywhere else,
+ * or text after a closing quote, makes just that record malformed; the record still ends at the
+ * next line break. {@link #nextState} is the same rule as a state machine, which
+ * {@link CsvImporter} uses to find record boundaries.
+ */
+final class CsvChunkParser {
+  /** At the start of a field. */
+  static final int FIELD_START = 0;
+  /** Inside a field that did not start with a quote, or after a quoted field's closing quote. */
+  static final int UNQUOTED = 1;
+  /** Inside a quoted field. */
+  static final int QUOTED = 2;
+  /** Just after a quote inside a quoted field: either the closing quote or half of a pair. */
+  static final int QUOTE_IN_QUOTED = 3;
+  /** The number of scanner states. */
+  static final int STATES = 4;
+  private static final int FIELDS = 5;
+  private static final int MAX_AMOUNT_DIGITS = 17;
+  private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+  private static final byte[] INCOME = "income".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] EXPENSE = "expense".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] HEADER_DATE = "date".getBytes(StandardCharsets.US_ASCII);
+  private final boolean first;
+  private final List<Transaction> transactions = new ArrayList<>();
+  private final List<Reject> rejects = new ArrayList<>();
+  private final int[] fieldStart = new int[FIELDS];
+  private final int[] fieldEnd = new int[FIELDS];
+  private final boolean[] fieldQuoted = new boolean[FIELDS];
+  private final CategoryTable categories = new CategoryTable();
+  private MappedByteBuffer buffer;
+  private byte[] scratch = new byte[256];
+  private int scratchLength;
+  private long lines;
+
+  /**
+   * Creates a parser.
+   *
+   * @param first whether the chunk starts the file, so that its first row may be a header
+   */
+  CsvChunkParser(boolean first) {
+    this.first = first;
+  }
+
+  /**
+   * Parses every record of a chunk that starts at a record boundary.
+   *
+   * @param chunk the mapped chunk
+   * @return this parser, holding the results
+   */
+  CsvChunkParser parse(MappedByteBuffer chunk) {
+    this.buffer = chunk;
+    int limit = chunk.limit();
+    int position = 0;
+    boolean header = first;
+    while (position < limit) {
+      long line = lines;
+      int start = position;
+      int fields = 0;
+      int end = position;
+      boolean quoted = false;
+      boolean malformed = false;
+      while (true) {
+        boolean fieldIsQuoted = end < limit && chunk.get(end) == '"';
+        if (fields < FIELDS) {
+          fieldStart[fields] = end;
+          fieldQuoted[fields] = fieldIsQuoted;
+        }
+        if (fieldIsQuoted) {
+          quoted = true;
+          end++;
+          while (end < limit) {
+            byte b = chunk.get(end);
+            if (b == '"') {
+              if (end + 1 < limit && chunk.get(end + 1) == '"') {
+                end += 2;
+                continue;
+              }
+              quoted = false;
+              end++;
+              break;
+            }
+            if (b == '\n') {
+              lines++;
+            }
+            end++;
+          }
+        }
+        while (end < limit) {
+          byte b = chunk.get(end);
+          if (b == ',' || b == '\n') {
+            break;
+          }
+          // Only a line's final carriage return may follow a closing quote.
+          boolean lineEnd = b == '\r' && (end + 1 == limit || chunk.get(end + 1) == '\n');
+          malformed |= b == '"' || (fieldIsQuoted && !lineEnd);
+          end++;
+        }
+        if (fields < FIELDS) {
+          fieldEnd[fields] = end;
+        }
+        fields++;
+        if (end >= limit || chunk.get(end) == '\n') {
+          break;
+        }
+        end++;
+      }
+      position = end < limit ? end + 1 : limit;
+      if (end < limit) {
+        lines++;
+      }
+
+      int rowEnd = end > start && chunk.get(end - 1) == '\r' ? end - 1 : end;
+      int last = Math.min(fields, FIELDS) - 1;
+      fieldEnd[last] = Math.min(fieldEnd[last], rowEnd);
+      if (rowEnd == start) {
+        continue;
+      }
+      if (header) {
+        header = false;
+        if (isHeader()) {
+          continue;
+        }
+      }
+      try {
+        if (quoted || malformed) {
+          throw new RowException("Misplaced or unclosed quote");
+        }
+        if (fields < FIELDS - 1 || fields > FIELDS) {
+          throw new RowException("Expected 4 or 5 fields but found " + fields);
+        }
+        transactions.add(toTransaction(fields == FIELDS));
+      } catch (RowException e) {
+        rejects.add(new Reject(line, e.getMessage(), text(start, rowEnd)));
+      }
+    }
+    buffer = null;
+    return this;
+  }
+
+  /**
+   * Advances the record scanner by one byte. A line break that leads to {@link #FIELD_START} ends
+   * a record.
+   *
+   * @param state the state before the byte
+   * @param b the byte
+   * @return the state after the byte
+   */
+  static int nextState(int state, byte b) {
+    if (state == QUOTED) {
+      return b == '"' ? QUOTE_IN_QUOTED : QUOTED;
+    }
+    if (state == QUOTE_IN_QUOTED && b == '"') {
+      return QUOTED;
+    }
+    if (b == ',' || b == '\n') {
+      return FIELD_START;
+    }
+    return state == FIELD_START && b == '"' ? QUOTED : UNQUOTED;
+  }
+
+  List<Transaction> getTransactions() {
+    return transactions;
+  }
+
+  List<Reject> getRejects() {
+    return rejects;
+  }
+
+  /** Returns the number of line breaks in the chunk. */
+  long getLines() {
+    return lines;
+  }
+
+  /**
+   * Random version 4 UUID from the thread's own generator, so parser threads do not contend on
+   * the shared secure random behind {@link UUID#randomUUID()}.
+   */
+  private static String newId() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+    long low = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    return new UUID(high, low).toString();
+  }
+
+  private boolean isHeader() {
+    unescape(0);
+    return equalsIgnoreCase(HEADER_DATE);
+  }
+
+  private Transaction toTransaction(boolean hasDescription) throws RowException {
+    LocalDateTime date = parseDate();
+    unescape(1);
+    TransactionType type = null;
+    if (equalsIgnoreCase(INCOME)) {
+      type = TransactionType.INCOME;
+    } else if (equalsIgnoreCase(EXPENSE)) {
+      type = TransactionType.EXPENSE;
+    } else if (scratchLength > 0) {
+      throw new RowException("Type must be income or expense");
+    }
+
+    double amount = parseAmount();
+    if (type == null) {
+      type = amount < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+      amount = Math.abs(amount);
+    }
+    if (!(amount > 0)) {
+      throw new RowException("Amount must be positive");
+    }
+
+    unescape(2);
+    trimScratch();
+    if (scratchLength == 0) {
+      throw new RowException("Category cannot be empty");
+    }
+    Category category = categories.get(scratch, scratchLength, type);
+
+    String description = "";
+    if (hasDescription) {
+      unescape(4);
+      description = new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+    }
+    return new Transaction(newId(), amount, category, type, date, description);
+  }
+
+  private LocalDateTime parseDate() throws RowException {
+    unescape(0);
+    trimScratch();
+    byte[] s = scratch;
+    int n = scratchLength;
+    if (n < 10 || s[4] != '-' || s[7] != '-') {
+      throw new RowException("Date must be yyyy-MM-dd");
+    }
+    int year = digits(0, 4);
+    int month = digits(5, 2);
+    int day = digits(8, 2);
+    int hour = 0;
+    int minute = 0;
+    int second = 0;
+    int nanos = 0;
+    if (n > 10) {
+      if ((s[10] != 'T' && s[10] != ' ') || n < 16 || s[13] != ':') {
+        throw new RowException("Time must be HH:mm[:ss]");
+      }
+      hour = digits(11, 2);
+      minute = digits(14, 2);
+      if (n > 16) {
+        if (n < 19 || s[16] != ':') {
+          throw new RowException("Time must be HH:mm[:ss]");
+        }
+        second = digits(17, 2);
+        if (n > 19) {
+          if (s[19] != '.' || n == 20 || n > 29) {
+            throw new RowException("Invalid fraction of second");
+          }
+          nanos = digits(20, n - 20);
+          for (int i = n - 20; i < 9; i++) {
+            nanos *= 10;
+          }
+        }
+      }
+    }
+    try {
+      return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    } catch (DateTimeException e) {
+      throw new RowException("Invalid date: " + e.getMessage());
+    }
+  }
+
+  private int digits(int offset, int count) throws RowException {
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      int digit = scratch[i] - '0';
+      if (digit < 0 || digit > 9) {
+        throw new RowException("Invalid number in date");
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  /**
+   * Parses a decimal amount exactly: the digits are collected into a long and divided once by a
+   * power of ten, which rounds correctly for up to 15 significant digits.
+   */
+  private double parseAmount() throws RowException {
+    unescape(3);
+    trimScratch();
+    int i = 0;
+    boolean negative = false;
+    if (scratchLength > 0 && (scratch[0] == '-' || scratch[0] == '+')) {
+      negative = scratch[0] == '-';
+      i++;
+    }
+    long mantissa = 0;
+    int digitCount = 0;
+    int scale = -1;
+    for (; i < scratchLength; i++) {
+      byte b = scratch[i];
+      if (b >= '0' && b <= '9') {
+        if (++digitCount > MAX_AMOUNT_DIGITS) {
+          throw new RowException("Amount has too many digits");
+        }
+        mantissa = mantissa * 10 + (b - '0');
+        if (scale >= 0) {
+          scale++;
+        }
+      } else if ((b == '.' || b == ',') && scale < 0) {
+        scale = 0;
+      } else {
+        throw new RowException("Invalid amount");
+      }
+    }
+    if (digitCount == 0) {
+      throw new RowException("Amount cannot be empty");
+    }
+    if (scale >= POWERS_OF_TEN.length) {
+      throw new RowException("Amount has too many decimals");
+    }
+    double value = scale > 0 ? (double) mantissa / POWERS_OF_TEN[scale] : mantissa;
+    return negative ? -value : value;
+  }
+
+  /**
+   * Copies a field into the scratch buffer, removing surrounding quotes and undoubling inner
+   * ones.
+   */
+  private void unescape(int field) {
+    int from = fieldStart[field];
+    int to = fieldEnd[field];
+    if (fieldQuoted[field]) {
+      from++;
+      to = Math.max(from, to - 1);
+    }
+    if (scratch.length < to - from) {
+      scratch = new byte[Math.max(to - from, scratch.length * 2)];
+    }
+    int length = 0;
+    for (int i = from; i < to; i++) {
+      byte b = buffer.get(i);
+      scratch[length++] = b;
+      if (b == '"' && fieldQuoted[field]) {
+        i++;
+      }
+    }
+    scratchLength = length;
+  }
+
+  private void trimScratch() {
+    int start = 0;
+    int end = scratchLength;
+    while (start < end && scratch[start] == ' ') {
+      start++;
+    }
+    while (end > start && scratch[end - 1] == ' ') {
+      end--;
+    }
+    if (start > 0) {
+      System.arraycopy(scratch, start, scratch, 0, end - start);
+    }
+    scratchLength = end - start;
+  }
+
+  private boolean equalsIgnoreCase(byte[] lowerCase) {
+    if (scratchLength != lowerCase.length) {
+      return false;
+    }
+    for (int i = 0; i < scratchLength; i++) {
+      int b = scratch[i];
+      if (b >= 'A' && b <= 'Z') {
+        b += 'a' - 'A';
+      }
+      if (b != lowerCase[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private String text(int start, int end) {
+    byte[] bytes = new byte[end - start];
+    buffer.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A rejected row, with its line number relative to the start of its chunk.
+   */
+  static final class Reject {
+    private final long line;
+    private final String reason;
+    private final String row;
+
+    private Reject(long line, String reason, String row) {
+      this.line = line;
+      this.reason = reason;
+      this.row = row;
+    }
+
+    long getLine() {
+      return line;
+    }
+
+    String getReason() {
+      return reason;
+    }
+
+    String getRow() {
+      return row;
+    }
+  }
+
+  /**
+   * Thrown by field decoders for a row that must be rejected.
+   */
+  private static final class RowException extends Exception {
+    private RowException(String message) {
+      super(message, null, false, false);
+    }
+  }
+}
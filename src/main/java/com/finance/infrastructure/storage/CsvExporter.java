@@ -0,0 +1,295 @@
+package com.finance.infrastructure.storage;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionFilter;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Streams a wallet's transactions to CSV as defined by RFC 4180.
+ *
+ * <p>Rows are encoded straight into one reusable byte buffer while the wallet is walked with
+ * {@link Wallet#forEachTransaction}, so the history is never copied and no per-row objects are
+ * created: dates, amounts and UTF-8 text are written digit by digit and byte by byte. Dates are
+ * written as {@code yyyy-MM-ddTHH:mm:ss} and amounts with two decimals; fields containing a
+ * comma, quote or line break are quoted. Not thread-safe; use one exporter per thread.
+ */
+public final class CsvExporter {
+  public static final String HEADER = "Date,Type,Category,Amount,Description";
+  private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+  private static final int MIN_BUFFER_SIZE = 64;
+  private static final double MAX_CENTS_AMOUNT = 1e15;
+  private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+  private static final byte[][] TYPE_NAMES = typeNames();
+  private final byte[] buffer;
+  private char[] chars = new char[256];
+  private int position;
+  private OutputStream out;
+
+  /** Creates an exporter with a 1 MiB buffer. */
+  public CsvExporter() {
+    this(DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Creates an exporter.
+   *
+   * @param bufferSize the output buffer size in bytes
+   */
+  public CsvExporter(int bufferSize) {
+    this.buffer = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+  }
+
+  /**
+   * Exports the matching transactions of a wallet to a file, replacing it.
+   *
+   * @param wallet the wallet
+   * @param filter selects the transactions to export
+   * @param file the target file
+   * @return the number of rows written, excluding the header
+   * @throws IOException if the file cannot be written
+   */
+  public long export(Wallet wallet, TransactionFilter filter, Path file) throws IOException {
+    try (OutputStream stream = Files.newOutputStream(file)) {
+      return export(wallet, filter, stream);
+    }
+  }
+
+  /**
+   * Exports the matching transactions of a wallet to a stream, which is flushed but not closed.
+   *
+   * @param wallet the wallet
+   * @param filter selects the transactions to export
+   * @param target the stream to write to
+   * @return the number of rows written, excluding the header
+   * @throws IOException if the stream cannot be written
+   */
+  public long export(Wallet wallet, TransactionFilter filter, OutputStream target)
+      throws IOException {
+    out = target;
+    position = 0;
+    long[] rows = new long[1];
+    try {
+      writeAscii(HEADER);
+      endRow();
+      wallet.forEachTransaction(t -> {
+        if (filter.matches(t)) {
+          writeRow(t);
+          rows[0]++;
+        }
+      });
+      drain();
+      out.flush();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      out = null;
+    }
+    return rows[0];
+  }
+
+  private void writeRow(Transaction t) {
+    writeDate(t.getDate());
+    put((byte) ',');
+    writeBytes(TYPE_NAMES[t.getType().ordinal()]);
+    put((byte) ',');
+    writeField(t.getCategory().getName());
+    put((byte) ',');
+    writeAmount(t.getAmount());
+    put((byte) ',');
+    writeField(t.getDescription());
+    endRow();
+  }
+
+  private void endRow() {
+    put((byte) '\r');
+    put((byte) '\n');
+  }
+
+  private void writeDate(LocalDateTime date) {
+    int year = date.getYear();
+    if (year < 0 || year > 9999) {
+      writeAscii(date.withNano(0).toString());
+      return;
+    }
+    ensure(19);
+    writeFixed(year, 4);
+    buffer[position++] = '-';
+    writeFixed(date.getMonthValue(), 2);
+    buffer[position++] = '-';
+    writeFixed(date.getDayOfMonth(), 2);
+    buffer[position++] = 'T';
+    writeFixed(date.getHour(), 2);
+    buffer[position++] = ':';
+    writeFixed(date.getMinute(), 2);
+    buffer[position++] = ':';
+    writeFixed(date.getSecond(), 2);
+  }
+
+  /**
+   * Writes a non-negative number as exactly {@code digits} digits; the caller ensures space.
+   */
+  private void writeFixed(int value, int digits) {
+    for (int i = position + digits - 1; i >= position; i--) {
+      buffer[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    position += digits;
+  }
+
+  private void writeAmount(double amount) {
+    if (!(Math.abs(amount) < MAX_CENTS_AMOUNT)) {
+      writeAscii(Double.toString(amount));
+      return;
+    }
+    long cents = Math.round(amount * 100);
+    if (cents < 0) {
+      put((byte) '-');
+      cents = -cents;
+    }
+    writeLong(cents / 100);
+    ensure(3);
+    buffer[position++] = '.';
+    writeFixed((int) (cents % 100), 2);
+  }
+
+  private void writeLong(long value) {
+    int digits = 1;
+    for (long rest = value / 10; rest > 0; rest /= 10) {
+      digits++;
+    }
+    ensure(digits);
+    for (int i = position + digits - 1; i >= position; i--) {
+      buffer[i] = (byte) ('0' + value % 10);
+      value /= 10;
+    }
+    position += digits;
+  }
+
+  /**
+   * Writes a text field, quoting it and doubling inner quotes if it contains a comma, quote or
+   * line break.
+   */
+  private void writeField(String value) {
+    int length = value.length();
+    if (chars.length < length) {
+      chars = new char[Math.max(length, chars.length * 2)];
+    }
+    value.getChars(0, length, chars, 0);
+
+    boolean quote = false;
+    for (int i = 0; i < length && !quote; i++) {
+      char c = chars[i];
+      quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+    }
+    if (!quote) {
+      writeUtf8(0, length);
+      return;
+    }
+    put((byte) '"');
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      if (chars[i] == '"') {
+        writeUtf8(start, i + 1);
+        put((byte) '"');
+        start = i + 1;
+      }
+    }
+    writeUtf8(start, length);
+    put((byte) '"');
+  }
+
+  /**
+   * Encodes a range of the char scratch buffer as UTF-8, in chunks small enough that the output
+   * space for a whole chunk can be reserved once: a char never takes more than three bytes.
+   */
+  private void writeUtf8(int start, int end) {
+    int chunk = buffer.length / 4;
+    while (start < end) {
+      int stop = Math.min(end, start + chunk);
+      if (stop < end && Character.isHighSurrogate(chars[stop - 1])) {
+        stop++;
+      }
+      ensure((stop - start) * MAX_UTF8_BYTES_PER_CHAR);
+      encodeUtf8(start, stop);
+      start = stop;
+    }
+  }
+
+  private void encodeUtf8(int start, int end) {
+    byte[] out = buffer;
+    int pos = position;
+    for (int i = start; i < end; i++) {
+      char c = chars[i];
+      if (c < 0x80) {
+        out[pos++] = (byte) c;
+      } else if (c < 0x800) {
+        out[pos++] = (byte) (0xC0 | c >> 6);
+        out[pos++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c)
+          && i + 1 < end
+          && Character.isLowSurrogate(chars[i + 1])) {
+        int codePoint = Character.toCodePoint(c, chars[++i]);
+        out[pos++] = (byte) (0xF0 | codePoint >> 18);
+        out[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        out[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        out[pos++] = (byte) (0x80 | codePoint & 0x3F);
+      } else if (Character.isSurrogate(c)) {
+        out[pos++] = '?';
+      } else {
+        out[pos++] = (byte) (0xE0 | c >> 12);
+        out[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+        out[pos++] = (byte) (0x80 | c & 0x3F);
+      }
+    }
+    position = pos;
+  }
+
+  private void writeBytes(byte[] bytes) {
+    ensure(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  private void writeAscii(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      put((byte) value.charAt(i));
+    }
+  }
+
+  private void put(byte b) {
+    ensure(1);
+    buffer[position++] = b;
+  }
+
+  private void ensure(int bytes) {
+    if (position + bytes > buffer.length) {
+      drain();
+    }
+  }
+
+  private static byte[][] typeNames() {
+    TransactionType[] types = TransactionType.values();
+    byte[][] names = new byte[types.length][];
+    for (TransactionType type : types) {
+      names[type.ordinal()] = type.name().getBytes(StandardCharsets.US_ASCII);
+    }
+    return names;
+  }
+
+  private void drain() {
+    try {
+      out.write(buffer, 0, position);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    position = 0;
+  }
+}
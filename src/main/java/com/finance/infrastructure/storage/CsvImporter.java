@@ -0,0 +1,230 @@
+package com.finance.infrastructure.storage;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.Wallet;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports a CSV statement in the {@link CsvExporter} layout
+ * ({@code Date,Type,Category,Amount,Description}) into a wallet.
+ *
+ * <p>The file is memory-mapped and cut into ranges of about 8 MiB.
+ * Each range is scanned in parallel for how it maps every record scanner state at its start to the
+ * state at its end. Chaining those maps gives the state at each cut, so the cut can be moved to the
+ * next line break that ends a record, and the aligned chunks are then parsed in parallel straight
+ * from the mapping. Dates and amounts are decoded from bytes, categories are interned per chunk, and only
+ * descriptions become new strings. Parsed rows are appended with {@link Wallet#addTransactions}
+ * in file order.
+ *
+ * <p>Dates are {@code yyyy-MM-dd} with an optional {@code THH:mm[:ss[.fraction]]} time (a space
+ * also separates date and time). The type is {@code income} or {@code expense} in any case; when
+ * it is empty, the sign of the amount decides. Amounts use a dot or, inside quotes, a comma as the
+ * decimal separator. A header row is skipped. Rows that cannot be imported are written with their
+ * line number and the reason to a reject file, itself a CSV with the header {@code Line,Error,Row}.
+ */
+public final class CsvImporter {
+  static final long TARGET_CHUNK_BYTES = 8L << 20;
+  private final int parallelism;
+  private final long chunkBytes;
+
+  /** Creates an importer that uses every available processor. */
+  public CsvImporter() {
+    this(Runtime.getRuntime().availableProcessors(), TARGET_CHUNK_BYTES);
+  }
+
+  /**
+   * Creates an importer.
+   *
+   * @param parallelism the number of parser threads
+   * @param chunkBytes the approximate size of the ranges parsed by one task
+   */
+  public CsvImporter(int parallelism, long chunkBytes) {
+    if (parallelism <= 0 || chunkBytes <= 0) {
+      throw new IllegalArgumentException("Parallelism and chunk size must be positive");
+    }
+    this.parallelism = parallelism;
+    this.chunkBytes = chunkBytes;
+  }
+
+  /**
+   * Parses a CSV file and appends its valid rows to a wallet. The reject file is only written if
+   * some rows are rejected.
+   *
+   * @param wallet the wallet to append to
+   * @param input the CSV file
+   * @param rejectFile where to write rejected rows
+   * @return the numbers of imported and rejected rows
+   * @throws IOException if a file cannot be read or written
+   */
+  public Result importInto(Wallet wallet, Path input, Path rejectFile) throws IOException {
+    List<CsvChunkParser> chunks;
+    try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+      long[] bounds = alignedBounds(channel, executor);
+      List<Callable<CsvChunkParser>> tasks = new ArrayList<>();
+      for (int i = 0; i + 1 < bounds.length; i++) {
+        long start = bounds[i];
+        long end = bounds[i + 1];
+        boolean first = i == 0;
+        tasks.add(() -> new CsvChunkParser(first)
+            .parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)));
+      }
+      chunks = invokeAll(executor, tasks);
+    }
+
+    List<Transaction> transactions = new ArrayList<>();
+    long rejected = 0;
+    for (CsvChunkParser chunk : chunks) {
+      transactions.addAll(chunk.getTransactions());
+      rejected += chunk.getRejects().size();
+    }
+    if (rejected > 0) {
+      writeRejects(chunks, rejectFile);
+    }
+    wallet.addTransactions(transactions);
+    return new Result(transactions.size(), rejected);
+  }
+
+  /**
+   * Cuts the file into ranges, then moves every cut after the first line break that ends a record
+   * after it. The scanner state at a cut is found by chaining the state maps of the ranges before
+   * it, which are computed in parallel.
+   */
+  private long[] alignedBounds(FileChannel channel, ExecutorService executor) throws IOException {
+    long size = channel.size();
+    int ranges = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+    List<Callable<int[]>> scans = new ArrayList<>();
+    for (int i = 0; i < ranges; i++) {
+      long start = i * chunkBytes;
+      long length = Math.min(chunkBytes, size - start);
+      scans.add(() -> stateMap(channel.map(FileChannel.MapMode.READ_ONLY, start, length)));
+    }
+    List<int[]> stateMaps = invokeAll(executor, scans);
+
+    long[] bounds = new long[ranges + 1];
+    bounds[ranges] = size;
+    int state = CsvChunkParser.FIELD_START;
+    for (int i = 1; i < ranges; i++) {
+      state = stateMaps.get(i - 1)[state];
+      long cut = i * chunkBytes;
+      bounds[i] = bounds[i - 1] >= cut
+          ? bounds[i - 1]
+          : nextRecordStart(channel, cut, state, size);
+    }
+    return bounds;
+  }
+
+  /** Returns, for every scanner state at the start of a range, the state at its end. */
+  private static int[] stateMap(MappedByteBuffer range) {
+    int[] states = new int[CsvChunkParser.STATES];
+    for (int s = 0; s < states.length; s++) {
+      states[s] = s;
+    }
+    for (int i = 0, n = range.limit(); i < n; i++) {
+      byte b = range.get(i);
+      for (int s = 0; s < states.length; s++) {
+        states[s] = CsvChunkParser.nextState(states[s], b);
+      }
+    }
+    return states;
+  }
+
+  private long nextRecordStart(FileChannel channel, long from, int state, long size)
+      throws IOException {
+    long position = from;
+    while (position < size) {
+      MappedByteBuffer window =
+          channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(chunkBytes, size - position));
+      for (int i = 0, n = window.limit(); i < n; i++) {
+        byte b = window.get(i);
+        state = CsvChunkParser.nextState(state, b);
+        if (b == '\n' && state == CsvChunkParser.FIELD_START) {
+          return position + i + 1;
+        }
+      }
+      position += window.limit();
+    }
+    return size;
+  }
+
+  private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks)
+      throws IOException {
+    List<T> results = new ArrayList<>(tasks.size());
+    try {
+      for (Future<T> future : executor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Import interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException io) {
+        throw io;
+      }
+      if (e.getCause() instanceof UncheckedIOException io) {
+        throw io.getCause();
+      }
+      throw new IllegalStateException("Import failed", e.getCause());
+    }
+    return results;
+  }
+
+  private static void writeRejects(List<CsvChunkParser> chunks, Path rejectFile) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8)) {
+      writer.write("Line,Error,Row\r\n");
+      long linesBefore = 0;
+      for (CsvChunkParser chunk : chunks) {
+        for (CsvChunkParser.Reject reject : chunk.getRejects()) {
+          writer.write(Long.toString(linesBefore + reject.getLine() + 1));
+          writer.write(',');
+          writer.write(quote(reject.getReason()));
+          writer.write(',');
+          writer.write(quote(reject.getRow()));
+          writer.write("\r\n");
+        }
+        linesBefore += chunk.getLines();
+      }
+    }
+  }
+
+  private static String quote(String value) {
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+
+  /**
+   * Counts of a finished import.
+   */
+  public static final class Result {
+    private final long importedCount;
+    private final long rejectedCount;
+
+    private Result(long importedCount, long rejectedCount) {
+      this.importedCount = importedCount;
+      this.rejectedCount = rejectedCount;
+    }
+
+    public long getImportedCount() {
+      return importedCount;
+    }
+
+    public long getRejectedCount() {
+      return rejectedCount;
+    }
+  }
+
+}
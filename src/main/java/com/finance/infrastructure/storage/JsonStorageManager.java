@@ -1,30 +1,88 @@
 package com.finance.infrastructure.storage;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finance.infrastructure.metrics.Counter;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * Manages JSON file storage operations.
+ *
+ * <p>Files are written in the manager's {@link StorageCodec}. Reads look at the first bytes of
+ * each file instead: a Smile header selects the Smile decoder and anything else is read as JSON,
+ * so switching codecs needs no migration and old files stay readable.
+ *
+ * <p>Bytes moved through files are counted in the default {@link MetricsRegistry} as
+ * {@code storage.bytes.read} and {@code storage.bytes.written}.
  */
 public class JsonStorageManager {
   private static final String DATA_DIR = "data";
+  private static final byte[] SMILE_HEADER = {
+      SmileConstants.HEADER_BYTE_1, SmileConstants.HEADER_BYTE_2, SmileConstants.HEADER_BYTE_3
+  };
   private final ObjectMapper objectMapper;
+  private final ObjectMapper smileMapper;
+  private final ObjectMapper writeMapper;
+  private final Counter bytesRead;
+  private final Counter bytesWritten;
 
-  /** Creates a new JsonStorageManager with configured ObjectMapper. */
+  /** Creates a new JsonStorageManager that writes indented JSON. */
   public JsonStorageManager() {
-    this.objectMapper = new ObjectMapper();
-    this.objectMapper.registerModule(new JavaTimeModule());
-    this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-    this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    this(StorageCodec.PRETTY_JSON);
+  }
+
+  /**
+   * Creates a new JsonStorageManager.
+   *
+   * @param codec the encoding of written files
+   */
+  public JsonStorageManager(StorageCodec codec) {
+    this.objectMapper = configure(new ObjectMapper());
+    if (codec == StorageCodec.PRETTY_JSON) {
+      this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+    }
+    this.smileMapper = configure(new ObjectMapper(new SmileFactory()));
+    this.writeMapper =
+        codec == StorageCodec.SMILE || codec == StorageCodec.PACKED ? smileMapper : objectMapper;
+    MetricsRegistry metrics = MetricsRegistry.getDefault();
+    this.bytesRead = metrics.counter("storage.bytes.read");
+    this.bytesWritten = metrics.counter("storage.bytes.written");
     ensureDataDirectoryExists();
   }
 
+  private static ObjectMapper configure(ObjectMapper mapper) {
+    mapper.registerModule(new JavaTimeModule());
+    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    return mapper;
+  }
+
   /**
    * Ensures the data directory exists, creates it if not.
    */
@@ -42,13 +100,39 @@ public class JsonStorageManager {
   /**
    * Writes an object to a JSON file.
    *
-   * @param filename the filename (without path)
+   * @param filename the filename, relative to the data directory
    * @param object the object to serialize
    * @throws IOException if write fails
    */
   public void writeToFile(String filename, Object object) throws IOException {
     File file = new File(DATA_DIR, filename);
-    objectMapper.writeValue(file, object);
+    File parent = file.getParentFile();
+    if (parent != null && !parent.exists()) {
+      Files.createDirectories(parent.toPath());
+    }
+    try (OutputStream out = new CountingOutputStream(new FileOutputStream(file), bytesWritten)) {
+      writeMapper.writeValue(out, object);
+    }
+  }
+
+  /**
+   * Writes a file by streaming it to a generator in the manager's codec, without building the
+   * document first. The generator is configured as for {@link #writeToFile}, indentation included.
+   *
+   * @param filename the filename, relative to the data directory
+   * @param writer writes one value to the generator
+   * @throws IOException if write fails
+   */
+  public void writeStreaming(String filename, StreamWriter writer) throws IOException {
+    File file = new File(DATA_DIR, filename);
+    File parent = file.getParentFile();
+    if (parent != null && !parent.exists()) {
+      Files.createDirectories(parent.toPath());
+    }
+    try (OutputStream out = new CountingOutputStream(new FileOutputStream(file), bytesWritten);
+        JsonGenerator generator = writeMapper.createGenerator(out)) {
+      writer.write(generator);
+    }
   }
 
   /**
@@ -65,7 +149,44 @@ public class JsonStorageManager {
     if (!file.exists()) {
       throw new IOException("File not found: " + filename);
     }
-    return objectMapper.readValue(file, clazz);
+    try (InputStream in = new BufferedInputStream(
+        new CountingInputStream(new FileInputStream(file), bytesRead))) {
+      return detect(in).readValue(in, clazz);
+    }
+  }
+
+  /**
+   * Opens a streaming parser over a JSON file, for reading only part of a document.
+   *
+   * @param filename the filename (without path)
+   * @return a parser positioned before the first token; the caller must close it
+   * @throws IOException if the file cannot be opened
+   */
+  public JsonParser createParser(String filename) throws IOException {
+    File file = new File(DATA_DIR, filename);
+    if (!file.exists()) {
+      throw new IOException("File not found: " + filename);
+    }
+    InputStream in =
+        new BufferedInputStream(new CountingInputStream(new FileInputStream(file), bytesRead));
+    try {
+      return detect(in).getFactory().createParser(in);
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Picks the mapper for a file from its first bytes, leaving the stream where it was.
+   *
+   * @param in a stream supporting mark and reset
+   */
+  private ObjectMapper detect(InputStream in) throws IOException {
+    in.mark(SMILE_HEADER.length);
+    byte[] header = in.readNBytes(SMILE_HEADER.length);
+    in.reset();
+    return Arrays.equals(header, SMILE_HEADER) ? smileMapper : objectMapper;
   }
 
   /**
@@ -79,6 +200,16 @@ public class JsonStorageManager {
     return file.exists() && file.isFile();
   }
 
+  /**
+   * Returns the size of a file in the data directory.
+   *
+   * @param filename the filename
+   * @return the size in bytes, or 0 if the file does not exist
+   */
+  public long fileSize(String filename) {
+    return new File(DATA_DIR, filename).length();
+  }
+
   /**
    * Deletes a file from the data directory.
    *
@@ -93,11 +224,150 @@ public class JsonStorageManager {
   }
 
   /**
-   * Gets the ObjectMapper instance.
+   * Appends a JSON value to a file of deflated frames, each
+   * {@code [int rawLength][int compressedLength][deflated JSON]}. The file is first cut to
+   * {@code validLength}, dropping frames appended by a save that did not complete.
+   *
+   * @param filename the filename, relative to the data directory
+   * @param object the object to serialize
+   * @param validLength the length of the frames known to be committed
+   * @return the file length after the append
+   * @throws IOException if the write fails
+   */
+  public long appendDeflated(String filename, Object object, long validLength) throws IOException {
+    byte[] raw = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT)
+        .writeValueAsBytes(object);
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+    try {
+      deflater.setInput(raw);
+      deflater.finish();
+      byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        compressed.write(buffer, 0, deflater.deflate(buffer));
+      }
+    } finally {
+      deflater.end();
+    }
+
+    File file = new File(DATA_DIR, filename);
+    try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+      out.setLength(Math.min(validLength, out.length()));
+      out.seek(out.length());
+      out.writeInt(raw.length);
+      out.writeInt(compressed.size());
+      out.write(compressed.toByteArray());
+      bytesWritten.add(2L * Integer.BYTES + compressed.size());
+      return out.length();
+    }
+  }
+
+  /**
+   * Reads the frames in the first {@code length} bytes of a file written by
+   * {@link #appendDeflated}.
+   *
+   * @param filename the filename, relative to the data directory
+   * @param length the length of the committed frames
+   * @return one JSON tree per frame, in file order
+   * @throws IOException if the file cannot be read or a frame is corrupt
+   */
+  public List<JsonNode> readDeflated(String filename, long length) throws IOException {
+    List<JsonNode> frames = new ArrayList<>();
+    File file = new File(DATA_DIR, filename);
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        new CountingInputStream(new FileInputStream(file), bytesRead)))) {
+      long position = 0;
+      Inflater inflater = new Inflater();
+      try {
+        while (position < length) {
+          byte[] raw = new byte[in.readInt()];
+          byte[] compressed = new byte[in.readInt()];
+          in.readFully(compressed);
+          inflater.reset();
+          inflater.setInput(compressed);
+          if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+            throw new IOException("Corrupt frame in " + filename + " at " + position);
+          }
+          frames.add(objectMapper.readTree(raw));
+          position += 2L * Integer.BYTES + compressed.length;
+        }
+      } catch (DataFormatException e) {
+        throw new IOException("Corrupt frame in " + filename, e);
+      } finally {
+        inflater.end();
+      }
+    }
+    return frames;
+  }
+
+  /**
+   * Gets the JSON ObjectMapper instance, which also builds the trees written in other codecs.
    *
    * @return the ObjectMapper
    */
   public ObjectMapper getObjectMapper() {
     return objectMapper;
   }
+
+  /** Writes a document to the generator passed by {@link #writeStreaming}. */
+  @FunctionalInterface
+  public interface StreamWriter {
+    /**
+     * Writes one value.
+     *
+     * @param generator the generator
+     * @throws IOException if the value cannot be written
+     */
+    void write(JsonGenerator generator) throws IOException;
+  }
+
+  /** Input stream that adds every byte read to a counter. */
+  private static final class CountingInputStream extends FilterInputStream {
+    private final Counter counter;
+
+    private CountingInputStream(InputStream in, Counter counter) {
+      super(in);
+      this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        counter.increment();
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        counter.add(n);
+      }
+      return n;
+    }
+  }
+
+  /** Output stream that adds every byte written to a counter. */
+  private static final class CountingOutputStream extends FilterOutputStream {
+    private final Counter counter;
+
+    private CountingOutputStream(OutputStream out, Counter counter) {
+      super(out);
+      this.counter = counter;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      counter.increment();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      counter.add(len);
+    }
+  }
 }
@@ -0,0 +1,22 @@
+package com.finance.infrastructure.storage;
+
+/**
+ * Enumeration of the encodings {@link JsonStorageManager} can write files in. Reading detects the
+ * encoding of each file on its own, so files written with different codecs can be mixed.
+ */
+public enum StorageCodec {
+  /** Indented JSON, the original format */
+  PRETTY_JSON,
+
+  /** JSON without indentation or line breaks */
+  JSON,
+
+  /** Jackson Smile binary JSON, recognised by its {@code :)\n} header */
+  SMILE,
+
+  /**
+   * Smile, with repositories that support it storing transaction lists delta- and
+   * varint-encoded as one binary value
+   */
+  PACKED
+}
@@ -0,0 +1,378 @@
+package com.finance.server;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.finance.cli.InputValidator;
+import com.finance.core.model.Budget;
+import com.finance.core.model.Category;
+import com.finance.core.model.Session;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.AuthService;
+import com.finance.core.service.BudgetService;
+import com.finance.core.service.StatisticsService;
+import com.finance.core.service.TransactionService;
+import com.finance.core.service.TransferService;
+import com.finance.exception.AuthenticationException;
+import com.finance.exception.CategoryNotFoundException;
+import com.finance.exception.DuplicateTransactionException;
+import com.finance.exception.InsufficientFundsException;
+import com.finance.exception.ValidationException;
+import com.finance.infrastructure.repository.WalletRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP/JSON API over the core services, served by the JDK {@link HttpServer}.
+ *
+ * <p>Each exchange runs on its own virtual thread. Endpoints other than register and login take the
+ * token returned by {@code POST /api/login} in an {@code Authorization: Bearer} header. Requests
+ * touching a wallet hold that wallet's lock for their whole duration; transfers take both wallets'
+ * locks in a fixed order, so concurrent requests never interleave inside one wallet.
+ *
+ * <p>Income and expense requests may carry an {@code Idempotency-Key} header (or an
+ * {@code idempotencyKey} field); a retried request is answered with {@code 409} and the ID of the
+ * transaction the first attempt created.
+ */
+public class ApiServer implements AutoCloseable {
+  public static final int DEFAULT_PORT = 8080;
+  private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+  private static final String BEARER = "Bearer ";
+  private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ServerContext context;
+  private final boolean ownsContext;
+  private final AuthService authService;
+  private final TransactionService transactionService;
+  private final BudgetService budgetService;
+  private final StatisticsService statisticsService;
+  private final TransferService transferService;
+  private final InputValidator validator = new InputValidator();
+  private final WalletLocks locks;
+
+  /**
+   * Creates a server bound to the loopback interface. Call {@link #start()} to accept requests.
+   *
+   * @param walletRepository the wallet repository
+   * @param port the port, or 0 for an ephemeral port
+   * @throws IOException if the port cannot be bound
+   */
+  public ApiServer(WalletRepository walletRepository, int port) throws IOException {
+    this(new ServerContext(walletRepository), port, true);
+  }
+
+  /**
+   * Creates a server over services shared with other front-ends. Closing the server leaves the
+   * context open.
+   *
+   * @param context the shared services
+   * @param port the port, or 0 for an ephemeral port
+   * @throws IOException if the port cannot be bound
+   */
+  public ApiServer(ServerContext context, int port) throws IOException {
+    this(context, port, false);
+  }
+
+  private ApiServer(ServerContext context, int port, boolean ownsContext) throws IOException {
+    this.context = context;
+    this.ownsContext = ownsContext;
+    this.authService = context.getAuthService();
+    this.transactionService = context.getTransactionService();
+    this.budgetService = context.getBudgetService();
+    this.statisticsService = context.getStatisticsService();
+    this.transferService = context.getTransferService();
+    this.locks = context.getLocks();
+
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    server.setExecutor(executor);
+
+    context("/api/register", Map.of("POST", this::register));
+    context("/api/login", Map.of("POST", this::login));
+    context("/api/logout", Map.of("POST", this::logout));
+    context("/api/income", Map.of("POST", (exchange, body) -> addTransaction(exchange, body, true)));
+    context("/api/expense", Map.of("POST", (exchange, body) -> addTransaction(exchange, body, false)));
+    context("/api/budget", Map.of("POST", this::setBudget, "DELETE", this::deleteBudget));
+    context("/api/transfer", Map.of("POST", this::transfer));
+    context("/api/stats", Map.of("GET", this::stats));
+  }
+
+  /** Starts accepting requests and evicting idle sessions. */
+  public void start() {
+    context.startEviction();
+    server.start();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stops accepting requests and waits briefly for in-flight exchanges. If the server created its
+   * own context, all open wallets are saved as well.
+   */
+  @Override
+  public void close() {
+    server.stop(1);
+    executor.close();
+    if (ownsContext) {
+      context.close();
+    }
+  }
+
+  private JsonNode register(HttpExchange exchange, JsonNode body) throws IOException {
+    String username = text(body, "username");
+    String password = text(body, "password");
+    User user = locks.withLock(username, () -> authService.register(username, password));
+    return objectMapper.createObjectNode().put("username", user.getUsername());
+  }
+
+  private JsonNode login(HttpExchange exchange, JsonNode body) throws IOException {
+    String username = text(body, "username");
+    String password = text(body, "password");
+    return locks.withLock(
+        username,
+        () -> {
+          Session session = authService.openSession(username, password);
+          return objectMapper
+              .createObjectNode()
+              .put("token", session.getToken())
+              .put("balance", session.getWallet().getBalance());
+        });
+  }
+
+  private JsonNode logout(HttpExchange exchange, JsonNode body) throws IOException {
+    Session session = session(exchange);
+    String username = session.getUser().getUsername();
+    locks.withLock(
+        username,
+        () -> {
+          authService.closeSession(session.getToken());
+          return null;
+        });
+    return objectMapper.createObjectNode().put("username", username);
+  }
+
+  private JsonNode addTransaction(HttpExchange exchange, JsonNode body, boolean income)
+      throws IOException {
+    Session session = session(exchange);
+    double amount = validator.validateAmount(text(body, "amount"));
+    String categoryName = validator.validateCategory(text(body, "category"));
+    String description = body.path("description").asText("");
+    String key = exchange.getRequestHeaders().getFirst(IDEMPOTENCY_KEY_HEADER);
+    String idempotencyKey = key != null ? key : body.path("idempotencyKey").asText(null);
+    TransactionType type = income ? TransactionType.INCOME : TransactionType.EXPENSE;
+    Category category = new Category(categoryName, type);
+
+    return locks.withLock(
+        session.getUser().getUsername(),
+        () -> {
+          Wallet wallet = session.getWallet();
+          Transaction transaction =
+              income
+                  ? transactionService.addIncome(
+                      wallet, amount, category, description, idempotencyKey)
+                  : transactionService.addExpense(
+                      wallet, amount, category, description, idempotencyKey);
+          return objectMapper
+              .createObjectNode()
+              .put("id", transaction.getId())
+              .put("balance", wallet.getBalance());
+        });
+  }
+
+  private JsonNode setBudget(HttpExchange exchange, JsonNode body) throws IOException {
+    Session session = session(exchange);
+    String categoryName = validator.validateCategory(text(body, "category"));
+    double limit = number(body, "limit");
+    return locks.withLock(
+        session.getUser().getUsername(),
+        () -> budgetJson(budgetService.setBudget(session.getWallet(), categoryName, limit)));
+  }
+
+  private JsonNode deleteBudget(HttpExchange exchange, JsonNode body) throws IOException {
+    Session session = session(exchange);
+    String categoryName = validator.validateCategory(text(body, "category"));
+    return locks.withLock(
+        session.getUser().getUsername(),
+        () -> {
+          Wallet wallet = session.getWallet();
+          if (budgetService.getBudget(wallet, categoryName) == null) {
+            throw new CategoryNotFoundException("No budget set for category: " + categoryName);
+          }
+          budgetService.deleteBudget(wallet, categoryName);
+          return objectMapper.createObjectNode().put("category", categoryName);
+        });
+  }
+
+  private JsonNode transfer(HttpExchange exchange, JsonNode body) throws IOException {
+    Session session = session(exchange);
+    User sender = session.getUser();
+    String recipient = text(body, "recipient").trim();
+    double amount = validator.validateAmount(text(body, "amount"));
+    String description = body.path("description").asText("");
+
+    return locks.withLocks(
+        sender.getUsername(),
+        recipient,
+        () -> {
+          transferService.transfer(sender, recipient, amount, description);
+          return objectMapper
+              .createObjectNode()
+              .put("recipient", recipient)
+              .put("balance", session.getWallet().getBalance());
+        });
+  }
+
+  private JsonNode stats(HttpExchange exchange, JsonNode body) throws IOException {
+    Session session = session(exchange);
+    return locks.withLock(
+        session.getUser().getUsername(),
+        () -> {
+          Wallet wallet = session.getWallet();
+          ObjectNode stats = objectMapper.createObjectNode();
+          stats.put("balance", wallet.getBalance());
+          stats.put("totalIncome", statisticsService.getTotalIncome(wallet));
+          stats.put("totalExpenses", statisticsService.getTotalExpenses(wallet));
+          stats.put("transactionCount", wallet.getTransactionCount());
+          stats.set("incomeByCategory", categoryTotals(statisticsService.getIncomeByCategory(wallet)));
+          stats.set(
+              "expensesByCategory", categoryTotals(statisticsService.getExpensesByCategory(wallet)));
+          ArrayNode budgets = stats.putArray("budgets");
+          for (Budget budget : statisticsService.getBudgetSummary(wallet).values()) {
+            budgets.add(budgetJson(budget));
+          }
+          return stats;
+        });
+  }
+
+  private ObjectNode categoryTotals(Map<Category, Double> totals) {
+    ObjectNode node = objectMapper.createObjectNode();
+    totals.forEach((category, total) -> node.put(category.getName(), total));
+    return node;
+  }
+
+  private ObjectNode budgetJson(Budget budget) {
+    return objectMapper
+        .createObjectNode()
+        .put("category", budget.getCategory().getName())
+        .put("limit", budget.getLimit())
+        .put("spent", budget.getSpent())
+        .put("remaining", budgetService.getRemainingBudget(budget));
+  }
+
+  private Session session(HttpExchange exchange) {
+    String header = exchange.getRequestHeaders().getFirst("Authorization");
+    if (header == null || !header.startsWith(BEARER)) {
+      throw new AuthenticationException("Missing bearer token");
+    }
+    return authService
+        .getSession(header.substring(BEARER.length()).trim())
+        .orElseThrow(() -> new AuthenticationException("Session expired or invalid"));
+  }
+
+  private static String text(JsonNode body, String field) {
+    JsonNode value = body.get(field);
+    if (value == null || value.isNull() || value.isContainerNode()) {
+      throw new ValidationException("Missing field: " + field);
+    }
+    return value.asText();
+  }
+
+  private static double number(JsonNode body, String field) {
+    String value = text(body, field);
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      throw new ValidationException("Invalid number for " + field + ": " + value);
+    }
+  }
+
+  private void context(String path, Map<String, Endpoint> endpoints) {
+    server.createContext(path, exchange -> serve(exchange, endpoints));
+  }
+
+  /**
+   * Parses the request, runs the endpoint and maps domain exceptions to HTTP status codes.
+   */
+  private void serve(HttpExchange exchange, Map<String, Endpoint> endpoints) throws IOException {
+    try (exchange) {
+      Endpoint endpoint = endpoints.get(exchange.getRequestMethod());
+      if (endpoint == null) {
+        respond(exchange, 405, error("Method not allowed"));
+        return;
+      }
+
+      int status = 200;
+      JsonNode response;
+      try {
+        response = endpoint.handle(exchange, readBody(exchange));
+      } catch (JsonProcessingException e) {
+        status = 400;
+        response = error("Malformed JSON body");
+      } catch (ValidationException | IllegalArgumentException e) {
+        status = 400;
+        response = error(e.getMessage());
+      } catch (AuthenticationException e) {
+        status = 401;
+        response = error(e.getMessage());
+      } catch (CategoryNotFoundException e) {
+        status = 404;
+        response = error(e.getMessage());
+      } catch (InsufficientFundsException e) {
+        status = 409;
+        response = error(e.getMessage());
+      } catch (DuplicateTransactionException e) {
+        status = 409;
+        response = error(e.getMessage()).put("id", e.getTransactionId());
+      } catch (IOException | RuntimeException e) {
+        status = 500;
+        response = error("Internal error: " + e.getMessage());
+      }
+      respond(exchange, status, response);
+    }
+  }
+
+  private JsonNode readBody(HttpExchange exchange) throws IOException {
+    try (InputStream in = exchange.getRequestBody()) {
+      byte[] bytes = in.readAllBytes();
+      return bytes.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(bytes);
+    }
+  }
+
+  private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+    byte[] bytes = objectMapper.writeValueAsBytes(body);
+    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private ObjectNode error(String message) {
+    return objectMapper.createObjectNode().put("error", message);
+  }
+
+  /**
+   * Request handler for one method of one path.
+   */
+  @FunctionalInterface
+  private interface Endpoint {
+    JsonNode handle(HttpExchange exchange, JsonNode body) throws IOException;
+  }
+}
@@ -0,0 +1,273 @@
+package com.finance.server;
+
+import static com.finance.server.BinaryProtocol.LENGTH_BYTES;
+import static com.finance.server.BinaryProtocol.REQUEST_HEADER_BYTES;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Blocking, pipelining client for {@link BinaryProtocolServer}.
+ *
+ * <p>Request methods only append a frame to the send buffer and return its request ID; nothing is
+ * sent until {@link #flush()}. Responses are then read in request order with {@link #read()}. Not
+ * thread-safe.
+ */
+public final class BinaryClient implements AutoCloseable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private final SocketChannel channel;
+  private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+  private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+  private int nextId;
+
+  /**
+   * Connects to a server.
+   *
+   * @param address the server address
+   * @throws IOException if the connection fails
+   */
+  public BinaryClient(InetSocketAddress address) throws IOException {
+    this.channel = SocketChannel.open(address);
+    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    in.flip();
+  }
+
+  public int register(String username, String password) throws IOException {
+    return request(BinaryProtocol.OP_REGISTER, username, password, 0.0, null, false);
+  }
+
+  public int login(String username, String password) throws IOException {
+    return request(BinaryProtocol.OP_LOGIN, username, password, 0.0, null, false);
+  }
+
+  public int addIncome(double amount, String category, String description) throws IOException {
+    return request(BinaryProtocol.OP_INCOME, null, category, amount, description, true);
+  }
+
+  public int addExpense(double amount, String category, String description) throws IOException {
+    return request(BinaryProtocol.OP_EXPENSE, null, category, amount, description, true);
+  }
+
+  public int transfer(String recipient, double amount, String description) throws IOException {
+    return request(BinaryProtocol.OP_TRANSFER, recipient, null, amount, description, true);
+  }
+
+  public int balance() throws IOException {
+    return request(BinaryProtocol.OP_BALANCE, null, null, 0.0, null, false);
+  }
+
+  /**
+   * Sends all buffered requests.
+   *
+   * @throws IOException if the write fails
+   */
+  public void flush() throws IOException {
+    out.flip();
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+    out.clear();
+  }
+
+  /**
+   * Blocks until the next response arrives.
+   *
+   * @return the response
+   * @throws IOException if the connection fails or closes
+   */
+  public Response read() throws IOException {
+    fill(LENGTH_BYTES);
+    int length = in.getInt(in.position());
+    fill(LENGTH_BYTES + length);
+    in.getInt();
+    int id = in.getInt();
+    byte status = in.get();
+    if (status == BinaryProtocol.STATUS_OK) {
+      return new Response(id, status, in.getDouble(), null);
+    }
+    return new Response(id, status, 0.0, BinaryProtocol.getString(in));
+  }
+
+  /**
+   * Sends one request and waits for its response.
+   *
+   * @param requestId the ID returned by a request method
+   * @return the response
+   * @throws IOException if the connection fails
+   */
+  public Response await(int requestId) throws IOException {
+    flush();
+    Response response;
+    do {
+      response = read();
+    } while (response.getRequestId() != requestId);
+    return response;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Appends a request frame. Field order follows {@link BinaryProtocol}: the first string, the
+   * amount when {@code hasAmount}, the second string, then the description.
+   */
+  private int request(
+      byte op, String first, String second, double amount, String description, boolean hasAmount)
+      throws IOException {
+    int length = REQUEST_HEADER_BYTES
+        + (first != null ? BinaryProtocol.stringSize(first) : 0)
+        + (second != null ? BinaryProtocol.stringSize(second) : 0)
+        + (hasAmount ? Double.BYTES + BinaryProtocol.stringSize(description) : 0);
+    if (length > BinaryProtocol.MAX_FRAME) {
+      throw new IllegalArgumentException("Request too large: " + length + " bytes");
+    }
+    if (out.remaining() < LENGTH_BYTES + length) {
+      flush();
+    }
+
+    int id = nextId++;
+    out.putInt(length);
+    out.put(op);
+    out.putInt(id);
+    if (op == BinaryProtocol.OP_TRANSFER) {
+      BinaryProtocol.putString(out, first);
+      out.putDouble(amount);
+    } else {
+      if (first != null) {
+        BinaryProtocol.putString(out, first);
+      }
+      if (hasAmount) {
+        out.putDouble(amount);
+      }
+      if (second != null) {
+        BinaryProtocol.putString(out, second);
+      }
+    }
+    if (hasAmount) {
+      BinaryProtocol.putString(out, description);
+    }
+    return id;
+  }
+
+  private void fill(int bytes) throws IOException {
+    if (in.remaining() >= bytes) {
+      return;
+    }
+    in.compact();
+    while (in.position() < bytes) {
+      if (channel.read(in) < 0) {
+        throw new EOFException("Server closed the connection");
+      }
+    }
+    in.flip();
+  }
+
+  /**
+   * Measures pipelined throughput: each connection registers its own user, logs in and sends
+   * batches of income and expense requests.
+   *
+   * @param args {@code [port] [connections] [operations-per-connection] [pipeline-depth]}
+   * @throws Exception if the run fails
+   */
+  public static void main(String[] args) throws Exception {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : BinaryProtocolServer.DEFAULT_PORT;
+    int connections = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+    int operations = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+    int depth = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+    InetSocketAddress address = new InetSocketAddress("127.0.0.1", port);
+
+    long started = System.nanoTime();
+    List<Future<Integer>> results = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int c = 0; c < connections; c++) {
+        String username = "tcp" + c + "x" + started % 100_000;
+        results.add(executor.submit(() -> drive(address, username, operations, depth)));
+      }
+    }
+    long elapsed = System.nanoTime() - started;
+    int failures = 0;
+    for (Future<Integer> result : results) {
+      failures += result.get();
+    }
+    long total = (long) connections * operations;
+    System.out.printf(
+        "operations=%d failures=%d elapsed=%.2f s throughput=%.0f ops/s%n",
+        total, failures, elapsed / 1e9, total * 1e9 / elapsed);
+  }
+
+  private static int drive(InetSocketAddress address, String username, int operations, int depth)
+      throws IOException {
+    try (BinaryClient client = new BinaryClient(address)) {
+      client.await(client.register(username, "binary-secret"));
+      if (!client.await(client.login(username, "binary-secret")).isOk()) {
+        throw new IOException("Login failed for " + username);
+      }
+      int failures = 0;
+      for (int sent = 0; sent < operations; ) {
+        int batch = Math.min(depth, operations - sent);
+        for (int i = 0; i < batch; i++, sent++) {
+          if (sent % 2 == 0) {
+            client.addIncome(2.0, "Salary", "");
+          } else {
+            client.addExpense(1.0, "Food", "");
+          }
+        }
+        client.flush();
+        for (int i = 0; i < batch; i++) {
+          if (!client.read().isOk()) {
+            failures++;
+          }
+        }
+      }
+      return failures;
+    }
+  }
+
+  /**
+   * Decoded response frame.
+   */
+  public static final class Response {
+    private final int requestId;
+    private final byte status;
+    private final double balance;
+    private final String message;
+
+    private Response(int requestId, byte status, double balance, String message) {
+      this.requestId = requestId;
+      this.status = status;
+      this.balance = balance;
+      this.message = message;
+    }
+
+    public int getRequestId() {
+      return requestId;
+    }
+
+    public byte getStatus() {
+      return status;
+    }
+
+    public boolean isOk() {
+      return status == BinaryProtocol.STATUS_OK;
+    }
+
+    public double getBalance() {
+      return balance;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+}
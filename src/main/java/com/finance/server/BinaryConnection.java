@@ -0,0 +1,225 @@
+package com.finance.server;
+
+import static com.finance.server.BinaryProtocol.LENGTH_BYTES;
+import static com.finance.server.BinaryProtocol.MAX_FRAME;
+import static com.finance.server.BinaryProtocol.REQUEST_HEADER_BYTES;
+import static com.finance.server.BinaryProtocol.RESPONSE_HEADER_BYTES;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Framing, buffering and flow control of one {@link BinaryProtocolServer} connection.
+ *
+ * <p>Only touched by the owning selector thread, except for the session token, which a slow
+ * operation may set while reads on the connection are paused.
+ */
+final class BinaryConnection {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_PENDING_OUTPUT = 1 << 20;
+  private static final int MAX_MESSAGE_BYTES = 1024;
+  private final SocketChannel channel;
+  private final BinaryProtocolServer server;
+  private final Executor selectorThread;
+  private final ExecutorService slowPath;
+  private SelectionKey key;
+  private ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+  private ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+  private volatile String token;
+  private String releasedToken;
+  private boolean awaiting;
+  private boolean closed;
+
+  BinaryConnection(
+      SocketChannel channel,
+      BinaryProtocolServer server,
+      Executor selectorThread,
+      ExecutorService slowPath) {
+    this.channel = channel;
+    this.server = server;
+    this.selectorThread = selectorThread;
+    this.slowPath = slowPath;
+  }
+
+  void setKey(SelectionKey key) {
+    this.key = key;
+  }
+
+  String getToken() {
+    return token;
+  }
+
+  void setToken(String token) {
+    this.token = token;
+  }
+
+  void onReadable() throws IOException {
+    if (channel.read(in) < 0) {
+      close();
+      return;
+    }
+    processFrames();
+    flush();
+  }
+
+  /**
+   * Executes every complete frame in the input buffer unless a slow operation is pending.
+   */
+  private void processFrames() {
+    in.flip();
+    while (!awaiting && in.remaining() >= LENGTH_BYTES) {
+      int length = in.getInt(in.position());
+      if (length < REQUEST_HEADER_BYTES || length > MAX_FRAME) {
+        close();
+        return;
+      }
+      if (in.remaining() < LENGTH_BYTES + length) {
+        break;
+      }
+      ByteBuffer frame = in.slice(in.position() + LENGTH_BYTES, length);
+      in.position(in.position() + LENGTH_BYTES + length);
+      server.dispatch(this, frame);
+    }
+    in.compact();
+  }
+
+  /**
+   * Runs an operation on a virtual thread, pausing the connection until its response is queued.
+   *
+   * @param id the request ID
+   * @param operation the operation
+   */
+  void runSlow(int id, BinaryProtocolServer.Operation operation) {
+    awaiting = true;
+    try {
+      slowPath.execute(() -> {
+        byte status = BinaryProtocol.STATUS_OK;
+        double balance = 0.0;
+        String message = null;
+        try {
+          balance = operation.run();
+        } catch (IOException | RuntimeException e) {
+          status = BinaryProtocolServer.statusOf(e);
+          message = e.getMessage();
+        }
+        complete(id, status, balance, message);
+      });
+    } catch (RejectedExecutionException e) {
+      awaiting = false;
+      writeError(id, BinaryProtocol.STATUS_ERROR, "Server is shutting down");
+    }
+  }
+
+  private void complete(int id, byte status, double balance, String message) {
+    selectorThread.execute(() -> {
+      if (closed) {
+        // A login that finished after the client left opened a session nobody will close.
+        releaseSession();
+        return;
+      }
+      if (status == BinaryProtocol.STATUS_OK) {
+        writeOk(id, balance);
+      } else {
+        writeError(id, status, message);
+      }
+      awaiting = false;
+      processFrames();
+      try {
+        flush();
+      } catch (IOException | CancelledKeyException e) {
+        close();
+      }
+    });
+  }
+
+  void writeOk(int id, double balance) {
+    ensureOutput(LENGTH_BYTES + RESPONSE_HEADER_BYTES + Double.BYTES);
+    out.putInt(RESPONSE_HEADER_BYTES + Double.BYTES);
+    out.putInt(id);
+    out.put(BinaryProtocol.STATUS_OK);
+    out.putDouble(balance);
+  }
+
+  void writeError(int id, byte status, String message) {
+    byte[] bytes = (message != null ? message : "Request failed").getBytes(StandardCharsets.UTF_8);
+    int length = Math.min(bytes.length, MAX_MESSAGE_BYTES);
+    ensureOutput(LENGTH_BYTES + RESPONSE_HEADER_BYTES + 2 + length);
+    out.putInt(RESPONSE_HEADER_BYTES + 2 + length);
+    out.putInt(id);
+    out.put(status);
+    out.putShort((short) length);
+    out.put(bytes, 0, length);
+  }
+
+  private void ensureOutput(int bytes) {
+    if (out.remaining() < bytes) {
+      ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+      out.flip();
+      larger.put(out);
+      out = larger;
+    }
+  }
+
+  /**
+   * Writes as much pending output as the socket accepts and updates the interest set: reads pause
+   * while a slow operation is pending or too much output is queued.
+   *
+   * @throws IOException if the write fails
+   */
+  void flush() throws IOException {
+    if (closed) {
+      return;
+    }
+    if (out.position() > 0) {
+      out.flip();
+      channel.write(out);
+      out.compact();
+    }
+    int ops = 0;
+    if (!awaiting && out.position() < MAX_PENDING_OUTPUT && in.hasRemaining()) {
+      ops |= SelectionKey.OP_READ;
+    }
+    if (out.position() > 0) {
+      ops |= SelectionKey.OP_WRITE;
+    }
+    key.interestOps(ops);
+  }
+
+  /** Closes the socket and ends the connection's session on the slow path. */
+  void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (key != null) {
+      key.cancel();
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Already closing; nothing to report.
+    }
+    releaseSession();
+  }
+
+  /** Ends the connection's current session on the slow path unless it was already ended. */
+  private void releaseSession() {
+    String current = token;
+    if (current == null || current.equals(releasedToken)) {
+      return;
+    }
+    releasedToken = current;
+    try {
+      slowPath.execute(() -> server.closeSession(current));
+    } catch (RejectedExecutionException e) {
+      // Server shutdown closes remaining sessions through the context.
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.finance.server;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the binary TCP front-end.
+ *
+ * <p>All integers are big-endian. A request frame is {@code int32 length, uint8 opcode, int32
+ * requestId, fields...} and a response frame is {@code int32 length, int32 requestId, uint8
+ * status, payload}, where {@code length} counts the bytes after itself. Successful responses carry
+ * the caller's balance as a float64; failures carry a message. Strings are a uint16 byte length
+ * followed by UTF-8. Requests may be pipelined; responses on a connection come back in request
+ * order.
+ *
+ * <pre>
+ * REGISTER  username, password
+ * LOGIN     username, password          binds the connection to a new session
+ * INCOME    float64 amount, category, description
+ * EXPENSE   float64 amount, category, description
+ * TRANSFER  recipient, float64 amount, description
+ * BALANCE   (no fields)
+ * </pre>
+ */
+public final class BinaryProtocol {
+  public static final byte OP_REGISTER = 1;
+  public static final byte OP_LOGIN = 2;
+  public static final byte OP_INCOME = 3;
+  public static final byte OP_EXPENSE = 4;
+  public static final byte OP_TRANSFER = 5;
+  public static final byte OP_BALANCE = 6;
+
+  public static final byte STATUS_OK = 0;
+  public static final byte STATUS_BAD_REQUEST = 1;
+  public static final byte STATUS_UNAUTHORIZED = 2;
+  public static final byte STATUS_INSUFFICIENT_FUNDS = 3;
+  public static final byte STATUS_NOT_FOUND = 4;
+  public static final byte STATUS_ERROR = 5;
+
+  /** Largest accepted frame body, in bytes. */
+  public static final int MAX_FRAME = 16 * 1024;
+  static final int LENGTH_BYTES = 4;
+  static final int REQUEST_HEADER_BYTES = 5;
+  static final int RESPONSE_HEADER_BYTES = 5;
+  private static final int MAX_STRING_BYTES = 0xFFFF;
+
+  private BinaryProtocol() {
+  }
+
+  /**
+   * Writes a length-prefixed UTF-8 string.
+   *
+   * @param buffer the target buffer
+   * @param value the string, null is written as empty
+   */
+  public static void putString(ByteBuffer buffer, String value) {
+    byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    if (bytes.length > MAX_STRING_BYTES) {
+      throw new IllegalArgumentException("String too long: " + bytes.length + " bytes");
+    }
+    buffer.putShort((short) bytes.length);
+    buffer.put(bytes);
+  }
+
+  /**
+   * Reads a length-prefixed UTF-8 string.
+   *
+   * @param buffer the source buffer
+   * @return the string
+   * @throws BufferUnderflowException if the frame ends inside the string
+   */
+  public static String getString(ByteBuffer buffer) {
+    int length = Short.toUnsignedInt(buffer.getShort());
+    if (length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+        StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return value;
+  }
+
+  /**
+   * Gets the encoded size of a string field.
+   *
+   * @param value the string
+   * @return the number of bytes {@link #putString} writes
+   */
+  static int stringSize(String value) {
+    return 2 + (value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0);
+  }
+}
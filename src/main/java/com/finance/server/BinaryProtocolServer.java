@@ -0,0 +1,407 @@
+package com.finance.server;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Session;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.AuthService;
+import com.finance.core.service.TransactionService;
+import com.finance.core.service.TransferService;
+import com.finance.exception.AuthenticationException;
+import com.finance.exception.CategoryNotFoundException;
+import com.finance.exception.InsufficientFundsException;
+import com.finance.exception.ValidationException;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * NIO TCP front-end speaking {@link BinaryProtocol}.
+ *
+ * <p>A dedicated thread accepts connections and hands them round-robin to a small fixed pool of
+ * selector threads. Each selector reads whatever frames have arrived, executes them in order and
+ * answers the whole batch with one write, so pipelined clients pay one syscall per batch rather
+ * than per operation. Income, expense and balance requests run inline on the selector thread
+ * under the wallet lock. Register, login, transfer (which saves wallets) and any request whose
+ * wallet is currently locked are handed to a virtual thread; reading from that connection pauses
+ * until the result is written, which keeps responses in request order.
+ */
+public class BinaryProtocolServer implements AutoCloseable {
+  public static final int DEFAULT_PORT = 9090;
+  private final ServerContext context;
+  private final boolean ownsContext;
+  private final AuthService authService;
+  private final TransactionService transactionService;
+  private final TransferService transferService;
+  private final WalletLocks locks;
+  private final ServerSocketChannel serverChannel;
+  private final Reactor[] reactors;
+  private final Thread acceptor;
+  private final ExecutorService slowPath = Executors.newVirtualThreadPerTaskExecutor();
+  private volatile boolean running = true;
+
+  /**
+   * Creates a server with its own services and the default number of selector threads.
+   *
+   * @param walletRepository the wallet repository
+   * @param port the port, or 0 for an ephemeral port
+   * @throws IOException if the port cannot be bound
+   */
+  public BinaryProtocolServer(WalletRepository walletRepository, int port) throws IOException {
+    this(new ServerContext(walletRepository), port, defaultSelectorThreads(), true);
+  }
+
+  /**
+   * Creates a server over shared services with the default number of selector threads.
+   *
+   * @param context the shared services
+   * @param port the port, or 0 for an ephemeral port
+   * @throws IOException if the port cannot be bound
+   */
+  public BinaryProtocolServer(ServerContext context, int port) throws IOException {
+    this(context, port, defaultSelectorThreads(), false);
+  }
+
+  /**
+   * Creates a server over services shared with other front-ends. Closing the server leaves the
+   * context open.
+   *
+   * @param context the shared services
+   * @param port the port, or 0 for an ephemeral port
+   * @param selectorThreads the number of selector threads
+   * @throws IOException if the port cannot be bound
+   */
+  public BinaryProtocolServer(ServerContext context, int port, int selectorThreads)
+      throws IOException {
+    this(context, port, selectorThreads, false);
+  }
+
+  private BinaryProtocolServer(
+      ServerContext context, int port, int selectorThreads, boolean ownsContext)
+      throws IOException {
+    if (selectorThreads <= 0) {
+      throw new IllegalArgumentException("Selector thread count must be positive");
+    }
+    this.context = context;
+    this.ownsContext = ownsContext;
+    this.authService = context.getAuthService();
+    this.transactionService = context.getTransactionService();
+    this.transferService = context.getTransferService();
+    this.locks = context.getLocks();
+
+    this.serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    this.reactors = new Reactor[selectorThreads];
+    for (int i = 0; i < selectorThreads; i++) {
+      reactors[i] = new Reactor(i);
+    }
+    this.acceptor = new Thread(this::acceptLoop, "binary-acceptor");
+  }
+
+  /** Starts the selector threads and begins accepting connections. */
+  public void start() {
+    context.startEviction();
+    for (Reactor reactor : reactors) {
+      reactor.thread.start();
+    }
+    acceptor.start();
+  }
+
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Stops accepting connections and closes open ones, ending their sessions. If the server
+   * created its own context, all open wallets are saved as well.
+   */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      serverChannel.close();
+      acceptor.join();
+      for (Reactor reactor : reactors) {
+        reactor.selector.wakeup();
+        reactor.thread.join();
+      }
+    } catch (IOException e) {
+      System.err.println("✗ Failed to close binary server socket: " + e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    slowPath.close();
+    if (ownsContext) {
+      context.close();
+    }
+  }
+
+  private void acceptLoop() {
+    int next = 0;
+    while (running) {
+      try {
+        SocketChannel channel = serverChannel.accept();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        reactors[next++ % reactors.length].register(channel);
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException e) {
+        System.err.println("✗ Failed to accept connection: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Decodes one request frame and runs it, writing the response to the connection.
+   *
+   * @param connection the connection the frame arrived on
+   * @param frame the frame body, positioned at the opcode
+   */
+  void dispatch(BinaryConnection connection, ByteBuffer frame) {
+    byte op = frame.get();
+    int id = frame.getInt();
+    try {
+      switch (op) {
+        case BinaryProtocol.OP_REGISTER -> {
+          String username = BinaryProtocol.getString(frame);
+          String password = BinaryProtocol.getString(frame);
+          connection.runSlow(id, () -> {
+            locks.withLock(username, () -> authService.register(username, password));
+            return 0.0;
+          });
+        }
+        case BinaryProtocol.OP_LOGIN -> {
+          String username = BinaryProtocol.getString(frame);
+          String password = BinaryProtocol.getString(frame);
+          connection.runSlow(id, () -> login(connection, username, password));
+        }
+        case BinaryProtocol.OP_INCOME, BinaryProtocol.OP_EXPENSE -> {
+          double amount = amount(frame);
+          String categoryName = BinaryProtocol.getString(frame);
+          String description = BinaryProtocol.getString(frame);
+          boolean income = op == BinaryProtocol.OP_INCOME;
+          Session session = session(connection);
+          run(connection, id, session,
+              () -> addTransaction(session, income, amount, categoryName, description));
+        }
+        case BinaryProtocol.OP_TRANSFER -> {
+          String recipient = BinaryProtocol.getString(frame).trim();
+          double amount = amount(frame);
+          String description = BinaryProtocol.getString(frame);
+          Session session = session(connection);
+          String sender = session.getUser().getUsername();
+          connection.runSlow(id, () -> locks.withLocks(sender, recipient, () -> {
+            transferService.transfer(session.getUser(), recipient, amount, description);
+            return session.getWallet().getBalance();
+          }));
+        }
+        case BinaryProtocol.OP_BALANCE -> {
+          Session session = session(connection);
+          run(connection, id, session, () -> session.getWallet().getBalance());
+        }
+        default ->
+            connection.writeError(id, BinaryProtocol.STATUS_BAD_REQUEST, "Unknown opcode: " + op);
+      }
+    } catch (BufferUnderflowException e) {
+      connection.writeError(id, BinaryProtocol.STATUS_BAD_REQUEST, "Truncated frame");
+    } catch (RuntimeException e) {
+      connection.writeError(id, statusOf(e), e.getMessage());
+    }
+  }
+
+  /**
+   * Ends a session opened over a connection that has since closed, saving its wallet.
+   *
+   * @param token the session token
+   */
+  void closeSession(String token) {
+    authService.getSession(token).ifPresent(session -> {
+      try {
+        locks.withLock(session.getUser().getUsername(), () -> {
+          authService.closeSession(token);
+          return null;
+        });
+      } catch (IOException e) {
+        System.err.println("✗ Failed to save wallet for closed connection: " + e.getMessage());
+      }
+    });
+  }
+
+  static byte statusOf(Exception e) {
+    if (e instanceof ValidationException || e instanceof IllegalArgumentException
+        || e instanceof BufferUnderflowException) {
+      return BinaryProtocol.STATUS_BAD_REQUEST;
+    }
+    if (e instanceof AuthenticationException) {
+      return BinaryProtocol.STATUS_UNAUTHORIZED;
+    }
+    if (e instanceof InsufficientFundsException) {
+      return BinaryProtocol.STATUS_INSUFFICIENT_FUNDS;
+    }
+    if (e instanceof CategoryNotFoundException) {
+      return BinaryProtocol.STATUS_NOT_FOUND;
+    }
+    return BinaryProtocol.STATUS_ERROR;
+  }
+
+  private double login(BinaryConnection connection, String username, String password)
+      throws IOException {
+    Session session = locks.withLock(username, () -> authService.openSession(username, password));
+    String previous = connection.getToken();
+    connection.setToken(session.getToken());
+    if (previous != null) {
+      closeSession(previous);
+    }
+    return session.getWallet().getBalance();
+  }
+
+  private double addTransaction(
+      Session session, boolean income, double amount, String categoryName, String description) {
+    if (categoryName.isBlank()) {
+      throw new ValidationException("Category cannot be empty");
+    }
+    Wallet wallet = session.getWallet();
+    if (income) {
+      Category category = new Category(categoryName.trim(), TransactionType.INCOME);
+      transactionService.addIncome(wallet, amount, category, description);
+    } else {
+      Category category = new Category(categoryName.trim(), TransactionType.EXPENSE);
+      transactionService.addExpense(wallet, amount, category, description);
+    }
+    return wallet.getBalance();
+  }
+
+  private Session session(BinaryConnection connection) {
+    String token = connection.getToken();
+    if (token == null) {
+      throw new AuthenticationException("Not logged in");
+    }
+    return authService
+        .getSession(token)
+        .orElseThrow(() -> new AuthenticationException("Session expired or invalid"));
+  }
+
+  /**
+   * Runs a wallet operation inline under the wallet lock, or on the slow path if the lock is busy.
+   */
+  private void run(BinaryConnection connection, int id, Session session, Operation operation) {
+    String username = session.getUser().getUsername();
+    if (!locks.tryLock(username)) {
+      connection.runSlow(id, () -> locks.withLock(username, operation::run));
+      return;
+    }
+    try {
+      connection.writeOk(id, operation.run());
+    } catch (IOException | RuntimeException e) {
+      connection.writeError(id, statusOf(e), e.getMessage());
+    } finally {
+      locks.unlock(username);
+    }
+  }
+
+  private static double amount(ByteBuffer frame) {
+    double amount = frame.getDouble();
+    if (!(amount > 0) || Double.isInfinite(amount)) {
+      throw new ValidationException("Amount must be positive");
+    }
+    return amount;
+  }
+
+  private static int defaultSelectorThreads() {
+    return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+  }
+
+  /**
+   * Operation producing the caller's balance.
+   */
+  @FunctionalInterface
+  interface Operation {
+    double run() throws IOException;
+  }
+
+  /**
+   * Selector thread owning a subset of the connections.
+   */
+  private final class Reactor implements Runnable, Executor {
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+
+    private Reactor(int index) throws IOException {
+      this.selector = Selector.open();
+      this.thread = new Thread(this, "binary-selector-" + index);
+    }
+
+    void register(SocketChannel channel) {
+      execute(() -> {
+        try {
+          BinaryConnection connection =
+              new BinaryConnection(channel, BinaryProtocolServer.this, this, slowPath);
+          connection.setKey(channel.register(selector, SelectionKey.OP_READ, connection));
+        } catch (ClosedChannelException e) {
+          // Client went away before registration.
+        }
+      });
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+      selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (running) {
+          selector.select();
+          Runnable task;
+          while ((task = tasks.poll()) != null) {
+            task.run();
+          }
+          for (SelectionKey key : selector.selectedKeys()) {
+            BinaryConnection connection = (BinaryConnection) key.attachment();
+            try {
+              if (key.isValid() && key.isReadable()) {
+                connection.onReadable();
+              }
+              if (key.isValid() && key.isWritable()) {
+                connection.flush();
+              }
+            } catch (IOException | CancelledKeyException e) {
+              connection.close();
+            }
+          }
+          selector.selectedKeys().clear();
+        }
+      } catch (IOException e) {
+        System.err.println("✗ Selector failed: " + e.getMessage());
+      } finally {
+        for (SelectionKey key : selector.keys()) {
+          ((BinaryConnection) key.attachment()).close();
+        }
+        try {
+          selector.close();
+        } catch (IOException e) {
+          System.err.println("✗ Failed to close selector: " + e.getMessage());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package com.finance.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop load generator for {@link ApiServer}.
+ *
+ * <p>Registers and logs in a set of users, funds their wallets, then runs concurrent workers on
+ * virtual threads. Each worker sends a fixed mix of expenses, incomes, stats reads, budget updates
+ * and transfers, and the run reports throughput and p50/p99 latency.
+ */
+public final class LoadGenerator {
+  private static final String PASSWORD = "loadtest-secret";
+  private static final double INITIAL_FUNDS = 1_000_000.0;
+  private final URI baseUri;
+  private final int users;
+  private final int workers;
+  private final int requestsPerWorker;
+  private final HttpClient client;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * Creates a new LoadGenerator.
+   *
+   * @param baseUri the server address, e.g. {@code http://127.0.0.1:8080}
+   * @param users the number of distinct users (wallets)
+   * @param workers the number of concurrent workers
+   * @param requestsPerWorker the number of requests each worker sends
+   */
+  public LoadGenerator(URI baseUri, int users, int workers, int requestsPerWorker) {
+    if (users < 2 || workers <= 0 || requestsPerWorker <= 0) {
+      throw new IllegalArgumentException("Need at least 2 users, 1 worker and 1 request per worker");
+    }
+    this.baseUri = baseUri;
+    this.users = users;
+    this.workers = workers;
+    this.requestsPerWorker = requestsPerWorker;
+    this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+  }
+
+  /**
+   * Runs the load test.
+   *
+   * @return the latency and throughput report
+   * @throws IOException if setup requests fail
+   * @throws InterruptedException if interrupted while waiting for workers
+   */
+  public Report run() throws IOException, InterruptedException {
+    String[] tokens = new String[users];
+    for (int i = 0; i < users; i++) {
+      ObjectNode credentials = objectMapper.createObjectNode();
+      credentials.put("username", username(i)).put("password", PASSWORD);
+      send("POST", "/api/register", null, credentials);
+      HttpResponse<String> login = send("POST", "/api/login", null, credentials);
+      if (login.statusCode() != 200) {
+        throw new IOException("Login failed for " + username(i) + ": " + login.body());
+      }
+      tokens[i] = objectMapper.readTree(login.body()).get("token").asText();
+      send("POST", "/api/income", tokens[i], transactionBody(INITIAL_FUNDS, "Salary"));
+    }
+
+    List<Future<long[]>> futures = new ArrayList<>(workers);
+    long started = System.nanoTime();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int w = 0; w < workers; w++) {
+        int worker = w;
+        futures.add(executor.submit(() -> runWorker(worker, tokens)));
+      }
+    }
+    long elapsedNanos = System.nanoTime() - started;
+
+    long[] latencies = new long[workers * requestsPerWorker];
+    int failures = 0;
+    int offset = 0;
+    for (Future<long[]> future : futures) {
+      long[] workerLatencies;
+      try {
+        workerLatencies = future.get();
+      } catch (ExecutionException e) {
+        throw new IOException("Worker failed", e.getCause());
+      }
+      for (long latency : workerLatencies) {
+        if (latency < 0) {
+          failures++;
+        }
+        latencies[offset++] = Math.abs(latency);
+      }
+    }
+    Arrays.sort(latencies);
+    return new Report(latencies, failures, elapsedNanos);
+  }
+
+  /**
+   * Sends this worker's requests; failed requests are recorded as negative latencies.
+   */
+  private long[] runWorker(int worker, String[] tokens) throws IOException, InterruptedException {
+    long[] latencies = new long[requestsPerWorker];
+    int user = worker % users;
+    String token = tokens[user];
+    for (int i = 0; i < requestsPerWorker; i++) {
+      long start = System.nanoTime();
+      HttpResponse<String> response;
+      switch (i % 10) {
+        case 0, 1, 2, 3 -> response =
+            send("POST", "/api/expense", token, transactionBody(1 + i % 50, "Food"));
+        case 4, 5 -> response = send("POST", "/api/income", token, transactionBody(25, "Salary"));
+        case 6, 7 -> response = send("GET", "/api/stats", token, null);
+        case 8 -> {
+          ObjectNode budget = objectMapper.createObjectNode().put("category", "Food");
+          response = send("POST", "/api/budget", token, budget.put("limit", 10_000 + i));
+        }
+        default -> {
+          ObjectNode transfer = transactionBody(1, "Transfer");
+          transfer.put("recipient", username((user + 1) % users));
+          response = send("POST", "/api/transfer", token, transfer);
+        }
+      }
+      long latency = Math.max(1, System.nanoTime() - start);
+      latencies[i] = response.statusCode() == 200 ? latency : -latency;
+    }
+    return latencies;
+  }
+
+  private ObjectNode transactionBody(double amount, String category) {
+    return objectMapper.createObjectNode().put("amount", amount).put("category", category);
+  }
+
+  private HttpResponse<String> send(String method, String path, String token, ObjectNode body)
+      throws IOException, InterruptedException {
+    HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path));
+    if (token != null) {
+      request.header("Authorization", "Bearer " + token);
+    }
+    request.method(
+        method,
+        body != null
+            ? HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))
+            : HttpRequest.BodyPublishers.noBody());
+    return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static String username(int index) {
+    return "load" + index;
+  }
+
+  /**
+   * Runs a load test from the command line.
+   *
+   * @param args {@code [url] [users] [workers] [requests-per-worker]}
+   * @throws Exception if the run fails
+   */
+  public static void main(String[] args) throws Exception {
+    URI uri = URI.create(args.length > 0 ? args[0] : "http://127.0.0.1:" + ApiServer.DEFAULT_PORT);
+    int users = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int workers = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+    int requests = args.length > 3 ? Integer.parseInt(args[3]) : 500;
+    System.out.println(new LoadGenerator(uri, users, workers, requests).run());
+  }
+
+  /**
+   * Result of a load test run.
+   */
+  public static final class Report {
+    private final long[] sortedLatencies;
+    private final int failures;
+    private final long elapsedNanos;
+
+    private Report(long[] sortedLatencies, int failures, long elapsedNanos) {
+      this.sortedLatencies = sortedLatencies;
+      this.failures = failures;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getRequestCount() {
+      return sortedLatencies.length;
+    }
+
+    public int getFailureCount() {
+      return failures;
+    }
+
+    /**
+     * Gets completed requests per second over the whole run.
+     *
+     * @return throughput in requests per second
+     */
+    public double getThroughput() {
+      return sortedLatencies.length * 1_000_000_000.0 / Math.max(1, elapsedNanos);
+    }
+
+    /**
+     * Gets a latency percentile using the nearest-rank method.
+     *
+     * @param percentile the percentile in (0, 100]
+     * @return the latency in microseconds
+     */
+    public double getLatencyMicros(double percentile) {
+      if (sortedLatencies.length == 0) {
+        return 0.0;
+      }
+      int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length);
+      int index = Math.min(sortedLatencies.length - 1, Math.max(0, rank - 1));
+      return sortedLatencies[index] / 1_000.0;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "requests=%d failures=%d throughput=%.1f req/s p50=%.1f us p99=%.1f us",
+          getRequestCount(),
+          failures,
+          getThroughput(),
+          getLatencyMicros(50),
+          getLatencyMicros(99));
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.finance.server;
+
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.metrics.PrometheusFormat;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves {@code GET /metrics} in the Prometheus text format on the loopback interface, for a
+ * scraper running on the same host.
+ *
+ * <p>Scrapes run on one daemon thread and only read the registry, so a slow or frequent scraper
+ * cannot delay commands.
+ */
+public class MetricsServer implements AutoCloseable {
+  public static final int DEFAULT_PORT = 9404;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final MetricsRegistry registry;
+
+  /**
+   * Creates a server bound to the loopback interface. Call {@link #start()} to accept scrapes.
+   *
+   * @param registry the registry to expose
+   * @param port the port, or 0 for an ephemeral port
+   * @throws IOException if the port cannot be bound
+   */
+  public MetricsServer(MetricsRegistry registry, int port) throws IOException {
+    this.registry = registry;
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "metrics-http");
+      thread.setDaemon(true);
+      return thread;
+    });
+    server.setExecutor(executor);
+    server.createContext("/metrics", this::scrape);
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void scrape(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Allow", "GET");
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      byte[] body = PrometheusFormat.format(registry).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", PrometheusFormat.CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    }
+  }
+}
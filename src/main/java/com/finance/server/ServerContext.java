@@ -0,0 +1,159 @@
+package com.finance.server;
+
+import com.finance.core.service.AuthService;
+import com.finance.core.service.BudgetService;
+import com.finance.core.service.CredentialVerifier;
+import com.finance.core.service.NotificationService;
+import com.finance.core.service.SessionManager;
+import com.finance.core.service.StatisticsService;
+import com.finance.core.service.TransactionService;
+import com.finance.core.service.TransferService;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.repository.InMemoryUserRepository;
+import com.finance.infrastructure.repository.UserRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+
+/**
+ * Services and wallet locks shared by the network front-ends, so that sessions opened over one
+ * protocol are visible to the others.
+ */
+public final class ServerContext implements AutoCloseable {
+  private static final int LOCK_STRIPES = 1024;
+  private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+  private final SessionManager sessionManager;
+  private final AuthService authService;
+  private final NotificationService notificationService;
+  private final TransactionService transactionService;
+  private final BudgetService budgetService;
+  private final StatisticsService statisticsService;
+  private final TransferService transferService;
+  private final WalletLocks locks = new WalletLocks(LOCK_STRIPES);
+
+  /**
+   * Creates the service graph over a wallet repository. Console notifications are discarded.
+   *
+   * @param walletRepository the wallet repository
+   */
+  public ServerContext(WalletRepository walletRepository) {
+    this(new InMemoryUserRepository(), walletRepository);
+  }
+
+  /**
+   * Creates the service graph over existing user and wallet repositories. Console notifications
+   * are discarded.
+   *
+   * @param userRepository the user repository
+   * @param walletRepository the wallet repository
+   */
+  public ServerContext(UserRepository userRepository, WalletRepository walletRepository) {
+    this(userRepository, walletRepository, new CredentialVerifier());
+  }
+
+  /**
+   * Creates the service graph over a wallet repository with a configured credential verifier.
+   * Console notifications are discarded.
+   *
+   * @param walletRepository the wallet repository
+   * @param credentialVerifier the verifier running bcrypt for logins, closed with the context
+   */
+  public ServerContext(WalletRepository walletRepository, CredentialVerifier credentialVerifier) {
+    this(new InMemoryUserRepository(), walletRepository, credentialVerifier);
+  }
+
+  /**
+   * Creates the service graph over existing user and wallet repositories with a configured
+   * credential verifier. Console notifications are discarded.
+   *
+   * @param userRepository the user repository
+   * @param walletRepository the wallet repository
+   * @param credentialVerifier the verifier running bcrypt for logins, closed with the context
+   */
+  public ServerContext(UserRepository userRepository, WalletRepository walletRepository,
+      CredentialVerifier credentialVerifier) {
+    this.sessionManager =
+        new SessionManager(
+            walletRepository,
+            (username, action) ->
+                locks.withLock(
+                    username,
+                    () -> {
+                      action.run();
+                      return null;
+                    }));
+    this.authService = new AuthService(userRepository, sessionManager, credentialVerifier);
+    this.notificationService =
+        new NotificationService(new PrintStream(OutputStream.nullOutputStream()));
+    this.transactionService = new TransactionService(notificationService);
+    this.budgetService = new BudgetService();
+    this.statisticsService = new StatisticsService();
+    this.transferService = new TransferService(userRepository, walletRepository, sessionManager);
+  }
+
+  /** Starts periodic eviction of idle sessions. */
+  public void startEviction() {
+    sessionManager.startEviction(EVICTION_INTERVAL);
+  }
+
+  /**
+   * Registers gauges for sessions, the pinned wallet cache, pending notifications and the bcrypt
+   * pool.
+   *
+   * @param metrics the registry to register in
+   */
+  public void registerMetrics(MetricsRegistry metrics) {
+    metrics.gauge("sessions.active", sessionManager::getActiveSessionCount);
+    metrics.gauge("sessions.unsaved", sessionManager::getUnsavedWalletCount);
+    metrics.gauge("walletcache.hits", sessionManager::getWalletCacheHits);
+    metrics.gauge("walletcache.misses", sessionManager::getWalletCacheMisses);
+    metrics.gauge("notifications.pending", notificationService::getPendingCount);
+    authService.getCredentialVerifier().registerMetrics(metrics);
+  }
+
+  /**
+   * Sets how long idempotency keys of added transactions are remembered.
+   *
+   * @param window the retention window
+   */
+  public void setIdempotencyWindow(Duration window) {
+    transactionService.setIdempotencyWindow(window);
+  }
+
+  public SessionManager getSessionManager() {
+    return sessionManager;
+  }
+
+  AuthService getAuthService() {
+    return authService;
+  }
+
+  TransactionService getTransactionService() {
+    return transactionService;
+  }
+
+  BudgetService getBudgetService() {
+    return budgetService;
+  }
+
+  StatisticsService getStatisticsService() {
+    return statisticsService;
+  }
+
+  TransferService getTransferService() {
+    return transferService;
+  }
+
+  WalletLocks getLocks() {
+    return locks;
+  }
+
+  /** Closes all sessions, saving their wallets, and stops notification delivery and bcrypt. */
+  @Override
+  public void close() {
+    sessionManager.close();
+    notificationService.close();
+    authService.getCredentialVerifier().close();
+  }
+}
@@ -0,0 +1,127 @@
+package com.finance.server;
+
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-wallet locks serializing requests that touch the same user's wallet.
+ *
+ * <p>Uses {@link ReentrantLock} rather than monitors so that virtual threads blocked on a busy
+ * wallet unmount from their carrier. Memory stays fixed regardless of the number of users; two
+ * users sharing a stripe only serialize with each other.
+ */
+final class WalletLocks {
+  private final ReentrantLock[] stripes;
+  private final int mask;
+
+  /**
+   * Creates a new lock table.
+   *
+   * @param stripes the number of stripes, rounded up to a power of two
+   */
+  WalletLocks(int stripes) {
+    if (stripes <= 0) {
+      throw new IllegalArgumentException("Stripe count must be positive");
+    }
+    int size = Integer.highestOneBit(stripes);
+    if (size < stripes) {
+      size <<= 1;
+    }
+    this.stripes = new ReentrantLock[size];
+    for (int i = 0; i < size; i++) {
+      this.stripes[i] = new ReentrantLock();
+    }
+    this.mask = size - 1;
+  }
+
+  /**
+   * Runs an action while holding the lock of one wallet.
+   *
+   * @param username the wallet owner
+   * @param action the action
+   * @return the action's result
+   * @throws IOException if the action fails with an I/O error
+   */
+  <T> T withLock(String username, LockedAction<T> action) throws IOException {
+    ReentrantLock lock = stripe(username);
+    lock.lock();
+    try {
+      return action.run();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Runs an action while holding the locks of two wallets, acquired in stripe order.
+   *
+   * @param first one wallet owner
+   * @param second the other wallet owner
+   * @param action the action
+   * @return the action's result
+   * @throws IOException if the action fails with an I/O error
+   */
+  <T> T withLocks(String first, String second, LockedAction<T> action) throws IOException {
+    int a = index(first);
+    int b = index(second);
+    if (a == b) {
+      return withLock(first, action);
+    }
+    ReentrantLock outer = stripes[Math.min(a, b)];
+    ReentrantLock inner = stripes[Math.max(a, b)];
+    outer.lock();
+    try {
+      inner.lock();
+      try {
+        return action.run();
+      } finally {
+        inner.unlock();
+      }
+    } finally {
+      outer.unlock();
+    }
+  }
+
+  /**
+   * Acquires the lock of a wallet only if it is free, for callers that must not block. A
+   * successful call must be paired with {@link #unlock}.
+   *
+   * @param username the wallet owner
+   * @return true if the lock was acquired
+   */
+  boolean tryLock(String username) {
+    return stripe(username).tryLock();
+  }
+
+  /**
+   * Releases a lock acquired with {@link #tryLock}.
+   *
+   * @param username the wallet owner
+   */
+  void unlock(String username) {
+    stripe(username).unlock();
+  }
+
+  int getStripeCount() {
+    return stripes.length;
+  }
+
+  private ReentrantLock stripe(String username) {
+    return stripes[index(username)];
+  }
+
+  private int index(String username) {
+    int h = username.hashCode();
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * Work performed under a wallet lock.
+   *
+   * @param <T> the result type
+   */
+  @FunctionalInterface
+  interface LockedAction<T> {
+    T run() throws IOException;
+  }
+}
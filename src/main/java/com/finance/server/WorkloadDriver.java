@@ -0,0 +1,489 @@
+package com.finance.server;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Session;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.AuthService;
+import com.finance.core.service.BudgetService;
+import com.finance.core.service.StatisticsService;
+import com.finance.core.service.TransactionService;
+import com.finance.core.service.TransferService;
+import com.finance.infrastructure.repository.InMemoryUserRepository;
+import com.finance.infrastructure.repository.JsonWalletRepository;
+import com.finance.infrastructure.repository.PagedWalletRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import com.finance.workload.WorkloadGenerator;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process workload driver that replays mixed command traffic against the services.
+ *
+ * <p>Each of N concurrent sessions runs on a virtual thread: it logs in as one of the given users,
+ * sends a seeded random mix of expenses, incomes, statistics queries, budget updates and
+ * transfers under the same wallet locks as the network front-ends, then logs out. The run reports
+ * throughput, latency percentiles overall and per command, peak heap usage and the bytes the
+ * process wrote.
+ */
+public final class WorkloadDriver {
+  private static final long HEAP_SAMPLE_MILLIS = 50;
+  private static final Path PROC_IO = Path.of("/proc/self/io");
+  private final ServerContext context;
+  private final List<String> usernames;
+  private final String password;
+  private final int sessions;
+  private final int operationsPerSession;
+  private final long seed;
+  private final List<String> categories = WorkloadGenerator.expenseCategories();
+
+  /**
+   * Creates a new WorkloadDriver.
+   *
+   * @param context the services to drive
+   * @param usernames the registered users sessions log in as, round-robin
+   * @param password the password of every user
+   * @param sessions the number of concurrent sessions
+   * @param operationsPerSession the number of commands each session sends between login and logout
+   * @param seed the random seed of the command mix
+   */
+  public WorkloadDriver(
+      ServerContext context,
+      List<String> usernames,
+      String password,
+      int sessions,
+      int operationsPerSession,
+      long seed) {
+    if (usernames.size() < 2 || sessions <= 0 || operationsPerSession <= 0) {
+      throw new IllegalArgumentException("Need at least 2 users, 1 session and 1 operation");
+    }
+    this.context = context;
+    this.usernames = List.copyOf(usernames);
+    this.password = password;
+    this.sessions = sessions;
+    this.operationsPerSession = operationsPerSession;
+    this.seed = seed;
+  }
+
+  /**
+   * Runs the workload.
+   *
+   * @return the report
+   * @throws IOException if a session fails outside of an individual command
+   * @throws InterruptedException if interrupted while waiting for sessions
+   */
+  public Report run() throws IOException, InterruptedException {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    AtomicLong peakHeap = new AtomicLong(memory.getHeapMemoryUsage().getUsed());
+    Thread sampler = Thread.ofPlatform().daemon().name("workload-heap-sampler").start(() -> {
+      while (!Thread.currentThread().isInterrupted()) {
+        peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        try {
+          Thread.sleep(HEAP_SAMPLE_MILLIS);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    });
+
+    long bytesBefore = bytesWritten();
+    List<Future<SessionLog>> futures = new ArrayList<>(sessions);
+    long started = System.nanoTime();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int s = 0; s < sessions; s++) {
+        int session = s;
+        futures.add(executor.submit(() -> runSession(session)));
+      }
+    } finally {
+      sampler.interrupt();
+    }
+    long elapsedNanos = System.nanoTime() - started;
+    long bytesAfter = bytesWritten();
+    sampler.join();
+
+    List<SessionLog> logs = new ArrayList<>(sessions);
+    for (Future<SessionLog> future : futures) {
+      try {
+        logs.add(future.get());
+      } catch (ExecutionException e) {
+        throw new IOException("Session failed", e.getCause());
+      }
+    }
+    long bytes = bytesBefore >= 0 && bytesAfter >= 0 ? bytesAfter - bytesBefore : -1;
+    return new Report(logs, elapsedNanos, peakHeap.get(), bytes);
+  }
+
+  /**
+   * Runs one session; failed commands are recorded as negative latencies.
+   */
+  private SessionLog runSession(int index) throws IOException {
+    SplittableRandom random = new SplittableRandom(seed + index);
+    String username = usernames.get(index % usernames.size());
+    SessionLog log = new SessionLog(operationsPerSession + 2);
+    AuthService auth = context.getAuthService();
+
+    long start = System.nanoTime();
+    Session session;
+    try {
+      session = context.getLocks().withLock(username, () -> auth.openSession(username, password));
+    } catch (RuntimeException e) {
+      log.record(Command.LOGIN, start, false);
+      return log;
+    }
+    log.record(Command.LOGIN, start, true);
+
+    for (int i = 0; i < operationsPerSession; i++) {
+      Command command = Command.pick(random.nextInt(100));
+      start = System.nanoTime();
+      boolean ok;
+      try {
+        execute(command, session, random);
+        ok = true;
+      } catch (IOException | RuntimeException e) {
+        ok = false;
+      }
+      log.record(command, start, ok);
+    }
+
+    start = System.nanoTime();
+    context.getLocks().withLock(username, () -> {
+      auth.closeSession(session.getToken());
+      return null;
+    });
+    log.record(Command.LOGOUT, start, true);
+    return log;
+  }
+
+  private void execute(Command command, Session session, SplittableRandom random)
+      throws IOException {
+    String username = session.getUser().getUsername();
+    Wallet wallet = session.getWallet();
+    WalletLocks locks = context.getLocks();
+    TransactionService transactions = context.getTransactionService();
+    StatisticsService statistics = context.getStatisticsService();
+    switch (command) {
+      case EXPENSE -> {
+        Category category = new Category(category(random), TransactionType.EXPENSE);
+        double amount = 1 + random.nextInt(300_000) / 100.0;
+        locks.withLock(
+            username, () -> transactions.addExpense(wallet, amount, category, "workload"));
+      }
+      case INCOME -> {
+        Category category = new Category("Подработка", TransactionType.INCOME);
+        double amount = 100 + random.nextInt(1_000_000) / 100.0;
+        locks.withLock(username, () -> transactions.addIncome(wallet, amount, category, ""));
+      }
+      case STATS -> locks.withLock(username, () -> {
+        statistics.getTotalIncome(wallet);
+        statistics.getTotalExpenses(wallet);
+        statistics.getIncomeByCategory(wallet);
+        statistics.getExpensesByCategory(wallet);
+        return statistics.getBudgetSummary(wallet);
+      });
+      case PERIOD -> {
+        LocalDateTime from = LocalDateTime.of(2024, 1 + random.nextInt(12), 1, 0, 0);
+        locks.withLock(
+            username,
+            () -> statistics.getTransactionsByPeriod(wallet, from, from.plusMonths(1)));
+      }
+      case CATEGORIES -> {
+        List<String> names = List.of(category(random), category(random));
+        locks.withLock(username, () -> statistics.getExpensesByCategories(wallet, names));
+      }
+      case BUDGET -> {
+        BudgetService budgets = context.getBudgetService();
+        String name = category(random);
+        double limit = 1000 + random.nextInt(100) * 1000;
+        locks.withLock(username, () -> budgets.setBudget(wallet, name, limit));
+      }
+      case TRANSFER -> {
+        TransferService transfers = context.getTransferService();
+        String recipient = usernames.get(random.nextInt(usernames.size()));
+        if (recipient.equals(username)) {
+          recipient = usernames.get((usernames.indexOf(username) + 1) % usernames.size());
+        }
+        String target = recipient;
+        double amount = 1 + random.nextInt(50_000) / 100.0;
+        locks.withLocks(username, target, () -> {
+          transfers.transfer(session.getUser(), target, amount, "workload");
+          return null;
+        });
+      }
+      default -> throw new IllegalStateException("Not a traffic command: " + command);
+    }
+  }
+
+  private String category(SplittableRandom random) {
+    return categories.get(random.nextInt(categories.size()));
+  }
+
+  /**
+   * Reads the bytes this process has passed to write calls, from {@code /proc/self/io}.
+   *
+   * @return the byte count, or -1 where the file is not available
+   */
+  private static long bytesWritten() {
+    try {
+      for (String line : Files.readAllLines(PROC_IO)) {
+        if (line.startsWith("wchar:")) {
+          return Long.parseLong(line.substring("wchar:".length()).trim());
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // Not Linux or not readable; report the count as unknown.
+    }
+    return -1;
+  }
+
+  /**
+   * Generates users and wallets, then drives them.
+   *
+   * @param args {@code [users] [sessions] [operations-per-session] [seed] [--paged]}
+   * @throws Exception if the run fails
+   */
+  public static void main(String[] args) throws Exception {
+    int users = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    int operations = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+    long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+    WalletRepository walletRepository =
+        Arrays.asList(args).contains("--paged")
+            ? new PagedWalletRepository()
+            : new JsonWalletRepository();
+
+    InMemoryUserRepository userRepository = new InMemoryUserRepository();
+    long bytesBefore = bytesWritten();
+    long started = System.nanoTime();
+    WorkloadGenerator.Summary summary =
+        new WorkloadGenerator(seed, users, 20, 50_000).generate(walletRepository, userRepository);
+    System.out.printf(
+        "generated %s in %.2f s, bytes written=%d%n",
+        summary, (System.nanoTime() - started) / 1e9, bytesWritten() - bytesBefore);
+
+    List<String> usernames = new ArrayList<>(users);
+    for (int i = 0; i < users; i++) {
+      usernames.add(WorkloadGenerator.username(i));
+    }
+    try (ServerContext context = new ServerContext(userRepository, walletRepository)) {
+      System.out.println(
+          new WorkloadDriver(
+                  context, usernames, WorkloadGenerator.PASSWORD, sessions, operations, seed)
+              .run());
+    }
+  }
+
+  /**
+   * Commands of the replayed traffic. Each session logs in once, sends traffic commands in the
+   * proportions given by their weights, and logs out.
+   */
+  public enum Command {
+    LOGIN(0),
+    EXPENSE(35),
+    INCOME(10),
+    STATS(20),
+    PERIOD(10),
+    CATEGORIES(10),
+    BUDGET(5),
+    TRANSFER(10),
+    LOGOUT(0);
+
+    private final int weight;
+
+    Command(int weight) {
+      this.weight = weight;
+    }
+
+    /**
+     * Maps a uniform draw to a traffic command by weight.
+     *
+     * @param percent a value in [0, 100)
+     * @return the command
+     */
+    static Command pick(int percent) {
+      int cumulative = 0;
+      for (Command command : values()) {
+        cumulative += command.weight;
+        if (percent < cumulative) {
+          return command;
+        }
+      }
+      return TRANSFER;
+    }
+  }
+
+  /** Latencies recorded by one session, with failures stored as negative values. */
+  private static final class SessionLog {
+    private final Command[] commands;
+    private final long[] latencies;
+    private int size;
+
+    private SessionLog(int capacity) {
+      this.commands = new Command[capacity];
+      this.latencies = new long[capacity];
+    }
+
+    private void record(Command command, long startNanos, boolean ok) {
+      long latency = Math.max(1, System.nanoTime() - startNanos);
+      commands[size] = command;
+      latencies[size++] = ok ? latency : -latency;
+    }
+  }
+
+  /**
+   * Result of a workload run.
+   */
+  public static final class Report {
+    private final long[] sortedLatencies;
+    private final Map<Command, long[]> sortedByCommand = new EnumMap<>(Command.class);
+    private final int failures;
+    private final long elapsedNanos;
+    private final long peakHeapBytes;
+    private final long bytesWritten;
+
+    private Report(List<SessionLog> logs, long elapsedNanos, long peakHeapBytes, long bytesWritten) {
+      Map<Command, Integer> counts = new EnumMap<>(Command.class);
+      int total = 0;
+      for (SessionLog log : logs) {
+        total += log.size;
+        for (int i = 0; i < log.size; i++) {
+          counts.merge(log.commands[i], 1, Integer::sum);
+        }
+      }
+      counts.forEach((command, count) -> sortedByCommand.put(command, new long[count]));
+
+      long[] all = new long[total];
+      Map<Command, Integer> offsets = new EnumMap<>(Command.class);
+      int failed = 0;
+      int offset = 0;
+      for (SessionLog log : logs) {
+        for (int i = 0; i < log.size; i++) {
+          long latency = log.latencies[i];
+          if (latency < 0) {
+            failed++;
+          }
+          all[offset++] = Math.abs(latency);
+          int position = offsets.merge(log.commands[i], 1, Integer::sum) - 1;
+          sortedByCommand.get(log.commands[i])[position] = Math.abs(latency);
+        }
+      }
+      Arrays.sort(all);
+      sortedByCommand.values().forEach(Arrays::sort);
+      this.sortedLatencies = all;
+      this.failures = failed;
+      this.elapsedNanos = elapsedNanos;
+      this.peakHeapBytes = peakHeapBytes;
+      this.bytesWritten = bytesWritten;
+    }
+
+    public int getOperationCount() {
+      return sortedLatencies.length;
+    }
+
+    /**
+     * Gets the number of operations of one command.
+     *
+     * @param command the command
+     * @return the operation count
+     */
+    public int getOperationCount(Command command) {
+      long[] latencies = sortedByCommand.get(command);
+      return latencies != null ? latencies.length : 0;
+    }
+
+    public int getFailureCount() {
+      return failures;
+    }
+
+    public long getPeakHeapBytes() {
+      return peakHeapBytes;
+    }
+
+    /**
+     * Gets the bytes the process wrote during the run, including wallet saves at logout.
+     *
+     * @return the byte count, or -1 if the platform does not report it
+     */
+    public long getBytesWritten() {
+      return bytesWritten;
+    }
+
+    /**
+     * Gets completed operations per second over the whole run.
+     *
+     * @return throughput in operations per second
+     */
+    public double getThroughput() {
+      return sortedLatencies.length * 1_000_000_000.0 / Math.max(1, elapsedNanos);
+    }
+
+    /**
+     * Gets a latency percentile over all operations using the nearest-rank method.
+     *
+     * @param percentile the percentile in (0, 100]
+     * @return the latency in microseconds
+     */
+    public double getLatencyMicros(double percentile) {
+      return percentile(sortedLatencies, percentile);
+    }
+
+    /**
+     * Gets a latency percentile of one command using the nearest-rank method.
+     *
+     * @param command the command
+     * @param percentile the percentile in (0, 100]
+     * @return the latency in microseconds
+     */
+    public double getLatencyMicros(Command command, double percentile) {
+      long[] latencies = sortedByCommand.get(command);
+      return latencies != null ? percentile(latencies, percentile) : 0.0;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+      if (sorted.length == 0) {
+        return 0.0;
+      }
+      int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+      int index = Math.min(sorted.length - 1, Math.max(0, rank - 1));
+      return sorted[index] / 1_000.0;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder text = new StringBuilder(String.format(
+          "operations=%d failures=%d throughput=%.1f ops/s p50=%.1f us p99=%.1f us p99.9=%.1f us"
+              + " peak heap=%d MiB bytes written=%d",
+          getOperationCount(),
+          failures,
+          getThroughput(),
+          getLatencyMicros(50),
+          getLatencyMicros(99),
+          getLatencyMicros(99.9),
+          peakHeapBytes >> 20,
+          bytesWritten));
+      for (Command command : sortedByCommand.keySet()) {
+        text.append(String.format(
+            "%n  %-10s count=%d p50=%.1f us p99=%.1f us",
+            command,
+            getOperationCount(command),
+            getLatencyMicros(command, 50),
+            getLatencyMicros(command, 99)));
+      }
+      return text.toString();
+    }
+  }
+}
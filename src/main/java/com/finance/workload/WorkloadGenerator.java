@@ -0,0 +1,366 @@
+package com.finance.workload;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.TransferService;
+import com.finance.infrastructure.repository.UserRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.mindrot.jbcrypt.BCrypt;
+
+/**
+ * Deterministic generator of realistic wallets for capacity planning.
+ *
+ * <p>Transaction counts per user follow a Pareto distribution, so a few heavy users own most of
+ * the history. Expenses spread over one year with a category mix that changes by month (heating
+ * in winter, travel in summer, gifts in December); each user gets a monthly salary sized to their
+ * spending, budgets on some categories and occasional transfers to other users.
+ *
+ * <p>Every user's wallet depends only on the seed and the user's index, so the same seed always
+ * produces the same data regardless of how many users are generated after it.
+ */
+public final class WorkloadGenerator {
+  /** Password of every generated user. */
+  public static final String PASSWORD = "workload-secret";
+  static final LocalDateTime YEAR_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+  private static final int MINUTES_PER_YEAR = 366 * 24 * 60;
+  private static final double PARETO_ALPHA = 1.16;
+  private static final double TRANSFER_RATE = 0.3;
+  private static final double BUDGET_RATE = 0.5;
+  private static final int HASH_LOG_ROUNDS = 4;
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private static final double[] FLAT = {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
+  private static final List<CategoryProfile> EXPENSES = List.of(
+      new CategoryProfile("Еда", 35, 900, FLAT),
+      new CategoryProfile("Транспорт", 15, 600, FLAT),
+      new CategoryProfile(
+          "Коммунальные услуги", 8, 4500, new double[] {1.6, 1.6, 1.3, 1, 0.8, 0.7, 0.7, 0.7, 0.8, 1, 1.3, 1.6}),
+      new CategoryProfile(
+          "Развлечения", 12, 1800, new double[] {1, 0.9, 1, 1, 1.2, 1.6, 1.6, 1.6, 1, 1, 1, 1.3}),
+      new CategoryProfile(
+          "Здоровье", 6, 2500, new double[] {1.4, 1.4, 1.3, 1, 0.8, 0.8, 0.8, 0.8, 1, 1.2, 1.4, 1.4}),
+      new CategoryProfile(
+          "Одежда", 8, 3500, new double[] {0.8, 0.8, 1.3, 1.1, 1, 1, 1, 1, 1.5, 1.2, 1, 1.2}),
+      new CategoryProfile(
+          "Подарки", 4, 3000, new double[] {0.5, 1.2, 1.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.5, 0.8, 4}),
+      new CategoryProfile(
+          "Путешествия", 4, 25000, new double[] {1.5, 0.5, 0.5, 0.6, 1, 3, 3, 3, 0.8, 0.5, 0.4, 0.8}),
+      new CategoryProfile(
+          "Образование", 2, 8000, new double[] {1, 1, 0.5, 0.5, 0.5, 0.3, 0.3, 1, 4, 1, 0.5, 0.5}));
+
+  /** Cumulative expense category probabilities per month. */
+  private static final double[][] MONTHLY_CDF = new double[12][EXPENSES.size()];
+  /** Expected share of each expense category over the year. */
+  private static final double[] YEARLY_SHARE = new double[EXPENSES.size()];
+  /** Expected expense amount over the year, for sizing salaries. */
+  private static final double MEAN_EXPENSE;
+
+  static {
+    for (int month = 0; month < 12; month++) {
+      double total = 0;
+      for (CategoryProfile profile : EXPENSES) {
+        total += profile.weight * profile.seasonality[month];
+      }
+      double cumulative = 0;
+      for (int c = 0; c < EXPENSES.size(); c++) {
+        double share = EXPENSES.get(c).weight * EXPENSES.get(c).seasonality[month] / total;
+        cumulative += share;
+        MONTHLY_CDF[month][c] = cumulative;
+        YEARLY_SHARE[c] += share / 12;
+      }
+    }
+    double mean = 0;
+    for (int c = 0; c < EXPENSES.size(); c++) {
+      mean += YEARLY_SHARE[c] * EXPENSES.get(c).meanAmount;
+    }
+    MEAN_EXPENSE = mean;
+  }
+
+  private final long seed;
+  private final int userCount;
+  private final int minTransactions;
+  private final int maxTransactions;
+
+  /**
+   * Creates a new WorkloadGenerator.
+   *
+   * @param seed the random seed
+   * @param userCount the number of users
+   * @param minTransactions the smallest expense count of a user (the Pareto scale)
+   * @param maxTransactions the cap on the expense count of a user
+   */
+  public WorkloadGenerator(long seed, int userCount, int minTransactions, int maxTransactions) {
+    if (userCount < 2 || minTransactions < 1 || maxTransactions < minTransactions) {
+      throw new IllegalArgumentException(
+          "Need at least 2 users and 1 <= min transactions <= max transactions");
+    }
+    this.seed = seed;
+    this.userCount = userCount;
+    this.minTransactions = minTransactions;
+    this.maxTransactions = maxTransactions;
+  }
+
+  /**
+   * Gets the names of the generated expense categories.
+   *
+   * @return the category names
+   */
+  public static List<String> expenseCategories() {
+    List<String> names = new ArrayList<>(EXPENSES.size());
+    for (CategoryProfile profile : EXPENSES) {
+      names.add(profile.name);
+    }
+    return names;
+  }
+
+  /**
+   * Gets the username of a generated user.
+   *
+   * @param index the user index
+   * @return the username
+   */
+  public static String username(int index) {
+    return String.format("wl%06d", index);
+  }
+
+  /**
+   * Generates every wallet and saves it through the repository, one user at a time.
+   *
+   * @param walletRepository receives the wallets
+   * @param userRepository receives the users with password {@link #PASSWORD}, or null to skip
+   * @return counts of the generated data
+   * @throws IOException if a wallet cannot be saved
+   */
+  public Summary generate(WalletRepository walletRepository, UserRepository userRepository)
+      throws IOException {
+    // A low cost factor: the hash only has to be valid, and logins stay cheap in workload runs.
+    String passwordHash =
+        userRepository != null ? BCrypt.hashpw(PASSWORD, BCrypt.gensalt(HASH_LOG_ROUNDS)) : null;
+    List<List<Transfer>> transfers = planTransfers();
+    long transactions = 0;
+    long transferCount = 0;
+    long budgets = 0;
+    for (int i = 0; i < userCount; i++) {
+      for (Transfer transfer : transfers.get(i)) {
+        if (transfer.sender == i) {
+          transferCount++;
+        }
+      }
+      Wallet wallet = generateWallet(i, transfers.get(i));
+      walletRepository.save(wallet);
+      if (userRepository != null) {
+        userRepository.save(new User(wallet.getUserId(), passwordHash, wallet));
+      }
+      transactions += wallet.getTransactionCount();
+      budgets += wallet.getBudgetCount();
+    }
+    return new Summary(userCount, transactions, transferCount, budgets);
+  }
+
+  /**
+   * Builds one user's wallet.
+   *
+   * @param index the user index
+   * @param transfers the transfers the user sends or receives, from {@link #planTransfers()}
+   * @return the wallet with transactions in date order
+   */
+  Wallet generateWallet(int index, List<Transfer> transfers) {
+    SplittableRandom random = new SplittableRandom(seed + GOLDEN_GAMMA * (index + 1));
+    int expenseCount = expenseCount(random);
+    String userId = username(index);
+    List<Transaction> history = new ArrayList<>(expenseCount + 16 + transfers.size());
+
+    for (int i = 0; i < expenseCount; i++) {
+      LocalDateTime date = YEAR_START.plusMinutes(random.nextInt(MINUTES_PER_YEAR));
+      CategoryProfile profile = EXPENSES.get(pickCategory(date.getMonthValue() - 1, random));
+      double amount = amount(profile.meanAmount, random);
+      history.add(transaction(random, amount, profile.name, TransactionType.EXPENSE, date, ""));
+    }
+
+    double salary = round(expenseCount * MEAN_EXPENSE / 12 * (0.9 + 0.4 * random.nextDouble()));
+    for (int month = 0; month < 12; month++) {
+      LocalDateTime payday = YEAR_START.plusMonths(month).plusDays(4).plusHours(9);
+      history.add(transaction(random, salary, "Зарплата", TransactionType.INCOME, payday, ""));
+      if ((month == 5 || month == 11) && random.nextDouble() < 0.5) {
+        double bonus = Math.max(1.0, round(salary * random.nextDouble()));
+        history.add(
+            transaction(random, bonus, "Бонус", TransactionType.INCOME, payday.plusDays(14), ""));
+      }
+    }
+
+    for (Transfer transfer : transfers) {
+      boolean outgoing = transfer.sender == index;
+      TransactionType type = outgoing ? TransactionType.EXPENSE : TransactionType.INCOME;
+      String description =
+          outgoing
+              ? "Transfer to " + username(transfer.recipient)
+              : "Transfer from " + username(transfer.sender);
+      history.add(
+          transaction(random, transfer.amount, TransferService.TRANSFER_CATEGORY, type,
+              transfer.date, description));
+    }
+    history.sort(Comparator.comparing(Transaction::getDate));
+
+    Wallet wallet = new Wallet(userId);
+    for (int c = 0; c < EXPENSES.size(); c++) {
+      if (random.nextDouble() < BUDGET_RATE) {
+        CategoryProfile profile = EXPENSES.get(c);
+        double expected = expenseCount * YEARLY_SHARE[c] * profile.meanAmount;
+        double limit = Math.round(expected * (0.7 + 0.6 * random.nextDouble()) / 100) * 100.0;
+        wallet.setBudget(
+            new Category(profile.name, TransactionType.EXPENSE), Math.max(100.0, limit));
+      }
+    }
+    for (Transaction transaction : history) {
+      wallet.addTransaction(transaction);
+    }
+    return wallet;
+  }
+
+  /**
+   * Plans inter-user transfers up front, so that each wallet can be generated and saved on its
+   * own with both sides of every transfer.
+   *
+   * @return for every user, the transfers it sends or receives
+   */
+  List<List<Transfer>> planTransfers() {
+    SplittableRandom random = new SplittableRandom(seed);
+    List<List<Transfer>> byUser = new ArrayList<>(userCount);
+    for (int i = 0; i < userCount; i++) {
+      byUser.add(new ArrayList<>());
+    }
+    for (int sender = 0; sender < userCount; sender++) {
+      for (int month = 0; month < 12; month++) {
+        if (random.nextDouble() >= TRANSFER_RATE) {
+          continue;
+        }
+        int recipient = random.nextInt(userCount - 1);
+        if (recipient >= sender) {
+          recipient++;
+        }
+        LocalDateTime date =
+            YEAR_START.plusMonths(month).plusMinutes(random.nextInt(28 * 24 * 60));
+        Transfer transfer = new Transfer(sender, recipient, amount(3000, random), date);
+        byUser.get(sender).add(transfer);
+        byUser.get(recipient).add(transfer);
+      }
+    }
+    return byUser;
+  }
+
+  private int expenseCount(SplittableRandom random) {
+    double pareto = minTransactions / Math.pow(1.0 - random.nextDouble(), 1.0 / PARETO_ALPHA);
+    return (int) Math.min(maxTransactions, Math.floor(pareto));
+  }
+
+  private static int pickCategory(int month, SplittableRandom random) {
+    double u = random.nextDouble();
+    double[] cdf = MONTHLY_CDF[month];
+    for (int c = 0; c < cdf.length - 1; c++) {
+      if (u < cdf[c]) {
+        return c;
+      }
+    }
+    return cdf.length - 1;
+  }
+
+  /** Draws a log-normal amount whose expected value is {@code mean}. */
+  private static double amount(double mean, SplittableRandom random) {
+    return Math.max(1.0, round(mean * Math.exp(0.5 * random.nextGaussian() - 0.125)));
+  }
+
+  private static double round(double amount) {
+    return Math.round(amount * 100) / 100.0;
+  }
+
+  private static Transaction transaction(
+      SplittableRandom random,
+      double amount,
+      String category,
+      TransactionType type,
+      LocalDateTime date,
+      String description) {
+    String id = new UUID(random.nextLong(), random.nextLong()).toString();
+    return new Transaction(id, amount, new Category(category, type), type, date, description);
+  }
+
+  /** Expense category with its base frequency, typical amount and monthly multipliers. */
+  private static final class CategoryProfile {
+    private final String name;
+    private final double weight;
+    private final double meanAmount;
+    private final double[] seasonality;
+
+    private CategoryProfile(String name, double weight, double meanAmount, double[] seasonality) {
+      this.name = name;
+      this.weight = weight;
+      this.meanAmount = meanAmount;
+      this.seasonality = seasonality;
+    }
+  }
+
+  /** One planned transfer between two generated users. */
+  static final class Transfer {
+    final int sender;
+    final int recipient;
+    final double amount;
+    final LocalDateTime date;
+
+    Transfer(int sender, int recipient, double amount, LocalDateTime date) {
+      this.sender = sender;
+      this.recipient = recipient;
+      this.amount = amount;
+      this.date = date;
+    }
+  }
+
+  /**
+   * Counts of the generated data.
+   */
+  public static final class Summary {
+    private final int users;
+    private final long transactions;
+    private final long transfers;
+    private final long budgets;
+
+    private Summary(int users, long transactions, long transfers, long budgets) {
+      this.users = users;
+      this.transactions = transactions;
+      this.transfers = transfers;
+      this.budgets = budgets;
+    }
+
+    public int getUserCount() {
+      return users;
+    }
+
+    public long getTransactionCount() {
+      return transactions;
+    }
+
+    public long getTransferCount() {
+      return transfers;
+    }
+
+    public long getBudgetCount() {
+      return budgets;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "users=%d transactions=%d transfers=%d budgets=%d",
+          users, transactions, transfers, budgets);
+    }
+  }
+}
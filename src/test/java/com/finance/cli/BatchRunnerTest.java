@@ -0,0 +1,118 @@
+package com.finance.cli;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+import com.finance.core.model.Wallet;
+import com.finance.core.service.CredentialVerifier;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class BatchRunnerTest {
+  @Mock private WalletRepository walletRepository;
+  private ByteArrayOutputStream errorBytes;
+  private PrintStream errorLog;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    when(walletRepository.load(any())).thenAnswer(invocation -> new Wallet(invocation.getArgument(0)));
+    errorBytes = new ByteArrayOutputStream();
+    errorLog = new PrintStream(errorBytes, true, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void testScriptReportsOnlyErrorsAndSavesEachWalletOnce() throws IOException {
+    String script =
+        String.join(
+            "\n",
+            "register alice secret1",
+            "register bob secret2",
+            "# morning batch",
+            "login alice secret1",
+            "add-income 1000 Salary first pay",
+            "bogus-command",
+            "add-expense abc Food",
+            "transfer bob 100 rent",
+            "logout",
+            "",
+            "login alice secret1",
+            "add-expense 50 Food lunch",
+            "logout");
+    BatchRunner runner = new BatchRunner(walletRepository, errorLog, 0);
+
+    runner.run(new BufferedReader(new StringReader(script)));
+
+    String errors = errorBytes.toString(StandardCharsets.UTF_8);
+    assertEquals(11, runner.getCommandCount());
+    assertEquals(2, runner.getErrorCount());
+    assertTrue(errors.startsWith("line 6: Unknown command"));
+    assertTrue(errors.contains("line 7: "));
+    assertEquals(2, errors.lines().count());
+
+    assertEquals(2, runner.getSavedWalletCount());
+    verify(walletRepository, times(1)).load("alice");
+    verify(walletRepository, times(1))
+        .save(argThat(w -> w.getUserId().equals("alice") && w.getBalance() == 850.0));
+    verify(walletRepository, times(1))
+        .save(argThat(w -> w.getUserId().equals("bob") && w.getBalance() == 100.0));
+  }
+
+  @Test
+  void testCheckpointSavesBeforeEndOfScript() throws IOException {
+    String script =
+        String.join(
+            "\n",
+            "register carol secret3",
+            "login carol secret3",
+            "add-income 10 Salary",
+            "exit",
+            "add-income 10 Salary");
+    BatchRunner runner = new BatchRunner(walletRepository, errorLog, 3);
+
+    runner.run(new BufferedReader(new StringReader(script)));
+
+    assertEquals(4, runner.getCommandCount());
+    assertEquals(0, runner.getErrorCount());
+    verify(walletRepository, atLeastOnce())
+        .save(argThat(w -> w.getUserId().equals("carol") && w.getBalance() == 10.0));
+  }
+
+  @Test
+  void testScriptUsesConfiguredCredentialVerifier() throws IOException {
+    String script = String.join("\n", "register dave secret4", "login dave secret4", "logout");
+    try (CredentialVerifier verifier =
+        new CredentialVerifier(1, 4, 4, Duration.ofMinutes(1), Clock.systemUTC())) {
+      BatchRunner runner = new BatchRunner(walletRepository, errorLog, 0, verifier);
+
+      runner.run(new BufferedReader(new StringReader(script)));
+
+      assertEquals(0, runner.getErrorCount());
+      assertEquals(1, verifier.getVerificationCount());
+    }
+  }
+
+  @Test
+  void testTokenizerMatchesWhitespaceSplit() {
+    assertArrayEquals(new String[0], CommandTokenizer.split("   ", 0));
+    assertArrayEquals(
+        new String[] {"a", "b", "c"}, CommandTokenizer.split("  a \t b   c ", 0));
+    assertArrayEquals(
+        new String[] {"100", "Food", "lunch  with  team"},
+        CommandTokenizer.split("100   Food lunch  with  team ", 3));
+    assertArrayEquals(new String[] {"my report.csv"}, CommandTokenizer.split(" my report.csv", 1));
+  }
+}
@@ -0,0 +1,68 @@
+package com.finance.cli;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class FinanceAppTest {
+  @Mock private WalletRepository walletRepository;
+  private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+  private final MetricsRegistry metrics = new MetricsRegistry();
+  private FinanceApp app;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    when(walletRepository.load(any())).thenAnswer(invocation -> new Wallet(invocation.getArgument(0)));
+    app = new FinanceApp(
+        walletRepository, new PrintStream(output, true, StandardCharsets.UTF_8), metrics);
+  }
+
+  @AfterEach
+  void tearDown() {
+    app.close();
+  }
+
+  @Test
+  void testDispatcherRecordsLatencyAndFailuresPerCommand() {
+    app.processCommand("register alice secret1");
+    app.processCommand("add-expense 10 Food");
+    app.processCommand("login alice secret1");
+    app.processCommand("add-expense 10 Food");
+    app.processCommand("add-expense abc Food");
+    app.processCommand("add-expense");
+    app.processCommand("bogus");
+
+    assertEquals(1, metrics.histogram("command.register").getCount());
+    assertEquals(0, metrics.counter("command.register.errors").get());
+    assertEquals(4, metrics.histogram("command.add-expense").getCount());
+    assertEquals(3, metrics.counter("command.add-expense.errors").get());
+    assertEquals(1, metrics.counter("command.unknown").get());
+  }
+
+  @Test
+  void testMetricsCommandPrintsSnapshot() {
+    app.processCommand("register bob secret1");
+    output.reset();
+
+    app.processCommand("metrics");
+
+    String text = output.toString(StandardCharsets.UTF_8);
+    assertTrue(text.startsWith("# metrics snapshot"));
+    assertTrue(text.contains("command.register"));
+    assertTrue(text.contains("command.unknown"));
+  }
+}
@@ -113,4 +113,22 @@ class AuthServiceTest {
     assertNull(authService.getCurrentUser());
     verify(walletRepository).save(wallet);
   }
+
+  @Test
+  void testReauthenticateWithinSession() throws IOException {
+    User user = new User("john123", "password123");
+    when(userRepository.findByUsername("john123")).thenReturn(Optional.of(user));
+    when(walletRepository.load("john123")).thenReturn(new Wallet("john123"));
+
+    String token = authService.openSession("john123", "password123").getToken();
+    long verifications = authService.getCredentialVerifier().getVerificationCount();
+
+    assertTrue(authService.reauthenticate(token, "password123"));
+    assertFalse(authService.reauthenticate(token, "wrongpassword"));
+    assertEquals(1, authService.getCredentialVerifier().getCacheHitCount());
+    assertEquals(verifications + 1, authService.getCredentialVerifier().getVerificationCount());
+
+    authService.closeSession(token);
+    assertFalse(authService.reauthenticate(token, "password123"));
+  }
 }
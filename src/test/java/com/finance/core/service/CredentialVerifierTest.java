@@ -0,0 +1,97 @@
+package com.finance.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.User;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.metrics.PrometheusFormat;
+import java.time.Clock;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+class CredentialVerifierTest {
+  private CredentialVerifier verifier;
+
+  @BeforeEach
+  void setUp() {
+    verifier = new CredentialVerifier(2, 8, 4, Duration.ofMinutes(5), Clock.systemUTC());
+  }
+
+  @AfterEach
+  void tearDown() {
+    verifier.close();
+  }
+
+  @Test
+  void testHashUsesConfiguredCost() {
+    String hash = verifier.hash("password123");
+
+    assertTrue(hash.startsWith("$2a$04$"));
+    assertTrue(BCrypt.checkpw("password123", hash));
+  }
+
+  @Test
+  void testVerifyOnPool() {
+    User user = new User("john123", verifier.hash("password123"), null);
+
+    assertTrue(verifier.verify(user, "password123"));
+    assertFalse(verifier.verify(user, "wrongpassword"));
+    assertFalse(verifier.verify(user, null));
+    assertEquals(2, verifier.getVerificationCount());
+  }
+
+  @Test
+  void testRegistersPoolGauges() {
+    User user = new User("john123", verifier.hash("password123"), null);
+    verifier.verify(user, "password123");
+    MetricsRegistry metrics = new MetricsRegistry();
+
+    verifier.registerMetrics(metrics);
+
+    String text = PrometheusFormat.format(metrics);
+    assertTrue(text.contains("finance_auth_queue 0"));
+    assertTrue(text.contains("finance_auth_rejected 0"));
+    assertTrue(text.contains("finance_auth_verify_micros "));
+  }
+
+  @Test
+  void testCachedCredential() {
+    verifier.remember("token", "john123", "password123");
+
+    assertTrue(verifier.verifyCached("token", "john123", "password123"));
+    assertFalse(verifier.verifyCached("token", "john123", "wrongpassword"));
+    assertFalse(verifier.verifyCached("token", "other", "password123"));
+    assertFalse(verifier.verifyCached("other-token", "john123", "password123"));
+    assertEquals(1, verifier.getCacheHitCount());
+
+    verifier.forget("token");
+    assertFalse(verifier.verifyCached("token", "john123", "password123"));
+  }
+
+  @Test
+  void testCachedCredentialExpires() {
+    CredentialVerifier shortLived =
+        new CredentialVerifier(1, 1, 4, Duration.ofMillis(-1), Clock.systemUTC());
+    shortLived.remember("token", "john123", "password123");
+
+    assertFalse(shortLived.verifyCached("token", "john123", "password123"));
+    shortLived.close();
+  }
+
+  @Test
+  void testInvalidCostRejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new CredentialVerifier(1, 1, 3, Duration.ofMinutes(1), Clock.systemUTC()));
+  }
+
+  @Test
+  void testCalibrateLogRoundsWithinBounds() {
+    int rounds = CredentialVerifier.calibrateLogRounds(Duration.ofMillis(5));
+
+    assertTrue(rounds >= 4 && rounds <= 16);
+  }
+}
@@ -0,0 +1,107 @@
+package com.finance.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NotificationServiceTest {
+  private NotificationService notificationService;
+  private Wallet wallet;
+  private Category food;
+
+  @BeforeEach
+  void setUp() {
+    notificationService = new NotificationService();
+    wallet = new Wallet("testuser");
+    food = new Category("Food", TransactionType.EXPENSE);
+    wallet.addTransaction(
+        new Transaction(
+            1000.0, new Category("Salary", TransactionType.INCOME), TransactionType.INCOME, ""));
+  }
+
+  private void spend(double amount) {
+    wallet.addTransaction(new Transaction(amount, food, TransactionType.EXPENSE, ""));
+    notificationService.checkAfterExpense(wallet, food, amount);
+  }
+
+  @Test
+  void testBudgetWarningFiresOnlyOnCrossing() {
+    wallet.setBudget(food, 500.0);
+
+    spend(300.0);
+    assertTrue(notificationService.getNotificationsAndClear().isEmpty());
+
+    spend(150.0);
+    List<String> notifications = notificationService.getNotificationsAndClear();
+    assertEquals(1, notifications.size());
+    assertTrue(notifications.get(0).contains("BUDGET WARNING"));
+
+    spend(10.0);
+    assertTrue(notificationService.getNotificationsAndClear().isEmpty());
+  }
+
+  @Test
+  void testBudgetExceededFiresOnlyOnCrossing() {
+    wallet.setBudget(food, 500.0);
+
+    spend(600.0);
+    List<String> notifications = notificationService.getNotificationsAndClear();
+    assertEquals(1, notifications.size());
+    assertTrue(notifications.get(0).contains("BUDGET EXCEEDED"));
+
+    spend(50.0);
+    assertTrue(notificationService.getNotificationsAndClear().isEmpty());
+  }
+
+  @Test
+  void testNegativeBalanceAndExpensesOverIncomeFireOnce() {
+    spend(1200.0);
+    List<String> notifications = notificationService.getNotificationsAndClear();
+    assertEquals(2, notifications.size());
+    assertTrue(notifications.get(0).contains("NEGATIVE BALANCE"));
+    assertTrue(notifications.get(1).contains("EXPENSES EXCEED INCOME"));
+
+    spend(100.0);
+    assertTrue(notificationService.getNotificationsAndClear().isEmpty());
+  }
+
+  @Test
+  void testCheckBalanceStatusUsesRunningTotals() {
+    spend(1500.0);
+    notificationService.clearNotifications();
+
+    notificationService.checkBalanceStatus(wallet);
+
+    assertEquals(2, notificationService.getNotifications().size());
+    assertEquals(1000.0, wallet.getTotalIncome(), 0.01);
+    assertEquals(1500.0, wallet.getTotalExpenses(), 0.01);
+  }
+
+  @Test
+  void testExpensesOverIncomeReportedWhenFirstIncomeLeavesWalletOverspent() {
+    Wallet fresh = new Wallet("fresh");
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    fresh.addTransaction(new Transaction(300.0, food, TransactionType.EXPENSE, ""));
+    notificationService.checkAfterExpense(fresh, food, 300.0);
+    notificationService.clearNotifications();
+
+    fresh.addTransaction(new Transaction(100.0, salary, TransactionType.INCOME, ""));
+    notificationService.checkAfterIncome(fresh, 100.0);
+    List<String> notifications = notificationService.getNotificationsAndClear();
+    assertEquals(1, notifications.size());
+    assertTrue(notifications.get(0).contains("EXPENSES EXCEED INCOME"));
+
+    fresh.addTransaction(new Transaction(50.0, food, TransactionType.EXPENSE, ""));
+    notificationService.checkAfterExpense(fresh, food, 50.0);
+    fresh.addTransaction(new Transaction(20.0, salary, TransactionType.INCOME, ""));
+    notificationService.checkAfterIncome(fresh, 20.0);
+    assertTrue(notificationService.getNotificationsAndClear().stream()
+        .noneMatch(n -> n.contains("EXPENSES EXCEED INCOME")));
+  }
+}
@@ -0,0 +1,186 @@
+package com.finance.core.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Session;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.exception.AuthenticationException;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class SessionManagerTest {
+  @Mock private WalletRepository walletRepository;
+
+  private MutableClock clock;
+  private SessionManager sessionManager;
+  private User alice;
+  private Wallet aliceWallet;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    clock = new MutableClock();
+    sessionManager = new SessionManager(walletRepository, Duration.ofMinutes(10), 3, clock);
+    alice = new User("alice", "hash", null);
+    aliceWallet = new Wallet("alice");
+    when(walletRepository.load("alice")).thenReturn(aliceWallet);
+    when(walletRepository.load("bob")).thenReturn(new Wallet("bob"));
+  }
+
+  @Test
+  void testSessionsOfSameUserShareWallet() throws IOException {
+    Session first = sessionManager.openSession(alice);
+    Session second = sessionManager.openSession(alice);
+
+    assertNotEquals(first.getToken(), second.getToken());
+    assertSame(first.getWallet(), second.getWallet());
+    assertEquals(2, sessionManager.getActiveSessionCount());
+    assertEquals(1, sessionManager.getPinnedWalletCount());
+    verify(walletRepository, times(1)).load("alice");
+  }
+
+  @Test
+  void testCountsWalletCacheLookupsAndUnsavedWallets() throws IOException {
+    aliceWallet.markPersisted(walletRepository);
+    sessionManager.openSession(alice);
+    sessionManager.openSession(alice);
+    sessionManager.findPinnedWallet("bob");
+
+    assertEquals(1, sessionManager.getWalletCacheHits());
+    assertEquals(2, sessionManager.getWalletCacheMisses());
+    assertEquals(0, sessionManager.getUnsavedWalletCount());
+
+    aliceWallet.addTransaction(
+        new Transaction(
+            10.0, new Category("Salary", TransactionType.INCOME), TransactionType.INCOME, ""));
+    assertEquals(1, sessionManager.getUnsavedWalletCount());
+  }
+
+  @Test
+  void testWalletSavedWhenLastSessionCloses() throws IOException {
+    Session first = sessionManager.openSession(alice);
+    Session second = sessionManager.openSession(alice);
+
+    sessionManager.closeSession(first.getToken());
+    verify(walletRepository, never()).save(any());
+    assertTrue(sessionManager.findPinnedWallet("alice").isPresent());
+
+    sessionManager.closeSession(second.getToken());
+    verify(walletRepository).save(aliceWallet);
+    assertTrue(sessionManager.findPinnedWallet("alice").isEmpty());
+  }
+
+  @Test
+  void testIdleSessionExpires() throws IOException {
+    Session session = sessionManager.openSession(alice);
+
+    clock.advance(Duration.ofMinutes(5));
+    assertTrue(sessionManager.getSession(session.getToken()).isPresent());
+
+    clock.advance(Duration.ofMinutes(11));
+    assertTrue(sessionManager.getSession(session.getToken()).isEmpty());
+    verify(walletRepository, timeout(5000)).save(aliceWallet);
+    sessionManager.close();
+    assertEquals(0, sessionManager.getPinnedWalletCount());
+  }
+
+  @Test
+  void testWalletSavedUnderWalletLock() throws IOException {
+    List<String> locked = new ArrayList<>();
+    SessionManager guarded =
+        new SessionManager(
+            walletRepository,
+            (username, action) -> {
+              locked.add(username);
+              verify(walletRepository, never()).save(any());
+              action.run();
+            },
+            Duration.ofMinutes(10),
+            3,
+            clock);
+    Session session = guarded.openSession(alice);
+
+    guarded.closeSession(session.getToken());
+
+    assertEquals(List.of("alice"), locked);
+    verify(walletRepository).save(aliceWallet);
+  }
+
+  @Test
+  void testFailedSaveStillUnpinsWallet() throws IOException {
+    doThrow(new IOException("disk full")).when(walletRepository).save(aliceWallet);
+    Session session = sessionManager.openSession(alice);
+
+    assertThrows(IOException.class, () -> sessionManager.closeSession(session.getToken()));
+
+    assertEquals(0, sessionManager.getPinnedWalletCount());
+    Session reopened = sessionManager.openSession(alice);
+    assertEquals(1, sessionManager.getPinnedWalletCount());
+    assertNotNull(reopened.getWallet());
+  }
+
+  @Test
+  void testSessionLimitEvictsIdleSessions() throws IOException {
+    User bob = new User("bob", "hash", null);
+    sessionManager.openSession(alice);
+    sessionManager.openSession(alice);
+    sessionManager.openSession(bob);
+
+    assertThrows(AuthenticationException.class, () -> sessionManager.openSession(bob));
+
+    clock.advance(Duration.ofMinutes(11));
+    sessionManager.openSession(bob);
+    assertEquals(1, sessionManager.getActiveSessionCount());
+  }
+
+  @Test
+  void testEstimateRetainedBytesGrowsWithSessions() throws IOException {
+    assertEquals(0, sessionManager.estimateRetainedBytes());
+
+    sessionManager.openSession(alice);
+    long oneSession = sessionManager.estimateRetainedBytes();
+    sessionManager.openSession(alice);
+
+    assertTrue(oneSession > 0);
+    assertTrue(sessionManager.estimateRetainedBytes() > oneSession);
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
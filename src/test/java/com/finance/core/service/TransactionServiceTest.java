@@ -7,7 +7,10 @@ import com.finance.core.model.Category;
 import com.finance.core.model.Transaction;
 import com.finance.core.model.TransactionType;
 import com.finance.core.model.Wallet;
+import com.finance.exception.DuplicateTransactionException;
 import com.finance.exception.ValidationException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -81,4 +84,45 @@ class TransactionServiceTest {
     assertThrows(
         ValidationException.class, () -> transactionService.addExpense(wallet, 100, null, ""));
   }
+
+  @Test
+  void testDuplicateIdempotencyKeyIsRejected() {
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    Category food = new Category("Food", TransactionType.EXPENSE);
+    Transaction first = transactionService.addIncome(wallet, 100.0, salary, "", "req-1");
+    transactionService.addExpense(wallet, 30.0, food, "", "req-2");
+
+    DuplicateTransactionException e = assertThrows(
+        DuplicateTransactionException.class,
+        () -> transactionService.addIncome(wallet, 100.0, salary, "", "req-1"));
+
+    assertEquals(first.getId(), e.getTransactionId());
+    assertEquals("req-1", first.getIdempotencyKey());
+    assertEquals(70.0, wallet.getBalance());
+    assertEquals(2, wallet.getTransactionCount());
+    transactionService.addIncome(wallet, 100.0, salary, "", null);
+    transactionService.addIncome(wallet, 100.0, salary, "", null);
+    assertEquals(4, wallet.getTransactionCount());
+  }
+
+  @Test
+  void testIdempotencyKeyAgesOutAfterWindow() {
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    LocalDateTime old = LocalDateTime.now().minusHours(2);
+    Transaction earlier =
+        new Transaction("t1", 50.0, salary, TransactionType.INCOME, old, "", "req-1");
+    wallet.addTransaction(earlier);
+    wallet.getIdempotencyKeys().add(earlier, Duration.ofHours(1));
+    transactionService.setIdempotencyWindow(Duration.ofHours(1));
+
+    transactionService.addIncome(wallet, 50.0, salary, "", "req-1");
+
+    assertEquals(2, wallet.getTransactionCount());
+    assertThrows(
+        DuplicateTransactionException.class,
+        () -> transactionService.addIncome(wallet, 50.0, salary, "", "req-1"));
+    assertThrows(
+        ValidationException.class,
+        () -> transactionService.addIncome(wallet, 50.0, salary, "", " "));
+  }
 }
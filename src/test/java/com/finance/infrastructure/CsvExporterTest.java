@@ -0,0 +1,81 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionFilter;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.storage.CsvExporter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CsvExporterTest {
+  private static final LocalDateTime JAN = LocalDateTime.of(2024, 1, 5, 9, 3, 7, 123_000_000);
+  private static final LocalDateTime FEB = LocalDateTime.of(2024, 2, 20, 18, 0, 0);
+
+  @Test
+  void testQuotesFieldsAndEncodesUtf8() throws IOException {
+    Wallet wallet = new Wallet("alice");
+    wallet.addTransaction(transaction(1234.5, "Зарплата", TransactionType.INCOME, JAN, "plain"));
+    wallet.addTransaction(
+        transaction(0.1, "Food, drinks", TransactionType.EXPENSE, FEB, "say \"hi\"\nbye 🍕"));
+
+    String csv = export(new CsvExporter(), wallet, TransactionFilter.all());
+
+    assertEquals(
+        CsvExporter.HEADER + "\r\n"
+            + "2024-01-05T09:03:07,INCOME,Зарплата,1234.50,plain\r\n"
+            + "2024-02-20T18:00:00,EXPENSE,\"Food, drinks\",0.10,\"say \"\"hi\"\"\nbye 🍕\"\r\n",
+        csv);
+  }
+
+  @Test
+  void testFiltersByPeriodCategoryAndType() throws IOException {
+    Wallet wallet = new Wallet("alice");
+    wallet.addTransaction(transaction(10, "Food", TransactionType.EXPENSE, JAN, ""));
+    wallet.addTransaction(transaction(20, "Food", TransactionType.EXPENSE, FEB, ""));
+    wallet.addTransaction(transaction(30, "Taxi", TransactionType.EXPENSE, FEB, ""));
+    wallet.addTransaction(transaction(40, "Food", TransactionType.INCOME, FEB, ""));
+
+    TransactionFilter filter = new TransactionFilter(
+        LocalDateTime.of(2024, 2, 1, 0, 0), null, List.of(" Food "), TransactionType.EXPENSE);
+    String csv = export(new CsvExporter(), wallet, filter);
+
+    assertEquals(CsvExporter.HEADER + "\r\n2024-02-20T18:00:00,EXPENSE,Food,20.00,\r\n", csv);
+  }
+
+  @Test
+  void testOutputLargerThanBufferIsComplete() throws IOException {
+    Wallet wallet = new Wallet("alice");
+    for (int i = 1; i <= 1000; i++) {
+      wallet.addTransaction(transaction(i, "Категория", TransactionType.EXPENSE, JAN, "описание"));
+    }
+
+    CsvExporter exporter = new CsvExporter(64);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(1000, exporter.export(wallet, TransactionFilter.all(), out));
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+
+    assertEquals(1001, lines.length);
+    assertEquals("2024-01-05T09:03:07,EXPENSE,Категория,1000.00,описание", lines[1000]);
+    assertEquals(out.toString(StandardCharsets.UTF_8), export(exporter, wallet, TransactionFilter.all()));
+  }
+
+  private static String export(CsvExporter exporter, Wallet wallet, TransactionFilter filter)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    exporter.export(wallet, filter, out);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private static Transaction transaction(
+      double amount, String category, TransactionType type, LocalDateTime date, String text) {
+    return new Transaction(null, amount, new Category(category, type), type, date, text);
+  }
+}
@@ -0,0 +1,131 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionFilter;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.storage.CsvExporter;
+import com.finance.infrastructure.storage.CsvImporter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvImporterTest {
+  @TempDir
+  Path dir;
+
+  @Test
+  void testImportsExportedFileAcrossSmallChunks() throws IOException {
+    Wallet source = new Wallet("alice");
+    for (int i = 1; i <= 200; i++) {
+      TransactionType type = i % 3 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+      String description = i % 7 == 0 ? "line \"" + i + "\"\r\nnext, part" : "plain " + i;
+      source.addTransaction(new Transaction("id" + i, i + 0.25,
+          new Category(i % 2 == 0 ? "Еда" : "Taxi, city", type), type,
+          LocalDateTime.of(2024, 1 + i % 12, 1 + i % 28, i % 24, i % 60, i % 60), description));
+    }
+    Path csv = dir.resolve("export.csv");
+    new CsvExporter().export(source, TransactionFilter.all(), csv);
+
+    Wallet target = new Wallet("alice");
+    Path rejects = dir.resolve("rejects.csv");
+    CsvImporter.Result result = new CsvImporter(3, 64).importInto(target, csv, rejects);
+
+    assertEquals(200, result.getImportedCount());
+    assertEquals(0, result.getRejectedCount());
+    assertFalse(Files.exists(rejects));
+    List<Transaction> expected = source.getTransactions();
+    List<Transaction> actual = target.getTransactions();
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getAmount(), actual.get(i).getAmount());
+      assertEquals(expected.get(i).getType(), actual.get(i).getType());
+      assertEquals(expected.get(i).getCategory().getName(), actual.get(i).getCategory().getName());
+      assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+      assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+    }
+    assertEquals(source.getBalance(), target.getBalance(), 1e-6);
+    assertEquals(source.getTotalExpenses(), target.getTotalExpenses(), 1e-6);
+  }
+
+  @Test
+  void testWritesRejectedRowsWithLineNumbers() throws IOException {
+    Path csv = dir.resolve("bank.csv");
+    Files.writeString(csv, String.join("\n",
+        "Date,Type,Category,Amount,Description",
+        "2024-03-01,expense,Food,12.50,\"two",
+        "lines\"",
+        "2024-13-01,expense,Food,1.00,bad month",
+        "2024-03-02,EXPENSE,Food,abc",
+        "2024-03-03,income,Salary,\"1000,5\"",
+        "2024-03-04 10:15,,Food,-7.5,signed",
+        "2024-03-05,expense,Food,-3,negative",
+        ""), StandardCharsets.UTF_8);
+    Wallet wallet = new Wallet("alice");
+    Category food = new Category("Food", TransactionType.EXPENSE);
+    wallet.setBudget(food, 100);
+
+    Path rejects = dir.resolve("rejects.csv");
+    CsvImporter.Result result = new CsvImporter(2, 16).importInto(wallet, csv, rejects);
+
+    assertEquals(3, result.getImportedCount());
+    assertEquals(3, result.getRejectedCount());
+    assertEquals(20.0, wallet.getBudget(food).getSpent(), 1e-9);
+    assertEquals(1000.5 - 20.0, wallet.getBalance(), 1e-9);
+    Transaction signed = wallet.getTransactions().get(2);
+    assertEquals(TransactionType.EXPENSE, signed.getType());
+    assertEquals(LocalDateTime.of(2024, 3, 4, 10, 15), signed.getDate());
+    assertEquals("two\nlines", wallet.getTransactions().get(0).getDescription());
+
+    List<String> lines = Files.readAllLines(rejects, StandardCharsets.UTF_8);
+    assertEquals("Line,Error,Row", lines.get(0));
+    assertEquals(4, lines.size());
+    assertTrue(lines.get(1).startsWith("4,\"Invalid date"));
+    assertEquals("5,\"Invalid amount\",\"2024-03-02,EXPENSE,Food,abc\"", lines.get(2));
+    assertEquals("8,\"Amount must be positive\",\"2024-03-05,expense,Food,-3,negative\"",
+        lines.get(3));
+  }
+
+  @Test
+  void testStrayQuoteRejectsOnlyItsRow() throws IOException {
+    Path csv = dir.resolve("stray.csv");
+    Files.writeString(csv, String.join("\n",
+        "2024-03-01,expense,Hardware,12.00,12\" pipe",
+        "2024-03-02,expense,Food,5.00,lunch",
+        "2024-03-03,expense,Food,6.00,dinner",
+        "2024-03-04,expense,Food,\"7.00\"x,trailing",
+        "2024-03-05,income,Salary,100,\"say \"\"hi\"\"\"",
+        ""), StandardCharsets.UTF_8);
+
+    for (long chunkBytes : new long[] {8, 16, 1 << 20}) {
+      Wallet wallet = new Wallet("alice");
+      Path rejects = dir.resolve("stray-rejects-" + chunkBytes + ".csv");
+      CsvImporter.Result result = new CsvImporter(2, chunkBytes).importInto(wallet, csv, rejects);
+
+      assertEquals(3, result.getImportedCount());
+      assertEquals(2, result.getRejectedCount());
+      assertEquals("say \"hi\"", wallet.getTransactions().get(2).getDescription());
+      List<String> lines = Files.readAllLines(rejects, StandardCharsets.UTF_8);
+      assertTrue(lines.get(1).startsWith("1,\"Misplaced or unclosed quote\""));
+      assertTrue(lines.get(2).startsWith("4,\"Misplaced or unclosed quote\""));
+    }
+  }
+
+  @Test
+  void testEmptyFileImportsNothing() throws IOException {
+    Path csv = Files.createFile(dir.resolve("empty.csv"));
+    Wallet wallet = new Wallet("alice");
+
+    CsvImporter.Result result = new CsvImporter().importInto(wallet, csv, dir.resolve("r.csv"));
+
+    assertEquals(0, result.getImportedCount());
+    assertEquals(0, wallet.getTransactionCount());
+  }
+}
@@ -0,0 +1,142 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.repository.EventSourcedWalletRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventSourcedWalletRepositoryTest {
+  private static final String TEST_USER = "testuser_events";
+  @TempDir
+  Path tempDir;
+  private EventSourcedWalletRepository repository;
+  private final Category salary = new Category("Salary", TransactionType.INCOME);
+  private final Category food = new Category("Food", TransactionType.EXPENSE);
+
+  @BeforeEach
+  void setUp() {
+    repository = new EventSourcedWalletRepository(tempDir, 5);
+  }
+
+  @Test
+  void testSavesAppendEventsAndReplayRestoresState() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    wallet.setBudget(food, 300.0);
+    wallet.addTransaction(new Transaction(1000.0, salary, TransactionType.INCOME, "pay"));
+    repository.save(wallet);
+    wallet.addTransaction(new Transaction(120.0, food, TransactionType.EXPENSE, "lunch"));
+    wallet.setBudget(food, 200.0);
+    repository.save(wallet);
+
+    assertFalse(Files.exists(tempDir.resolve(TEST_USER).resolve("snapshot.json")));
+    assertEquals(2, Files.readAllLines(tempDir.resolve(TEST_USER).resolve("events-0.log")).size());
+
+    Wallet loaded = repository.load(TEST_USER);
+    assertEquals(2, loaded.getTransactionCount());
+    assertEquals(880.0, loaded.getBalance(), 0.01);
+    assertEquals(200.0, loaded.getBudget(food).getLimit(), 0.01);
+    assertEquals(120.0, loaded.getBudget(food).getSpent(), 0.01);
+    assertEquals(wallet.getLastTransactionId(), loaded.getLastTransactionId());
+
+    loaded.removeBudget(food);
+    repository.save(loaded);
+    assertNull(repository.load(TEST_USER).getBudget(food));
+  }
+
+  @Test
+  void testBudgetChangesReplayInOrderWithTransactions() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    wallet.setBudget(food, 300.0);
+    wallet.addTransaction(new Transaction(120.0, food, TransactionType.EXPENSE, "lunch"));
+    repository.save(wallet);
+
+    wallet.removeBudget(food);
+    wallet.setBudget(food, 300.0);
+    repository.save(wallet);
+    assertEquals(0.0, repository.load(TEST_USER).getBudget(food).getSpent(), 0.01);
+
+    wallet.addTransaction(new Transaction(50.0, food, TransactionType.EXPENSE, "dinner"));
+    wallet.removeBudget(food);
+    wallet.addTransaction(new Transaction(30.0, food, TransactionType.EXPENSE, "snack"));
+    wallet.setBudget(food, 100.0);
+    repository.save(wallet);
+    Wallet loaded = repository.load(TEST_USER);
+    assertEquals(100.0, loaded.getBudget(food).getLimit(), 0.01);
+    assertEquals(wallet.getBudget(food).getSpent(), loaded.getBudget(food).getSpent(), 0.01);
+  }
+
+  @Test
+  void testSnapshotStartsNewLogAfterInterval() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    for (int i = 0; i < 7; i++) {
+      wallet.addTransaction(new Transaction(10.0, salary, TransactionType.INCOME, "t" + i));
+      repository.save(wallet);
+    }
+
+    Path dir = tempDir.resolve(TEST_USER);
+    assertTrue(Files.exists(dir.resolve("snapshot.json")));
+    assertFalse(Files.exists(dir.resolve("events-0.log")));
+    assertEquals(2, Files.readAllLines(dir.resolve("events-1.log")).size());
+
+    List<Transaction> all = repository.load(TEST_USER).getTransactions();
+    assertEquals(7, all.size());
+    assertEquals("t0", all.get(0).getDescription());
+    assertEquals("t6", all.get(6).getDescription());
+  }
+
+  @Test
+  void testTornLastLineIsDropped() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    wallet.addTransaction(new Transaction(10.0, salary, TransactionType.INCOME, "kept"));
+    repository.save(wallet);
+    Path log = tempDir.resolve(TEST_USER).resolve("events-0.log");
+    Files.writeString(log, "{\"events\":[{\"type\":\"TRANS", StandardOpenOption.APPEND);
+
+    Wallet loaded = repository.load(TEST_USER);
+
+    assertEquals(1, loaded.getTransactionCount());
+    loaded.addTransaction(new Transaction(5.0, salary, TransactionType.INCOME, "next"));
+    repository.save(loaded);
+    assertEquals(2, repository.load(TEST_USER).getTransactionCount());
+  }
+
+  @Test
+  void testOnlyTransferLegsAreLoggedAsTransfers() throws IOException {
+    Category transfer = new Category("Перевод", TransactionType.EXPENSE);
+    Wallet wallet = repository.load(TEST_USER);
+    wallet.addTransaction(new Transaction(1000.0, salary, TransactionType.INCOME, "pay"));
+    wallet.addTransaction(new Transaction(30.0, transfer, TransactionType.EXPENSE, "typed by hand"));
+    wallet.addTransaction(
+        Transaction.transferLeg(20.0, transfer, TransactionType.EXPENSE, "Transfer to bob"));
+    repository.save(wallet);
+
+    String log = Files.readString(tempDir.resolve(TEST_USER).resolve("events-0.log"));
+    assertEquals(2, log.split("\"TRANSACTION\"", -1).length - 1);
+    assertEquals(1, log.split("\"TRANSFER\"", -1).length - 1);
+    assertEquals(950.0, repository.load(TEST_USER).getBalance(), 0.01);
+  }
+
+  @Test
+  void testForeignWalletIsSavedAsSnapshot() throws IOException {
+    Wallet wallet = new Wallet(TEST_USER);
+    wallet.addTransaction(new Transaction(50.0, salary, TransactionType.INCOME, "imported"));
+    repository.save(wallet);
+
+    assertTrue(repository.exists(TEST_USER));
+    assertEquals(50.0, repository.load(TEST_USER).getBalance(), 0.01);
+
+    repository.delete(TEST_USER);
+    assertFalse(repository.exists(TEST_USER));
+  }
+}
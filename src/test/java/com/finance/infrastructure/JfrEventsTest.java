@@ -0,0 +1,108 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.StatisticsService;
+import com.finance.core.service.TransferService;
+import com.finance.exception.InsufficientFundsException;
+import com.finance.infrastructure.repository.UserRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class JfrEventsTest {
+  @Mock private UserRepository userRepository;
+  @Mock private WalletRepository walletRepository;
+  @TempDir Path tempDir;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void testTransferEventsRecordOutcome() throws IOException {
+    User sender = new User("alice", "password123");
+    sender.getWallet().addTransaction(
+        new Transaction(100.0, new Category("Salary", TransactionType.INCOME),
+            TransactionType.INCOME, ""));
+    when(userRepository.findByUsername("bob")).thenReturn(Optional.of(new User("bob", "password123")));
+    when(walletRepository.load("bob")).thenReturn(new Wallet("bob"));
+    TransferService transferService = new TransferService(userRepository, walletRepository);
+
+    List<RecordedEvent> events = record("com.finance.Transfer", () -> {
+      transferService.transfer(sender, "bob", 40.0, null);
+      assertThrows(
+          InsufficientFundsException.class,
+          () -> transferService.transfer(sender, "bob", 500.0, null));
+    });
+
+    assertEquals(2, events.size());
+    assertEquals("alice", events.get(0).getString("sender"));
+    assertEquals("bob", events.get(0).getString("recipient"));
+    assertEquals(40.0, events.get(0).getDouble("amount"), 0.001);
+    assertTrue(events.get(0).getBoolean("success"));
+    assertFalse(events.get(1).getBoolean("success"));
+  }
+
+  @Test
+  void testStatisticsQueryEventsCarrySizes() throws IOException {
+    Wallet wallet = new Wallet("alice");
+    wallet.addTransaction(new Transaction(
+        10.0, new Category("Food", TransactionType.EXPENSE), TransactionType.EXPENSE, ""));
+    wallet.addTransaction(new Transaction(
+        5.0, new Category("Taxi", TransactionType.EXPENSE), TransactionType.EXPENSE, ""));
+    StatisticsService statisticsService = new StatisticsService();
+
+    List<RecordedEvent> events = record("com.finance.StatisticsQuery", () -> {
+      statisticsService.getExpensesByCategory(wallet);
+      statisticsService.findMissingCategories(wallet, List.of("Food", "Rent"));
+      statisticsService.getTotalExpenses(wallet);
+    });
+
+    assertEquals(2, events.size());
+    assertEquals("expensesByCategory", events.get(0).getString("query"));
+    assertEquals("alice", events.get(0).getString("userId"));
+    assertEquals(2, events.get(0).getInt("transactionCount"));
+    assertEquals(2, events.get(0).getInt("resultSize"));
+    assertEquals("missingCategories", events.get(1).getString("query"));
+    assertEquals(1, events.get(1).getInt("resultSize"));
+  }
+
+  private List<RecordedEvent> record(String eventName, Action action) throws IOException {
+    Path file = tempDir.resolve("recording.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(eventName).withThreshold(Duration.ZERO);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    return RecordingFile.readAllEvents(file).stream()
+        .filter(e -> e.getEventType().getName().equals(eventName))
+        .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+        .collect(Collectors.toList());
+  }
+
+  private interface Action {
+    void run() throws IOException;
+  }
+}
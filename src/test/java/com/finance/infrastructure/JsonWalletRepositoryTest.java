@@ -2,13 +2,26 @@ package com.finance.infrastructure;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finance.core.model.Budget;
 import com.finance.core.model.Category;
 import com.finance.core.model.Transaction;
 import com.finance.core.model.TransactionType;
 import com.finance.core.model.Wallet;
+import com.finance.core.model.WalletSummary;
+import com.finance.core.service.StatisticsService;
+import com.finance.core.service.TransactionService;
+import com.finance.exception.DuplicateTransactionException;
 import com.finance.infrastructure.repository.JsonWalletRepository;
+import com.finance.infrastructure.storage.JsonStorageManager;
+import com.finance.infrastructure.storage.StorageCodec;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -103,4 +116,271 @@ class JsonWalletRepositoryTest {
     assertEquals(5000.0, loadedFoodBudget.getLimit(), 0.01);
     assertEquals(800.0, loadedFoodBudget.getSpent(), 0.01);
   }
+
+  @Test
+  void testLoadIsLazyUntilTransactionsAccessed() throws IOException {
+    Wallet wallet = new Wallet(TEST_USER);
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    Category food = new Category("Food", TransactionType.EXPENSE);
+    wallet.addTransaction(new Transaction(5000.0, salary, TransactionType.INCOME, ""));
+    Transaction last = new Transaction(700.0, food, TransactionType.EXPENSE, "");
+    wallet.addTransaction(last);
+    wallet.setBudget(food, 1000.0);
+    repository.save(wallet);
+
+    Wallet loaded = repository.load(TEST_USER);
+
+    assertFalse(loaded.isTransactionsLoaded());
+    assertEquals(4300.0, loaded.getBalance(), 0.01);
+    assertEquals(2, loaded.getTransactionCount());
+    assertEquals(5000.0, loaded.getTotalIncome(), 0.01);
+    assertEquals(last.getId(), loaded.getLastTransactionId());
+    assertEquals(1, loaded.getBudgets().size());
+    assertFalse(loaded.isTransactionsLoaded());
+
+    assertEquals(2, loaded.getTransactions().size());
+    assertTrue(loaded.isTransactionsLoaded());
+  }
+
+  @Test
+  void testIdempotencyKeysSurviveReloadWithoutLoadingHistory() throws IOException {
+    TransactionService service = new TransactionService(null);
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    Wallet wallet = new Wallet(TEST_USER);
+    Transaction first = service.addIncome(wallet, 100.0, salary, "", "req-1");
+    repository.save(wallet);
+
+    Wallet loaded = repository.load(TEST_USER);
+    assertNull(loaded.getIdempotencyKeys().find(
+        "req-2", LocalDateTime.now(), service.getIdempotencyWindow(), loaded));
+    assertFalse(loaded.isTransactionsLoaded());
+    service.addIncome(loaded, 100.0, salary, "", "req-2");
+
+    DuplicateTransactionException e = assertThrows(
+        DuplicateTransactionException.class,
+        () -> service.addIncome(loaded, 100.0, salary, "", "req-1"));
+    assertEquals(first.getId(), e.getTransactionId());
+    assertEquals(2, loaded.getTransactionCount());
+  }
+
+  @Test
+  void testLoadSummary() throws IOException {
+    Wallet wallet = new Wallet(TEST_USER);
+    Category food = new Category("Food", TransactionType.EXPENSE);
+    wallet.addTransaction(new Transaction(250.0, food, TransactionType.EXPENSE, ""));
+    wallet.setBudget(food, 1000.0);
+    repository.save(wallet);
+
+    WalletSummary summary = repository.loadSummary(TEST_USER);
+
+    assertEquals(TEST_USER, summary.getUserId());
+    assertEquals(-250.0, summary.getBalance(), 0.01);
+    assertEquals(250.0, summary.getTotalExpenses(), 0.01);
+    assertEquals(1, summary.getTransactionCount());
+    assertEquals(1, summary.getBudgetCount());
+  }
+
+  @Test
+  void testSaveSkipsUnchangedWallet() throws IOException {
+    Path file = Path.of("data", TEST_USER + "_wallet.json");
+    FileTime stale = FileTime.fromMillis(0);
+    Category food = new Category("Food", TransactionType.EXPENSE);
+    Wallet wallet = new Wallet(TEST_USER);
+    wallet.addTransaction(new Transaction(100.0, food, TransactionType.EXPENSE, ""));
+    assertTrue(wallet.isDirty());
+    repository.save(wallet);
+    assertFalse(wallet.isDirty());
+
+    Files.setLastModifiedTime(file, stale);
+    repository.save(wallet);
+    Wallet loaded = repository.load(TEST_USER);
+    repository.save(loaded);
+    assertEquals(stale, Files.getLastModifiedTime(file));
+    assertFalse(loaded.isTransactionsLoaded());
+
+    loaded.setBudget(food, 500.0);
+    assertTrue(loaded.isDirty());
+    repository.save(loaded);
+    assertNotEquals(stale, Files.getLastModifiedTime(file));
+    assertEquals(1, repository.load(TEST_USER).getBudgetCount());
+  }
+
+  @Test
+  void testOldTransactionsMoveToArchive() throws IOException {
+    JsonWalletRepository archiving = new JsonWalletRepository(Duration.ofDays(90));
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    Category food = new Category("Food", TransactionType.EXPENSE);
+    LocalDateTime lastYear = LocalDateTime.now().minusDays(365);
+    Wallet wallet = new Wallet(TEST_USER);
+    for (int i = 0; i < 5; i++) {
+      wallet.addTransaction(new Transaction(
+          null, 1000.0, salary, TransactionType.INCOME, lastYear.plusDays(i), ""));
+    }
+    LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+    wallet.addTransaction(
+        new Transaction(null, 200.0, food, TransactionType.EXPENSE, yesterday, ""));
+    archiving.save(wallet);
+    assertTrue(Files.exists(Path.of("data", TEST_USER + "_archive.dat")));
+
+    Wallet loaded = archiving.load(TEST_USER);
+    StatisticsService statisticsService = new StatisticsService();
+    assertEquals(200.0, statisticsService.getExpensesByCategories(loaded, List.of("Food")), 0.01);
+    assertEquals(1, statisticsService.getTransactionsByPeriod(
+        loaded, yesterday.minusDays(1), yesterday.plusDays(1)).size());
+    loaded.addTransaction(new Transaction(50.0, food, TransactionType.EXPENSE, ""));
+    archiving.save(loaded);
+
+    Wallet reloaded = archiving.load(TEST_USER);
+    assertEquals(7, reloaded.getTransactionCount());
+    assertEquals(4750.0, reloaded.getBalance(), 0.01);
+    List<Transaction> all = reloaded.getTransactions();
+    assertEquals(lastYear, all.get(0).getDate());
+    assertEquals(yesterday, all.get(5).getDate());
+    assertEquals(5, statisticsService.getTransactionsByPeriod(
+        reloaded, lastYear, lastYear.plusDays(10)).size());
+
+    repository.save(reloaded);
+    assertFalse(Files.exists(Path.of("data", TEST_USER + "_archive.dat")));
+    assertEquals(7, repository.load(TEST_USER).getTransactions().size());
+  }
+
+  @Test
+  void testFailedSaveDoesNotArchiveTwice() throws IOException {
+    JsonWalletRepository archiving = new JsonWalletRepository(Duration.ofDays(90));
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    LocalDateTime lastYear = LocalDateTime.now().minusDays(365);
+    Wallet wallet = new Wallet(TEST_USER);
+    for (int i = 0; i < 2; i++) {
+      wallet.addTransaction(new Transaction(
+          null, 1000.0, salary, TransactionType.INCOME, lastYear.plusDays(i), ""));
+    }
+    archiving.save(wallet);
+
+    Wallet loaded = archiving.load(TEST_USER);
+    for (int i = 2; i < 4; i++) {
+      loaded.addTransaction(new Transaction(
+          null, 1000.0, salary, TransactionType.INCOME, lastYear.plusDays(i), ""));
+    }
+    Path walletFile = Path.of("data", TEST_USER + "_wallet.json");
+    Files.delete(walletFile);
+    Files.createDirectory(walletFile);
+    try {
+      assertThrows(IOException.class, () -> archiving.save(loaded));
+    } finally {
+      Files.delete(walletFile);
+    }
+    assertEquals(4, loaded.getTransactionCount());
+
+    archiving.save(loaded);
+    Wallet reloaded = archiving.load(TEST_USER);
+    assertEquals(4, reloaded.getTransactionCount());
+    assertEquals(4, reloaded.getTransactions().size());
+    assertEquals(4000.0, reloaded.getBalance(), 0.01);
+    assertEquals(1, new StatisticsService().getTransactionsByPeriod(
+        reloaded, lastYear.plusDays(3), lastYear.plusDays(3)).size());
+  }
+
+  @Test
+  void testLastArchivedTransactionComesFromHeader() throws IOException {
+    JsonWalletRepository archiving = new JsonWalletRepository(Duration.ofDays(90));
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    LocalDateTime lastYear = LocalDateTime.now().minusDays(365);
+    Wallet wallet = new Wallet(TEST_USER);
+    for (int i = 0; i < 3; i++) {
+      wallet.addTransaction(new Transaction(
+          null, 1000.0, salary, TransactionType.INCOME, lastYear.plusDays(i), ""));
+    }
+    String lastId = wallet.getLastTransactionId();
+    archiving.save(wallet);
+
+    Wallet loaded = archiving.load(TEST_USER);
+    Files.delete(Path.of("data", TEST_USER + "_archive.dat"));
+    assertEquals(lastId, loaded.getLastTransactionId());
+  }
+
+  @Test
+  void testCodecIsDetectedOnRead() throws IOException {
+    Path file = Path.of("data", TEST_USER + "_wallet.json");
+    JsonWalletRepository smile = new JsonWalletRepository(null, StorageCodec.SMILE);
+    Category food = new Category("Food", TransactionType.EXPENSE);
+    Wallet wallet = new Wallet(TEST_USER);
+    wallet.addTransaction(new Transaction(120.0, food, TransactionType.EXPENSE, "Обед"));
+    wallet.setBudget(food, 1000.0);
+    repository.save(wallet);
+    long prettySize = Files.size(file);
+
+    smile.save(repository.load(TEST_USER));
+    assertEquals(':', Files.readAllBytes(file)[0]);
+    assertTrue(Files.size(file) < prettySize);
+
+    Wallet loaded = repository.load(TEST_USER);
+    assertEquals(1, loaded.getBudgetCount());
+    assertEquals("Обед", loaded.getTransactions().get(0).getDescription());
+    assertEquals(-120.0, smile.loadSummary(TEST_USER).getBalance(), 0.01);
+  }
+
+  @Test
+  void testStreamedFileMatchesTreeSerialization() throws IOException {
+    Path file = Path.of("data", TEST_USER + "_wallet.json");
+    TransactionService service = new TransactionService(null);
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    Category food = new Category("Food", TransactionType.EXPENSE);
+    Wallet wallet = new Wallet(TEST_USER);
+    repository.save(wallet);
+    assertTreeSerialization(new JsonStorageManager().getObjectMapper(), file);
+
+    service.addIncome(wallet, 5000.0, salary, "Зарплата \"за март\"", "req-1");
+    wallet.setBudget(food, 3000.0);
+    wallet.addTransaction(new Transaction(12.5, food, TransactionType.EXPENSE, null));
+    repository.save(wallet);
+    assertTreeSerialization(new JsonStorageManager().getObjectMapper(), file);
+
+    new JsonWalletRepository(null, StorageCodec.JSON).save(repository.load(TEST_USER));
+    assertTreeSerialization(new JsonStorageManager(StorageCodec.JSON).getObjectMapper(), file);
+    Wallet loaded = repository.load(TEST_USER);
+    assertEquals("req-1", loaded.getTransactions().get(0).getIdempotencyKey());
+    assertEquals("", loaded.getTransactions().get(1).getDescription());
+    assertEquals(1, loaded.getBudgetCount());
+  }
+
+  private static void assertTreeSerialization(ObjectMapper objectMapper, Path file)
+      throws IOException {
+    byte[] bytes = Files.readAllBytes(file);
+    assertArrayEquals(objectMapper.writeValueAsBytes(objectMapper.readTree(bytes)), bytes);
+  }
+
+  @Test
+  void testPackedCodecRoundTripsExactly() throws IOException {
+    Path file = Path.of("data", TEST_USER + "_wallet.json");
+    Category salary = new Category("Salary", TransactionType.INCOME);
+    Category food = new Category("Еда", TransactionType.EXPENSE);
+    LocalDateTime start = LocalDateTime.of(2024, 3, 1, 12, 0);
+    Wallet wallet = new Wallet(TEST_USER);
+    for (int i = 0; i < 1000; i++) {
+      wallet.addTransaction(new Transaction(null, 10 + i % 50 * 0.25, food,
+          TransactionType.EXPENSE, start.plusMinutes(37L * i), ""));
+    }
+    wallet.addTransaction(new Transaction("legacy-1", 0.1 + 0.2, salary, TransactionType.INCOME,
+        start.minusDays(3).withNano(123_456_789), "Обед в кафе", "req-7"));
+    repository.save(wallet);
+    long prettySize = Files.size(file);
+
+    new JsonWalletRepository(null, StorageCodec.PACKED).save(repository.load(TEST_USER));
+    assertTrue(Files.size(file) * 5 < prettySize, Files.size(file) + " vs " + prettySize);
+
+    List<Transaction> expected = wallet.getTransactions();
+    List<Transaction> actual = repository.load(TEST_USER).getTransactions();
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Transaction e = expected.get(i);
+      Transaction a = actual.get(i);
+      assertEquals(e.getId(), a.getId());
+      assertEquals(e.getAmount(), a.getAmount());
+      assertEquals(e.getCategory(), a.getCategory());
+      assertEquals(e.getType(), a.getType());
+      assertEquals(e.getDate(), a.getDate());
+      assertEquals(e.getDescription(), a.getDescription());
+      assertEquals(e.getIdempotencyKey(), a.getIdempotencyKey());
+    }
+  }
 }
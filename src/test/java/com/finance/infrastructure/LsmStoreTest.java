@@ -0,0 +1,138 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.infrastructure.lsm.LsmStore;
+import com.finance.infrastructure.lsm.WriteBatch;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LsmStoreTest {
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void testPutGetOverwriteAndDeleteAcrossFlushes() throws IOException {
+    try (LsmStore store = new LsmStore(tempDir, 256, 1 << 16, 100, false)) {
+      for (int i = 0; i < 100; i++) {
+        store.put(key(i), bytes("v" + i));
+      }
+      store.put(key(7), bytes("seven"));
+      store.delete(key(8));
+
+      assertTrue(store.getSegmentCount() > 1);
+      assertEquals("v0", text(store.get(key(0))));
+      assertEquals("seven", text(store.get(key(7))));
+      assertNull(store.get(key(8)));
+      assertNull(store.get(bytes("missing")));
+    }
+  }
+
+  @Test
+  void testScanMergesMemtableAndSegmentsInKeyOrder() throws IOException {
+    try (LsmStore store = new LsmStore(tempDir, 256, 1 << 16, 100, false)) {
+      for (int i = 99; i >= 0; i--) {
+        store.put(key(i), bytes("v" + i));
+      }
+      store.write(new WriteBatch().delete(key(20)).put(key(21), bytes("new")));
+
+      List<String> keys = new ArrayList<>();
+      List<String> values = new ArrayList<>();
+      store.scan(key(10), key(30), (k, v) -> {
+        keys.add(text(k));
+        values.add(text(v));
+      });
+
+      assertEquals(19, keys.size());
+      assertEquals("k010", keys.get(0));
+      assertEquals("k029", keys.get(18));
+      assertFalse(keys.contains("k020"));
+      assertEquals("new", values.get(keys.indexOf("k021")));
+    }
+  }
+
+  @Test
+  void testCompactionMergesSegmentsAndDropsDeletions() throws IOException {
+    try (LsmStore store = new LsmStore(tempDir, 1 << 20, 1 << 16, 100, false)) {
+      for (int round = 0; round < 3; round++) {
+        for (int i = 0; i < 50; i++) {
+          store.put(key(i), bytes("r" + round));
+        }
+        store.flush();
+      }
+      store.delete(key(0));
+      store.flush();
+      assertEquals(4, store.getSegmentCount());
+
+      store.compact();
+
+      assertEquals(1, store.getSegmentCount());
+      assertNull(store.get(key(0)));
+      assertEquals("r2", text(store.get(key(49))));
+      int[] count = {0};
+      store.scan(null, null, (k, v) -> count[0]++);
+      assertEquals(49, count[0]);
+    }
+  }
+
+  @Test
+  void testBackgroundCompactionFailureIsReportedByNextWrite() throws Exception {
+    try (LsmStore store = new LsmStore(tempDir, 1 << 20, 1 << 16, 2, false)) {
+      Files.createDirectory(tempDir.resolve("seg-00000002.sst.tmp"));
+      store.put(key(0), bytes("a"));
+      store.flush();
+      store.put(key(1), bytes("b"));
+      store.flush();
+
+      IOException failure = null;
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (failure == null && System.nanoTime() < deadline) {
+        try {
+          store.put(key(2), bytes("c"));
+          Thread.sleep(10);
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+
+      assertNotNull(failure);
+      assertEquals(2, store.getSegmentCount());
+      store.put(key(3), bytes("d"));
+      assertEquals("b", text(store.get(key(1))));
+    }
+  }
+
+  @Test
+  void testReopenReplaysUnflushedWrites() throws IOException {
+    try (LsmStore store = new LsmStore(tempDir)) {
+      store.put(key(1), bytes("flushed"));
+      store.flush();
+      store.put(key(2), bytes("logged"));
+      store.delete(key(1));
+    }
+
+    try (LsmStore store = new LsmStore(tempDir)) {
+      assertNull(store.get(key(1)));
+      assertEquals("logged", text(store.get(key(2))));
+    }
+  }
+
+  private static byte[] key(int i) {
+    return bytes(String.format("k%03d", i));
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String text(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
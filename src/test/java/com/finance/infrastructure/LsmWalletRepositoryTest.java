@@ -0,0 +1,113 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.StatisticsService;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.repository.LsmWalletRepository;
+import com.finance.infrastructure.repository.MeteredWalletRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LsmWalletRepositoryTest {
+  private static final String TEST_USER = "testuser_lsm";
+  private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+  @TempDir
+  Path tempDir;
+  private LsmWalletRepository repository;
+  private final Category salary = new Category("Salary", TransactionType.INCOME);
+  private final Category food = new Category("Food", TransactionType.EXPENSE);
+
+  @BeforeEach
+  void setUp() {
+    repository = new LsmWalletRepository(tempDir);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    repository.close();
+  }
+
+  @Test
+  void testSaveAndReloadKeepsHistoryInDateOrder() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    wallet.setBudget(food, 500.0);
+    wallet.addTransaction(transaction(2, 100.0, salary, TransactionType.INCOME, "second"));
+    wallet.addTransaction(transaction(1, 30.0, food, TransactionType.EXPENSE, null));
+    repository.save(wallet);
+    repository.close();
+
+    repository = new LsmWalletRepository(tempDir);
+    Wallet loaded = repository.load(TEST_USER);
+    loaded.addTransaction(transaction(0, 20.0, food, TransactionType.EXPENSE, "first"));
+
+    List<Transaction> all = loaded.getTransactions();
+    assertEquals(3, all.size());
+    assertEquals("first", all.get(0).getDescription());
+    assertEquals("", all.get(1).getDescription());
+    assertEquals("second", all.get(2).getDescription());
+    assertEquals(all.get(0).getId(), loaded.getLastTransactionId());
+    assertEquals(50.0, loaded.getBalance(), 0.01);
+    assertEquals(50.0, loaded.getBudget(food).getSpent(), 0.01);
+  }
+
+  @Test
+  void testDescriptionsOverSixtyFourKilobytesRoundTrip() throws IOException {
+    String description = "ж".repeat(40_000);
+    Wallet wallet = repository.load(TEST_USER);
+    wallet.addTransaction(transaction(0, 10.0, food, TransactionType.EXPENSE, description));
+    repository.save(wallet);
+    new MeteredWalletRepository(repository, new MetricsRegistry()).close();
+    wallet.addTransaction(transaction(1, 5.0, food, TransactionType.EXPENSE, "after close"));
+    assertThrows(IOException.class, () -> repository.save(wallet));
+
+    repository = new LsmWalletRepository(tempDir);
+    assertEquals(description, repository.load(TEST_USER).getTransactions().get(0).getDescription());
+  }
+
+  @Test
+  void testStatisticsPeriodScansOnlyTheRange() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    for (int day = 0; day < 30; day++) {
+      wallet.addTransaction(transaction(day, 10.0, food, TransactionType.EXPENSE, "d" + day));
+    }
+    repository.save(wallet);
+
+    Wallet loaded = repository.load(TEST_USER);
+    List<Transaction> week = new StatisticsService()
+        .getTransactionsByPeriod(loaded, START.plusDays(7), START.plusDays(13));
+
+    assertEquals(7, week.size());
+    assertEquals("d7", week.get(0).getDescription());
+    assertEquals("d13", week.get(6).getDescription());
+  }
+
+  @Test
+  void testDeleteRemovesWalletAndTransactions() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    wallet.addTransaction(transaction(0, 10.0, salary, TransactionType.INCOME, ""));
+    repository.save(wallet);
+    assertTrue(repository.exists(TEST_USER));
+
+    repository.delete(TEST_USER);
+
+    assertFalse(repository.exists(TEST_USER));
+    assertEquals(0, repository.load(TEST_USER).getTransactionCount());
+    assertTrue(repository.load(TEST_USER).getTransactions().isEmpty());
+  }
+
+  private static Transaction transaction(
+      int day, double amount, Category category, TransactionType type, String description) {
+    return new Transaction(null, amount, category, type, START.plusDays(day), description);
+  }
+}
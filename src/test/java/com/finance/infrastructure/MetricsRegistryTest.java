@@ -0,0 +1,96 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.metrics.LatencyHistogram;
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import com.finance.infrastructure.repository.MeteredWalletRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetricsRegistryTest {
+  @TempDir Path tempDir;
+
+  @Test
+  void testPercentilesStayWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long v = 1; v <= 100_000; v++) {
+      histogram.record(v * 1_000);
+    }
+
+    assertEquals(100_000, histogram.getCount());
+    assertEquals(100_000_000, histogram.getMaxNanos());
+    assertEquals(50_000_500.0, histogram.getMeanNanos(), 1.0);
+    assertEquals(50_000_000, histogram.getPercentileNanos(50), 50_000_000 * 0.04);
+    assertEquals(99_000_000, histogram.getPercentileNanos(99), 99_000_000 * 0.04);
+    assertEquals(100_000_000, histogram.getPercentileNanos(100));
+
+    LatencyHistogram single = new LatencyHistogram();
+    single.record(7);
+    assertEquals(7, single.getPercentileNanos(50));
+  }
+
+  @Test
+  void testConcurrentRecordingLosesNothing() throws InterruptedException {
+    LatencyHistogram histogram = new LatencyHistogram();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int i = 0; i < 100_000; i++) {
+          histogram.record(i);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(800_000, histogram.getCount());
+    assertEquals(99_999, histogram.getMaxNanos());
+  }
+
+  @Test
+  void testSnapshotListsEveryMetricAndIsWrittenOnClose() throws IOException {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.histogram("command.login").record(2_500_000);
+    registry.counter("storage.bytes.written").add(4096);
+    registry.gauge("pagecache.hits", () -> 17);
+    Path file = tempDir.resolve("metrics.txt");
+
+    registry.startSnapshots(file, Duration.ofHours(1));
+    registry.close();
+
+    String snapshot = Files.readString(file);
+    assertTrue(snapshot.contains("command.login"));
+    assertTrue(snapshot.matches("(?s).*storage\\.bytes\\.written\\s+4096.*"));
+    assertTrue(snapshot.matches("(?s).*pagecache\\.hits\\s+17.*"));
+    assertFalse(Files.exists(tempDir.resolve("metrics.txt.tmp")));
+  }
+
+  @Test
+  void testMeteredRepositoryRecordsLatencyAndErrors() throws IOException {
+    MetricsRegistry registry = new MetricsRegistry();
+    WalletRepository delegate = mock(WalletRepository.class);
+    doThrow(new IOException("disk full")).when(delegate).save(any());
+    when(delegate.load("alice")).thenReturn(new Wallet("alice"));
+    MeteredWalletRepository repository = new MeteredWalletRepository(delegate, registry);
+
+    repository.load("alice");
+    assertThrows(IOException.class, () -> repository.save(new Wallet("alice")));
+
+    assertEquals(1, registry.histogram("repository.load").getCount());
+    assertEquals(1, registry.histogram("repository.save").getCount());
+    assertEquals(1, registry.counter("repository.save.errors").get());
+    assertEquals(0, registry.counter("repository.load.errors").get());
+  }
+}
@@ -0,0 +1,83 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.StatisticsService;
+import com.finance.infrastructure.repository.MonthlyWalletRepository;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MonthlyWalletRepositoryTest {
+  private static final String TEST_USER = "testuser_monthly";
+  private static final LocalDateTime START = LocalDateTime.of(2024, 1, 15, 9, 0);
+  private MonthlyWalletRepository repository;
+  private final Category salary = new Category("Salary", TransactionType.INCOME);
+  private final Category food = new Category("Food", TransactionType.EXPENSE);
+  private final Category travel = new Category("Travel", TransactionType.EXPENSE);
+
+  @BeforeEach
+  void setUp() {
+    repository = new MonthlyWalletRepository(16);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    repository.delete(TEST_USER);
+  }
+
+  @Test
+  void testSaveAndLoadSplitsByMonth() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    for (int month = 0; month < 6; month++) {
+      wallet.addTransaction(transaction(month, 1000.0, salary, TransactionType.INCOME));
+      wallet.addTransaction(transaction(month, 100.0, food, TransactionType.EXPENSE));
+    }
+    repository.save(wallet);
+
+    Wallet loaded = repository.load(TEST_USER);
+    loaded.addTransaction(transaction(5, 50.0, food, TransactionType.EXPENSE));
+    repository.save(loaded);
+
+    Wallet reloaded = repository.load(TEST_USER);
+    assertEquals(6, reloaded.getTransactionPages().getPageCount());
+    assertEquals(13, reloaded.getTransactionCount());
+    assertEquals(5350.0, reloaded.getBalance(), 0.01);
+    List<Transaction> all = reloaded.getTransactions();
+    assertEquals(START, all.get(0).getDate());
+    assertEquals(all.get(12).getId(), reloaded.getLastTransactionId());
+  }
+
+  @Test
+  void testStatisticsSkipMonthsByZoneMap() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    for (int month = 0; month < 12; month++) {
+      wallet.addTransaction(transaction(month, 100.0, food, TransactionType.EXPENSE));
+    }
+    wallet.addTransaction(transaction(3, 700.0, travel, TransactionType.EXPENSE));
+    repository.save(wallet);
+
+    MonthlyWalletRepository reopened = new MonthlyWalletRepository(16);
+    Wallet loaded = reopened.load(TEST_USER);
+    StatisticsService statisticsService = new StatisticsService();
+
+    assertEquals(700.0, statisticsService.getExpensesByCategories(loaded, List.of("Travel")), 0.01);
+    assertEquals(0.0, statisticsService.getIncomeByCategories(loaded, List.of("Salary")), 0.01);
+    List<Transaction> spring = statisticsService.getTransactionsByPeriod(
+        loaded, START.plusMonths(2).withDayOfMonth(1), START.plusMonths(3).withDayOfMonth(28));
+    assertEquals(3, spring.size());
+    assertEquals(2, reopened.getSegmentCache().getMissCount());
+  }
+
+  private static Transaction transaction(
+      int month, double amount, Category category, TransactionType type) {
+    return new Transaction(null, amount, category, type, START.plusMonths(month), "");
+  }
+}
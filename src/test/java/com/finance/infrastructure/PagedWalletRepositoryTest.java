@@ -0,0 +1,97 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.Category;
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.StatisticsService;
+import com.finance.infrastructure.repository.PagedWalletRepository;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PagedWalletRepositoryTest {
+  private static final String TEST_USER = "testuser_paged";
+  private PagedWalletRepository repository;
+  private final Category salary = new Category("Salary", TransactionType.INCOME);
+  private final Category food = new Category("Food", TransactionType.EXPENSE);
+
+  @BeforeEach
+  void setUp() {
+    repository = new PagedWalletRepository(3, 2);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    repository.delete(TEST_USER);
+  }
+
+  @Test
+  void testSaveAndLoadAcrossPages() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    for (int i = 0; i < 10; i++) {
+      wallet.addTransaction(new Transaction(100.0, salary, TransactionType.INCOME, "t" + i));
+    }
+    wallet.setBudget(food, 500.0);
+    repository.save(wallet);
+
+    Wallet loaded = repository.load(TEST_USER);
+
+    assertNotNull(loaded.getTransactionPages());
+    assertEquals(4, loaded.getTransactionPages().getPageCount());
+    assertEquals(10, loaded.getTransactionCount());
+    assertEquals(1000.0, loaded.getBalance(), 0.01);
+    assertEquals(1, loaded.getBudgets().size());
+
+    List<Transaction> all = loaded.getTransactions();
+    assertEquals(10, all.size());
+    assertEquals("t0", all.get(0).getDescription());
+    assertEquals("t9", all.get(9).getDescription());
+  }
+
+  @Test
+  void testAppendAfterReopenKeepsOrder() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    for (int i = 0; i < 4; i++) {
+      wallet.addTransaction(new Transaction(100.0, salary, TransactionType.INCOME, "t" + i));
+    }
+    repository.save(wallet);
+
+    Wallet reopened = repository.load(TEST_USER);
+    reopened.addTransaction(new Transaction(50.0, food, TransactionType.EXPENSE, "t4"));
+    reopened.addTransaction(new Transaction(50.0, food, TransactionType.EXPENSE, "t5"));
+    reopened.addTransaction(new Transaction(50.0, food, TransactionType.EXPENSE, "t6"));
+    repository.save(reopened);
+
+    Wallet loaded = repository.load(TEST_USER);
+    List<Transaction> all = loaded.getTransactions();
+    assertEquals(7, all.size());
+    assertEquals("t3", all.get(3).getDescription());
+    assertEquals("t6", all.get(6).getDescription());
+    assertEquals(250.0, loaded.getBalance(), 0.01);
+    assertEquals(all.get(6).getId(), loaded.getLastTransactionId());
+  }
+
+  @Test
+  void testStatisticsStreamThroughBoundedCache() throws IOException {
+    Wallet wallet = repository.load(TEST_USER);
+    for (int i = 0; i < 12; i++) {
+      Category category = i % 2 == 0 ? salary : food;
+      TransactionType type = i % 2 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+      wallet.addTransaction(new Transaction(10.0, category, type, ""));
+    }
+    repository.save(wallet);
+
+    Wallet loaded = repository.load(TEST_USER);
+    StatisticsService statisticsService = new StatisticsService();
+
+    assertEquals(60.0, statisticsService.getExpensesByCategory(loaded).get(food), 0.01);
+    assertEquals(60.0, statisticsService.getIncomeByCategories(loaded, List.of("Salary")), 0.01);
+    assertTrue(repository.getPageCache().size() <= 2);
+    assertTrue(repository.getPageCache().getMissCount() >= 4);
+  }
+}
@@ -0,0 +1,160 @@
+package com.finance.infrastructure;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.core.model.NotificationType;
+import com.finance.infrastructure.event.OverflowPolicy;
+import com.finance.infrastructure.event.RingBufferEventBus;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RingBufferEventBusTest {
+
+  @Test
+  void testEventsDeliveredInOrder() {
+    List<String> received = Collections.synchronizedList(new ArrayList<>());
+    try (RingBufferEventBus bus =
+        new RingBufferEventBus(
+            8, OverflowPolicy.BLOCK, 4, (event, endOfBatch) -> received.add(event.getSubject()))) {
+      for (int i = 0; i < 100; i++) {
+        assertTrue(bus.publish(NotificationType.BUDGET_WARNING, "c" + i, i, 0.0));
+      }
+      bus.flush();
+
+      assertEquals(100, received.size());
+      assertEquals("c0", received.get(0));
+      assertEquals("c99", received.get(99));
+      assertEquals(0, bus.getDroppedCount());
+    }
+  }
+
+  @Test
+  void testCapacityRoundedToPowerOfTwo() {
+    try (RingBufferEventBus bus =
+        new RingBufferEventBus(5, OverflowPolicy.BLOCK, 1, (event, endOfBatch) -> { })) {
+      assertEquals(8, bus.getCapacity());
+    }
+  }
+
+  @Test
+  void testDropPolicyDiscardsWhenFull() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch firstSeen = new CountDownLatch(1);
+    try (RingBufferEventBus bus =
+        new RingBufferEventBus(
+            4,
+            OverflowPolicy.DROP,
+            1,
+            (event, endOfBatch) -> {
+              firstSeen.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            })) {
+      bus.publish(NotificationType.NEGATIVE_BALANCE, null, -1.0, 0.0);
+      assertTrue(firstSeen.await(5, TimeUnit.SECONDS));
+
+      int accepted = 0;
+      for (int i = 0; i < 10; i++) {
+        if (bus.publish(NotificationType.NEGATIVE_BALANCE, null, -1.0, 0.0)) {
+          accepted++;
+        }
+      }
+
+      assertEquals(3, accepted);
+      assertEquals(7, bus.getDroppedCount());
+      release.countDown();
+      bus.flush();
+      assertEquals(0, bus.getPendingCount());
+    }
+  }
+
+  @Test
+  void testConcurrentProducers() throws InterruptedException {
+    List<Double> received = Collections.synchronizedList(new ArrayList<>());
+    try (RingBufferEventBus bus =
+        new RingBufferEventBus(
+            16,
+            OverflowPolicy.BLOCK,
+            8,
+            (event, endOfBatch) -> received.add(event.getFirst()))) {
+      List<Thread> producers = new ArrayList<>();
+      for (int p = 0; p < 4; p++) {
+        Thread producer =
+            new Thread(
+                () -> {
+                  for (int i = 0; i < 1000; i++) {
+                    bus.publish(NotificationType.BUDGET_EXCEEDED, "Food", 1.0, 0.0);
+                  }
+                });
+        producers.add(producer);
+        producer.start();
+      }
+      for (Thread producer : producers) {
+        producer.join();
+      }
+      bus.flush();
+
+      assertEquals(4000, received.size());
+    }
+  }
+
+  @Test
+  void testEveryPublishRacingCloseIsDeliveredOrDropped() throws InterruptedException {
+    for (int round = 0; round < 20; round++) {
+      AtomicInteger delivered = new AtomicInteger();
+      AtomicInteger accepted = new AtomicInteger();
+      RingBufferEventBus bus = new RingBufferEventBus(
+          64, OverflowPolicy.BLOCK, 8, (event, endOfBatch) -> delivered.incrementAndGet());
+      List<Thread> producers = new ArrayList<>();
+      for (int p = 0; p < 4; p++) {
+        Thread producer = new Thread(() -> {
+          for (int i = 0; i < 500; i++) {
+            if (bus.publish(NotificationType.BUDGET_WARNING, "Food", 1.0, 0.0)) {
+              accepted.incrementAndGet();
+            }
+          }
+        });
+        producers.add(producer);
+        producer.start();
+      }
+      bus.close();
+      for (Thread producer : producers) {
+        producer.join();
+      }
+
+      assertEquals(accepted.get(), delivered.get());
+      assertEquals(2000, accepted.get() + bus.getDroppedCount());
+    }
+  }
+
+  @Test
+  void testIdleConsumerParksUntilClosed() throws InterruptedException {
+    List<Thread> consumers = Collections.synchronizedList(new ArrayList<>());
+    RingBufferEventBus bus = new RingBufferEventBus(
+        8, OverflowPolicy.BLOCK, 4, (event, endOfBatch) -> consumers.add(Thread.currentThread()));
+
+    bus.publish(NotificationType.BUDGET_WARNING, "a", 1.0, 0.0);
+    bus.flush();
+    Thread consumer = consumers.get(0);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (consumer.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(Thread.State.WAITING, consumer.getState());
+
+    bus.publish(NotificationType.BUDGET_WARNING, "b", 1.0, 0.0);
+    bus.flush();
+    assertEquals(List.of(consumer, consumer), consumers);
+
+    bus.close();
+    assertFalse(consumer.isAlive());
+  }
+}
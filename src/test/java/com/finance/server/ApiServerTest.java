@@ -0,0 +1,156 @@
+package com.finance.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class ApiServerTest {
+  @Mock private WalletRepository walletRepository;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpClient client = HttpClient.newHttpClient();
+  private ApiServer server;
+  private URI baseUri;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    when(walletRepository.load(any())).thenAnswer(invocation -> new Wallet(invocation.getArgument(0)));
+    server = new ApiServer(walletRepository, 0);
+    server.start();
+    baseUri = URI.create("http://127.0.0.1:" + server.getPort());
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+  }
+
+  @Test
+  void testTransactionsAndStats() throws Exception {
+    String token = registerAndLogin("alice");
+
+    assertEquals(200, post("/api/income", token, "{\"amount\":1000,\"category\":\"Salary\"}").statusCode());
+    assertEquals(200, post("/api/budget", token, "{\"category\":\"Food\",\"limit\":500}").statusCode());
+    HttpResponse<String> expense =
+        post("/api/expense", token, "{\"amount\":\"200\",\"category\":\"Food\",\"description\":\"x\"}");
+    assertEquals(800.0, json(expense).get("balance").asDouble(), 0.01);
+
+    JsonNode stats = json(send("GET", "/api/stats", token, null));
+    assertEquals(800.0, stats.get("balance").asDouble(), 0.01);
+    assertEquals(2, stats.get("transactionCount").asInt());
+    assertEquals(200.0, stats.get("expensesByCategory").get("Food").asDouble(), 0.01);
+    assertEquals(300.0, stats.get("budgets").get(0).get("remaining").asDouble(), 0.01);
+
+    assertEquals(400, post("/api/expense", token, "{\"amount\":\"abc\",\"category\":\"Food\"}").statusCode());
+    assertEquals(400, post("/api/expense", token, "{not json").statusCode());
+    assertEquals(401, post("/api/expense", null, "{\"amount\":1,\"category\":\"Food\"}").statusCode());
+    assertEquals(404, send("DELETE", "/api/budget", token, "{\"category\":\"Rent\"}").statusCode());
+    assertEquals(405, send("GET", "/api/income", token, null).statusCode());
+  }
+
+  @Test
+  void testRetriedRequestWithIdempotencyKeyIsRejected() throws Exception {
+    String token = registerAndLogin("alice");
+    String body = "{\"amount\":100,\"category\":\"Salary\",\"idempotencyKey\":\"req-1\"}";
+
+    HttpResponse<String> first = post("/api/income", token, body);
+    HttpResponse<String> retry = post("/api/income", token, body);
+
+    assertEquals(200, first.statusCode());
+    assertEquals(409, retry.statusCode());
+    assertEquals(json(first).get("id").asText(), json(retry).get("id").asText());
+    assertEquals(100.0, json(send("GET", "/api/stats", token, null)).get("balance").asDouble(), 0.01);
+  }
+
+  @Test
+  void testTransferAndLogout() throws Exception {
+    String alice = registerAndLogin("alice");
+    String bob = registerAndLogin("bob");
+    post("/api/income", alice, "{\"amount\":100,\"category\":\"Salary\"}");
+
+    assertEquals(409, post("/api/transfer", alice, "{\"recipient\":\"bob\",\"amount\":500}").statusCode());
+    HttpResponse<String> transfer = post("/api/transfer", alice, "{\"recipient\":\"bob\",\"amount\":40}");
+    assertEquals(60.0, json(transfer).get("balance").asDouble(), 0.01);
+    assertEquals(40.0, json(send("GET", "/api/stats", bob, null)).get("balance").asDouble(), 0.01);
+
+    assertEquals(200, post("/api/logout", alice, "").statusCode());
+    assertEquals(401, send("GET", "/api/stats", alice, null).statusCode());
+    verify(walletRepository, atLeastOnce()).save(argThat(w -> w.getUserId().equals("alice")));
+  }
+
+  @Test
+  void testConcurrentRequestsOnOneWalletAreSerialized() throws Exception {
+    String token = registerAndLogin("carol");
+    List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < 64; i++) {
+        responses.add(
+            executor.submit(() -> post("/api/income", token, "{\"amount\":1,\"category\":\"Tips\"}")));
+      }
+    }
+    for (Future<HttpResponse<String>> response : responses) {
+      assertEquals(200, response.get().statusCode());
+    }
+
+    JsonNode stats = json(send("GET", "/api/stats", token, null));
+    assertEquals(64, stats.get("transactionCount").asInt());
+    assertEquals(64.0, stats.get("balance").asDouble(), 0.01);
+  }
+
+  @Test
+  void testLoadGeneratorReportsLatencies() throws Exception {
+    LoadGenerator.Report report = new LoadGenerator(baseUri, 2, 4, 20).run();
+
+    assertEquals(80, report.getRequestCount());
+    assertEquals(0, report.getFailureCount());
+    assertTrue(report.getThroughput() > 0);
+    assertTrue(report.getLatencyMicros(99) >= report.getLatencyMicros(50));
+    assertTrue(report.toString().contains("p99="));
+  }
+
+  private String registerAndLogin(String username) throws Exception {
+    String credentials = "{\"username\":\"" + username + "\",\"password\":\"secret123\"}";
+    assertEquals(200, post("/api/register", null, credentials).statusCode());
+    return json(post("/api/login", null, credentials)).get("token").asText();
+  }
+
+  private HttpResponse<String> post(String path, String token, String body) throws Exception {
+    return send("POST", path, token, body);
+  }
+
+  private HttpResponse<String> send(String method, String path, String token, String body)
+      throws Exception {
+    HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path));
+    if (token != null) {
+      request.header("Authorization", "Bearer " + token);
+    }
+    request.method(
+        method,
+        body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+    return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private JsonNode json(HttpResponse<String> response) throws IOException {
+    return objectMapper.readTree(response.body());
+  }
+}
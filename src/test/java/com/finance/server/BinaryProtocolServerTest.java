@@ -0,0 +1,117 @@
+package com.finance.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class BinaryProtocolServerTest {
+  @Mock private WalletRepository walletRepository;
+  private ServerContext context;
+  private BinaryProtocolServer server;
+  private InetSocketAddress address;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    when(walletRepository.load(any())).thenAnswer(invocation -> new Wallet(invocation.getArgument(0)));
+    context = new ServerContext(walletRepository);
+    server = new BinaryProtocolServer(context, 0, 2);
+    server.start();
+    address = new InetSocketAddress("127.0.0.1", server.getPort());
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+    context.close();
+  }
+
+  @Test
+  void testPipelinedRequestsAnswerInOrder() throws IOException {
+    try (BinaryClient client = new BinaryClient(address)) {
+      login(client, "alice");
+
+      int first = client.addIncome(100.0, "Salary", "pay");
+      for (int i = 0; i < 2000; i++) {
+        client.addExpense(0.01, "Food", "");
+      }
+      int last = client.balance();
+      client.flush();
+
+      assertEquals(first, client.read().getRequestId());
+      for (int i = 0; i < 2000; i++) {
+        BinaryClient.Response response = client.read();
+        assertTrue(response.isOk());
+        assertEquals(first + 1 + i, response.getRequestId());
+      }
+      BinaryClient.Response balance = client.read();
+      assertEquals(last, balance.getRequestId());
+      assertEquals(80.0, balance.getBalance(), 0.001);
+    }
+  }
+
+  @Test
+  void testErrorsMapToStatusCodes() throws IOException {
+    try (BinaryClient alice = new BinaryClient(address);
+        BinaryClient bob = new BinaryClient(address)) {
+      assertEquals(
+          BinaryProtocol.STATUS_UNAUTHORIZED, alice.await(alice.balance()).getStatus());
+
+      login(alice, "alice");
+      login(bob, "bob");
+      alice.await(alice.addIncome(50.0, "Salary", ""));
+
+      BinaryClient.Response negative = alice.await(alice.addExpense(-5.0, "Food", ""));
+      assertEquals(BinaryProtocol.STATUS_BAD_REQUEST, negative.getStatus());
+      assertNotNull(negative.getMessage());
+      assertEquals(
+          BinaryProtocol.STATUS_INSUFFICIENT_FUNDS,
+          alice.await(alice.transfer("bob", 500.0, "")).getStatus());
+
+      BinaryClient.Response transfer = alice.await(alice.transfer("bob", 20.0, "lunch"));
+      assertTrue(transfer.isOk());
+      assertEquals(30.0, transfer.getBalance(), 0.001);
+      assertEquals(20.0, bob.await(bob.balance()).getBalance(), 0.001);
+    }
+  }
+
+  @Test
+  void testClosingConnectionEndsSessionAndSavesWallet() throws IOException {
+    try (BinaryClient client = new BinaryClient(address)) {
+      login(client, "carol");
+      client.await(client.addIncome(10.0, "Salary", ""));
+    }
+
+    verify(walletRepository, timeout(5000))
+        .save(argThat(w -> w.getUserId().equals("carol") && w.getBalance() == 10.0));
+  }
+
+  @Test
+  void testDisconnectDuringLoginEndsSession() throws IOException {
+    try (BinaryClient client = new BinaryClient(address)) {
+      assertTrue(client.await(client.register("dave", "secret123")).isOk());
+    }
+    try (BinaryClient client = new BinaryClient(address)) {
+      client.login("dave", "secret123");
+      client.flush();
+    }
+
+    verify(walletRepository, timeout(5000)).save(argThat(w -> w.getUserId().equals("dave")));
+    assertEquals(0, context.getSessionManager().getActiveSessionCount());
+  }
+
+  private void login(BinaryClient client, String username) throws IOException {
+    assertTrue(client.await(client.register(username, "secret123")).isOk());
+    assertTrue(client.await(client.login(username, "secret123")).isOk());
+  }
+}
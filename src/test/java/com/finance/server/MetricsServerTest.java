@@ -0,0 +1,68 @@
+package com.finance.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finance.infrastructure.metrics.MetricsRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MetricsServerTest {
+  private final HttpClient client = HttpClient.newHttpClient();
+  private MetricsRegistry registry;
+  private MetricsServer server;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    registry = new MetricsRegistry();
+    server = new MetricsServer(registry, 0);
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+  }
+
+  @Test
+  void testScrapeRendersRegistryAndJvmMetrics() throws Exception {
+    registry.histogram("command.add-income").record(2_000_000);
+    registry.counter("command.add-income.errors").add(3);
+    registry.gauge("sessions.active", () -> 5);
+    registry.gauge("walletcache.hits", () -> 3);
+    registry.gauge("walletcache.misses", () -> 1);
+
+    HttpResponse<String> response = send("GET");
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+    String body = response.body();
+    assertTrue(body.contains("# TYPE finance_command_latency_seconds summary\n"));
+    assertTrue(body.contains("finance_command_latency_seconds_count{name=\"add-income\"} 1\n"));
+    assertTrue(body.contains("finance_command_latency_seconds{name=\"add-income\",quantile=\"0.99\"} 0.00"));
+    assertTrue(body.contains("finance_command_add_income_errors_total 3\n"));
+    assertTrue(body.contains("finance_sessions_active 5\n"));
+    assertTrue(body.contains("finance_walletcache_hit_ratio 0.75\n"));
+    assertTrue(body.contains("jvm_memory_bytes_used{area=\"heap\"} "));
+    assertTrue(body.contains("jvm_threads_current "));
+    assertTrue(body.contains("jvm_gc_collection_seconds_count{gc=\""));
+  }
+
+  @Test
+  void testRejectsOtherMethods() throws Exception {
+    assertEquals(405, send("POST").statusCode());
+  }
+
+  private HttpResponse<String> send(String method) throws Exception {
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/metrics"))
+            .method(method, HttpRequest.BodyPublishers.noBody())
+            .build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -0,0 +1,79 @@
+package com.finance.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.finance.core.model.Wallet;
+import com.finance.infrastructure.repository.InMemoryUserRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import com.finance.workload.WorkloadGenerator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class WorkloadDriverTest {
+  private static final int USERS = 12;
+  @Mock private WalletRepository walletRepository;
+  private final Map<String, Wallet> wallets = new ConcurrentHashMap<>();
+  private final InMemoryUserRepository userRepository = new InMemoryUserRepository();
+  private final List<String> usernames = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    doAnswer(invocation -> {
+      Wallet wallet = invocation.getArgument(0);
+      wallets.put(wallet.getUserId(), wallet);
+      return null;
+    }).when(walletRepository).save(any());
+    when(walletRepository.load(any())).thenAnswer(invocation -> wallets.get(invocation.getArgument(0)));
+
+    new WorkloadGenerator(5L, USERS, 10, 200).generate(walletRepository, userRepository);
+    for (int i = 0; i < USERS; i++) {
+      usernames.add(WorkloadGenerator.username(i));
+    }
+    clearInvocations(walletRepository);
+  }
+
+  @Test
+  void testRunReportsEveryOperation() throws Exception {
+    WorkloadDriver.Report report;
+    try (ServerContext context = new ServerContext(userRepository, walletRepository)) {
+      report =
+          new WorkloadDriver(context, usernames, WorkloadGenerator.PASSWORD, 16, 300, 9L).run();
+    }
+
+    assertEquals(16 * 302, report.getOperationCount());
+    assertEquals(16, report.getOperationCount(WorkloadDriver.Command.LOGIN));
+    assertEquals(16, report.getOperationCount(WorkloadDriver.Command.LOGOUT));
+    int traffic = 0;
+    for (WorkloadDriver.Command command : WorkloadDriver.Command.values()) {
+      traffic += report.getOperationCount(command);
+    }
+    assertEquals(report.getOperationCount(), traffic);
+    assertTrue(report.getOperationCount(WorkloadDriver.Command.EXPENSE) > 0);
+    assertTrue(report.getFailureCount() < report.getOperationCount() / 10);
+    assertTrue(report.getThroughput() > 0);
+    assertTrue(report.getLatencyMicros(99) >= report.getLatencyMicros(50));
+    assertTrue(report.getPeakHeapBytes() > 0);
+    verify(walletRepository, atLeast(USERS)).save(any());
+  }
+
+  @Test
+  void testCommandMixFollowsWeights() {
+    int[] counts = new int[WorkloadDriver.Command.values().length];
+    for (int percent = 0; percent < 100; percent++) {
+      counts[WorkloadDriver.Command.pick(percent).ordinal()]++;
+    }
+    assertEquals(0, counts[WorkloadDriver.Command.LOGIN.ordinal()]);
+    assertEquals(35, counts[WorkloadDriver.Command.EXPENSE.ordinal()]);
+    assertEquals(10, counts[WorkloadDriver.Command.TRANSFER.ordinal()]);
+  }
+}
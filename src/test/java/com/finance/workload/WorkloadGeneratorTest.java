@@ -0,0 +1,124 @@
+package com.finance.workload;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.finance.core.model.Transaction;
+import com.finance.core.model.TransactionType;
+import com.finance.core.model.User;
+import com.finance.core.model.Wallet;
+import com.finance.core.service.TransferService;
+import com.finance.infrastructure.repository.InMemoryUserRepository;
+import com.finance.infrastructure.repository.WalletRepository;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class WorkloadGeneratorTest {
+  @Mock private WalletRepository walletRepository;
+  private final Map<String, Wallet> saved = new TreeMap<>();
+
+  @BeforeEach
+  void setUp() throws IOException {
+    MockitoAnnotations.openMocks(this);
+    doAnswer(invocation -> {
+      Wallet wallet = invocation.getArgument(0);
+      saved.put(wallet.getUserId(), wallet);
+      return null;
+    }).when(walletRepository).save(any());
+  }
+
+  @Test
+  void testSameSeedProducesSameWallets() {
+    WorkloadGenerator generator = new WorkloadGenerator(7L, 20, 10, 500);
+    List<List<WorkloadGenerator.Transfer>> transfers = generator.planTransfers();
+    Wallet first = generator.generateWallet(3, transfers.get(3));
+    Wallet second =
+        new WorkloadGenerator(7L, 20, 10, 500).generateWallet(3, transfers.get(3));
+    Wallet other = new WorkloadGenerator(8L, 20, 10, 500).generateWallet(3, List.of());
+
+    assertEquals(ids(first), ids(second));
+    assertEquals(first.getBalance(), second.getBalance());
+    assertEquals(first.getBudgets(), second.getBudgets());
+    assertNotEquals(ids(first), ids(other));
+  }
+
+  @Test
+  void testTransactionCountsFollowPowerLaw() throws IOException {
+    WorkloadGenerator.Summary summary =
+        new WorkloadGenerator(42L, 400, 20, 20_000).generate(walletRepository, null);
+
+    List<Integer> counts = new ArrayList<>();
+    saved.values().forEach(w -> counts.add(w.getTransactionCount()));
+    counts.sort(null);
+    assertEquals(400, counts.size());
+    assertTrue(counts.get(0) >= 20 + 12);
+    assertTrue(counts.get(counts.size() - 1) > 10 * counts.get(counts.size() / 2));
+    assertEquals(400, summary.getUserCount());
+    assertEquals(counts.stream().mapToLong(Integer::longValue).sum(), summary.getTransactionCount());
+    assertTrue(summary.getBudgetCount() > 0);
+  }
+
+  @Test
+  void testTransfersAppearOnBothSidesAndUsersCanLogIn() throws IOException {
+    InMemoryUserRepository users = new InMemoryUserRepository();
+    WorkloadGenerator.Summary summary =
+        new WorkloadGenerator(1L, 50, 5, 100).generate(walletRepository, users);
+
+    double sent = 0;
+    double received = 0;
+    long outgoing = 0;
+    for (Wallet wallet : saved.values()) {
+      for (Transaction t : wallet.getTransactions()) {
+        if (t.getCategory().getName().equals(TransferService.TRANSFER_CATEGORY)) {
+          if (t.getType() == TransactionType.EXPENSE) {
+            sent += t.getAmount();
+            outgoing++;
+          } else {
+            received += t.getAmount();
+          }
+        }
+      }
+    }
+    assertTrue(outgoing > 0);
+    assertEquals(summary.getTransferCount(), outgoing);
+    assertEquals(sent, received, 0.001);
+
+    User user = users.findByUsername(WorkloadGenerator.username(7)).orElseThrow();
+    assertTrue(user.authenticate(WorkloadGenerator.PASSWORD));
+    assertSame(saved.get(user.getUsername()), user.getWallet());
+  }
+
+  @Test
+  void testCategoryMixFollowsSeason() throws IOException {
+    new WorkloadGenerator(3L, 100, 200, 2000).generate(walletRepository, null);
+
+    int[] gifts = new int[12];
+    int[] all = new int[12];
+    for (Wallet wallet : saved.values()) {
+      for (Transaction t : wallet.getTransactionsByType(TransactionType.EXPENSE)) {
+        int month = t.getDate().getMonthValue() - 1;
+        all[month]++;
+        if (t.getCategory().getName().equals("Подарки")) {
+          gifts[month]++;
+        }
+      }
+    }
+    double december = (double) gifts[11] / all[11];
+    double july = (double) gifts[6] / all[6];
+    assertTrue(december > 3 * july, "December gift share " + december + " vs July " + july);
+  }
+
+  private static List<String> ids(Wallet wallet) {
+    List<String> ids = new ArrayList<>();
+    wallet.forEachTransaction(t -> ids.add(t.getId()));
+    return ids;
+  }
+}